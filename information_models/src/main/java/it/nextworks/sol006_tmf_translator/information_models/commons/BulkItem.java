@@ -0,0 +1,35 @@
+package it.nextworks.sol006_tmf_translator.information_models.commons;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import it.nextworks.sol006_tmf_translator.information_models.commons.enums.Kind;
+
+import java.util.Collections;
+import java.util.Map;
+
+public class BulkItem {
+
+    @JsonProperty("kind")
+    private Kind kind;
+
+    @JsonProperty("id")
+    private String id;
+
+    @JsonProperty("parameters")
+    private Map<String, String> parameters;
+
+    @JsonCreator
+    public BulkItem(@JsonProperty("kind") Kind kind,
+                    @JsonProperty("id") String id,
+                    @JsonProperty("parameters") Map<String, String> parameters) {
+        this.kind       = kind;
+        this.id         = id;
+        this.parameters = parameters == null ? Collections.emptyMap() : parameters;
+    }
+
+    public Kind getKind() { return kind; }
+
+    public String getId() { return id; }
+
+    public Map<String, String> getParameters() { return parameters; }
+}
@@ -0,0 +1,6 @@
+package it.nextworks.sol006_tmf_translator.information_models.commons.enums;
+
+public enum Lane {
+    INTERACTIVE,
+    BULK
+}
@@ -0,0 +1,8 @@
+package it.nextworks.sol006_tmf_translator.information_models.commons.enums;
+
+public enum OutboxState {
+    PENDING,
+    PUBLISHED,
+    SUPERSEDED,
+    FAILED
+}
@@ -0,0 +1,10 @@
+package it.nextworks.sol006_tmf_translator.information_models.commons.enums;
+
+public enum PresenceStatus {
+    PRESENT,
+    NOT_TRANSLATED,
+    MISSING,
+    MISMATCH,
+    UNREACHABLE,
+    UNKNOWN_KIND
+}
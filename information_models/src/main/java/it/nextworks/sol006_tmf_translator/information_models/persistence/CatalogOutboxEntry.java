@@ -0,0 +1,208 @@
+package it.nextworks.sol006_tmf_translator.information_models.persistence;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import it.nextworks.sol006_tmf_translator.information_models.commons.enums.Kind;
+import it.nextworks.sol006_tmf_translator.information_models.commons.enums.OutboxState;
+
+import javax.persistence.*;
+import java.util.Objects;
+
+@Entity
+@Table(name = "catalog_outbox", indexes = {
+        @Index(columnList = "state, next_attempt_at"),
+        @Index(columnList = "descriptor_id")
+})
+public class CatalogOutboxEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @JsonProperty("id")
+    @Column(name = "id")
+    private Long id;
+
+    @JsonProperty("descriptorId")
+    @Column(name = "descriptor_id")
+    private String descriptorId;
+
+    @JsonProperty("kind")
+    @Enumerated(EnumType.STRING)
+    @Column(name = "kind")
+    private Kind kind;
+
+    @JsonProperty("contentDigest")
+    @Column(name = "content_digest")
+    private String contentDigest;
+
+    @JsonProperty("candidateName")
+    @Column(name = "candidate_name")
+    private String candidateName;
+
+    @JsonProperty("specificationPath")
+    @Column(name = "specification_path")
+    private String specificationPath;
+
+    @JsonIgnore
+    @Column(name = "specification_payload", columnDefinition = "TEXT")
+    private String specificationPayload;
+
+    @JsonProperty("candidatePath")
+    @Column(name = "candidate_path")
+    private String candidatePath;
+
+    // The summary the engine computed with the specification, recorded in the mapping info once published.
+    // Null for kinds without resource requirements.
+    @JsonProperty("requirements")
+    @Embedded
+    private RequirementSummary requirements;
+
+    // The specification as posted, so that a retry posts only the candidate.
+    @JsonProperty("specificationCatalogId")
+    @Column(name = "specification_catalog_id")
+    private String specificationCatalogId;
+
+    @JsonIgnore
+    @Column(name = "specification_response", columnDefinition = "TEXT")
+    private String specificationResponse;
+
+    @JsonProperty("state")
+    @Enumerated(EnumType.STRING)
+    @Column(name = "state")
+    private OutboxState state;
+
+    @JsonProperty("attempts")
+    @Column(name = "attempts")
+    private int attempts;
+
+    @JsonProperty("nextAttemptAt")
+    @Column(name = "next_attempt_at")
+    private Long nextAttemptAt;
+
+    @JsonProperty("lastError")
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    @JsonProperty("createdAt")
+    @Column(name = "created_at")
+    private Long createdAt;
+
+    @JsonProperty("publishedAt")
+    @Column(name = "published_at")
+    private Long publishedAt;
+
+    public CatalogOutboxEntry(String descriptorId, Kind kind, String contentDigest, String candidateName,
+                              String specificationPath, String specificationPayload, RequirementSummary requirements,
+                              String candidatePath) {
+        this.descriptorId = descriptorId;
+        this.kind = kind;
+        this.contentDigest = contentDigest;
+        this.candidateName = candidateName;
+        this.specificationPath = specificationPath;
+        this.specificationPayload = specificationPayload;
+        this.requirements = requirements;
+        this.candidatePath = candidatePath;
+        this.state = OutboxState.PENDING;
+        this.createdAt = System.currentTimeMillis();
+        this.nextAttemptAt = this.createdAt;
+    }
+
+    public CatalogOutboxEntry() {}
+
+    public Long getId() { return id; }
+
+    public void setId(Long id) { this.id = id; }
+
+    public String getDescriptorId() { return descriptorId; }
+
+    public void setDescriptorId(String descriptorId) { this.descriptorId = descriptorId; }
+
+    public Kind getKind() { return kind; }
+
+    public void setKind(Kind kind) { this.kind = kind; }
+
+    public String getContentDigest() { return contentDigest; }
+
+    public void setContentDigest(String contentDigest) { this.contentDigest = contentDigest; }
+
+    public String getCandidateName() { return candidateName; }
+
+    public void setCandidateName(String candidateName) { this.candidateName = candidateName; }
+
+    public String getSpecificationPath() { return specificationPath; }
+
+    public void setSpecificationPath(String specificationPath) { this.specificationPath = specificationPath; }
+
+    public String getSpecificationPayload() { return specificationPayload; }
+
+    public void setSpecificationPayload(String specificationPayload) { this.specificationPayload = specificationPayload; }
+
+    public RequirementSummary getRequirements() { return requirements; }
+
+    public void setRequirements(RequirementSummary requirements) { this.requirements = requirements; }
+
+    public String getCandidatePath() { return candidatePath; }
+
+    public void setCandidatePath(String candidatePath) { this.candidatePath = candidatePath; }
+
+    public String getSpecificationCatalogId() { return specificationCatalogId; }
+
+    public void setSpecificationCatalogId(String specificationCatalogId) {
+        this.specificationCatalogId = specificationCatalogId;
+    }
+
+    public String getSpecificationResponse() { return specificationResponse; }
+
+    public void setSpecificationResponse(String specificationResponse) {
+        this.specificationResponse = specificationResponse;
+    }
+
+    public OutboxState getState() { return state; }
+
+    public void setState(OutboxState state) { this.state = state; }
+
+    public int getAttempts() { return attempts; }
+
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+
+    public Long getNextAttemptAt() { return nextAttemptAt; }
+
+    public void setNextAttemptAt(Long nextAttemptAt) { this.nextAttemptAt = nextAttemptAt; }
+
+    public String getLastError() { return lastError; }
+
+    public void setLastError(String lastError) { this.lastError = lastError; }
+
+    public Long getCreatedAt() { return createdAt; }
+
+    public void setCreatedAt(Long createdAt) { this.createdAt = createdAt; }
+
+    public Long getPublishedAt() { return publishedAt; }
+
+    public void setPublishedAt(Long publishedAt) { this.publishedAt = publishedAt; }
+
+    @Override
+    public boolean equals(java.lang.Object o) {
+        if(this == o)
+            return true;
+
+        if(o == null || getClass() != o.getClass())
+            return false;
+
+        CatalogOutboxEntry catalogOutboxEntry = (CatalogOutboxEntry) o;
+        return Objects.equals(this.id, catalogOutboxEntry.id);
+    }
+
+    @Override
+    public int hashCode() { return Objects.hash(id); }
+
+    @Override
+    public String toString() {
+        return "class CatalogOutboxEntry {\n" +
+                "    id: " + id + "\n" +
+                "    descriptorId: " + descriptorId + "\n" +
+                "    kind: " + kind + "\n" +
+                "    state: " + state + "\n" +
+                "    attempts: " + attempts + "\n" +
+                "}";
+    }
+}
@@ -0,0 +1,62 @@
+package it.nextworks.sol006_tmf_translator.information_models.persistence;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import javax.persistence.*;
+import java.util.Objects;
+
+@Entity
+@Table(name = "descriptor_lock")
+public class DescriptorLock {
+
+    @Id
+    @JsonProperty("descriptorId")
+    @Column(name = "descriptor_id")
+    private String descriptorId;
+
+    @JsonProperty("owner")
+    @Column(name = "owner")
+    private String owner;
+
+    @JsonProperty("expiresAt")
+    @Column(name = "expires_at")
+    private Long expiresAt;
+
+    public DescriptorLock() {}
+
+    public String getDescriptorId() { return descriptorId; }
+
+    public void setDescriptorId(String descriptorId) { this.descriptorId = descriptorId; }
+
+    public String getOwner() { return owner; }
+
+    public void setOwner(String owner) { this.owner = owner; }
+
+    public Long getExpiresAt() { return expiresAt; }
+
+    public void setExpiresAt(Long expiresAt) { this.expiresAt = expiresAt; }
+
+    @Override
+    public boolean equals(java.lang.Object o) {
+        if(this == o)
+            return true;
+
+        if(o == null || getClass() != o.getClass())
+            return false;
+
+        DescriptorLock descriptorLock = (DescriptorLock) o;
+        return Objects.equals(this.descriptorId, descriptorLock.descriptorId);
+    }
+
+    @Override
+    public int hashCode() { return Objects.hash(descriptorId); }
+
+    @Override
+    public String toString() {
+        return "class DescriptorLock {\n" +
+                "    descriptorId: " + descriptorId + "\n" +
+                "    owner: " + owner + "\n" +
+                "    expiresAt: " + expiresAt + "\n" +
+                "}";
+    }
+}
@@ -1,10 +1,16 @@
 package it.nextworks.sol006_tmf_translator.information_models.persistence;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import it.nextworks.sol006_tmf_translator.information_models.commons.enums.Kind;
+import it.nextworks.sol006_tmf_translator.information_models.commons.enums.PresenceStatus;
 
 import javax.persistence.Column;
+import javax.persistence.Embedded;
 import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
 import javax.persistence.Id;
 import javax.persistence.Table;
 import java.util.Objects;
@@ -26,13 +32,53 @@ public class MappingInfo {
     @Column(name = "specification_catalog_id")
     private String specificationCatalogId;
 
+    @JsonProperty("kind")
+    @Enumerated(EnumType.STRING)
+    @Column(name = "kind")
+    private Kind kind;
+
+    @JsonProperty("contentDigest")
+    @Column(name = "content_digest")
+    private String contentDigest;
+
+    // Catalog objects as posted, returned as they are while the content digest is unchanged.
+    @JsonIgnore
+    @Column(name = "candidate_snapshot", columnDefinition = "TEXT")
+    private String candidateSnapshot;
+
+    @JsonIgnore
+    @Column(name = "specification_snapshot", columnDefinition = "TEXT")
+    private String specificationSnapshot;
+
+    // Outcome of the last check of the catalog objects, by the reconciler or by a translation.
+    @JsonProperty("lastVerifiedAt")
+    @Column(name = "last_verified_at")
+    private Long lastVerifiedAt;
+
+    @JsonProperty("verificationStatus")
+    @Enumerated(EnumType.STRING)
+    @Column(name = "verification_status")
+    private PresenceStatus verificationStatus;
+
+    // Consecutive checks that found the catalog objects missing or not coupled.
+    @JsonProperty("driftCount")
+    @Column(name = "drift_count")
+    private Integer driftCount;
+
+    // Null for kinds without resource requirements and for entries saved before summaries were recorded.
+    @JsonProperty("requirements")
+    @Embedded
+    private RequirementSummary requirements;
+
     @JsonCreator
     public MappingInfo(@JsonProperty("descriptorId") String descriptorId,
                        @JsonProperty("candidateCatalogId") String candidateCatalogId,
-                       @JsonProperty("specificationCatalogId") String specificationCatalogId) {
+                       @JsonProperty("specificationCatalogId") String specificationCatalogId,
+                       @JsonProperty("kind") Kind kind) {
         this.descriptorId = descriptorId;
         this.candidateCatalogId = candidateCatalogId;
         this.specificationCatalogId = specificationCatalogId;
+        this.kind = kind;
     }
 
     public MappingInfo() {}
@@ -68,6 +114,80 @@ public class MappingInfo {
 
     public String getSpecificationCatalogId() { return specificationCatalogId; }
 
+    public MappingInfo kind(Kind kind) {
+        this.kind = kind;
+        return this;
+    }
+
+    public void setKind(Kind kind) { this.kind = kind; }
+
+    public Kind getKind() { return kind; }
+
+    public MappingInfo contentDigest(String contentDigest) {
+        this.contentDigest = contentDigest;
+        return this;
+    }
+
+    public void setContentDigest(String contentDigest) { this.contentDigest = contentDigest; }
+
+    public String getContentDigest() { return contentDigest; }
+
+    public MappingInfo candidateSnapshot(String candidateSnapshot) {
+        this.candidateSnapshot = candidateSnapshot;
+        return this;
+    }
+
+    public void setCandidateSnapshot(String candidateSnapshot) { this.candidateSnapshot = candidateSnapshot; }
+
+    public String getCandidateSnapshot() { return candidateSnapshot; }
+
+    public MappingInfo specificationSnapshot(String specificationSnapshot) {
+        this.specificationSnapshot = specificationSnapshot;
+        return this;
+    }
+
+    public void setSpecificationSnapshot(String specificationSnapshot) {
+        this.specificationSnapshot = specificationSnapshot;
+    }
+
+    public String getSpecificationSnapshot() { return specificationSnapshot; }
+
+    public MappingInfo lastVerifiedAt(Long lastVerifiedAt) {
+        this.lastVerifiedAt = lastVerifiedAt;
+        return this;
+    }
+
+    public void setLastVerifiedAt(Long lastVerifiedAt) { this.lastVerifiedAt = lastVerifiedAt; }
+
+    public Long getLastVerifiedAt() { return lastVerifiedAt; }
+
+    public MappingInfo verificationStatus(PresenceStatus verificationStatus) {
+        this.verificationStatus = verificationStatus;
+        return this;
+    }
+
+    public void setVerificationStatus(PresenceStatus verificationStatus) { this.verificationStatus = verificationStatus; }
+
+    public PresenceStatus getVerificationStatus() { return verificationStatus; }
+
+    public MappingInfo driftCount(Integer driftCount) {
+        this.driftCount = driftCount;
+        return this;
+    }
+
+    public void setDriftCount(Integer driftCount) { this.driftCount = driftCount; }
+
+    public Integer getDriftCount() { return driftCount; }
+
+    public MappingInfo requirements(RequirementSummary requirements) {
+        this.requirements = requirements;
+        return this;
+    }
+
+    public void setRequirements(RequirementSummary requirements) { this.requirements = requirements; }
+
+    public RequirementSummary getRequirements() { return requirements; }
+
     @Override
     public boolean equals(java.lang.Object o) {
         if(this == o)
@@ -79,12 +199,14 @@ public class MappingInfo {
         MappingInfo mappingInfo = (MappingInfo) o;
         return Objects.equals(this.descriptorId, mappingInfo.descriptorId) &&
                 Objects.equals(this.candidateCatalogId, mappingInfo.candidateCatalogId) &&
-                Objects.equals(this.specificationCatalogId, mappingInfo.specificationCatalogId);
+                Objects.equals(this.specificationCatalogId, mappingInfo.specificationCatalogId) &&
+                Objects.equals(this.kind, mappingInfo.kind) &&
+                Objects.equals(this.contentDigest, mappingInfo.contentDigest);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(descriptorId, candidateCatalogId, specificationCatalogId);
+        return Objects.hash(descriptorId, candidateCatalogId, specificationCatalogId, kind, contentDigest);
     }
 
     @Override
@@ -96,6 +218,12 @@ public class MappingInfo {
         sb.append("    candidateCatalogId: ").append(toIndentedString(candidateCatalogId)).append("\n");
         sb.append("    specificationCatalogId: ").append(toIndentedString(specificationCatalogId))
                 .append("\n");
+        sb.append("    kind: ").append(toIndentedString(kind)).append("\n");
+        sb.append("    contentDigest: ").append(toIndentedString(contentDigest)).append("\n");
+        sb.append("    lastVerifiedAt: ").append(toIndentedString(lastVerifiedAt)).append("\n");
+        sb.append("    verificationStatus: ").append(toIndentedString(verificationStatus)).append("\n");
+        sb.append("    driftCount: ").append(toIndentedString(driftCount)).append("\n");
+        sb.append("    requirements: ").append(toIndentedString(requirements)).append("\n");
 
         sb.append("}");
 
@@ -0,0 +1,112 @@
+package it.nextworks.sol006_tmf_translator.information_models.persistence;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+import java.util.Objects;
+
+// Lower and upper bounds of the vCPU, virtual memory (GB) and storage (GB) needed by a translated VNF or NS,
+// the same values of its "vCPU Requirements", "Virtual Memory Requirements" and "Storage Requirements"
+// characteristics. Columns are boxed so that entries saved before summaries were recorded load as null; the
+// getters and plus are only meant for complete summaries.
+@Embeddable
+public class RequirementSummary {
+
+    @JsonProperty("minCpu")
+    @Column(name = "min_cpu")
+    private Integer minCpu;
+
+    @JsonProperty("maxCpu")
+    @Column(name = "max_cpu")
+    private Integer maxCpu;
+
+    @JsonProperty("minMemory")
+    @Column(name = "min_memory")
+    private Double minMemory;
+
+    @JsonProperty("maxMemory")
+    @Column(name = "max_memory")
+    private Double maxMemory;
+
+    @JsonProperty("minStorage")
+    @Column(name = "min_storage")
+    private Integer minStorage;
+
+    @JsonProperty("maxStorage")
+    @Column(name = "max_storage")
+    private Integer maxStorage;
+
+    @JsonCreator
+    public RequirementSummary(@JsonProperty("minCpu") int minCpu,
+                              @JsonProperty("maxCpu") int maxCpu,
+                              @JsonProperty("minMemory") double minMemory,
+                              @JsonProperty("maxMemory") double maxMemory,
+                              @JsonProperty("minStorage") int minStorage,
+                              @JsonProperty("maxStorage") int maxStorage) {
+        this.minCpu = minCpu;
+        this.maxCpu = maxCpu;
+        this.minMemory = minMemory;
+        this.maxMemory = maxMemory;
+        this.minStorage = minStorage;
+        this.maxStorage = maxStorage;
+    }
+
+    public RequirementSummary() {}
+
+    // False for summaries loaded from rows where some of the columns are null.
+    @JsonIgnore
+    public boolean isComplete() {
+        return minCpu != null && maxCpu != null && minMemory != null && maxMemory != null &&
+                minStorage != null && maxStorage != null;
+    }
+
+    public int getMinCpu() { return minCpu; }
+
+    public int getMaxCpu() { return maxCpu; }
+
+    public double getMinMemory() { return minMemory; }
+
+    public double getMaxMemory() { return maxMemory; }
+
+    public int getMinStorage() { return minStorage; }
+
+    public int getMaxStorage() { return maxStorage; }
+
+    // Requirements of two constituents deployed side by side.
+    public RequirementSummary plus(RequirementSummary other) {
+        return new RequirementSummary(minCpu + other.minCpu, maxCpu + other.maxCpu,
+                minMemory + other.minMemory, maxMemory + other.maxMemory,
+                minStorage + other.minStorage, maxStorage + other.maxStorage);
+    }
+
+    @Override
+    public boolean equals(java.lang.Object o) {
+        if(this == o)
+            return true;
+
+        if(o == null || getClass() != o.getClass())
+            return false;
+
+        RequirementSummary requirementSummary = (RequirementSummary) o;
+        return Objects.equals(this.minCpu, requirementSummary.minCpu) &&
+                Objects.equals(this.maxCpu, requirementSummary.maxCpu) &&
+                Objects.equals(this.minMemory, requirementSummary.minMemory) &&
+                Objects.equals(this.maxMemory, requirementSummary.maxMemory) &&
+                Objects.equals(this.minStorage, requirementSummary.minStorage) &&
+                Objects.equals(this.maxStorage, requirementSummary.maxStorage);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(minCpu, maxCpu, minMemory, maxMemory, minStorage, maxStorage);
+    }
+
+    @Override
+    public String toString() {
+        return "vCPU " + minCpu + "-" + maxCpu + ", memory " + minMemory + "-" + maxMemory + " GB, storage " +
+                minStorage + "-" + maxStorage + " GB";
+    }
+}
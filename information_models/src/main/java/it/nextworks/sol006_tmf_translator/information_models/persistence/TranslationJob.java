@@ -0,0 +1,162 @@
+package it.nextworks.sol006_tmf_translator.information_models.persistence;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import it.nextworks.sol006_tmf_translator.information_models.commons.enums.JobState;
+import it.nextworks.sol006_tmf_translator.information_models.commons.enums.Kind;
+
+import javax.persistence.*;
+import java.util.Objects;
+
+@Entity
+@Table(name = "translation_job", indexes = @Index(columnList = "state"))
+public class TranslationJob {
+
+    @Id
+    @JsonProperty("id")
+    @Column(name = "id")
+    private String id;
+
+    @JsonProperty("kind")
+    @Enumerated(EnumType.STRING)
+    @Column(name = "kind")
+    private Kind kind;
+
+    @JsonProperty("targetId")
+    @Column(name = "target_id")
+    private String targetId;
+
+    @JsonIgnore
+    @Column(name = "parameters", columnDefinition = "TEXT")
+    private String parameters;
+
+    @JsonProperty("state")
+    @Enumerated(EnumType.STRING)
+    @Column(name = "state")
+    private JobState state;
+
+    @JsonProperty("statusCode")
+    @Column(name = "status_code")
+    private Integer statusCode;
+
+    @JsonProperty("result")
+    @JsonRawValue
+    @Column(name = "result", columnDefinition = "TEXT")
+    private String result;
+
+    @JsonProperty("stageTimings")
+    @JsonRawValue
+    @Column(name = "stage_timings", columnDefinition = "TEXT")
+    private String stageTimings;
+
+    @JsonProperty("createdAt")
+    @Column(name = "created_at")
+    private Long createdAt;
+
+    @JsonProperty("startedAt")
+    @Column(name = "started_at")
+    private Long startedAt;
+
+    @JsonProperty("finishedAt")
+    @Column(name = "finished_at")
+    private Long finishedAt;
+
+    @JsonIgnore
+    @Column(name = "owner")
+    private String owner;
+
+    // Written by the owner's heartbeats with the database clock, including the first one right after the insert.
+    @JsonIgnore
+    @Column(name = "heartbeat_at", updatable = false)
+    private Long heartbeatAt;
+
+    public TranslationJob(String id, Kind kind, String targetId, String parameters) {
+        this.id = id;
+        this.kind = kind;
+        this.targetId = targetId;
+        this.parameters = parameters;
+        this.state = JobState.QUEUED;
+        this.createdAt = System.currentTimeMillis();
+    }
+
+    public TranslationJob() {}
+
+    public String getId() { return id; }
+
+    public void setId(String id) { this.id = id; }
+
+    public Kind getKind() { return kind; }
+
+    public void setKind(Kind kind) { this.kind = kind; }
+
+    public String getTargetId() { return targetId; }
+
+    public void setTargetId(String targetId) { this.targetId = targetId; }
+
+    public String getParameters() { return parameters; }
+
+    public void setParameters(String parameters) { this.parameters = parameters; }
+
+    public JobState getState() { return state; }
+
+    public void setState(JobState state) { this.state = state; }
+
+    public Integer getStatusCode() { return statusCode; }
+
+    public void setStatusCode(Integer statusCode) { this.statusCode = statusCode; }
+
+    public String getResult() { return result; }
+
+    public void setResult(String result) { this.result = result; }
+
+    public String getStageTimings() { return stageTimings; }
+
+    public void setStageTimings(String stageTimings) { this.stageTimings = stageTimings; }
+
+    public Long getCreatedAt() { return createdAt; }
+
+    public void setCreatedAt(Long createdAt) { this.createdAt = createdAt; }
+
+    public Long getStartedAt() { return startedAt; }
+
+    public void setStartedAt(Long startedAt) { this.startedAt = startedAt; }
+
+    public Long getFinishedAt() { return finishedAt; }
+
+    public void setFinishedAt(Long finishedAt) { this.finishedAt = finishedAt; }
+
+    public String getOwner() { return owner; }
+
+    public void setOwner(String owner) { this.owner = owner; }
+
+    public Long getHeartbeatAt() { return heartbeatAt; }
+
+    public void setHeartbeatAt(Long heartbeatAt) { this.heartbeatAt = heartbeatAt; }
+
+    @Override
+    public boolean equals(java.lang.Object o) {
+        if(this == o)
+            return true;
+
+        if(o == null || getClass() != o.getClass())
+            return false;
+
+        TranslationJob translationJob = (TranslationJob) o;
+        return Objects.equals(this.id, translationJob.id);
+    }
+
+    @Override
+    public int hashCode() { return Objects.hash(id); }
+
+    @Override
+    public String toString() {
+        return "class TranslationJob {\n" +
+                "    id: " + id + "\n" +
+                "    kind: " + kind + "\n" +
+                "    targetId: " + targetId + "\n" +
+                "    state: " + state + "\n" +
+                "    statusCode: " + statusCode + "\n" +
+                "}";
+    }
+}
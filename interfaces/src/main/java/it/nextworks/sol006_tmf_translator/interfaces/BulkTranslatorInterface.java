@@ -0,0 +1,13 @@
+package it.nextworks.sol006_tmf_translator.interfaces;
+
+import it.nextworks.sol006_tmf_translator.information_models.commons.BulkItem;
+import it.nextworks.sol006_tmf_translator.information_models.commons.enums.Kind;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.List;
+
+public interface BulkTranslatorInterface {
+    ResponseEntity<?> translateBulk(List<BulkItem> items, Integer concurrency);
+    ResponseEntity<?> translateBulkPackages(Kind kind, List<MultipartFile> files, Integer concurrency);
+}
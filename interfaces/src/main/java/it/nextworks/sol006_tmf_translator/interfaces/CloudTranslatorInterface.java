@@ -3,5 +3,5 @@ package it.nextworks.sol006_tmf_translator.interfaces;
 import org.springframework.http.ResponseEntity;
 
 public interface CloudTranslatorInterface {
-    ResponseEntity<?> translateCloud(String sliceTypeId);
+    ResponseEntity<?> translateCloud(String sliceTypeId, boolean async);
 }
@@ -0,0 +1,12 @@
+package it.nextworks.sol006_tmf_translator.interfaces;
+
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+public interface MappingInfoInterface {
+    ResponseEntity<?> verify(List<String> descriptorIds);
+    ResponseEntity<?> presenceCacheStats();
+    ResponseEntity<?> outboxStats();
+    ResponseEntity<?> reconcilerStats();
+}
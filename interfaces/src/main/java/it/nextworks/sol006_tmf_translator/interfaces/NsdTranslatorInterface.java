@@ -6,5 +6,7 @@ import org.springframework.web.multipart.MultipartFile;
 public interface NsdTranslatorInterface {
 
     ResponseEntity<?> translateNsd(MultipartFile body);
-    ResponseEntity<?> translateNsdById(String nsdId, String serviceType);
+    ResponseEntity<?> translateNsdById(String nsdId, String serviceType, boolean async);
+    ResponseEntity<?> planNsdById(String nsPkgInfoId);
+    ResponseEntity<?> previewNsd(MultipartFile body, String serviceType);
 }
@@ -8,5 +8,7 @@ public interface PnfdTranslatorInterface {
 
     ResponseEntity<?> translatePnfd(MultipartFile body);
 
-    ResponseEntity<?> translatePnfdById(String pnfdId);
+    ResponseEntity<?> translatePnfdById(String pnfdId, boolean async);
+
+    ResponseEntity<?> previewPnfd(MultipartFile body);
 }
@@ -0,0 +1,8 @@
+package it.nextworks.sol006_tmf_translator.interfaces;
+
+import org.springframework.http.ResponseEntity;
+
+public interface PreviewInterface {
+    ResponseEntity<?> getPreview(String digest);
+    ResponseEntity<?> commitPreview(String digest);
+}
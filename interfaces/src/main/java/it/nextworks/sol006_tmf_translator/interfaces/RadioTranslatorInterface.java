@@ -4,5 +4,5 @@ import it.nextworks.sol006_tmf_translator.information_models.commons.SpectrumPar
 import org.springframework.http.ResponseEntity;
 
 public interface RadioTranslatorInterface {
-    ResponseEntity<?> translateRadio(String radId, SpectrumParameters spectrumParameters);
+    ResponseEntity<?> translateRadio(String radId, SpectrumParameters spectrumParameters, boolean async);
 }
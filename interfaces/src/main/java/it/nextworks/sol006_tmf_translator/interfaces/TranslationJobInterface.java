@@ -0,0 +1,7 @@
+package it.nextworks.sol006_tmf_translator.interfaces;
+
+import org.springframework.http.ResponseEntity;
+
+public interface TranslationJobInterface {
+    ResponseEntity<?> getJob(String jobId);
+}
@@ -6,5 +6,6 @@ import org.springframework.web.multipart.MultipartFile;
 public interface VnfdTranslatorInterface {
 
     ResponseEntity<?> translateVnfd(MultipartFile body);
-    ResponseEntity<?> translateVnfdById(String vnfdId, String functionType);
+    ResponseEntity<?> translateVnfdById(String vnfdId, String functionType, boolean async);
+    ResponseEntity<?> previewVnfd(MultipartFile body, String functionType);
 }
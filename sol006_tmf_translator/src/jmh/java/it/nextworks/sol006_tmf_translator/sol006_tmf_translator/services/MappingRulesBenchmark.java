@@ -0,0 +1,123 @@
+package it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import it.nextworks.nfvmano.libs.descriptors.sol006.Nsd;
+import it.nextworks.nfvmano.libs.descriptors.sol006.Vnfd;
+import it.nextworks.sol006_tmf_translator.information_models.commons.enums.Kind;
+import it.nextworks.sol006_tmf_translator.information_models.persistence.IdVsbNameMapping;
+import it.nextworks.tmf_offering_catalog.information_models.common.Any;
+import it.nextworks.tmf_offering_catalog.information_models.resource.ResourceSpecCharacteristic;
+import it.nextworks.tmf_offering_catalog.information_models.resource.ResourceSpecCharacteristicValue;
+import it.nextworks.tmf_offering_catalog.information_models.service.ServiceSpecCharacteristic;
+import it.nextworks.tmf_offering_catalog.information_models.service.ServiceSpecCharacteristicValue;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Id, vsbName and snfvoUrl characteristics of a VNF and an NS built from mapping-rules.yml, against the builder
+// blocks TranslatorEngine had for them before the rules.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MappingRulesBenchmark {
+
+    private MappingRules mappingRules;
+
+    private Vnfd vnfd;
+
+    private Nsd nsd;
+
+    private IdVsbNameMapping mapping;
+
+    @Setup
+    public void setup() throws IOException {
+        mappingRules = new MappingRules();
+        ReflectionTestUtils.setField(mappingRules, "rulesResource", new ClassPathResource("mapping-rules.yml"));
+        mappingRules.init();
+
+        vnfd = VnfResourceEnvelopeTest.vnfd("multi_vdu.yaml");
+        nsd = new ObjectMapper(new YAMLFactory()).readValue("id: index-nsd\n", Nsd.class);
+        mapping = new IdVsbNameMapping().id(vnfd.getId()).vsbName("vsb").snfvoUrl("http://snfvo");
+    }
+
+    @Benchmark
+    public List<ResourceSpecCharacteristic> vnfRules() {
+        return mappingRules.resourceCharacteristics(Kind.VNF, vnfd, mapping);
+    }
+
+    @Benchmark
+    public List<ResourceSpecCharacteristic> vnfHandBuilt() {
+        List<ResourceSpecCharacteristic> resourceSpecCharacteristics = new ArrayList<>();
+
+        ResourceSpecCharacteristic rscVnfdId = new ResourceSpecCharacteristic()
+                .description("ID of the VNF descriptor.")
+                .name("vnfdId")
+                .resourceSpecCharacteristicValue(Collections.singletonList(new ResourceSpecCharacteristicValue()
+                        .value(new Any().alias("vnfdId").value(vnfd.getId()))));
+        resourceSpecCharacteristics.add(rscVnfdId);
+
+        ResourceSpecCharacteristic rscVsbName = new ResourceSpecCharacteristic()
+                .description("Name of the Vertical Service Blueprint.")
+                .name("vsbName")
+                .resourceSpecCharacteristicValue(Collections.singletonList(new ResourceSpecCharacteristicValue()
+                        .value(new Any().alias("vsbName").value(mapping.getVsbName()))));
+        resourceSpecCharacteristics.add(rscVsbName);
+
+        String snfvoUrl = mapping.getSnfvoUrl();
+        if(snfvoUrl != null && !snfvoUrl.isEmpty()) {
+            ResourceSpecCharacteristic rscSnfvoUrl = new ResourceSpecCharacteristic()
+                    .description("snfvoUrl")
+                    .name("snfvoUrl")
+                    .resourceSpecCharacteristicValue(Collections.singletonList(new ResourceSpecCharacteristicValue()
+                            .value(new Any().alias("snfvoUrl").value(snfvoUrl))));
+            resourceSpecCharacteristics.add(rscSnfvoUrl);
+        }
+
+        return resourceSpecCharacteristics;
+    }
+
+    @Benchmark
+    public List<ServiceSpecCharacteristic> nsRules() {
+        return mappingRules.serviceCharacteristics(Kind.NS, nsd, mapping);
+    }
+
+    @Benchmark
+    public List<ServiceSpecCharacteristic> nsHandBuilt() {
+        List<ServiceSpecCharacteristic> serviceSpecCharacteristics = new ArrayList<>();
+
+        ServiceSpecCharacteristic sscNsdId = new ServiceSpecCharacteristic()
+                .description("ID of the NS Descriptor")
+                .name("nsdId")
+                .serviceSpecCharacteristicValue(Collections.singletonList(new ServiceSpecCharacteristicValue()
+                        .value(new Any().alias("nsdId").value(nsd.getId()))));
+        serviceSpecCharacteristics.add(sscNsdId);
+
+        ServiceSpecCharacteristic rscVsbName = new ServiceSpecCharacteristic()
+                .description("Name of the Vertical Service Blueprint.")
+                .name("vsbName")
+                .serviceSpecCharacteristicValue(Collections.singletonList(new ServiceSpecCharacteristicValue()
+                        .value(new Any().alias("vsbName").value(mapping.getVsbName()))));
+        serviceSpecCharacteristics.add(rscVsbName);
+
+        String snfvoUrl = mapping.getSnfvoUrl();
+        if(snfvoUrl != null && !snfvoUrl.isEmpty()) {
+            ServiceSpecCharacteristic sscSnfvoUrl = new ServiceSpecCharacteristic()
+                    .description("snfvoUrl")
+                    .name("snfvoUrl")
+                    .serviceSpecCharacteristicValue(Collections.singletonList(new ServiceSpecCharacteristicValue()
+                            .value(new Any().alias("snfvoUrl").value(snfvoUrl))));
+            serviceSpecCharacteristics.add(sscSnfvoUrl);
+        }
+
+        return serviceSpecCharacteristics;
+    }
+}
@@ -0,0 +1,71 @@
+package it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import it.nextworks.nfvmano.libs.descriptors.sol006.Vnfd;
+import it.nextworks.sol006_tmf_translator.information_models.persistence.RequirementSummary;
+import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.commons.exception.MalformattedElementException;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Requirement computation over synthetic VNFDs with a growing number of vdus, each with its own compute and
+// storage desc, and two instantiation levels over every vdu. The nested scans of VnfdIndexTest grow with the
+// square of the vdu count, the index linearly.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class VnfdIndexBenchmark {
+
+    @Param({"10", "100", "300", "1000"})
+    private int vdus;
+
+    private Vnfd vnfd;
+
+    static Vnfd synthetic(int vdus) throws IOException {
+        StringBuilder yaml = new StringBuilder("id: synthetic\nvdu:\n");
+        for(int i = 0; i < vdus; i++)
+            yaml.append("  - id: vdu-").append(i).append('\n')
+                    .append("    virtual-compute-desc: compute-").append(i).append('\n')
+                    .append("    virtual-storage-desc:\n      - storage-").append(i).append('\n');
+
+        yaml.append("virtual-compute-desc:\n");
+        for(int i = 0; i < vdus; i++)
+            yaml.append("  - id: compute-").append(i).append('\n')
+                    .append("    virtual-cpu:\n      num-virtual-cpu: ").append(1 + i % 4).append('\n')
+                    .append("    virtual-memory:\n      size: ").append(2.0 * (1 + i % 4)).append('\n');
+
+        yaml.append("virtual-storage-desc:\n");
+        for(int i = 0; i < vdus; i++)
+            yaml.append("  - id: storage-").append(i).append('\n')
+                    .append("    size-of-storage: ").append(10 * (1 + i % 3)).append('\n');
+
+        yaml.append("df:\n  - id: default\n    instantiation-level:\n");
+        for(String level : new String[] { "small", "large" }) {
+            yaml.append("      - id: ").append(level).append("\n        vdu-level:\n");
+            for(int i = 0; i < vdus; i++)
+                yaml.append("          - vdu-id: vdu-").append(i).append('\n')
+                        .append("            number-of-instances: 1\n");
+        }
+
+        return new ObjectMapper(new YAMLFactory()).readValue(yaml.toString(), Vnfd.class);
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        vnfd = synthetic(vdus);
+    }
+
+    @Benchmark
+    public RequirementSummary nestedScans() throws MalformattedElementException {
+        return VnfdIndexTest.nestedScans(vnfd);
+    }
+
+    @Benchmark
+    public RequirementSummary index() throws MalformattedElementException {
+        return VnfResourceEnvelope.of(VnfdIndex.of(vnfd));
+    }
+}
@@ -0,0 +1,117 @@
+package it.nextworks.sol006_tmf_translator.sol006_tmf_translator.commons.config;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class HttpClientConfiguration {
+
+    @Value("${http_client.max_total}")
+    private int maxTotal;
+
+    @Value("${http_client.max_per_route}")
+    private int maxPerRoute;
+
+    @Value("${http_client.connect_timeout}")
+    private int connectTimeout;
+
+    @Value("${http_client.connection_request_timeout}")
+    private int connectionRequestTimeout;
+
+    @Value("${http_client.socket_timeout}")
+    private int socketTimeout;
+
+    @Value("${http_client.keep_alive}")
+    private long keepAlive;
+
+    @Value("${http_client.idle_eviction}")
+    private long idleEviction;
+
+    private final ScheduledExecutorService asyncEvictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "http-async-evictor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PreDestroy
+    public void shutdown() { asyncEvictor.shutdownNow(); }
+
+    private RequestConfig buildRequestConfig() {
+        return RequestConfig.custom()
+                .setConnectTimeout(connectTimeout)
+                .setConnectionRequestTimeout(connectionRequestTimeout)
+                .setSocketTimeout(socketTimeout)
+                .build();
+    }
+
+    // Honour the Keep-Alive header sent by the downstream, otherwise keep the connection for keepAlive ms.
+    private ConnectionKeepAliveStrategy buildKeepAliveStrategy() {
+        return (response, context) -> {
+            long duration = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return duration > 0 ? duration : keepAlive;
+        };
+    }
+
+    private CloseableHttpClient buildHttpClient() {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxTotal);
+        connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(buildRequestConfig())
+                .setKeepAliveStrategy(buildKeepAliveStrategy())
+                .evictExpiredConnections()
+                .evictIdleConnections(idleEviction, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient catalogHttpClient() { return buildHttpClient(); }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient descSourceHttpClient() { return buildHttpClient(); }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient rappHttpClient() { return buildHttpClient(); }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient sliceManagerHttpClient() { return buildHttpClient(); }
+
+    // The async builder has no eviction of its own, so expired and idle connections of its pool are closed here,
+    // at the pace the blocking clients evict theirs.
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public CloseableHttpAsyncClient catalogHttpAsyncClient() throws IOReactorException {
+        PoolingNHttpClientConnectionManager connectionManager =
+                new PoolingNHttpClientConnectionManager(new DefaultConnectingIOReactor());
+        connectionManager.setMaxTotal(maxTotal);
+        connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+        asyncEvictor.scheduleWithFixedDelay(() -> {
+            connectionManager.closeExpiredConnections();
+            connectionManager.closeIdleConnections(idleEviction, TimeUnit.MILLISECONDS);
+        }, idleEviction, idleEviction, TimeUnit.MILLISECONDS);
+
+        return HttpAsyncClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(buildRequestConfig())
+                .setKeepAliveStrategy(buildKeepAliveStrategy())
+                .build();
+    }
+}
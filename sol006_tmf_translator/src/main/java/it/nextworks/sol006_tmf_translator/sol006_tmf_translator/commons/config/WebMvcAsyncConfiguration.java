@@ -0,0 +1,40 @@
+package it.nextworks.sol006_tmf_translator.sol006_tmf_translator.commons.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+// Streaming responses run on a bounded pool of their own instead of the shared applicationTaskExecutor, whose
+// queue is unbounded. Once every thread and queue slot is taken, new streams are rejected and answered with 503.
+@Configuration
+public class WebMvcAsyncConfiguration implements WebMvcConfigurer {
+
+    @Value("${mvc.async.threads}")
+    private int threads;
+
+    @Value("${mvc.async.queue_capacity}")
+    private int queueCapacity;
+
+    @Value("${mvc.async.timeout}")
+    private long timeout;
+
+    @Bean
+    public ThreadPoolTaskExecutor mvcAsyncExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setThreadNamePrefix("mvc-async-");
+        return executor;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(mvcAsyncExecutor());
+        configurer.setDefaultTimeout(timeout);
+    }
+}
@@ -0,0 +1,5 @@
+package it.nextworks.sol006_tmf_translator.sol006_tmf_translator.commons.exception;
+
+public class DownstreamUnavailableException extends Exception {
+    public DownstreamUnavailableException(String msg) { super(msg); }
+}
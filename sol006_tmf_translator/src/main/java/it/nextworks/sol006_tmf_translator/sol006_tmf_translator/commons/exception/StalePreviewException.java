@@ -0,0 +1,5 @@
+package it.nextworks.sol006_tmf_translator.sol006_tmf_translator.commons.exception;
+
+public class StalePreviewException extends Exception {
+    public StalePreviewException(String msg) { super(msg); }
+}
@@ -0,0 +1,31 @@
+package it.nextworks.sol006_tmf_translator.sol006_tmf_translator.repo;
+
+import it.nextworks.sol006_tmf_translator.information_models.commons.enums.OutboxState;
+import it.nextworks.sol006_tmf_translator.information_models.persistence.CatalogOutboxEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface CatalogOutboxRepository extends JpaRepository<CatalogOutboxEntry, Long> {
+
+    // Only the oldest pending entry of each descriptor, so that its entries are published in order.
+    @Query("SELECT e FROM CatalogOutboxEntry e WHERE e.state = :state AND e.nextAttemptAt <= :now AND " +
+            "e.id = (SELECT MIN(o.id) FROM CatalogOutboxEntry o WHERE o.descriptorId = e.descriptorId AND o.state = :state) " +
+            "ORDER BY e.id")
+    List<CatalogOutboxEntry> findDue(@Param("state") OutboxState state, @Param("now") long now, Pageable pageable);
+
+    List<CatalogOutboxEntry> findByDescriptorIdAndStateOrderById(String descriptorId, OutboxState state);
+
+    long countByState(OutboxState state);
+
+    // Pending entries nothing was posted for yet are replaced by a newer translation of the same descriptor.
+    @Modifying
+    @Query("UPDATE CatalogOutboxEntry e SET e.state = :superseded WHERE e.descriptorId = :descriptorId AND " +
+            "e.state = :pending AND e.specificationCatalogId IS NULL")
+    int supersede(@Param("descriptorId") String descriptorId, @Param("pending") OutboxState pending,
+                  @Param("superseded") OutboxState superseded);
+}
@@ -0,0 +1,34 @@
+package it.nextworks.sol006_tmf_translator.sol006_tmf_translator.repo;
+
+import it.nextworks.sol006_tmf_translator.information_models.persistence.DescriptorLock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+// Leases are timed with the database clock, so replicas with skewed clocks still agree on expiry.
+public interface DescriptorLockRepository extends JpaRepository<DescriptorLock, String> {
+
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO descriptor_lock (descriptor_id, owner, expires_at) " +
+            "VALUES (:descriptorId, :owner, CAST(EXTRACT(EPOCH FROM clock_timestamp()) * 1000 AS BIGINT) + :lease) " +
+            "ON CONFLICT (descriptor_id) DO UPDATE SET owner = EXCLUDED.owner, expires_at = EXCLUDED.expires_at " +
+            "WHERE descriptor_lock.expires_at < CAST(EXTRACT(EPOCH FROM clock_timestamp()) * 1000 AS BIGINT)",
+            nativeQuery = true)
+    int tryAcquire(@Param("descriptorId") String descriptorId, @Param("owner") String owner, @Param("lease") long lease);
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE descriptor_lock " +
+            "SET expires_at = CAST(EXTRACT(EPOCH FROM clock_timestamp()) * 1000 AS BIGINT) + :lease " +
+            "WHERE descriptor_id = :descriptorId AND owner = :owner",
+            nativeQuery = true)
+    int renew(@Param("descriptorId") String descriptorId, @Param("owner") String owner, @Param("lease") long lease);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM DescriptorLock l WHERE l.descriptorId = :descriptorId AND l.owner = :owner")
+    int release(@Param("descriptorId") String descriptorId, @Param("owner") String owner);
+}
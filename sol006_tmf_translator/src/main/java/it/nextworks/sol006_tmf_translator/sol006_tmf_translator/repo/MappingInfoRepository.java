@@ -1,10 +1,39 @@
 package it.nextworks.sol006_tmf_translator.sol006_tmf_translator.repo;
 
+import it.nextworks.sol006_tmf_translator.information_models.commons.enums.PresenceStatus;
 import it.nextworks.sol006_tmf_translator.information_models.persistence.MappingInfo;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
 public interface MappingInfoRepository extends JpaRepository<MappingInfo, String> {
     Optional<MappingInfo> findById(String id);
+
+    // Verification outcomes apply only while the row still points to the catalog objects that were checked.
+    @Modifying
+    @Transactional
+    @Query("UPDATE MappingInfo m SET m.lastVerifiedAt = :verifiedAt, m.verificationStatus = :status, m.driftCount = 0 " +
+            "WHERE m.descriptorId = :descriptorId AND m.candidateCatalogId = :candidateCatalogId AND " +
+            "m.specificationCatalogId = :specificationCatalogId")
+    int markPresent(@Param("descriptorId") String descriptorId,
+                    @Param("candidateCatalogId") String candidateCatalogId,
+                    @Param("specificationCatalogId") String specificationCatalogId,
+                    @Param("status") PresenceStatus status,
+                    @Param("verifiedAt") long verifiedAt);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE MappingInfo m SET m.lastVerifiedAt = :verifiedAt, m.verificationStatus = :status, " +
+            "m.driftCount = COALESCE(m.driftCount, 0) + 1 " +
+            "WHERE m.descriptorId = :descriptorId AND m.candidateCatalogId = :candidateCatalogId AND " +
+            "m.specificationCatalogId = :specificationCatalogId")
+    int markDrifted(@Param("descriptorId") String descriptorId,
+                    @Param("candidateCatalogId") String candidateCatalogId,
+                    @Param("specificationCatalogId") String specificationCatalogId,
+                    @Param("status") PresenceStatus status,
+                    @Param("verifiedAt") long verifiedAt);
 }
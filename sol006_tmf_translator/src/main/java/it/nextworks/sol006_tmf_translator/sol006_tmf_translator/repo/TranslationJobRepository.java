@@ -0,0 +1,38 @@
+package it.nextworks.sol006_tmf_translator.sol006_tmf_translator.repo;
+
+import it.nextworks.sol006_tmf_translator.information_models.persistence.TranslationJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+// Heartbeats are timed with the database clock, as descriptor locks are, so replicas with skewed clocks still
+// agree on which owners are gone. A job is inserted before its first heartbeat, so until then its creation time
+// stands in for it.
+public interface TranslationJobRepository extends JpaRepository<TranslationJob, String> {
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE translation_job SET heartbeat_at = CAST(EXTRACT(EPOCH FROM clock_timestamp()) * 1000 AS BIGINT) " +
+            "WHERE owner = :owner AND state IN ('QUEUED', 'RUNNING')",
+            nativeQuery = true)
+    int heartbeat(@Param("owner") String owner);
+
+    @Query(value = "SELECT * FROM translation_job WHERE state IN ('QUEUED', 'RUNNING') AND " +
+            "COALESCE(heartbeat_at, created_at) < CAST(EXTRACT(EPOCH FROM clock_timestamp()) * 1000 AS BIGINT) - :lease " +
+            "ORDER BY created_at",
+            nativeQuery = true)
+    List<TranslationJob> findOrphaned(@Param("lease") long lease);
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE translation_job SET owner = :owner, " +
+            "heartbeat_at = CAST(EXTRACT(EPOCH FROM clock_timestamp()) * 1000 AS BIGINT) " +
+            "WHERE id = :id AND state IN ('QUEUED', 'RUNNING') AND " +
+            "COALESCE(heartbeat_at, created_at) < CAST(EXTRACT(EPOCH FROM clock_timestamp()) * 1000 AS BIGINT) - :lease",
+            nativeQuery = true)
+    int claim(@Param("id") String id, @Param("owner") String owner, @Param("lease") long lease);
+}
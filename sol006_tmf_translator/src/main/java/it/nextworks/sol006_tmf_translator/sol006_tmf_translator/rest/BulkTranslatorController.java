@@ -0,0 +1,191 @@
+package it.nextworks.sol006_tmf_translator.sol006_tmf_translator.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import it.nextworks.sol006_tmf_translator.information_models.commons.BulkItem;
+import it.nextworks.sol006_tmf_translator.information_models.commons.enums.Kind;
+import it.nextworks.sol006_tmf_translator.interfaces.BulkTranslatorInterface;
+import it.nextworks.sol006_tmf_translator.interfaces.NsdTranslatorInterface;
+import it.nextworks.sol006_tmf_translator.interfaces.PnfdTranslatorInterface;
+import it.nextworks.sol006_tmf_translator.interfaces.VnfdTranslatorInterface;
+import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services.BulkTranslationService;
+import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services.TranslationJobService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+@RestController
+@RequestMapping("/bulkToTmf")
+public class BulkTranslatorController implements BulkTranslatorInterface {
+
+    private final static Logger log = LoggerFactory.getLogger(BulkTranslatorController.class);
+
+    private static final String ndjson = "application/x-ndjson";
+
+    private final ObjectMapper objectMapper;
+
+    private final BulkTranslationService bulkTranslationService;
+
+    private final TranslationJobService translationJobService;
+
+    private final VnfdTranslatorInterface vnfdTranslator;
+
+    private final PnfdTranslatorInterface pnfdTranslator;
+
+    private final NsdTranslatorInterface nsdTranslator;
+
+    @Autowired
+    public BulkTranslatorController(ObjectMapper objectMapper,
+                                    BulkTranslationService bulkTranslationService,
+                                    TranslationJobService translationJobService,
+                                    VnfdTranslatorInterface vnfdTranslator,
+                                    PnfdTranslatorInterface pnfdTranslator,
+                                    NsdTranslatorInterface nsdTranslator) {
+        this.objectMapper           = objectMapper;
+        this.bulkTranslationService = bulkTranslationService;
+        this.translationJobService  = translationJobService;
+        this.vnfdTranslator         = vnfdTranslator;
+        this.pnfdTranslator         = pnfdTranslator;
+        this.nsdTranslator          = nsdTranslator;
+    }
+
+    // StreamingResponseBody is only picked up when declared as the body type, so errors are streamed as well.
+    private ResponseEntity<StreamingResponseBody> error(String msg) {
+        log.info(msg);
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).contentType(MediaType.APPLICATION_JSON)
+                .body(outputStream -> outputStream.write(objectMapper.writeValueAsBytes(new ErrMsg(msg))));
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream(List<String> labels, List<BulkTranslationService.Item> items, Integer concurrency) {
+        int window = bulkTranslationService.concurrency(concurrency);
+        log.info("Received bulk request with " + items.size() + " items, concurrency " + window + ".");
+
+        StreamingResponseBody body = outputStream -> {
+            try {
+                bulkTranslationService.run(labels, items, window, result -> {
+                    outputStream.write(objectMapper.writeValueAsBytes(result));
+                    outputStream.write('\n');
+                    outputStream.flush();
+                });
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Bulk translation interrupted.");
+            }
+        };
+
+        return ResponseEntity.status(HttpStatus.OK).contentType(MediaType.parseMediaType(ndjson)).body(body);
+    }
+
+    // Thrown when the stream is handed to the MVC async executor and all of its threads and queue slots are taken.
+    // The response is written directly, as a streamed error would need the same executor.
+    @ExceptionHandler(TaskRejectedException.class)
+    public void rejected(HttpServletResponse response) throws IOException {
+        if(response.isCommitted())
+            return;
+
+        String msg = "Too many bulk translations streaming, retry later.";
+        log.info(msg);
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ErrMsg(msg));
+    }
+
+    private String checkSize(int size) {
+        if(size == 0)
+            return "Empty bulk request.";
+        if(size > bulkTranslationService.getMaxItems())
+            return "Bulk request with " + size + " items exceeds the limit of " +
+                    bulkTranslationService.getMaxItems() + ".";
+        return null;
+    }
+
+    @Override
+    @ApiOperation(value = "Translate & post many descriptors by package info id, streaming one NDJSON result per item as it completes.")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Success"),
+            @ApiResponse(code = 400, message = "Bad Request", response = ErrMsg.class),
+            @ApiResponse(code = 503, message = "Service Unavailable", response = ErrMsg.class)
+    })
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = { ndjson, "application/json;charset=utf-8" })
+    public ResponseEntity<StreamingResponseBody>
+    translateBulk(@ApiParam(value = "Items to translate: kind, package info id and the optional parameters of the single endpoint.", required = true)
+                  @RequestBody List<BulkItem> items,
+                  @ApiParam(value = "Maximum number of items translated in parallel.")
+                  @RequestParam(value = "concurrency", required = false) Integer concurrency) {
+
+        String invalid = checkSize(items.size());
+        if(invalid != null)
+            return error(invalid);
+
+        List<String> labels = new ArrayList<>(items.size());
+        List<BulkTranslationService.Item> tasks = new ArrayList<>(items.size());
+        for(BulkItem item : items) {
+            if(item.getKind() == null || item.getId() == null || !translationJobService.supports(item.getKind()))
+                return error("Invalid bulk item: kind " + item.getKind() + ", id " + item.getId() + ".");
+
+            labels.add(item.getKind().name() + " " + item.getId());
+            tasks.add(() -> translationJobService.runInline(item.getKind(), item.getId(), item.getParameters()));
+        }
+
+        return stream(labels, tasks, concurrency);
+    }
+
+    @Override
+    @ApiOperation(value = "Translate & post many packages of the same kind, streaming one NDJSON result per package as it completes.")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Success"),
+            @ApiResponse(code = 400, message = "Bad Request", response = ErrMsg.class),
+            @ApiResponse(code = 503, message = "Service Unavailable", response = ErrMsg.class)
+    })
+    @PostMapping(value = "/packages", consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+            produces = { ndjson, "application/json;charset=utf-8" })
+    public ResponseEntity<StreamingResponseBody>
+    translateBulkPackages(@ApiParam(value = "Kind of the packages: VNF, PNF or NS.", required = true)
+                          @RequestParam("kind") Kind kind,
+                          @ApiParam(value = "Packages to translate.", required = true)
+                          @RequestPart("files") List<MultipartFile> files,
+                          @ApiParam(value = "Maximum number of packages translated in parallel.")
+                          @RequestParam(value = "concurrency", required = false) Integer concurrency) {
+
+        String invalid = checkSize(files.size());
+        if(invalid != null)
+            return error(invalid);
+
+        List<String> labels = new ArrayList<>(files.size());
+        List<BulkTranslationService.Item> tasks = new ArrayList<>(files.size());
+        for(MultipartFile file : files) {
+            labels.add(kind.name() + " " + file.getOriginalFilename());
+            switch(kind) {
+                case VNF:
+                    tasks.add(() -> vnfdTranslator.translateVnfd(file));
+                    break;
+                case PNF:
+                    tasks.add(() -> pnfdTranslator.translatePnfd(file));
+                    break;
+                case NS:
+                    tasks.add(() -> nsdTranslator.translateNsd(file));
+                    break;
+                default:
+                    return error("Bulk package upload not supported for kind " + kind.name() + ".");
+            }
+        }
+
+        return stream(labels, tasks, concurrency);
+    }
+}
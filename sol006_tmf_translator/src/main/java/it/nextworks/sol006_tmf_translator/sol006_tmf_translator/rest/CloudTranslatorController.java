@@ -5,11 +5,14 @@ import io.swagger.annotations.ApiParam;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
 import it.nextworks.sol006_tmf_translator.information_models.commons.Pair;
+import it.nextworks.sol006_tmf_translator.information_models.commons.enums.Kind;
+import it.nextworks.sol006_tmf_translator.information_models.persistence.TranslationJob;
 import it.nextworks.sol006_tmf_translator.interfaces.CloudTranslatorInterface;
 import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.commons.exception.CatalogException;
 import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.commons.exception.MissingEntityOnSourceException;
 import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.commons.exception.NotExistingEntityException;
 import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.commons.exception.SourceException;
+import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services.TranslationJobService;
 import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services.TranslationService;
 import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services.TranslatorSliceManagerInteractionService;
 import it.nextworks.tmf_offering_catalog.information_models.resource.ResourceCandidate;
@@ -21,8 +24,10 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import javax.annotation.PostConstruct;
 import javax.servlet.http.HttpServletRequest;
 import java.io.IOException;
+import java.util.Collections;
 
 @RestController
 public class CloudTranslatorController implements CloudTranslatorInterface {
@@ -37,20 +42,31 @@ public class CloudTranslatorController implements CloudTranslatorInterface {
 
     private final TranslationService translationService;
 
+    private final TranslationJobService translationJobService;
+
     @Autowired
     public CloudTranslatorController(ObjectMapper objectMapper,
                                      HttpServletRequest request,
                                      TranslatorSliceManagerInteractionService translatorSliceManagerInteractionService,
-                                     TranslationService translationService) {
+                                     TranslationService translationService,
+                                     TranslationJobService translationJobService) {
         this.objectMapper                             = objectMapper;
         this.request                                  = request;
         this.translatorSliceManagerInteractionService = translatorSliceManagerInteractionService;
         this.translationService                       = translationService;
+        this.translationJobService                    = translationJobService;
+    }
+
+    @PostConstruct
+    public void registerJobHandler() {
+        translationJobService.register(Kind.CLOUD, (sliceTypeId, parameters) ->
+                translateCloud(sliceTypeId, false));
     }
 
     @Override
     @ApiResponses(value = {
             @ApiResponse(code = 201, message = "Created", response = Pair.class),
+            @ApiResponse(code = 202, message = "Accepted", response = TranslationJob.class),
             @ApiResponse(code = 400, message = "Bad Request", response = ErrMsg.class),
             @ApiResponse(code = 500, message = "Internal Server Error", response = ErrMsg.class)
     })
@@ -60,11 +76,17 @@ public class CloudTranslatorController implements CloudTranslatorInterface {
     @ResponseStatus(value = HttpStatus.CREATED)
     public ResponseEntity<?>
     translateCloud(@ApiParam(value = "Slice Type ID of the Cloud Resource to be translated.", required = true)
-                   @PathVariable("sliceTypeId") String sliceTypeId) {
+                   @PathVariable("sliceTypeId") String sliceTypeId,
+                   @ApiParam(value = "Run the translation as a background job and return 202 with the job to poll.")
+                   @RequestParam(value = "async", required = false, defaultValue = "false") boolean async) {
 
         log.info("Received request to translate & post Cloud Resource with Slice Type ID {}.", sliceTypeId);
 
+        if(async)
+            return TranslationJobController.submit(translationJobService, Kind.CLOUD, sliceTypeId, Collections.emptyMap());
+
         TranslatorSliceManagerInteractionService.SliceType sliceType;
+        translationJobService.stage("source");
         try {
             sliceType = translatorSliceManagerInteractionService.getSliceType(sliceTypeId);
         } catch (SourceException e) {
@@ -95,6 +117,7 @@ public class CloudTranslatorController implements CloudTranslatorInterface {
         }
 
         Pair<ResourceCandidate, ResourceSpecification> translation;
+        translationJobService.stage("translation");
         try {
             translation = translationService.translateAndPostCloud(sliceType, sliceTypeBlueprint);
         } catch (NotExistingEntityException e) {
@@ -0,0 +1,34 @@
+package it.nextworks.sol006_tmf_translator.sol006_tmf_translator.rest;
+
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import it.nextworks.sol006_tmf_translator.interfaces.DownstreamInterface;
+import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services.DownstreamGuards;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/downstreams")
+public class DownstreamController implements DownstreamInterface {
+
+    private final DownstreamGuards downstreamGuards;
+
+    @Autowired
+    public DownstreamController(DownstreamGuards downstreamGuards) {
+        this.downstreamGuards = downstreamGuards;
+    }
+
+    @Override
+    @ApiOperation(value = "Get circuit breaker state, bulkhead occupancy and priority lane queues of every downstream service.")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Success"),
+            @ApiResponse(code = 500, message = "Internal Server Error", response = ErrMsg.class)
+    })
+    @GetMapping(produces = { "application/json;charset=utf-8" })
+    public ResponseEntity<?> status() {
+        return ResponseEntity.status(HttpStatus.OK).body(downstreamGuards.status());
+    }
+}
@@ -0,0 +1,82 @@
+package it.nextworks.sol006_tmf_translator.sol006_tmf_translator.rest;
+
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import it.nextworks.sol006_tmf_translator.interfaces.MappingInfoInterface;
+import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services.CatalogOutbox;
+import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services.MappingInfoReconciler;
+import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services.MappingInfoService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/mappingInfo")
+public class MappingInfoController implements MappingInfoInterface {
+
+    private final MappingInfoService mappingInfoService;
+
+    private final CatalogOutbox catalogOutbox;
+
+    private final MappingInfoReconciler mappingInfoReconciler;
+
+    @Autowired
+    public MappingInfoController(MappingInfoService mappingInfoService,
+                                 CatalogOutbox catalogOutbox,
+                                 MappingInfoReconciler mappingInfoReconciler) {
+        this.mappingInfoService = mappingInfoService;
+        this.catalogOutbox = catalogOutbox;
+        this.mappingInfoReconciler = mappingInfoReconciler;
+    }
+
+    @Override
+    @ApiOperation(value = "Verify that translated descriptors are still present and coupled in the Offer Catalog.")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Success"),
+            @ApiResponse(code = 500, message = "Internal Server Error", response = ErrMsg.class)
+    })
+    @GetMapping(value = "/verify", produces = { "application/json;charset=utf-8" })
+    public ResponseEntity<?>
+    verify(@ApiParam(value = "Descriptor IDs to verify, all the mapped descriptors if omitted.")
+           @RequestParam(value = "descriptorId", required = false) List<String> descriptorIds) {
+        return ResponseEntity.status(HttpStatus.OK).body(mappingInfoService.verify(descriptorIds));
+    }
+
+    @Override
+    @ApiOperation(value = "Get hit/miss statistics of the Offer Catalog presence cache.")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Success"),
+            @ApiResponse(code = 500, message = "Internal Server Error", response = ErrMsg.class)
+    })
+    @GetMapping(value = "/presenceCache/stats", produces = { "application/json;charset=utf-8" })
+    public ResponseEntity<?> presenceCacheStats() {
+        return ResponseEntity.status(HttpStatus.OK).body(mappingInfoService.presenceCacheStats());
+    }
+
+    @Override
+    @ApiOperation(value = "Get the number of catalog outbox entries in each state.")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Success"),
+            @ApiResponse(code = 500, message = "Internal Server Error", response = ErrMsg.class)
+    })
+    @GetMapping(value = "/outbox/stats", produces = { "application/json;charset=utf-8" })
+    public ResponseEntity<?> outboxStats() {
+        return ResponseEntity.status(HttpStatus.OK).body(catalogOutbox.stats());
+    }
+
+    @Override
+    @ApiOperation(value = "Get drift alerts and the outcome of the last pass of the mapping info reconciler.")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Success"),
+            @ApiResponse(code = 500, message = "Internal Server Error", response = ErrMsg.class)
+    })
+    @GetMapping(value = "/reconciler/stats", produces = { "application/json;charset=utf-8" })
+    public ResponseEntity<?> reconcilerStats() {
+        return ResponseEntity.status(HttpStatus.OK).body(mappingInfoReconciler.stats());
+    }
+}
@@ -9,10 +9,14 @@ import io.swagger.annotations.ApiResponses;
 import it.nextworks.nfvmano.libs.descriptors.sol006.Nsd;
 import it.nextworks.sol006_tmf_translator.information_models.commons.CSARInfo;
 import it.nextworks.sol006_tmf_translator.information_models.commons.Pair;
+import it.nextworks.sol006_tmf_translator.information_models.persistence.TranslationJob;
 import it.nextworks.sol006_tmf_translator.interfaces.NsdTranslatorInterface;
 import it.nextworks.sol006_tmf_translator.information_models.commons.enums.Kind;
 import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.commons.exception.*;
 import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services.ArchiveParser;
+import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services.PreviewService;
+import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services.TranslationJobService;
+import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services.TranslationPlanner;
 import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services.TranslationService;
 import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services.TranslatorDescSourceInteractionService;
 import it.nextworks.tmf_offering_catalog.information_models.service.ServiceCandidate;
@@ -28,8 +32,10 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import javax.annotation.PostConstruct;
 import javax.servlet.http.HttpServletRequest;
 import java.io.IOException;
+import java.util.Collections;
 
 @RestController
 public class NsdTranslatorController implements NsdTranslatorInterface {
@@ -46,22 +52,41 @@ public class NsdTranslatorController implements NsdTranslatorInterface {
 
     private final ArchiveParser archiveParser;
 
+    private final TranslationJobService translationJobService;
+
+    private final PreviewService previewService;
+
+    private final TranslationPlanner translationPlanner;
+
     @Autowired
     public NsdTranslatorController(ObjectMapper objectMapper,
                                    HttpServletRequest request,
                                    TranslationService translationService,
                                    TranslatorDescSourceInteractionService translatorDescSourceInteractionService,
-                                   ArchiveParser archiveParser) {
+                                   ArchiveParser archiveParser,
+                                   TranslationJobService translationJobService,
+                                   PreviewService previewService,
+                                   TranslationPlanner translationPlanner) {
         this.objectMapper       = objectMapper;
         this.request            = request;
         this.translationService = translationService;
         this.translatorDescSourceInteractionService = translatorDescSourceInteractionService;
         this.archiveParser = archiveParser;
+        this.translationJobService = translationJobService;
+        this.previewService = previewService;
+        this.translationPlanner = translationPlanner;
+    }
+
+    @PostConstruct
+    public void registerJobHandler() {
+        translationJobService.register(Kind.NS, (nsPkgInfoId, parameters) ->
+                translateNsdById(nsPkgInfoId, parameters.get("serviceType"), false));
     }
 
     @Override
     @ApiResponses(value = {
             @ApiResponse(code = 201, message = "Created", response = Pair.class),
+            @ApiResponse(code = 202, message = "Accepted", response = TranslationJob.class),
             @ApiResponse(code = 400, message = "Bad Request", response = ErrMsg.class),
             @ApiResponse(code = 500, message = "Internal Server Error", response = ErrMsg.class)
     })
@@ -91,9 +116,13 @@ public class NsdTranslatorController implements NsdTranslatorInterface {
 
         log.info("Received request to translate & post nsd with id " + nsdId + ".");
 
+        if(translationService.publishesThroughOutbox())
+            return TranslationJobController.submitUploaded(translationJobService, translatorDescSourceInteractionService,
+                    Kind.NS, nsdId, csarInfo.getPackagePath());
+
         Pair<ServiceCandidate, ServiceSpecification> translation;
         try {
-            translation = translationService.translateNsd(nsd, null);
+            translation = translationPlanner.translate(nsd, null);
         } catch (IOException e) {
             String msg = e.getMessage();
             log.error(msg);
@@ -132,6 +161,7 @@ public class NsdTranslatorController implements NsdTranslatorInterface {
     @Override
     @ApiResponses(value = {
             @ApiResponse(code = 201, message = "Created", response = Pair.class),
+            @ApiResponse(code = 202, message = "Accepted", response = TranslationJob.class),
             @ApiResponse(code = 400, message = "Bad Request", response = ErrMsg.class),
             @ApiResponse(code = 500, message = "Internal Server Error", response = ErrMsg.class)
     })
@@ -143,11 +173,17 @@ public class NsdTranslatorController implements NsdTranslatorInterface {
     translateNsdById(@ApiParam(value = "ns package info ID of the ns to be translated.", required = true)
                      @PathVariable("nsPkgInfoId") String nsPkgInfoId,
                      @ApiParam(value = "Type of the service to be translated.")
-                     @RequestParam(value = "serviceType", required = false) String serviceType) {
+                     @RequestParam(value = "serviceType", required = false) String serviceType,
+                     @ApiParam(value = "Run the translation as a background job and return 202 with the job to poll.")
+                     @RequestParam(value = "async", required = false, defaultValue = "false") boolean async) {
 
         log.info("Received request to translate & post nsd for ns with ns package info id " + nsPkgInfoId + ".");
 
+        if(async || translationService.publishesThroughOutbox() && !translationJobService.inJob())
+            return TranslationJobController.submit(translationJobService, Kind.NS, nsPkgInfoId, Collections.singletonMap("serviceType", serviceType));
+
         HttpEntity httpEntity;
+        translationJobService.stage("source");
         try {
             log.info("Retrieving nsd for ns with ns package info id  " + nsPkgInfoId + " from descriptors source.");
             httpEntity = translatorDescSourceInteractionService.getFromSource(Kind.NS, nsPkgInfoId);
@@ -184,8 +220,9 @@ public class NsdTranslatorController implements NsdTranslatorInterface {
         }
 
         Pair<ServiceCandidate, ServiceSpecification> translation;
+        translationJobService.stage("translation");
         try {
-            translation = translationService.translateNsd(nsd, serviceType);
+            translation = translationPlanner.translate(nsd, serviceType);
         } catch (IOException | CatalogException | SourceException e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ErrMsg(e.getMessage()));
         } catch (MissingEntityOnSourceException | MissingEntityOnCatalogException | NotExistingEntityException e) {
@@ -198,4 +235,78 @@ public class NsdTranslatorController implements NsdTranslatorInterface {
 
         return ResponseEntity.status(HttpStatus.CREATED).body(translation);
     }
+
+    @Override
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "OK", response = TranslationPlanner.Plan.class),
+            @ApiResponse(code = 400, message = "Bad Request", response = ErrMsg.class),
+            @ApiResponse(code = 500, message = "Internal Server Error", response = ErrMsg.class)
+    })
+    @RequestMapping(value = "/nsdToTmf/{nsPkgInfoId}/plan",
+            produces = { "application/json;charset=utf-8" },
+            method = RequestMethod.GET)
+    public ResponseEntity<?>
+    planNsdById(@ApiParam(value = "ns package info ID of the ns to be planned.", required = true)
+                @PathVariable("nsPkgInfoId") String nsPkgInfoId) {
+
+        log.info("Received request to plan translation of nsd for ns with ns package info id " + nsPkgInfoId + ".");
+
+        Nsd nsd;
+        try {
+            nsd = translationService.parseNsd(EntityUtils.toString(
+                    translatorDescSourceInteractionService.getFromSource(Kind.NS, nsPkgInfoId)));
+        } catch (SourceException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ErrMsg(e.getMessage()));
+        } catch (MissingEntityOnSourceException e) {
+            String msg = "nsd with ns package info id " + nsPkgInfoId + " not found in descriptor source.";
+            log.info(msg);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ErrMsg(msg));
+        } catch (JsonProcessingException e) {
+            String msg = e.getMessage();
+            log.error("Error parsing descriptor: \n" + msg);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ErrMsg(msg));
+        } catch (IOException e) {
+            String msg = e.getMessage();
+            log.error("Error parsing http entity: \n" + msg);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ErrMsg(msg));
+        }
+
+        try {
+            return ResponseEntity.ok(translationPlanner.plan(nsd));
+        } catch (IOException | CatalogException | SourceException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ErrMsg(e.getMessage()));
+        } catch (MissingEntityOnSourceException | MalformattedElementException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ErrMsg(e.getMessage()));
+        }
+    }
+
+    @Override
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "OK", response = PreviewService.Preview.class),
+            @ApiResponse(code = 400, message = "Bad Request", response = ErrMsg.class),
+            @ApiResponse(code = 500, message = "Internal Server Error", response = ErrMsg.class)
+    })
+    @RequestMapping(value = "/nsdToTmf/preview",
+            produces = { "application/json;charset=utf-8" },
+            consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+            method = RequestMethod.POST)
+    public ResponseEntity<?>
+    previewNsd(@ApiParam(value = "NS package", required = true) @RequestPart("file") MultipartFile body,
+               @ApiParam(value = "Type of the service to be translated.")
+               @RequestParam(value = "serviceType", required = false) String serviceType) {
+
+        log.info("Received request to preview translation of ns package " + body.getOriginalFilename() + ".");
+
+        try {
+            return ResponseEntity.ok(previewService.preview(body, Kind.NS, serviceType));
+        } catch (IOException | FailedOperationException | CatalogException e) {
+            String msg = e.getMessage();
+            log.error(msg);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ErrMsg(msg));
+        } catch (MalformattedElementException | NotExistingEntityException e) {
+            String msg = e.getMessage();
+            log.error(msg);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ErrMsg(msg));
+        }
+    }
 }
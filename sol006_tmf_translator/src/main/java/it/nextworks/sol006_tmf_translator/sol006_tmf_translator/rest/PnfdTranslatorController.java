@@ -9,10 +9,13 @@ import io.swagger.annotations.ApiResponses;
 import it.nextworks.nfvmano.libs.descriptors.sol006.Pnfd;
 import it.nextworks.sol006_tmf_translator.information_models.commons.CSARInfo;
 import it.nextworks.sol006_tmf_translator.information_models.commons.Pair;
+import it.nextworks.sol006_tmf_translator.information_models.persistence.TranslationJob;
 import it.nextworks.sol006_tmf_translator.interfaces.PnfdTranslatorInterface;
 import it.nextworks.sol006_tmf_translator.information_models.commons.enums.Kind;
 import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.commons.exception.*;
 import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services.ArchiveParser;
+import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services.PreviewService;
+import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services.TranslationJobService;
 import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services.TranslationService;
 import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services.TranslatorDescSourceInteractionService;
 import it.nextworks.tmf_offering_catalog.information_models.resource.ResourceCandidate;
@@ -28,8 +31,10 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import javax.annotation.PostConstruct;
 import javax.servlet.http.HttpServletRequest;
 import java.io.IOException;
+import java.util.Collections;
 
 @RestController
 public class PnfdTranslatorController implements PnfdTranslatorInterface {
@@ -46,22 +51,37 @@ public class PnfdTranslatorController implements PnfdTranslatorInterface {
 
     private final ArchiveParser archiveParser;
 
+    private final TranslationJobService translationJobService;
+
+    private final PreviewService previewService;
+
     @Autowired
     public PnfdTranslatorController(ObjectMapper objectMapper,
                                     HttpServletRequest request,
                                     TranslationService translationService,
                                     TranslatorDescSourceInteractionService translatorDescSourceInteractionService,
-                                    ArchiveParser archiveParser) {
+                                    ArchiveParser archiveParser,
+                                    TranslationJobService translationJobService,
+                                    PreviewService previewService) {
         this.objectMapper       = objectMapper;
         this.request            = request;
         this.translationService = translationService;
         this.translatorDescSourceInteractionService = translatorDescSourceInteractionService;
         this.archiveParser = archiveParser;
+        this.translationJobService = translationJobService;
+        this.previewService = previewService;
+    }
+
+    @PostConstruct
+    public void registerJobHandler() {
+        translationJobService.register(Kind.PNF, (pnfPkgInfoId, parameters) ->
+                translatePnfdById(pnfPkgInfoId, false));
     }
 
     @Override
     @ApiResponses(value = {
             @ApiResponse(code = 201, message = "Created", response = Pair.class),
+            @ApiResponse(code = 202, message = "Accepted", response = TranslationJob.class),
             @ApiResponse(code = 400, message = "Bad Request", response = ErrMsg.class),
             @ApiResponse(code = 500, message = "Internal Server Error", response = ErrMsg.class)
     })
@@ -91,6 +111,10 @@ public class PnfdTranslatorController implements PnfdTranslatorInterface {
 
         log.info("Received request to translate & post pnfd with id " + pnfdId + ".");
 
+        if(translationService.publishesThroughOutbox())
+            return TranslationJobController.submitUploaded(translationJobService, translatorDescSourceInteractionService,
+                    Kind.PNF, pnfdId, csarInfo.getPackagePath());
+
         Pair<ResourceCandidate, ResourceSpecification> translation;
         try {
             translation = translationService.translatePnfd(pnfd);
@@ -126,6 +150,7 @@ public class PnfdTranslatorController implements PnfdTranslatorInterface {
     @Override
     @ApiResponses(value = {
             @ApiResponse(code = 201, message = "Created", response = Pair.class),
+            @ApiResponse(code = 202, message = "Accepted", response = TranslationJob.class),
             @ApiResponse(code = 400, message = "Bad Request", response = ErrMsg.class),
             @ApiResponse(code = 500, message = "Internal Server Error", response = ErrMsg.class)
     })
@@ -134,11 +159,17 @@ public class PnfdTranslatorController implements PnfdTranslatorInterface {
             method = RequestMethod.POST)
     @ResponseStatus(value = HttpStatus.CREATED)
     public ResponseEntity<?>
-    translatePnfdById(@ApiParam(value = "pnf package info ID of the pnf to be translated.", required = true) @PathVariable("pnfPkgInfoId") String pnfPkgInfoId) {
+    translatePnfdById(@ApiParam(value = "pnf package info ID of the pnf to be translated.", required = true) @PathVariable("pnfPkgInfoId") String pnfPkgInfoId,
+                      @ApiParam(value = "Run the translation as a background job and return 202 with the job to poll.")
+                      @RequestParam(value = "async", required = false, defaultValue = "false") boolean async) {
 
         log.info("Received request to translate & post pnfd for pnf with pnf package info id " + pnfPkgInfoId + ".");
 
+        if(async || translationService.publishesThroughOutbox() && !translationJobService.inJob())
+            return TranslationJobController.submit(translationJobService, Kind.PNF, pnfPkgInfoId, Collections.emptyMap());
+
         HttpEntity httpEntity;
+        translationJobService.stage("source");
         try {
             log.info("Retrieving pnfd for pnf with pnf package info id " + pnfPkgInfoId + " from descriptors source.");
             httpEntity = translatorDescSourceInteractionService.getFromSource(Kind.PNF, pnfPkgInfoId);
@@ -175,6 +206,7 @@ public class PnfdTranslatorController implements PnfdTranslatorInterface {
         }
 
         Pair<ResourceCandidate, ResourceSpecification> translation;
+        translationJobService.stage("translation");
         try {
             translation = translationService.translatePnfd(pnfd);
         } catch (IOException | CatalogException e) {
@@ -183,4 +215,32 @@ public class PnfdTranslatorController implements PnfdTranslatorInterface {
 
         return ResponseEntity.status(HttpStatus.CREATED).body(translation);
     }
+
+    @Override
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "OK", response = PreviewService.Preview.class),
+            @ApiResponse(code = 400, message = "Bad Request", response = ErrMsg.class),
+            @ApiResponse(code = 500, message = "Internal Server Error", response = ErrMsg.class)
+    })
+    @RequestMapping(value = "/pnfdToTmf/preview",
+            produces = { "application/json;charset=utf-8" },
+            consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+            method = RequestMethod.POST)
+    public ResponseEntity<?>
+    previewPnfd(@ApiParam(value = "PNF package", required = true) @RequestPart("file") MultipartFile body) {
+
+        log.info("Received request to preview translation of pnf package " + body.getOriginalFilename() + ".");
+
+        try {
+            return ResponseEntity.ok(previewService.preview(body, Kind.PNF, null));
+        } catch (IOException | FailedOperationException | CatalogException e) {
+            String msg = e.getMessage();
+            log.error(msg);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ErrMsg(msg));
+        } catch (MalformattedElementException | NotExistingEntityException e) {
+            String msg = e.getMessage();
+            log.error(msg);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ErrMsg(msg));
+        }
+    }
 }
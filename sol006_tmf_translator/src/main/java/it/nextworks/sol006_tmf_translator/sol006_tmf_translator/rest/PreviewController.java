@@ -0,0 +1,98 @@
+package it.nextworks.sol006_tmf_translator.sol006_tmf_translator.rest;
+
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import it.nextworks.sol006_tmf_translator.information_models.commons.Pair;
+import it.nextworks.sol006_tmf_translator.interfaces.PreviewInterface;
+import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.commons.exception.*;
+import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services.PreviewService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/preview")
+public class PreviewController implements PreviewInterface {
+
+    private final static Logger log = LoggerFactory.getLogger(PreviewController.class);
+
+    private final PreviewService previewService;
+
+    @Autowired
+    public PreviewController(PreviewService previewService) {
+        this.previewService = previewService;
+    }
+
+    private static ResponseEntity<?> notFound(String digest) {
+        String msg = "Preview " + digest + " not found or expired.";
+        log.info(msg);
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ErrMsg(msg));
+    }
+
+    @Override
+    @ApiOperation(value = "Get a translation preview.")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "OK", response = PreviewService.Preview.class),
+            @ApiResponse(code = 404, message = "Not Found", response = ErrMsg.class)
+    })
+    @GetMapping(value = "/{digest}", produces = { "application/json;charset=utf-8" })
+    public ResponseEntity<?>
+    getPreview(@ApiParam(value = "Digest of the previewed package.", required = true)
+               @PathVariable("digest") String digest) {
+
+        PreviewService.Preview preview = previewService.get(digest);
+        if(preview == null)
+            return notFound(digest);
+
+        return ResponseEntity.ok(preview);
+    }
+
+    @Override
+    @ApiOperation(value = "Post a previewed translation to the Offer Catalog.")
+    @ApiResponses(value = {
+            @ApiResponse(code = 201, message = "Created", response = Pair.class),
+            @ApiResponse(code = 400, message = "Bad Request", response = ErrMsg.class),
+            @ApiResponse(code = 404, message = "Not Found", response = ErrMsg.class),
+            @ApiResponse(code = 409, message = "Conflict", response = ErrMsg.class),
+            @ApiResponse(code = 500, message = "Internal Server Error", response = ErrMsg.class)
+    })
+    @PostMapping(value = "/{digest}/commit", produces = { "application/json;charset=utf-8" })
+    @ResponseStatus(value = HttpStatus.CREATED)
+    public ResponseEntity<?>
+    commitPreview(@ApiParam(value = "Digest of the previewed package.", required = true)
+                  @PathVariable("digest") String digest) {
+
+        log.info("Received request to commit preview " + digest + ".");
+
+        Pair<?, ?> translation;
+        try {
+            translation = previewService.commit(digest);
+        } catch (IOException | CatalogException | SourceException e) {
+            String msg = e.getMessage();
+            log.error(msg);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ErrMsg(msg));
+        } catch (MissingEntityOnCatalogException | MissingEntityOnSourceException | NotExistingEntityException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ErrMsg(e.getMessage()));
+        } catch (MalformattedElementException e) {
+            String msg = e.getMessage();
+            log.error(msg);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ErrMsg(msg));
+        } catch (StalePreviewException e) {
+            String msg = e.getMessage();
+            log.info(msg);
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new ErrMsg(msg));
+        }
+
+        if(translation == null)
+            return notFound(digest);
+
+        return ResponseEntity.status(HttpStatus.CREATED).body(translation);
+    }
+}
@@ -1,13 +1,17 @@
 package it.nextworks.sol006_tmf_translator.sol006_tmf_translator.rest;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.annotations.ApiParam;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
 import it.nextworks.sol006_tmf_translator.information_models.commons.Pair;
 import it.nextworks.sol006_tmf_translator.information_models.commons.SpectrumParameters;
+import it.nextworks.sol006_tmf_translator.information_models.commons.enums.Kind;
+import it.nextworks.sol006_tmf_translator.information_models.persistence.TranslationJob;
 import it.nextworks.sol006_tmf_translator.interfaces.RadioTranslatorInterface;
 import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.commons.exception.*;
+import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services.TranslationJobService;
 import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services.TranslationService;
 import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services.TranslatorRAPPInteractionService;
 import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services.TranslatorSliceManagerInteractionService;
@@ -20,9 +24,11 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import javax.annotation.PostConstruct;
 import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 import java.io.IOException;
+import java.util.Collections;
 import java.util.stream.Collectors;
 
 @RestController
@@ -40,22 +46,34 @@ public class RadioTranslatorController implements RadioTranslatorInterface {
 
     private final TranslationService translationService;
 
+    private final TranslationJobService translationJobService;
+
     @Autowired
     public RadioTranslatorController(ObjectMapper objectMapper,
                                      HttpServletRequest request,
                                      TranslatorSliceManagerInteractionService translatorSliceManagerInteractionService,
                                      TranslatorRAPPInteractionService translatorRAPPInteractionService,
-                                     TranslationService translationService) {
+                                     TranslationService translationService,
+                                     TranslationJobService translationJobService) {
         this.objectMapper                             = objectMapper;
         this.request                                  = request;
         this.translatorSliceManagerInteractionService = translatorSliceManagerInteractionService;
         this.translatorRAPPInteractionService         = translatorRAPPInteractionService;
         this.translationService                       = translationService;
+        this.translationJobService                    = translationJobService;
+    }
+
+    @PostConstruct
+    public void registerJobHandler() {
+        translationJobService.register(Kind.RAD, (sliceTypeId, parameters) ->
+                translateRadio(sliceTypeId,
+                        objectMapper.readValue(parameters.get("spectrumParameters"), SpectrumParameters.class), false));
     }
 
     @Override
     @ApiResponses(value = {
             @ApiResponse(code = 201, message = "Created", response = Pair.class),
+            @ApiResponse(code = 202, message = "Accepted", response = TranslationJob.class),
             @ApiResponse(code = 400, message = "Bad Request", response = ErrMsg.class),
             @ApiResponse(code = 500, message = "Internal Server Error", response = ErrMsg.class)
     })
@@ -67,11 +85,25 @@ public class RadioTranslatorController implements RadioTranslatorInterface {
     translateRadio(@ApiParam(value = "Slice Type ID of the Radio Resource to be translated.", required = true)
                    @PathVariable("sliceTypeId") String sliceTypeId,
                    @ApiParam(value = "Spectrum parameters of the Radio Resource to be translated.", required = true)
-                   @Valid @RequestBody SpectrumParameters spectrumParameters) {
+                   @Valid @RequestBody SpectrumParameters spectrumParameters,
+                   @ApiParam(value = "Run the translation as a background job and return 202 with the job to poll.")
+                   @RequestParam(value = "async", required = false, defaultValue = "false") boolean async) {
 
         log.info("Received request to translate & post Radio Resource with Slice Type ID {}.", sliceTypeId);
 
+        if(async) {
+            try {
+                return TranslationJobController.submit(translationJobService, Kind.RAD, sliceTypeId,
+                        Collections.singletonMap("spectrumParameters", objectMapper.writeValueAsString(spectrumParameters)));
+            } catch (JsonProcessingException e) {
+                String msg = e.getMessage();
+                log.error(msg);
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ErrMsg(msg));
+            }
+        }
+
         TranslatorSliceManagerInteractionService.SliceTypeChunks sliceTypeBlueprint;
+        translationJobService.stage("source");
         try {
             sliceTypeBlueprint = translatorSliceManagerInteractionService.getSliceBlueprint(sliceTypeId);
         } catch (SourceException e) {
@@ -95,6 +127,7 @@ public class RadioTranslatorController implements RadioTranslatorInterface {
         String radId = selectedPhy.getId();
 
         TranslatorRAPPInteractionService.RAPPWrapper rappWrapper;
+        translationJobService.stage("rapp");
         try {
             rappWrapper = translatorRAPPInteractionService.postRadioRAPP(radId, spectrumParameters);
         } catch (SourceException e) {
@@ -106,6 +139,7 @@ public class RadioTranslatorController implements RadioTranslatorInterface {
         }
 
         Pair<ResourceCandidate, ResourceSpecification> translation;
+        translationJobService.stage("translation");
         try {
             translation = translationService.translateAndPostRad(rappWrapper, radId, sliceTypeId);
         } catch (IOException | CatalogException | NotExistingEntityException e) {
@@ -6,8 +6,10 @@ import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
 import it.nextworks.sol006_tmf_translator.information_models.commons.Pair;
 import it.nextworks.sol006_tmf_translator.information_models.commons.enums.Kind;
+import it.nextworks.sol006_tmf_translator.information_models.persistence.TranslationJob;
 import it.nextworks.sol006_tmf_translator.interfaces.SpectrumTranslatorInterface;
 import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.commons.exception.*;
+import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services.TranslationJobService;
 import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services.TranslationService;
 import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services.TranslatorRAPPInteractionService;
 import it.nextworks.tmf_offering_catalog.information_models.resource.ResourceCandidate;
@@ -19,8 +21,10 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import javax.annotation.PostConstruct;
 import javax.servlet.http.HttpServletRequest;
 import java.io.IOException;
+import java.util.Collections;
 
 @RestController
 public class SpectrumTranslatorController implements SpectrumTranslatorInterface {
@@ -35,21 +39,32 @@ public class SpectrumTranslatorController implements SpectrumTranslatorInterface
 
     private final TranslatorRAPPInteractionService translatorRAPPInteractionService;
 
+    private final TranslationJobService translationJobService;
+
     @Autowired
     public SpectrumTranslatorController(ObjectMapper objectMapper,
                                         HttpServletRequest request,
                                         TranslationService translationService,
-                                        TranslatorRAPPInteractionService translatorRAPPInteractionService) {
+                                        TranslatorRAPPInteractionService translatorRAPPInteractionService,
+                                        TranslationJobService translationJobService) {
         this.objectMapper                     = objectMapper;
         this.request                          = request;
         this.translationService               = translationService;
         this.translatorRAPPInteractionService = translatorRAPPInteractionService;
+        this.translationJobService            = translationJobService;
+    }
+
+    @PostConstruct
+    public void registerJobHandler() {
+        translationJobService.register(Kind.SPC, (spcId, parameters) ->
+                translateSpectrum(spcId, false));
     }
 
 
     @Override
     @ApiResponses(value = {
             @ApiResponse(code = 201, message = "Created", response = Pair.class),
+            @ApiResponse(code = 202, message = "Accepted", response = TranslationJob.class),
             @ApiResponse(code = 400, message = "Bad Request", response = ErrMsg.class),
             @ApiResponse(code = 500, message = "Internal Server Error", response = ErrMsg.class)
     })
@@ -57,11 +72,17 @@ public class SpectrumTranslatorController implements SpectrumTranslatorInterface
             produces = { "application/json;charset=utf-8" },
             method = RequestMethod.POST)
     @ResponseStatus(value = HttpStatus.CREATED)
-    public ResponseEntity<?> translateSpectrum(@ApiParam(value = "Spectrum ID of the Spectrum Resource to be translated.", required = true) @PathVariable("spcId") String spcId) {
+    public ResponseEntity<?> translateSpectrum(@ApiParam(value = "Spectrum ID of the Spectrum Resource to be translated.", required = true) @PathVariable("spcId") String spcId,
+                                               @ApiParam(value = "Run the translation as a background job and return 202 with the job to poll.")
+                                               @RequestParam(value = "async", required = false, defaultValue = "false") boolean async) {
 
         log.info("Received request to translate & post Spectrum Resource with Spectrum id " + spcId + ".");
 
+        if(async)
+            return TranslationJobController.submit(translationJobService, Kind.SPC, spcId, Collections.emptyMap());
+
         TranslatorRAPPInteractionService.RAPPWrapper rappWrapper;
+        translationJobService.stage("source");
         try {
             rappWrapper = translatorRAPPInteractionService.getFromRAPP(Kind.SPC, spcId);
         } catch (SourceException | IOException e) {
@@ -73,6 +94,7 @@ public class SpectrumTranslatorController implements SpectrumTranslatorInterface
         }
 
         Pair<ResourceCandidate, ResourceSpecification> translation;
+        translationJobService.stage("translation");
         try {
             translation = translationService.translateAndPostSpc(rappWrapper, spcId);
         } catch (IOException | CatalogException | NotExistingEntityException e) {
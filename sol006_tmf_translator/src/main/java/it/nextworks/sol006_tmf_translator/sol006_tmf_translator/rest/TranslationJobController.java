@@ -0,0 +1,101 @@
+package it.nextworks.sol006_tmf_translator.sol006_tmf_translator.rest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import it.nextworks.sol006_tmf_translator.information_models.commons.enums.JobState;
+import it.nextworks.sol006_tmf_translator.information_models.commons.enums.Kind;
+import it.nextworks.sol006_tmf_translator.information_models.persistence.TranslationJob;
+import it.nextworks.sol006_tmf_translator.interfaces.TranslationJobInterface;
+import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.commons.exception.MissingEntityOnSourceException;
+import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.commons.exception.SourceException;
+import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services.TranslationJobService;
+import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services.TranslatorDescSourceInteractionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/jobs")
+public class TranslationJobController implements TranslationJobInterface {
+
+    private final static Logger log = LoggerFactory.getLogger(TranslationJobController.class);
+
+    private final TranslationJobService translationJobService;
+
+    @Autowired
+    public TranslationJobController(TranslationJobService translationJobService) {
+        this.translationJobService = translationJobService;
+    }
+
+    // Shared by the translator controllers when called with async=true, or with the catalog outbox enabled.
+    static ResponseEntity<?> submit(TranslationJobService translationJobService,
+                                    Kind kind, String targetId, Map<String, String> parameters) {
+        TranslationJob job;
+        try {
+            job = translationJobService.submit(kind, targetId, parameters);
+        } catch(JsonProcessingException e) {
+            String msg = e.getMessage();
+            log.error(msg);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ErrMsg(msg));
+        }
+
+        if(job.getState() == JobState.FAILED)
+            return ResponseEntity.status(job.getStatusCode()).body(job);
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED).location(URI.create("/jobs/" + job.getId())).body(job);
+    }
+
+    // Uploaded packages are stored on the descriptors source first, so that the job translates them by package info id.
+    static ResponseEntity<?> submitUploaded(TranslationJobService translationJobService,
+                                            TranslatorDescSourceInteractionService translatorDescSourceInteractionService,
+                                            Kind kind, String descriptorId, String packagePath) {
+        String infoId;
+        try {
+            try {
+                infoId = translatorDescSourceInteractionService.getInfoIdFromDescriptorId(kind, descriptorId);
+            } catch(MissingEntityOnSourceException e) {
+                log.info("Posting " + kind.name() + " descriptor " + descriptorId + " to descriptors source.");
+                translatorDescSourceInteractionService.postOnSource(kind, packagePath);
+                infoId = translatorDescSourceInteractionService.getInfoIdFromDescriptorId(kind, descriptorId);
+            }
+        } catch(MissingEntityOnSourceException e) {
+            String msg = kind.name() + " descriptor " + descriptorId + " not found on descriptors source after posting it.";
+            log.error(msg);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ErrMsg(msg));
+        } catch(SourceException | IOException e) {
+            String msg = e.getMessage();
+            log.error(msg);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ErrMsg(msg));
+        }
+
+        return submit(translationJobService, kind, infoId, Collections.emptyMap());
+    }
+
+    @Override
+    @ApiOperation(value = "Get state, stage timings and outcome of a translation job.")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Success", response = TranslationJob.class),
+            @ApiResponse(code = 404, message = "Not Found", response = ErrMsg.class)
+    })
+    @GetMapping(value = "/{jobId}", produces = { "application/json;charset=utf-8" })
+    public ResponseEntity<?> getJob(@ApiParam(value = "ID of the translation job.", required = true)
+                                    @PathVariable("jobId") String jobId) {
+        Optional<TranslationJob> job = translationJobService.get(jobId);
+        if(!job.isPresent())
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ErrMsg("Translation job " + jobId + " not found."));
+
+        return ResponseEntity.status(HttpStatus.OK).body(job.get());
+    }
+}
@@ -9,10 +9,13 @@ import io.swagger.annotations.ApiResponses;
 import it.nextworks.nfvmano.libs.descriptors.sol006.Vnfd;
 import it.nextworks.sol006_tmf_translator.information_models.commons.CSARInfo;
 import it.nextworks.sol006_tmf_translator.information_models.commons.Pair;
+import it.nextworks.sol006_tmf_translator.information_models.persistence.TranslationJob;
 import it.nextworks.sol006_tmf_translator.interfaces.VnfdTranslatorInterface;
 import it.nextworks.sol006_tmf_translator.information_models.commons.enums.Kind;
 import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.commons.exception.*;
 import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services.ArchiveParser;
+import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services.PreviewService;
+import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services.TranslationJobService;
 import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services.TranslationService;
 import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services.TranslatorDescSourceInteractionService;
 import it.nextworks.tmf_offering_catalog.information_models.resource.ResourceCandidate;
@@ -28,8 +31,10 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import javax.annotation.PostConstruct;
 import javax.servlet.http.HttpServletRequest;
 import java.io.IOException;
+import java.util.Collections;
 
 @RestController
 public class VnfdTranslatorController implements VnfdTranslatorInterface {
@@ -46,22 +51,37 @@ public class VnfdTranslatorController implements VnfdTranslatorInterface {
 
     private final ArchiveParser archiveParser;
 
+    private final TranslationJobService translationJobService;
+
+    private final PreviewService previewService;
+
     @Autowired
     public VnfdTranslatorController(ObjectMapper objectMapper,
                                     HttpServletRequest request,
                                     TranslationService translationService,
                                     TranslatorDescSourceInteractionService translatorDescSourceInteractionService,
-                                    ArchiveParser archiveParser) {
+                                    ArchiveParser archiveParser,
+                                    TranslationJobService translationJobService,
+                                    PreviewService previewService) {
         this.objectMapper       = objectMapper;
         this.request            = request;
         this.translationService = translationService;
         this.translatorDescSourceInteractionService = translatorDescSourceInteractionService;
         this.archiveParser = archiveParser;
+        this.translationJobService = translationJobService;
+        this.previewService = previewService;
+    }
+
+    @PostConstruct
+    public void registerJobHandler() {
+        translationJobService.register(Kind.VNF, (vnfPkgInfoId, parameters) ->
+                translateVnfdById(vnfPkgInfoId, parameters.get("functionType"), false));
     }
 
     @Override
     @ApiResponses(value = {
             @ApiResponse(code = 201, message = "Created", response = Pair.class),
+            @ApiResponse(code = 202, message = "Accepted", response = TranslationJob.class),
             @ApiResponse(code = 400, message = "Bad Request", response = ErrMsg.class),
             @ApiResponse(code = 500, message = "Internal Server Error", response = ErrMsg.class)
     })
@@ -91,6 +111,10 @@ public class VnfdTranslatorController implements VnfdTranslatorInterface {
 
         log.info("Received request to translate & post vnfd with id " + vnfdId + ".");
 
+        if(translationService.publishesThroughOutbox())
+            return TranslationJobController.submitUploaded(translationJobService, translatorDescSourceInteractionService,
+                    Kind.VNF, vnfdId, csarInfo.getPackagePath());
+
         Pair<ResourceCandidate, ResourceSpecification> translation;
         try {
             translation = translationService.translateVnfd(vnfd, null);
@@ -132,6 +156,7 @@ public class VnfdTranslatorController implements VnfdTranslatorInterface {
     @Override
     @ApiResponses(value = {
             @ApiResponse(code = 201, message = "Created", response = Pair.class),
+            @ApiResponse(code = 202, message = "Accepted", response = TranslationJob.class),
             @ApiResponse(code = 400, message = "Bad Request", response = ErrMsg.class),
             @ApiResponse(code = 500, message = "Internal Server Error", response = ErrMsg.class)
     })
@@ -143,11 +168,17 @@ public class VnfdTranslatorController implements VnfdTranslatorInterface {
     translateVnfdById(@ApiParam(value = "vnf package info ID of the vnf to be translated.", required = true)
                       @PathVariable("vnfPkgInfoId") String vnfPkgInfoId,
                       @ApiParam(value = "Type of the function to be translated.")
-                      @RequestParam(value = "functionType", required = false) String functionType) {
+                      @RequestParam(value = "functionType", required = false) String functionType,
+                      @ApiParam(value = "Run the translation as a background job and return 202 with the job to poll.")
+                      @RequestParam(value = "async", required = false, defaultValue = "false") boolean async) {
 
         log.info("Received request to translate & post vnfd for vnf with vnf package info id " + vnfPkgInfoId + ".");
 
+        if(async || translationService.publishesThroughOutbox() && !translationJobService.inJob())
+            return TranslationJobController.submit(translationJobService, Kind.VNF, vnfPkgInfoId, Collections.singletonMap("functionType", functionType));
+
         HttpEntity httpEntity;
+        translationJobService.stage("source");
         try {
             log.info("Retrieving vnfd for vnf with vnf package info id " + vnfPkgInfoId + " from descriptors source.");
             httpEntity = translatorDescSourceInteractionService.getFromSource(Kind.VNF, vnfPkgInfoId);
@@ -184,6 +215,7 @@ public class VnfdTranslatorController implements VnfdTranslatorInterface {
         }
 
         Pair<ResourceCandidate, ResourceSpecification> translation;
+        translationJobService.stage("translation");
         try {
             translation = translationService.translateVnfd(vnfd, functionType);
         } catch (IOException | CatalogException e) {
@@ -198,4 +230,34 @@ public class VnfdTranslatorController implements VnfdTranslatorInterface {
 
         return ResponseEntity.status(HttpStatus.CREATED).body(translation);
     }
+
+    @Override
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "OK", response = PreviewService.Preview.class),
+            @ApiResponse(code = 400, message = "Bad Request", response = ErrMsg.class),
+            @ApiResponse(code = 500, message = "Internal Server Error", response = ErrMsg.class)
+    })
+    @RequestMapping(value = "/vnfdToTmf/preview",
+            produces = { "application/json;charset=utf-8" },
+            consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+            method = RequestMethod.POST)
+    public ResponseEntity<?>
+    previewVnfd(@ApiParam(value = "VNF package", required = true) @RequestPart("file") MultipartFile body,
+                @ApiParam(value = "Type of the function to be translated.")
+                @RequestParam(value = "functionType", required = false) String functionType) {
+
+        log.info("Received request to preview translation of vnf package " + body.getOriginalFilename() + ".");
+
+        try {
+            return ResponseEntity.ok(previewService.preview(body, Kind.VNF, functionType));
+        } catch (IOException | FailedOperationException | CatalogException e) {
+            String msg = e.getMessage();
+            log.error(msg);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ErrMsg(msg));
+        } catch (MalformattedElementException | NotExistingEntityException e) {
+            String msg = e.getMessage();
+            log.error(msg);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ErrMsg(msg));
+        }
+    }
 }
@@ -0,0 +1,169 @@
+package it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import it.nextworks.sol006_tmf_translator.information_models.commons.enums.Lane;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+public class BulkTranslationService {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkTranslationService.class);
+
+    @FunctionalInterface
+    public interface Item {
+        ResponseEntity<?> translate() throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface ResultSink {
+        void accept(ItemResult result) throws IOException;
+    }
+
+    public static class ItemResult {
+
+        @JsonProperty("index")
+        private final int index;
+
+        @JsonProperty("item")
+        private final String item;
+
+        @JsonProperty("status")
+        private final int status;
+
+        @JsonProperty("durationMs")
+        private final long durationMs;
+
+        @JsonProperty("result")
+        private final Object result;
+
+        private ItemResult(int index, String item, int status, long durationMs, Object result) {
+            this.index      = index;
+            this.item       = item;
+            this.status     = status;
+            this.durationMs = durationMs;
+            this.result     = result;
+        }
+
+        public int getIndex() { return index; }
+
+        public String getItem() { return item; }
+
+        public int getStatus() { return status; }
+
+        public long getDurationMs() { return durationMs; }
+
+        public Object getResult() { return result; }
+    }
+
+    @Value("${translation.bulk.threads}")
+    private int threads;
+
+    @Value("${translation.bulk.max_concurrency}")
+    private int maxConcurrency;
+
+    @Value("${translation.bulk.max_items}")
+    private int maxItems;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger counter = new AtomicInteger();
+        // Every bulk request keeps at most its own concurrency in flight, so the queue cannot grow unbounded.
+        executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "bulk-translation-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void shutdown() { executor.shutdownNow(); }
+
+    public int getMaxItems() { return maxItems; }
+
+    public int concurrency(Integer requested) {
+        if(requested == null || requested <= 0)
+            return maxConcurrency;
+        return Math.min(requested, maxConcurrency);
+    }
+
+    private ItemResult translate(int index, String label, Item item) {
+        long start = System.nanoTime();
+        int status;
+        Object result;
+        Lane previous = PriorityLanes.enter(Lane.BULK);
+        try {
+            ResponseEntity<?> response = item.translate();
+            status = response.getStatusCodeValue();
+            result = response.getBody();
+        } catch(Exception e) {
+            log.error("Bulk item " + label + " failed: " + e.getMessage());
+            status = 500;
+            result = Collections.singletonMap("msg", e.getMessage());
+        } finally {
+            PriorityLanes.restore(previous);
+        }
+
+        return new ItemResult(index, label, status, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), result);
+    }
+
+    // Keeps a window of concurrency items in flight and hands each result to the sink as soon as it completes.
+    public void run(List<String> labels, List<Item> items, int concurrency, ResultSink sink)
+            throws IOException, InterruptedException {
+
+        ExecutorCompletionService<ItemResult> completionService = new ExecutorCompletionService<>(executor);
+        List<Future<ItemResult>> futures = new ArrayList<>(items.size());
+        int next = 0;
+        int inFlight = 0;
+        int succeeded = 0;
+        try {
+            for(; next < items.size() && inFlight < concurrency; next++, inFlight++) {
+                int index = next;
+                futures.add(completionService.submit(() -> translate(index, labels.get(index), items.get(index))));
+            }
+
+            while(inFlight > 0) {
+                ItemResult result = completionService.take().get();
+                inFlight--;
+                if(result.getStatus() >= 200 && result.getStatus() < 300)
+                    succeeded++;
+                sink.accept(result);
+
+                if(next < items.size()) {
+                    int index = next++;
+                    futures.add(completionService.submit(() -> translate(index, labels.get(index), items.get(index))));
+                    inFlight++;
+                }
+            }
+        } catch(ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            for(Future<ItemResult> future : futures)
+                future.cancel(true);
+        }
+
+        log.info("Bulk translation completed: " + succeeded + "/" + items.size() + " items succeeded.");
+    }
+}
@@ -0,0 +1,173 @@
+package it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Compares a catalog object as it was posted with the create object of a new translation and builds the
+// PATCH body holding only what changed. Attributes the new translation no longer sets are patched to null, apart
+// from those the Offer Catalog maintains on its own (id, href, lifecycle attributes), which never count as a change.
+@Service
+public class CatalogDiff {
+
+    private static final List<String> CHARACTERISTIC_FIELDS =
+            Arrays.asList("resourceSpecCharacteristic", "serviceSpecCharacteristic");
+
+    private static final String LAST_UPDATE = "lastUpdate";
+
+    private static final Set<String> SERVER_OWNED_FIELDS = new HashSet<>(Arrays.asList("id", "href", LAST_UPDATE,
+            "lifecycleStatus", "validFor", "@type", "@baseType", "@schemaLocation", "@referredType"));
+
+    public static class Patch {
+        private final ObjectNode body;
+        private final List<String> fields = new ArrayList<>();
+        private final List<String> dropped = new ArrayList<>();
+        private final List<String> added = new ArrayList<>();
+        private final List<String> removed = new ArrayList<>();
+        private final List<String> changed = new ArrayList<>();
+
+        private Patch(ObjectNode body) { this.body = body; }
+
+        public boolean isEmpty() { return fields.isEmpty(); }
+
+        public ObjectNode getBody() { return body; }
+
+        @Override
+        public String toString() {
+            return "fields " + fields + ", dropped " + dropped + ", characteristics added " + added + ", removed " + removed +
+                    ", changed " + changed;
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public CatalogDiff(ObjectMapper objectMapper) { this.objectMapper = objectMapper; }
+
+    // Empty lists and objects are what the Offer Catalog answers for attributes it was never sent.
+    private static boolean isSet(JsonNode node) {
+        return node != null && !node.isNull() && !(node.isContainerNode() && node.size() == 0);
+    }
+
+    // Fields previous holds a value for that next no longer sets, apart from those the Offer Catalog maintains.
+    private static List<String> dropped(JsonNode previous, JsonNode next) {
+        List<String> dropped = new ArrayList<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = previous.fields();
+        while(fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            if(!SERVER_OWNED_FIELDS.contains(field.getKey()) && isSet(field.getValue()) &&
+                    !isSet(next.get(field.getKey())))
+                dropped.add(field.getKey());
+        }
+        return dropped;
+    }
+
+    // True when previous holds every value of next and nothing next dropped, whatever the Offer Catalog added.
+    private static boolean covers(JsonNode previous, JsonNode next) {
+        if(next == null || next.isNull())
+            return true;
+        if(previous == null || previous.isNull())
+            return false;
+
+        if(next.isObject()) {
+            if(!previous.isObject())
+                return false;
+            Iterator<Map.Entry<String, JsonNode>> fields = next.fields();
+            while(fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                if(!covers(previous.get(field.getKey()), field.getValue()))
+                    return false;
+            }
+            return dropped(previous, next).isEmpty();
+        }
+
+        if(next.isArray()) {
+            if(!previous.isArray() || previous.size() != next.size())
+                return false;
+            for(int i = 0; i < next.size(); i++) {
+                if(!covers(previous.get(i), next.get(i)))
+                    return false;
+            }
+            return true;
+        }
+
+        return next.isValueNode() && previous.isValueNode() && next.asText().equals(previous.asText());
+    }
+
+    private static Map<String, JsonNode> byName(JsonNode characteristics) {
+        Map<String, JsonNode> byName = new LinkedHashMap<>();
+        if(characteristics != null && characteristics.isArray()) {
+            for(JsonNode characteristic : characteristics)
+                byName.put(characteristic.path("name").asText(), characteristic);
+        }
+        return byName;
+    }
+
+    private static boolean diffCharacteristics(JsonNode previous, JsonNode next, Patch patch) {
+        Map<String, JsonNode> previousByName = byName(previous);
+        Map<String, JsonNode> nextByName = byName(next);
+
+        for(Map.Entry<String, JsonNode> characteristic : nextByName.entrySet()) {
+            JsonNode previousCharacteristic = previousByName.get(characteristic.getKey());
+            if(previousCharacteristic == null)
+                patch.added.add(characteristic.getKey());
+            else if(!covers(previousCharacteristic, characteristic.getValue()))
+                patch.changed.add(characteristic.getKey());
+        }
+        for(String name : previousByName.keySet()) {
+            if(!nextByName.containsKey(name))
+                patch.removed.add(name);
+        }
+
+        return !patch.added.isEmpty() || !patch.removed.isEmpty() || !patch.changed.isEmpty();
+    }
+
+    public Patch diff(String previousSnapshot, Object next) throws JsonProcessingException {
+        JsonNode previous = objectMapper.readTree(previousSnapshot);
+        ObjectNode nextNode = objectMapper.valueToTree(next);
+        Patch patch = new Patch(objectMapper.createObjectNode());
+
+        Iterator<Map.Entry<String, JsonNode>> fields = nextNode.fields();
+        while(fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            String name = field.getKey();
+            if(name.equals(LAST_UPDATE))
+                continue;
+
+            // Characteristic lists are replaced as a whole, but only when one of them actually changed.
+            boolean changed = CHARACTERISTIC_FIELDS.contains(name) ?
+                    diffCharacteristics(previous.get(name), field.getValue(), patch) :
+                    !covers(previous.get(name), field.getValue());
+            if(changed) {
+                patch.body.set(name, field.getValue());
+                patch.fields.add(name);
+            }
+        }
+
+        // A PATCH keeps whatever it leaves out, so dropped attributes are sent as explicit nulls.
+        for(String name : dropped(previous, nextNode)) {
+            if(CHARACTERISTIC_FIELDS.contains(name))
+                diffCharacteristics(previous.get(name), null, patch);
+            patch.body.putNull(name);
+            patch.fields.add(name);
+            patch.dropped.add(name);
+        }
+
+        if(!patch.isEmpty() && nextNode.has(LAST_UPDATE))
+            patch.body.set(LAST_UPDATE, nextNode.get(LAST_UPDATE));
+
+        return patch;
+    }
+}
@@ -0,0 +1,131 @@
+package it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.nextworks.sol006_tmf_translator.information_models.commons.enums.Kind;
+import it.nextworks.sol006_tmf_translator.information_models.commons.enums.OutboxState;
+import it.nextworks.sol006_tmf_translator.information_models.persistence.CatalogOutboxEntry;
+import it.nextworks.sol006_tmf_translator.information_models.persistence.MappingInfo;
+import it.nextworks.sol006_tmf_translator.information_models.persistence.RequirementSummary;
+import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.repo.CatalogOutboxRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Translations waiting to be published to the Offer Catalog. An entry holds everything the publication needs,
+// the translated specification and what to build the candidate and the mapping info from, and is written in
+// a single local transaction; the mapping info is saved in the same transaction that marks it published.
+@Service
+public class CatalogOutbox {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogOutbox.class);
+
+    @Value("${translation.outbox.enabled}")
+    private boolean enabled;
+
+    @Value("${translation.outbox.max_attempts}")
+    private int maxAttempts;
+
+    @Value("${translation.outbox.retry_backoff}")
+    private long retryBackoff;
+
+    private final ObjectMapper objectMapper;
+
+    private final CatalogOutboxRepository catalogOutboxRepository;
+
+    private final MappingInfoService mappingInfoService;
+
+    @Autowired
+    public CatalogOutbox(ObjectMapper objectMapper,
+                         CatalogOutboxRepository catalogOutboxRepository,
+                         MappingInfoService mappingInfoService) {
+        this.objectMapper = objectMapper;
+        this.catalogOutboxRepository = catalogOutboxRepository;
+        this.mappingInfoService = mappingInfoService;
+    }
+
+    public boolean isEnabled() { return enabled; }
+
+    // A translation already pending with the same content is returned instead of being queued twice.
+    @Transactional
+    public CatalogOutboxEntry enqueue(Kind kind, String descriptorId, String digest, String candidateName,
+                                      Object specification, RequirementSummary requirements,
+                                      String specificationPath, String candidatePath)
+            throws JsonProcessingException {
+
+        List<CatalogOutboxEntry> pending =
+                catalogOutboxRepository.findByDescriptorIdAndStateOrderById(descriptorId, OutboxState.PENDING);
+        if(!pending.isEmpty()) {
+            CatalogOutboxEntry latest = pending.get(pending.size() - 1);
+            if(digest.equals(latest.getContentDigest())) {
+                log.info("Translation of " + descriptorId + " already pending in catalog outbox.");
+                return latest;
+            }
+        }
+
+        String specificationPayload = objectMapper.writeValueAsString(specification);
+        int superseded = catalogOutboxRepository.supersede(descriptorId, OutboxState.PENDING, OutboxState.SUPERSEDED);
+        if(superseded > 0)
+            log.info(superseded + " pending translations of " + descriptorId + " superseded in catalog outbox.");
+
+        CatalogOutboxEntry entry = catalogOutboxRepository.save(new CatalogOutboxEntry(descriptorId, kind, digest,
+                candidateName, specificationPath, specificationPayload, requirements, candidatePath));
+        log.info("Translation of " + descriptorId + " queued in catalog outbox as entry " + entry.getId() + ".");
+
+        return entry;
+    }
+
+    public CatalogOutboxEntry get(Long id) { return catalogOutboxRepository.findById(id).orElse(null); }
+
+    public List<CatalogOutboxEntry> pending(String descriptorId) {
+        return catalogOutboxRepository.findByDescriptorIdAndStateOrderById(descriptorId, OutboxState.PENDING);
+    }
+
+    public List<CatalogOutboxEntry> due(int batchSize) {
+        return catalogOutboxRepository.findDue(OutboxState.PENDING, System.currentTimeMillis(),
+                PageRequest.of(0, batchSize));
+    }
+
+    public void specificationPosted(CatalogOutboxEntry entry, String specificationCatalogId, String specificationResponse) {
+        entry.setSpecificationCatalogId(specificationCatalogId);
+        entry.setSpecificationResponse(specificationResponse);
+        catalogOutboxRepository.save(entry);
+    }
+
+    @Transactional
+    public void published(CatalogOutboxEntry entry, MappingInfo mappingInfo) {
+        mappingInfoService.save(mappingInfo);
+        entry.setState(OutboxState.PUBLISHED);
+        entry.setPublishedAt(System.currentTimeMillis());
+        entry.setLastError(null);
+        catalogOutboxRepository.save(entry);
+    }
+
+    public void failed(CatalogOutboxEntry entry, String error) {
+        int attempts = entry.getAttempts() + 1;
+        entry.setAttempts(attempts);
+        entry.setLastError(error);
+        if(attempts >= maxAttempts) {
+            entry.setState(OutboxState.FAILED);
+            log.error("Publication of " + entry.getDescriptorId() + " failed " + attempts + " times, giving up: " + error);
+        }
+        else
+            entry.setNextAttemptAt(System.currentTimeMillis() + (retryBackoff << Math.min(attempts - 1, 6)));
+        catalogOutboxRepository.save(entry);
+    }
+
+    public Map<String, Long> stats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        for(OutboxState state : OutboxState.values())
+            stats.put(state.name(), catalogOutboxRepository.countByState(state));
+        return stats;
+    }
+}
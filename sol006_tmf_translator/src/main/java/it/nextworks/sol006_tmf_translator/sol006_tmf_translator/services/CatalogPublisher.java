@@ -0,0 +1,246 @@
+package it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.nextworks.sol006_tmf_translator.information_models.commons.Pair;
+import it.nextworks.sol006_tmf_translator.information_models.commons.enums.Kind;
+import it.nextworks.sol006_tmf_translator.information_models.commons.enums.Lane;
+import it.nextworks.sol006_tmf_translator.information_models.commons.enums.OutboxState;
+import it.nextworks.sol006_tmf_translator.information_models.commons.enums.PresenceStatus;
+import it.nextworks.sol006_tmf_translator.information_models.persistence.CatalogOutboxEntry;
+import it.nextworks.sol006_tmf_translator.information_models.persistence.MappingInfo;
+import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.commons.exception.CatalogException;
+import it.nextworks.tmf_offering_catalog.information_models.resource.ResourceCandidate;
+import it.nextworks.tmf_offering_catalog.information_models.resource.ResourceSpecification;
+import it.nextworks.tmf_offering_catalog.information_models.service.ServiceCandidate;
+import it.nextworks.tmf_offering_catalog.information_models.service.ServiceSpecification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Publishes catalog outbox entries: specification first, then the candidate built on it, then the mapping info.
+// Entries are published right away by the translation job that queued them, whose outcome holds the catalog
+// objects; what that leaves pending, because the Offer Catalog failed or the replica stopped, is drained in the background
+// in batches, oldest entry first for each descriptor, with the given concurrency.
+@Service
+public class CatalogPublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogPublisher.class);
+
+    @Value("${translation.outbox.poll_interval}")
+    private long pollInterval;
+
+    @Value("${translation.outbox.batch_size}")
+    private int batchSize;
+
+    @Value("${translation.outbox.concurrency}")
+    private int concurrency;
+
+    private final ObjectMapper objectMapper;
+
+    private final CatalogOutbox catalogOutbox;
+
+    private final TranslatorCatalogInteractionService translatorCatalogInteractionService;
+
+    private final TranslatorEngine translatorEngine;
+
+    private final CategoryRegistry categoryRegistry;
+
+    private final TranslationCoalescer translationCoalescer;
+
+    private ScheduledExecutorService poller;
+
+    private ExecutorService workers;
+
+    @Autowired
+    public CatalogPublisher(ObjectMapper objectMapper,
+                            CatalogOutbox catalogOutbox,
+                            TranslatorCatalogInteractionService translatorCatalogInteractionService,
+                            TranslatorEngine translatorEngine,
+                            CategoryRegistry categoryRegistry,
+                            TranslationCoalescer translationCoalescer) {
+        this.objectMapper = objectMapper;
+        this.catalogOutbox = catalogOutbox;
+        this.translatorCatalogInteractionService = translatorCatalogInteractionService;
+        this.translatorEngine = translatorEngine;
+        this.categoryRegistry = categoryRegistry;
+        this.translationCoalescer = translationCoalescer;
+    }
+
+    @PostConstruct
+    public void init() {
+        if(!catalogOutbox.isEnabled())
+            return;
+
+        AtomicInteger counter = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "catalog-publisher-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "catalog-outbox-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        poller.scheduleWithFixedDelay(this::drain, pollInterval, pollInterval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if(poller != null) {
+            poller.shutdownNow();
+            workers.shutdownNow();
+        }
+    }
+
+    // Publishes the entry after the older entries still pending for its descriptor.
+    public <C, S> Pair<C, S> publish(CatalogOutboxEntry entry, Class<C> candidateType, Class<S> specificationType)
+            throws IOException, CatalogException {
+
+        for(CatalogOutboxEntry older : catalogOutbox.pending(entry.getDescriptorId())) {
+            if(older.getId() >= entry.getId())
+                break;
+            publishEntry(older, candidateType, specificationType);
+        }
+
+        return publishEntry(entry, candidateType, specificationType);
+    }
+
+    private String catalogId(Object catalogObject) {
+        return objectMapper.valueToTree(catalogObject).path("id").asText(null);
+    }
+
+    private Object buildCandidate(CatalogOutboxEntry entry, Object specification) throws CatalogException, IOException {
+        Pair<String, String> category = categoryRegistry.get(entry.getKind());
+        switch(entry.getKind()) {
+            case VNF:
+                return translatorEngine.buildVnfdResourceCandidate(entry.getCandidateName(), category,
+                        (ResourceSpecification) specification);
+            case PNF:
+                return translatorEngine.buildPnfdResourceCandidate(entry.getCandidateName(), category,
+                        (ResourceSpecification) specification);
+            case NS:
+                return translatorEngine.buildNsdServiceCandidate(entry.getCandidateName(), category,
+                        (ServiceSpecification) specification);
+            default:
+                throw new CatalogException("Catalog outbox does not publish " + entry.getKind().name() + " translations.");
+        }
+    }
+
+    private <C, S> Pair<C, S> publishEntry(CatalogOutboxEntry entry, Class<C> candidateType, Class<S> specificationType)
+            throws IOException, CatalogException {
+
+        String descriptorId = entry.getDescriptorId();
+        try {
+            S specification;
+            if(entry.getSpecificationCatalogId() == null) {
+                log.info("Posting Specification to Offer Catalog for " + descriptorId + ".");
+                specification = translatorCatalogInteractionService
+                        .post(entry.getSpecificationPayload(), entry.getSpecificationPath(), specificationType);
+                catalogOutbox.specificationPosted(entry, catalogId(specification),
+                        objectMapper.writeValueAsString(specification));
+            }
+            else
+                specification = objectMapper.readValue(entry.getSpecificationResponse(), specificationType);
+
+            log.info("Posting Candidate to Offer Catalog for " + descriptorId + ".");
+            C candidate;
+            try {
+                candidate = translatorCatalogInteractionService.post(
+                        objectMapper.writeValueAsString(buildCandidate(entry, specification)),
+                        entry.getCandidatePath(), candidateType);
+            } catch(CatalogException e) {
+                // The cached category may have been removed from the Offer Catalog meanwhile.
+                categoryRegistry.invalidate(entry.getKind());
+                throw e;
+            }
+
+            catalogOutbox.published(entry, new MappingInfo(descriptorId, catalogId(candidate),
+                    entry.getSpecificationCatalogId(), entry.getKind())
+                    .contentDigest(entry.getContentDigest())
+                    .candidateSnapshot(objectMapper.writeValueAsString(candidate))
+                    .specificationSnapshot(entry.getSpecificationResponse())
+                    .lastVerifiedAt(System.currentTimeMillis())
+                    .verificationStatus(PresenceStatus.PRESENT)
+                    .driftCount(0)
+                    .requirements(entry.getRequirements()));
+            log.info(descriptorId + " published from catalog outbox entry " + entry.getId() + ".");
+
+            return new Pair<>(candidate, specification);
+        } catch(IOException | CatalogException e) {
+            catalogOutbox.failed(entry, e.getMessage());
+            throw e;
+        }
+    }
+
+    private static Class<?> candidateType(Kind kind) {
+        return kind == Kind.NS ? ServiceCandidate.class : ResourceCandidate.class;
+    }
+
+    private static Class<?> specificationType(Kind kind) {
+        return kind == Kind.NS ? ServiceSpecification.class : ResourceSpecification.class;
+    }
+
+    private void drain() {
+        List<CatalogOutboxEntry> batch;
+        try {
+            batch = catalogOutbox.due(batchSize);
+        } catch(RuntimeException e) {
+            log.warn("Cannot read catalog outbox: " + e.getMessage());
+            return;
+        }
+        if(batch.isEmpty())
+            return;
+
+        log.info("Publishing " + batch.size() + " catalog outbox entries.");
+        List<Future<?>> publications = new ArrayList<>(batch.size());
+        for(CatalogOutboxEntry entry : batch)
+            publications.add(workers.submit(() -> drainEntry(entry)));
+        for(Future<?> publication : publications) {
+            try {
+                publication.get();
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch(ExecutionException e) {
+                log.warn("Catalog outbox publication failed: " + e.getCause().getMessage());
+            }
+        }
+    }
+
+    // Coalesced with translations of the same descriptor, which may be publishing the entry themselves.
+    private void drainEntry(CatalogOutboxEntry entry) {
+        String key = entry.getKind().name() + ":" + entry.getDescriptorId();
+        Lane previous = PriorityLanes.enter(Lane.BULK);
+        try {
+            translationCoalescer.run(key, () -> {
+                CatalogOutboxEntry current = catalogOutbox.get(entry.getId());
+                if(current == null || current.getState() != OutboxState.PENDING)
+                    return null;
+                return publishEntry(current, candidateType(current.getKind()), specificationType(current.getKind()));
+            });
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch(ExecutionException e) {
+            log.warn("Publication of catalog outbox entry " + entry.getId() + " for " + key + " failed: " +
+                    e.getCause().getMessage());
+        } finally {
+            PriorityLanes.restore(previous);
+        }
+    }
+}
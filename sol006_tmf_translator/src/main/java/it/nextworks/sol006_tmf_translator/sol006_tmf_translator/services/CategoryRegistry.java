@@ -0,0 +1,218 @@
+package it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.nextworks.sol006_tmf_translator.information_models.commons.Pair;
+import it.nextworks.sol006_tmf_translator.information_models.commons.enums.Kind;
+import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.commons.exception.CatalogException;
+import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.commons.exception.MissingEntityOnCatalogException;
+import it.nextworks.tmf_offering_catalog.information_models.resource.ResourceCategory;
+import it.nextworks.tmf_offering_catalog.information_models.resource.ResourceCategoryCreate;
+import it.nextworks.tmf_offering_catalog.information_models.service.ServiceCategory;
+import it.nextworks.tmf_offering_catalog.information_models.service.ServiceCategoryCreate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.threeten.bp.Instant;
+import org.threeten.bp.OffsetDateTime;
+import org.threeten.bp.ZoneId;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+public class CategoryRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(CategoryRegistry.class);
+
+    private static final String resourceCategoryPath = "/resourceCatalogManagement/v2/resourceCategory";
+
+    private static final String serviceCategoryPath = "/serviceCatalogManagement/v4/serviceCategory";
+
+    private static class CachedCategory {
+        private final Pair<String, String> hrefAndId;
+        private final long expiresAt;
+
+        private CachedCategory(Pair<String, String> hrefAndId, long expiresAt) {
+            this.hrefAndId = hrefAndId;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired() { return System.nanoTime() - expiresAt >= 0; }
+    }
+
+    @Value("${offer_catalog.category_ttl}")
+    private long categoryTtl;
+
+    @Value("${offer_catalog.bootstrap.parallelism}")
+    private int bootstrapParallelism;
+
+    @Value("${offer_catalog.bootstrap.timeout}")
+    private long bootstrapTimeout;
+
+    private final ObjectMapper objectMapper;
+
+    private final TranslatorCatalogInteractionService translatorCatalogInteractionService;
+
+    private final Map<Kind, CachedCategory> categories = new ConcurrentHashMap<>();
+
+    private final Map<Kind, Object> locks = new EnumMap<>(Kind.class);
+
+    private final Map<Kind, CompletableFuture<Pair<String, String>>> bootstrapping = new ConcurrentHashMap<>();
+
+    @Autowired
+    public CategoryRegistry(ObjectMapper objectMapper,
+                            TranslatorCatalogInteractionService translatorCatalogInteractionService) {
+        this.objectMapper = objectMapper;
+        this.translatorCatalogInteractionService = translatorCatalogInteractionService;
+        for(Kind kind : Kind.values())
+            locks.put(kind, new Object());
+    }
+
+    private static ThreadFactory daemonThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    public CompletableFuture<Void> bootstrap() {
+        Kind[] kinds = Kind.values();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(bootstrapParallelism, kinds.length),
+                daemonThreadFactory("category-bootstrap"));
+        ScheduledExecutorService timer =
+                Executors.newSingleThreadScheduledExecutor(daemonThreadFactory("category-bootstrap-timer"));
+
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[kinds.length];
+        for(int i = 0; i < kinds.length; i++) {
+            Kind kind = kinds[i];
+            CompletableFuture<Pair<String, String>> future = new CompletableFuture<>();
+            bootstrapping.put(kind, future);
+            future.whenComplete((hrefAndId, e) -> bootstrapping.remove(kind, future));
+
+            // The timeout starts when the category is picked up, not when it is queued.
+            executor.execute(() -> {
+                ScheduledFuture<?> timeout = timer.schedule(() -> future.completeExceptionally(
+                        new TimeoutException("Category " + kind.name() + " bootstrap timed out.")),
+                        bootstrapTimeout, TimeUnit.MILLISECONDS);
+                try {
+                    future.complete(refresh(kind));
+                } catch(Exception e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    timeout.cancel(false);
+                }
+            });
+            futures[i] = future;
+        }
+
+        CompletableFuture<Void> all = CompletableFuture.allOf(futures);
+        all.whenComplete((v, e) -> {
+            executor.shutdown();
+            timer.shutdown();
+        });
+
+        return all;
+    }
+
+    public Pair<String, String> get(Kind kind) throws CatalogException, IOException {
+        CachedCategory cached = categories.get(kind);
+        if(cached != null && !cached.isExpired())
+            return cached.hrefAndId;
+
+        CompletableFuture<Pair<String, String>> pending = bootstrapping.get(kind);
+        if(pending != null) {
+            try {
+                return pending.get();
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CatalogException("Interrupted while waiting for Category " + kind.name() + ".");
+            } catch(ExecutionException e) {
+                log.warn("Bootstrap of Category " + kind.name() + " failed, resolving it on demand: " +
+                        e.getCause().getMessage());
+            }
+        }
+
+        synchronized(locks.get(kind)) {
+            cached = categories.get(kind);
+            if(cached != null && !cached.isExpired())
+                return cached.hrefAndId;
+
+            try {
+                return refresh(kind);
+            } catch(CatalogException | IOException e) {
+                if(cached == null)
+                    throw e;
+
+                log.warn("Cannot revalidate Category " + kind.name() + ", keeping the cached one: " + e.getMessage());
+                return cached.hrefAndId;
+            }
+        }
+    }
+
+    public Pair<String, String> refresh(Kind kind) throws CatalogException, IOException {
+        Pair<String, String> hrefAndId = getOrCreate(kind);
+        categories.put(kind, new CachedCategory(hrefAndId,
+                System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(categoryTtl)));
+        return hrefAndId;
+    }
+
+    public void invalidate(Kind kind) {
+        if(categories.remove(kind) != null)
+            log.info("Category " + kind.name() + " invalidated, it will be revalidated on next use.");
+    }
+
+    private Pair<String, String> getOrCreate(Kind kind) throws CatalogException, IOException {
+
+        String name = kind.name();
+        boolean resourceKind = TranslatorCatalogInteractionService.isResourceKind(kind);
+        try {
+            if(resourceKind) {
+                ResourceCategory rc = translatorCatalogInteractionService
+                        .isCategoryPresent(kind, resourceCategoryPath + "/filter", ResourceCategory.class);
+                return new Pair<>(rc.getHref(), rc.getId());
+            }
+
+            ServiceCategory sc = translatorCatalogInteractionService
+                    .isCategoryPresent(kind, serviceCategoryPath + "/filter", ServiceCategory.class);
+            return new Pair<>(sc.getHref(), sc.getId());
+        } catch (MissingEntityOnCatalogException e) {
+            log.info("Posting Category " + name + " to Offer Catalog.");
+
+            if(resourceKind) {
+                ResourceCategoryCreate rcc = new ResourceCategoryCreate()
+                        .name(name)
+                        .lastUpdate(OffsetDateTime.ofInstant(Instant.now(), ZoneId.of("UTC")));
+                ResourceCategory rc = translatorCatalogInteractionService
+                        .post(objectMapper.writeValueAsString(rcc), resourceCategoryPath, ResourceCategory.class);
+
+                log.info("Category " + name + " posted to Offer Catalog.");
+                return new Pair<>(rc.getHref(), rc.getId());
+            }
+
+            ServiceCategoryCreate scc = new ServiceCategoryCreate()
+                    .name(name)
+                    .lastUpdate(OffsetDateTime.ofInstant(Instant.now(), ZoneId.of("UTC")));
+            ServiceCategory sc = translatorCatalogInteractionService
+                    .post(objectMapper.writeValueAsString(scc), serviceCategoryPath, ServiceCategory.class);
+
+            log.info("Category " + name + " posted to Offer Catalog.");
+            return new Pair<>(sc.getHref(), sc.getId());
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import it.nextworks.sol006_tmf_translator.information_models.commons.enums.Kind;
+import it.nextworks.sol006_tmf_translator.information_models.persistence.IdVsbNameMapping;
+import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.repo.IdVsbNameMappingRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// SHA-256 of the canonical JSON of everything a translation depends on: the parsed descriptor, the parameters
+// it was translated with and the IdVsbNameMapping of its id. Properties and map entries are sorted and nulls
+// dropped, so the same content always gives the same digest whatever the layout of the uploaded package.
+@Service
+public class ContentDigest {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final ObjectMapper canonicalMapper;
+
+    private final IdVsbNameMappingRepository idVsbNameMappingRepository;
+
+    @Autowired
+    public ContentDigest(ObjectMapper objectMapper, IdVsbNameMappingRepository idVsbNameMappingRepository) {
+        this.canonicalMapper = objectMapper.copy()
+                .configure(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY, true)
+                .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true)
+                .configure(SerializationFeature.INDENT_OUTPUT, false)
+                .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        this.idVsbNameMappingRepository = idVsbNameMappingRepository;
+    }
+
+    public String of(Kind kind, String descriptorId, Object... content) throws JsonProcessingException {
+        List<Object> canonical = new ArrayList<>(content.length + 2);
+        canonical.add(kind);
+        canonical.addAll(Arrays.asList(content));
+        IdVsbNameMapping idVsbNameMapping = idVsbNameMappingRepository.findById(descriptorId).orElse(null);
+        canonical.add(idVsbNameMapping == null ? null :
+                Arrays.asList(idVsbNameMapping.getVsbName(), idVsbNameMapping.getSnfvoUrl()));
+
+        return sha256(canonicalMapper.writeValueAsBytes(canonical));
+    }
+
+    // Digest of content that does not depend on any IdVsbNameMapping.
+    public String withoutMapping(Object... content) throws JsonProcessingException {
+        return sha256(canonicalMapper.writeValueAsBytes(content));
+    }
+
+    public static String sha256(byte[]... parts) {
+        MessageDigest messageDigest;
+        try {
+            messageDigest = MessageDigest.getInstance("SHA-256");
+        } catch(NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        for(byte[] part : parts)
+            messageDigest.update(part);
+        byte[] digest = messageDigest.digest();
+
+        char[] hex = new char[digest.length * 2];
+        for(int i = 0; i < digest.length; i++) {
+            hex[2 * i]     = HEX[(digest[i] >> 4) & 0xf];
+            hex[2 * i + 1] = HEX[digest[i] & 0xf];
+        }
+        return new String(hex);
+    }
+}
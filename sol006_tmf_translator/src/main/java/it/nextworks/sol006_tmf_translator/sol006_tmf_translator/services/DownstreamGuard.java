@@ -0,0 +1,195 @@
+package it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import it.nextworks.sol006_tmf_translator.information_models.commons.enums.Lane;
+import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.commons.exception.DownstreamUnavailableException;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.impl.client.CloseableHttpClient;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Circuit breaker plus concurrency bulkhead guarding the calls towards a single downstream service, with the
+// bulkhead slots shared between the priority lanes.
+public class DownstreamGuard {
+
+    public static class Permit {
+
+        private final Lane lane;
+
+        private final long start;
+
+        private Permit(Lane lane, long start) {
+            this.lane = lane;
+            this.start = start;
+        }
+
+        public Lane getLane() { return lane; }
+    }
+
+    private final String name;
+
+    private final CircuitBreaker circuitBreaker;
+
+    private final Bulkhead bulkhead;
+
+    private final IdempotentRequestPolicy requestPolicy;
+
+    private final PriorityLanes priorityLanes;
+
+    public DownstreamGuard(String name, CircuitBreaker circuitBreaker, Bulkhead bulkhead,
+                           IdempotentRequestPolicy requestPolicy, PriorityLanes priorityLanes) {
+        this.name = name;
+        this.circuitBreaker = circuitBreaker;
+        this.bulkhead = bulkhead;
+        this.requestPolicy = requestPolicy;
+        this.priorityLanes = priorityLanes;
+    }
+
+    public String getName() { return name; }
+
+    public CircuitBreaker.State getState() { return circuitBreaker.getState(); }
+
+    public IdempotentRequestPolicy getRequestPolicy() { return requestPolicy; }
+
+    // How many calls the given lane can have in flight at once.
+    public int laneCapacity(Lane lane) { return priorityLanes.limit(lane); }
+
+    // Waits for a slot in the lane of the current thread, then for the breaker. The permit goes back to
+    // onSuccess/onError/release, which free the slot.
+    public Permit acquirePermission() throws DownstreamUnavailableException {
+        return acquirePermission(PriorityLanes.current());
+    }
+
+    private Permit acquirePermission(Lane lane) throws DownstreamUnavailableException {
+        priorityLanes.acquire(lane);
+
+        if(!bulkhead.tryAcquirePermission()) {
+            priorityLanes.release(lane);
+            throw new DownstreamUnavailableException(name + " bulkhead full: " +
+                    bulkhead.getBulkheadConfig().getMaxConcurrentCalls() + " calls already in flight, failing fast.");
+        }
+
+        if(!circuitBreaker.tryAcquirePermission()) {
+            complete(lane);
+            throw new DownstreamUnavailableException(name + " circuit breaker " + circuitBreaker.getState() +
+                    ", failing fast.");
+        }
+
+        return new Permit(lane, System.nanoTime());
+    }
+
+    // Null unless a slot of the lane and the breaker let the call in right away.
+    private Permit tryAcquirePermission(Lane lane) {
+        if(!priorityLanes.tryAcquire(lane))
+            return null;
+
+        if(!bulkhead.tryAcquirePermission()) {
+            priorityLanes.release(lane);
+            return null;
+        }
+
+        if(!circuitBreaker.tryAcquirePermission()) {
+            complete(lane);
+            return null;
+        }
+
+        return new Permit(lane, System.nanoTime());
+    }
+
+    private void complete(Lane lane) {
+        try {
+            bulkhead.onComplete();
+        } finally {
+            priorityLanes.release(lane);
+        }
+    }
+
+    public void onSuccess(Permit permit) {
+        try {
+            circuitBreaker.onSuccess(System.nanoTime() - permit.start, TimeUnit.NANOSECONDS);
+        } finally {
+            complete(permit.lane);
+        }
+    }
+
+    public void onError(Permit permit, Throwable throwable) {
+        try {
+            circuitBreaker.onError(System.nanoTime() - permit.start, TimeUnit.NANOSECONDS, throwable);
+        } finally {
+            complete(permit.lane);
+        }
+    }
+
+    // For calls abandoned by the caller, which tell nothing about the health of the downstream.
+    public void release(Permit permit) {
+        try {
+            circuitBreaker.releasePermission();
+        } finally {
+            complete(permit.lane);
+        }
+    }
+
+    // Admission for the attempts of one call, all in the lane of the calling thread even when retries and hedges
+    // start from other threads. Transport errors and 5xx answers count as failures, abandoned attempts as nothing.
+    private IdempotentRequestPolicy.Gate gate() {
+        Lane lane = PriorityLanes.current();
+        return new IdempotentRequestPolicy.Gate() {
+            @Override
+            public Permit enter() throws DownstreamUnavailableException { return acquirePermission(lane); }
+
+            @Override
+            public Permit tryEnter() { return tryAcquirePermission(lane); }
+
+            @Override
+            public void exit(Permit permit, HttpResponse response, Throwable error) {
+                if(error instanceof CancellationException)
+                    release(permit);
+                else if(error != null)
+                    onError(permit, error);
+                else if(response.getStatusLine().getStatusCode() >= 500)
+                    onError(permit, new IOException(name + " answered with status code " +
+                            response.getStatusLine().getStatusCode() + "."));
+                else
+                    onSuccess(permit);
+            }
+        };
+    }
+
+    // The caller owns (and must close) the response.
+    public CloseableHttpResponse execute(CloseableHttpClient httpClient, HttpUriRequest request)
+            throws DownstreamUnavailableException, IOException {
+        return requestPolicy.execute(httpClient, request, gate());
+    }
+
+    // attempt must start a fresh request each time it is called, and abort it when the returned future is cancelled.
+    public <R extends HttpResponse> CompletableFuture<R> executeAsync(Supplier<CompletableFuture<R>> attempt) {
+        return requestPolicy.executeAsync(attempt, gate());
+    }
+
+    public Map<String, Object> status() {
+        CircuitBreaker.Metrics metrics = circuitBreaker.getMetrics();
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("name", name);
+        status.put("state", circuitBreaker.getState().name());
+        status.put("failureRate", metrics.getFailureRate());
+        status.put("slowCallRate", metrics.getSlowCallRate());
+        status.put("bufferedCalls", metrics.getNumberOfBufferedCalls());
+        status.put("failedCalls", metrics.getNumberOfFailedCalls());
+        status.put("slowCalls", metrics.getNumberOfSlowCalls());
+        status.put("notPermittedCalls", metrics.getNumberOfNotPermittedCalls());
+        status.put("availableConcurrentCalls", bulkhead.getMetrics().getAvailableConcurrentCalls());
+        status.put("maxConcurrentCalls", bulkhead.getMetrics().getMaxAllowedConcurrentCalls());
+        status.put("lanes", priorityLanes.status());
+        status.putAll(requestPolicy.status());
+        return status;
+    }
+}
@@ -0,0 +1,182 @@
+package it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.core.IntervalFunction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+public class DownstreamGuards {
+
+    private static final Logger log = LoggerFactory.getLogger(DownstreamGuards.class);
+
+    public static final String OFFER_CATALOG = "Offer Catalog";
+
+    public static final String DESCRIPTORS_SOURCE = "Descriptors Source";
+
+    public static final String RAPP = "RAPP";
+
+    public static final String SLICE_MANAGER = "Slice Manager";
+
+    private static final String[] NAMES = { OFFER_CATALOG, DESCRIPTORS_SOURCE, RAPP, SLICE_MANAGER };
+
+    @Value("${downstream.circuit_breaker.failure_rate_threshold}")
+    private float failureRateThreshold;
+
+    @Value("${downstream.circuit_breaker.slow_call_rate_threshold}")
+    private float slowCallRateThreshold;
+
+    @Value("${downstream.circuit_breaker.slow_call_duration}")
+    private long slowCallDuration;
+
+    @Value("${downstream.circuit_breaker.sliding_window_size}")
+    private int slidingWindowSize;
+
+    @Value("${downstream.circuit_breaker.minimum_number_of_calls}")
+    private int minimumNumberOfCalls;
+
+    @Value("${downstream.circuit_breaker.wait_in_open_state}")
+    private long waitInOpenState;
+
+    @Value("${downstream.circuit_breaker.permitted_calls_half_open}")
+    private int permittedCallsHalfOpen;
+
+    @Value("${downstream.bulkhead.max_concurrent_calls}")
+    private int maxConcurrentCalls;
+
+    @Value("${downstream.lanes.interactive_weight}")
+    private int interactiveWeight;
+
+    @Value("${downstream.lanes.bulk_weight}")
+    private int bulkWeight;
+
+    @Value("${downstream.lanes.interactive_reserve}")
+    private int interactiveReserve;
+
+    @Value("${downstream.lanes.max_wait}")
+    private long laneMaxWait;
+
+    @Value("${downstream.retry.max_attempts}")
+    private int retryMaxAttempts;
+
+    @Value("${downstream.retry.initial_backoff}")
+    private long retryInitialBackoff;
+
+    @Value("${downstream.retry.backoff_multiplier}")
+    private double retryBackoffMultiplier;
+
+    @Value("${downstream.retry.backoff_randomization}")
+    private double retryBackoffRandomization;
+
+    @Value("${downstream.retry.max_backoff}")
+    private long retryMaxBackoff;
+
+    @Value("${downstream.hedge.enabled}")
+    private boolean hedgeEnabled;
+
+    @Value("${downstream.hedge.percentile}")
+    private double hedgePercentile;
+
+    @Value("${downstream.hedge.min_delay}")
+    private long hedgeMinDelay;
+
+    @Value("${downstream.hedge.min_samples}")
+    private int hedgeMinSamples;
+
+    @Value("${downstream.hedge.window}")
+    private int hedgeWindow;
+
+    private final Map<String, DownstreamGuard> guards = new LinkedHashMap<>();
+
+    private ExecutorService hedgeExecutor;
+
+    private ScheduledExecutorService scheduler;
+
+    private static ThreadFactory daemonThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @PostConstruct
+    public void init() {
+        CircuitBreakerConfig circuitBreakerConfig = CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallRateThreshold(slowCallRateThreshold)
+                .slowCallDurationThreshold(Duration.ofMillis(slowCallDuration))
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(minimumNumberOfCalls)
+                .waitDurationInOpenState(Duration.ofMillis(waitInOpenState))
+                .permittedNumberOfCallsInHalfOpenState(permittedCallsHalfOpen)
+                .automaticTransitionFromOpenToHalfOpenEnabled(true)
+                .build();
+
+        // No queueing here: callers already queue, for at most downstream.lanes.max_wait, in their priority lane.
+        BulkheadConfig bulkheadConfig = BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrentCalls)
+                .maxWaitDuration(Duration.ZERO)
+                .build();
+
+        IntervalFunction backoff = IntervalFunction.ofExponentialRandomBackoff(retryInitialBackoff,
+                retryBackoffMultiplier, retryBackoffRandomization, retryMaxBackoff);
+
+        // Every attempt running on the pool holds a call slot of its downstream service, so it never needs more
+        // threads than there are slots.
+        hedgeExecutor = new ThreadPoolExecutor(0, maxConcurrentCalls * NAMES.length, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), daemonThreadFactory("downstream-hedge"));
+        scheduler = Executors.newSingleThreadScheduledExecutor(daemonThreadFactory("downstream-retry"));
+
+        for(String name : NAMES) {
+            CircuitBreaker circuitBreaker = CircuitBreaker.of(name, circuitBreakerConfig);
+            circuitBreaker.getEventPublisher().onStateTransition(event ->
+                    log.warn(name + " circuit breaker " + event.getStateTransition().getFromState() + " -> " +
+                            event.getStateTransition().getToState() + "."));
+            IdempotentRequestPolicy requestPolicy = new IdempotentRequestPolicy(name, retryMaxAttempts, backoff,
+                    hedgeEnabled, hedgePercentile, hedgeMinDelay, hedgeMinSamples, hedgeWindow,
+                    hedgeExecutor, scheduler);
+            PriorityLanes priorityLanes = new PriorityLanes(name, maxConcurrentCalls, interactiveWeight, bulkWeight,
+                    interactiveReserve, laneMaxWait);
+            guards.put(name, new DownstreamGuard(name, circuitBreaker, Bulkhead.of(name, bulkheadConfig),
+                    requestPolicy, priorityLanes));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hedgeExecutor.shutdownNow();
+        scheduler.shutdownNow();
+    }
+
+    public DownstreamGuard get(String name) { return guards.get(name); }
+
+    public List<Map<String, Object>> status() {
+        List<Map<String, Object>> status = new ArrayList<>(guards.size());
+        for(DownstreamGuard guard : guards.values())
+            status.add(guard.status());
+        return status;
+    }
+}
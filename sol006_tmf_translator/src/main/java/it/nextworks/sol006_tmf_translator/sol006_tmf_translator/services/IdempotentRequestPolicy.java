@@ -0,0 +1,415 @@
+package it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services;
+
+import io.github.resilience4j.core.IntervalFunction;
+import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.commons.exception.DownstreamUnavailableException;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.methods.RequestBuilder;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.util.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Retries idempotent requests with jittered exponential backoff and, when enabled, hedges slow ones:
+// a second request is sent once the first has been outstanding longer than the recent latency percentile.
+// Requests that are not idempotent are sent exactly once, unless they carry an Idempotency-Key header.
+// Every attempt, retried or hedged, is admitted by the gate of the call on its own and leaves it before backing off.
+public class IdempotentRequestPolicy {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotentRequestPolicy.class);
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    // Admission of the attempts of a single call towards the downstream service.
+    public interface Gate {
+
+        // Waits for a call slot, failing when none frees up in time or the downstream is known to be down.
+        DownstreamGuard.Permit enter() throws DownstreamUnavailableException;
+
+        // A call slot if one is free right now, null otherwise.
+        DownstreamGuard.Permit tryEnter();
+
+        // The outcome of the attempt holding permit: a response, or the error it failed or was cancelled with.
+        void exit(DownstreamGuard.Permit permit, HttpResponse response, Throwable error);
+    }
+
+    private static class LatencyWindow {
+        private final long[] samples;
+        private int next;
+        private int count;
+
+        private LatencyWindow(int size) { this.samples = new long[size]; }
+
+        private synchronized void record(long nanos) {
+            samples[next] = nanos;
+            next = (next + 1) % samples.length;
+            if(count < samples.length)
+                count++;
+        }
+
+        private synchronized int size() { return count; }
+
+        private long percentile(double percentile) {
+            long[] sorted;
+            synchronized(this) {
+                sorted = Arrays.copyOf(samples, count);
+            }
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+        }
+    }
+
+    private final String name;
+
+    private final int maxAttempts;
+
+    private final IntervalFunction backoff;
+
+    private final boolean hedgeEnabled;
+
+    private final double hedgePercentile;
+
+    private final long minHedgeDelay;
+
+    private final int minSamples;
+
+    private final LatencyWindow latencies;
+
+    private final ExecutorService hedgeExecutor;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final LongAdder retries = new LongAdder();
+
+    private final LongAdder hedges = new LongAdder();
+
+    private final LongAdder hedgeWins = new LongAdder();
+
+    private final LongAdder hedgesSkipped = new LongAdder();
+
+    public IdempotentRequestPolicy(String name, int maxAttempts, IntervalFunction backoff,
+                                   boolean hedgeEnabled, double hedgePercentile, long minHedgeDelay,
+                                   int minSamples, int window,
+                                   ExecutorService hedgeExecutor, ScheduledExecutorService scheduler) {
+        this.name = name;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoff = backoff;
+        this.hedgeEnabled = hedgeEnabled;
+        this.hedgePercentile = hedgePercentile;
+        this.minHedgeDelay = TimeUnit.MILLISECONDS.toNanos(minHedgeDelay);
+        this.minSamples = minSamples;
+        this.latencies = new LatencyWindow(Math.max(window, minSamples));
+        this.hedgeExecutor = hedgeExecutor;
+        this.scheduler = scheduler;
+    }
+
+    public static boolean isIdempotent(HttpUriRequest request) {
+        String method = request.getMethod();
+        return "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method) ||
+                request.containsHeader(IDEMPOTENCY_KEY_HEADER);
+    }
+
+    private static boolean isServerError(HttpResponse response) { return response.getStatusLine().getStatusCode() >= 500; }
+
+    private static void discard(HttpResponse response) {
+        EntityUtils.consumeQuietly(response.getEntity());
+        if(response instanceof Closeable) {
+            try {
+                ((Closeable) response).close();
+            } catch(IOException ignored) { }
+        }
+    }
+
+    private static Throwable unwrap(Throwable throwable) {
+        return throwable instanceof CompletionException && throwable.getCause() != null ?
+                throwable.getCause() : throwable;
+    }
+
+    // Negative when hedging is disabled or there are not enough samples yet to pick a meaningful delay.
+    private long hedgeDelay() {
+        if(!hedgeEnabled || latencies.size() < minSamples)
+            return -1;
+        return Math.max(minHedgeDelay, latencies.percentile(hedgePercentile));
+    }
+
+    private long retryWait(int attempt) {
+        retries.increment();
+        return backoff.apply(attempt);
+    }
+
+    // Starts an attempt holding permit, which goes back to the gate as soon as the attempt is over.
+    private <R extends HttpResponse> CompletableFuture<R> timed(Supplier<CompletableFuture<R>> attempt,
+                                                                Gate gate, DownstreamGuard.Permit permit) {
+        long start = System.nanoTime();
+        CompletableFuture<R> future;
+        try {
+            future = attempt.get();
+        } catch(RuntimeException e) {
+            gate.exit(permit, null, e);
+            throw e;
+        }
+
+        future.whenComplete((response, e) -> {
+            gate.exit(permit, response, e == null ? null : unwrap(e));
+            if(response != null && !isServerError(response))
+                latencies.record(System.nanoTime() - start);
+        });
+        return future;
+    }
+
+    private <R extends HttpResponse> void launch(Supplier<CompletableFuture<R>> attempt, Gate gate,
+                                                 DownstreamGuard.Permit permit,
+                                                 List<CompletableFuture<R>> attempts, AtomicInteger pending,
+                                                 CompletableFuture<R> result, boolean hedge) {
+        CompletableFuture<R> future = timed(attempt, gate, permit);
+        attempts.add(future);
+        if(result.isDone())
+            future.cancel(true);
+
+        future.whenComplete((response, e) -> {
+            if(response != null && !isServerError(response)) {
+                if(!result.complete(response))
+                    discard(response);
+                else if(hedge)
+                    hedgeWins.increment();
+                return;
+            }
+
+            // A failed attempt only decides the outcome when no other attempt is still running.
+            if(pending.decrementAndGet() > 0) {
+                if(response != null)
+                    discard(response);
+                return;
+            }
+
+            if(response == null)
+                result.completeExceptionally(unwrap(e));
+            else if(!result.complete(response))
+                discard(response);
+        });
+    }
+
+    // The hedge only goes out if a call slot is free when it is due, so hedging never queues behind other calls.
+    private <R extends HttpResponse> CompletableFuture<R> hedge(Supplier<CompletableFuture<R>> attempt, long delay,
+                                                                Gate gate, DownstreamGuard.Permit permit) {
+        CompletableFuture<R> result = new CompletableFuture<>();
+        List<CompletableFuture<R>> attempts = new CopyOnWriteArrayList<>();
+        AtomicInteger pending = new AtomicInteger(1);
+
+        launch(attempt, gate, permit, attempts, pending, result, false);
+        ScheduledFuture<?> timer = scheduler.schedule(() -> {
+            if(result.isDone())
+                return;
+            DownstreamGuard.Permit hedgePermit = gate.tryEnter();
+            if(hedgePermit == null) {
+                hedgesSkipped.increment();
+                return;
+            }
+            pending.incrementAndGet();
+            hedges.increment();
+            launch(attempt, gate, hedgePermit, attempts, pending, result, true);
+        }, delay, TimeUnit.NANOSECONDS);
+
+        // Whatever the outcome, abort the attempts still in flight.
+        result.whenComplete((response, e) -> {
+            timer.cancel(false);
+            for(CompletableFuture<R> future : attempts)
+                future.cancel(true);
+        });
+
+        return result;
+    }
+
+    private CompletableFuture<CloseableHttpResponse> submit(CloseableHttpClient httpClient, HttpUriRequest request) {
+        HttpUriRequest copy = RequestBuilder.copy(request).build();
+        CompletableFuture<CloseableHttpResponse> future = new CompletableFuture<>();
+        future.whenComplete((response, e) -> {
+            if(future.isCancelled())
+                copy.abort();
+        });
+
+        try {
+            hedgeExecutor.execute(() -> {
+                try {
+                    CloseableHttpResponse response = httpClient.execute(copy);
+                    if(!future.complete(response))
+                        discard(response);
+                } catch(IOException | RuntimeException e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch(RejectedExecutionException e) {
+            future.completeExceptionally(new IOException(name + " hedge executor saturated.", e));
+        }
+
+        return future;
+    }
+
+    private static CloseableHttpResponse once(CloseableHttpClient httpClient, HttpUriRequest request, Gate gate,
+                                              DownstreamGuard.Permit permit) throws IOException {
+        CloseableHttpResponse response;
+        try {
+            response = httpClient.execute(request);
+        } catch(IOException | RuntimeException e) {
+            gate.exit(permit, null, e);
+            throw e;
+        }
+        gate.exit(permit, response, null);
+        return response;
+    }
+
+    private CloseableHttpResponse send(CloseableHttpClient httpClient, HttpUriRequest request, Gate gate)
+            throws IOException, DownstreamUnavailableException {
+        DownstreamGuard.Permit permit = gate.enter();
+        long delay = hedgeDelay();
+        if(delay < 0) {
+            long start = System.nanoTime();
+            CloseableHttpResponse response = once(httpClient, RequestBuilder.copy(request).build(), gate, permit);
+            if(!isServerError(response))
+                latencies.record(System.nanoTime() - start);
+            return response;
+        }
+
+        CompletableFuture<CloseableHttpResponse> future = hedge(() -> submit(httpClient, request), delay, gate, permit);
+        try {
+            return future.get();
+        } catch(InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for " + name + ".");
+        } catch(ExecutionException e) {
+            Throwable cause = unwrap(e.getCause());
+            if(cause instanceof IOException)
+                throw (IOException) cause;
+            if(cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            throw new IOException(cause);
+        }
+    }
+
+    // Transport errors and 5xx answers are retried; the last 5xx answer is handed back to the caller as is.
+    public CloseableHttpResponse execute(CloseableHttpClient httpClient, HttpUriRequest request, Gate gate)
+            throws IOException, DownstreamUnavailableException {
+        if(!isIdempotent(request))
+            return once(httpClient, request, gate, gate.enter());
+
+        for(int attempt = 1; ; attempt++) {
+            try {
+                CloseableHttpResponse response = send(httpClient, request, gate);
+                if(!isServerError(response) || attempt >= maxAttempts)
+                    return response;
+                discard(response);
+            } catch(InterruptedIOException e) {
+                throw e;
+            } catch(IOException e) {
+                if(attempt >= maxAttempts)
+                    throw e;
+            }
+
+            long wait = retryWait(attempt);
+            log.debug(name + " " + request.getMethod() + " attempt " + attempt + " failed, retrying in " + wait + " ms.");
+            try {
+                Thread.sleep(wait);
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while backing off " + name + " retry.");
+            }
+        }
+    }
+
+    // Same policy for non-blocking clients: attempt must start a fresh request each time it is called,
+    // and abort it when the returned future is cancelled.
+    // The first attempt waits for its call slot on the calling thread. Retries start from the scheduler, which
+    // must not block, so a retry finding no free slot ends the call with the failure of the previous attempt.
+    public <R extends HttpResponse> CompletableFuture<R> executeAsync(Supplier<CompletableFuture<R>> attempt,
+                                                                      Gate gate) {
+        CompletableFuture<R> result = new CompletableFuture<>();
+        DownstreamGuard.Permit permit;
+        try {
+            permit = gate.enter();
+        } catch(DownstreamUnavailableException e) {
+            result.completeExceptionally(e);
+            return result;
+        }
+
+        executeAsync(attempt, gate, permit, 1, result);
+        return result;
+    }
+
+    private <R extends HttpResponse> void executeAsync(Supplier<CompletableFuture<R>> attempt, Gate gate,
+                                                       DownstreamGuard.Permit permit, int n,
+                                                       CompletableFuture<R> result) {
+        long delay = hedgeDelay();
+        CompletableFuture<R> current = delay < 0 ? timed(attempt, gate, permit) : hedge(attempt, delay, gate, permit);
+        result.whenComplete((response, e) -> {
+            if(result.isCancelled())
+                current.cancel(true);
+        });
+
+        current.whenComplete((response, e) -> {
+            if(result.isDone()) {
+                if(response != null)
+                    discard(response);
+                return;
+            }
+
+            boolean failed = response == null || isServerError(response);
+            if(!failed || n >= maxAttempts || current.isCancelled()) {
+                if(response == null)
+                    result.completeExceptionally(unwrap(e));
+                else if(!result.complete(response))
+                    discard(response);
+                return;
+            }
+
+            if(response != null)
+                discard(response);
+            Throwable failure = response == null ? unwrap(e) :
+                    new IOException(name + " answered with status code " + response.getStatusLine().getStatusCode() + ".");
+            long wait = retryWait(n);
+            log.debug(name + " async attempt " + n + " failed, retrying in " + wait + " ms.");
+            scheduler.schedule(() -> {
+                if(result.isDone())
+                    return;
+                DownstreamGuard.Permit retryPermit = gate.tryEnter();
+                if(retryPermit == null)
+                    result.completeExceptionally(failure);
+                else
+                    executeAsync(attempt, gate, retryPermit, n + 1, result);
+            }, wait, TimeUnit.MILLISECONDS);
+        });
+    }
+
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("retries", retries.sum());
+        status.put("hedges", hedges.sum());
+        status.put("hedgeWins", hedgeWins.sum());
+        status.put("hedgesSkipped", hedgesSkipped.sum());
+        long delay = hedgeDelay();
+        status.put("hedgeDelayMs", delay < 0 ? null : TimeUnit.NANOSECONDS.toMillis(delay));
+        return status;
+    }
+}
@@ -0,0 +1,158 @@
+package it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services;
+
+import it.nextworks.sol006_tmf_translator.information_models.commons.enums.Lane;
+import it.nextworks.sol006_tmf_translator.information_models.commons.enums.PresenceStatus;
+import it.nextworks.sol006_tmf_translator.information_models.persistence.MappingInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Walks mapping_info in pages and verifies its entries against the Offer Catalog, a bounded number at a time,
+// recording when and with which outcome each was last verified. Translations trust the entries verified within
+// mapping_info.reconcile.max_age and only check the stale ones themselves.
+@Service
+public class MappingInfoReconciler {
+
+    private static final Logger log = LoggerFactory.getLogger(MappingInfoReconciler.class);
+
+    @Value("${mapping_info.reconcile.enabled}")
+    private boolean enabled;
+
+    @Value("${mapping_info.reconcile.interval}")
+    private long interval;
+
+    @Value("${mapping_info.reconcile.page_size}")
+    private int pageSize;
+
+    @Value("${mapping_info.reconcile.concurrency}")
+    private int concurrency;
+
+    private final MappingInfoService mappingInfoService;
+
+    private final TranslatorCatalogInteractionService translatorCatalogInteractionService;
+
+    private ScheduledExecutorService scheduler;
+
+    private volatile Map<String, Object> lastPass = new LinkedHashMap<>();
+
+    private final LongAdder driftAlerts = new LongAdder();
+
+    @Autowired
+    public MappingInfoReconciler(MappingInfoService mappingInfoService,
+                                 TranslatorCatalogInteractionService translatorCatalogInteractionService) {
+        this.mappingInfoService = mappingInfoService;
+        this.translatorCatalogInteractionService = translatorCatalogInteractionService;
+    }
+
+    @PostConstruct
+    public void init() {
+        if(!enabled)
+            return;
+
+        int bulkChecks = translatorCatalogInteractionService.maxConcurrentChecks(Lane.BULK);
+        if(concurrency > bulkChecks) {
+            log.warn("mapping_info.reconcile.concurrency " + concurrency + " does not fit the bulk lane of the " +
+                    "Offer Catalog, lowered to " + bulkChecks + ".");
+            concurrency = bulkChecks;
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(() -> {
+                PriorityLanes.enter(Lane.BULK);
+                runnable.run();
+            }, "mapping-info-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::reconcile, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if(scheduler != null)
+            scheduler.shutdownNow();
+    }
+
+    private void reconcile() {
+        long start = System.currentTimeMillis();
+        int verified = 0;
+        int drifted = 0;
+        int unreachable = 0;
+        boolean completed = true;
+
+        try {
+            Page<MappingInfo> page;
+            int pageNumber = 0;
+            pass:
+            do {
+                page = mappingInfoService.page(pageNumber++, pageSize);
+                List<MappingInfo> mappingInfos = page.getContent();
+                for(int from = 0; from < mappingInfos.size(); from += concurrency) {
+                    List<MappingInfo> chunk = mappingInfos.subList(from, Math.min(from + concurrency, mappingInfos.size()));
+                    Map<String, PresenceStatus> statuses = translatorCatalogInteractionService.verify(chunk);
+
+                    int chunkUnreachable = 0;
+                    for(MappingInfo mappingInfo : chunk) {
+                        PresenceStatus status = statuses.get(mappingInfo.getDescriptorId());
+                        if(status == PresenceStatus.UNREACHABLE) {
+                            chunkUnreachable++;
+                            continue;
+                        }
+                        if(!mappingInfoService.markVerified(mappingInfo, status))
+                            continue;
+
+                        verified++;
+                        if(status != PresenceStatus.PRESENT) {
+                            drifted++;
+                            driftAlerts.increment();
+                        }
+                    }
+
+                    unreachable += chunkUnreachable;
+                    if(chunkUnreachable == chunk.size()) {
+                        log.warn("Offer Catalog unreachable, mapping info reconciliation stopped.");
+                        completed = false;
+                        break pass;
+                    }
+                }
+            } while(page.hasNext());
+        } catch(RuntimeException e) {
+            log.error("Mapping info reconciliation failed: " + e.getMessage());
+            completed = false;
+        }
+
+        long duration = System.currentTimeMillis() - start;
+        Map<String, Object> pass = new LinkedHashMap<>();
+        pass.put("startedAt", start);
+        pass.put("durationMs", duration);
+        pass.put("completed", completed);
+        pass.put("verified", verified);
+        pass.put("drifted", drifted);
+        pass.put("unreachable", unreachable);
+        lastPass = pass;
+
+        log.info("Mapping info reconciliation " + (completed ? "completed" : "stopped") + " in " + duration +
+                " ms: " + verified + " verified, " + drifted + " drifted, " + unreachable + " unreachable.");
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("driftAlerts", driftAlerts.sum());
+        stats.put("lastPass", lastPass);
+        return stats;
+    }
+}
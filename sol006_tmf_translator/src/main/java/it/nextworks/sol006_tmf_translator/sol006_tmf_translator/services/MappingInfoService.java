@@ -1,14 +1,28 @@
 package it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services;
 
+import it.nextworks.sol006_tmf_translator.information_models.commons.Pair;
+import it.nextworks.sol006_tmf_translator.information_models.commons.enums.Kind;
+import it.nextworks.sol006_tmf_translator.information_models.commons.enums.PresenceStatus;
 import it.nextworks.sol006_tmf_translator.information_models.persistence.MappingInfo;
+import it.nextworks.sol006_tmf_translator.information_models.persistence.RequirementSummary;
 import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.commons.exception.NotExistingEntityException;
 import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.repo.MappingInfoRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class MappingInfoService {
@@ -17,13 +31,26 @@ public class MappingInfoService {
 
     private final MappingInfoRepository mappingInfoRepository;
 
+    private final TranslatorCatalogInteractionService translatorCatalogInteractionService;
+
+    private final PresenceCache presenceCache;
+
     @Autowired
-    public MappingInfoService(MappingInfoRepository mappingInfoRepository) {
+    public MappingInfoService(MappingInfoRepository mappingInfoRepository,
+                              TranslatorCatalogInteractionService translatorCatalogInteractionService,
+                              PresenceCache presenceCache) {
         this.mappingInfoRepository = mappingInfoRepository;
+        this.translatorCatalogInteractionService = translatorCatalogInteractionService;
+        this.presenceCache = presenceCache;
     }
 
     public void save(MappingInfo mappingInfo) {
         log.info("Creating mapping info for descriptor with id " + mappingInfo.getDescriptorId() + ".");
+
+        mappingInfoRepository.findById(mappingInfo.getDescriptorId()).ifPresent(previous ->
+                presenceCache.invalidate(previous.getCandidateCatalogId(), previous.getSpecificationCatalogId()));
+        presenceCache.invalidate(mappingInfo.getCandidateCatalogId(), mappingInfo.getSpecificationCatalogId());
+
         mappingInfoRepository.save(mappingInfo);
     }
 
@@ -37,7 +64,9 @@ public class MappingInfoService {
             throw new NotExistingEntityException(msg);
         }
 
-        mappingInfoRepository.delete(toDelete.get());
+        MappingInfo mappingInfo = toDelete.get();
+        presenceCache.invalidate(mappingInfo.getCandidateCatalogId(), mappingInfo.getSpecificationCatalogId());
+        mappingInfoRepository.delete(mappingInfo);
 
         log.info("Mapping info for descriptor with id " + descriptorId + " deleted.");
     }
@@ -56,4 +85,111 @@ public class MappingInfoService {
 
         return toRetrieve.get();
     }
+
+    public List<MappingInfo> getAll(List<String> descriptorIds) {
+        log.info("Retrieving mapping info for " + descriptorIds.size() + " descriptors.");
+        return mappingInfoRepository.findAllById(descriptorIds);
+    }
+
+    public List<MappingInfo> list() { return mappingInfoRepository.findAll(); }
+
+    // Requirement summaries of the given descriptors, keyed by the catalog id of their specification.
+    public Map<String, RequirementSummary> getRequirements(List<String> descriptorIds) {
+        Map<String, RequirementSummary> requirements = new HashMap<>();
+        if(descriptorIds.isEmpty())
+            return requirements;
+
+        for(MappingInfo mappingInfo : mappingInfoRepository.findAllById(descriptorIds))
+            if(mappingInfo.getRequirements() != null && mappingInfo.getRequirements().isComplete() &&
+                    mappingInfo.getSpecificationCatalogId() != null)
+                requirements.put(mappingInfo.getSpecificationCatalogId(), mappingInfo.getRequirements());
+        return requirements;
+    }
+
+    public Page<MappingInfo> page(int page, int size) {
+        return mappingInfoRepository.findAll(PageRequest.of(page, size, Sort.by("descriptorId")));
+    }
+
+    // Records the outcome of a check of the catalog objects, unless the entry was re-translated meanwhile.
+    // False when nothing was recorded.
+    public boolean markVerified(MappingInfo mappingInfo, PresenceStatus status) {
+        long now = System.currentTimeMillis();
+        String descriptorId = mappingInfo.getDescriptorId();
+        int updated;
+        switch(status) {
+            case PRESENT:
+                updated = mappingInfoRepository.markPresent(descriptorId, mappingInfo.getCandidateCatalogId(),
+                        mappingInfo.getSpecificationCatalogId(), status, now);
+                if(updated > 0)
+                    mappingInfo.driftCount(0);
+                break;
+
+            case MISSING:
+            case MISMATCH:
+                updated = mappingInfoRepository.markDrifted(descriptorId, mappingInfo.getCandidateCatalogId(),
+                        mappingInfo.getSpecificationCatalogId(), status, now);
+                if(updated > 0) {
+                    int driftCount = (mappingInfo.getDriftCount() == null ? 0 : mappingInfo.getDriftCount()) + 1;
+                    mappingInfo.driftCount(driftCount);
+                    log.warn("Drift on descriptor " + descriptorId + ": catalog objects " +
+                            (status == PresenceStatus.MISSING ? "missing" : "not coupled") + " in Offer Catalog, " +
+                            driftCount + " consecutive checks.");
+                }
+                break;
+
+            default:
+                return false;
+        }
+
+        if(updated == 0)
+            return false;
+
+        mappingInfo.lastVerifiedAt(now).verificationStatus(status);
+        return true;
+    }
+
+    public Map<String, PresenceStatus> verify(List<String> descriptorIds) { return verify(descriptorIds, false); }
+
+    public Map<String, PresenceStatus> verify(List<String> descriptorIds, boolean useCache) {
+        List<MappingInfo> mappingInfos = descriptorIds == null || descriptorIds.isEmpty() ?
+                list() : getAll(descriptorIds);
+
+        Map<String, PresenceStatus> statuses = new LinkedHashMap<>();
+        if(descriptorIds != null) {
+            for(String descriptorId : descriptorIds)
+                statuses.put(descriptorId, PresenceStatus.NOT_TRANSLATED);
+        }
+        statuses.putAll(translatorCatalogInteractionService.verify(mappingInfos, useCache));
+
+        return statuses;
+    }
+
+    public static String key(Kind kind, String descriptorId) { return kind.name() + ":" + descriptorId; }
+
+    // Statuses of (kind, descriptor id) pairs keyed by key(kind, descriptorId): a descriptor id recorded as another
+    // kind has not been translated as the one asked for.
+    public Map<String, PresenceStatus> verifyByKind(List<Pair<Kind, String>> descriptors, boolean useCache) {
+        Set<String> descriptorIds = new LinkedHashSet<>();
+        for(Pair<Kind, String> descriptor : descriptors)
+            descriptorIds.add(descriptor.getSecond());
+
+        List<MappingInfo> mappingInfos = getAll(new ArrayList<>(descriptorIds));
+        Map<String, Kind> kinds = new HashMap<>();
+        for(MappingInfo mappingInfo : mappingInfos)
+            kinds.put(mappingInfo.getDescriptorId(), mappingInfo.getKind());
+        Map<String, PresenceStatus> verified = translatorCatalogInteractionService.verify(mappingInfos, useCache);
+
+        Map<String, PresenceStatus> statuses = new LinkedHashMap<>();
+        for(Pair<Kind, String> descriptor : descriptors) {
+            Kind kind = kinds.get(descriptor.getSecond());
+            PresenceStatus status = kind != null && kind != descriptor.getFirst() ?
+                    null : verified.get(descriptor.getSecond());
+            statuses.put(key(descriptor.getFirst(), descriptor.getSecond()),
+                    status != null ? status : PresenceStatus.NOT_TRANSLATED);
+        }
+
+        return statuses;
+    }
+
+    public Map<String, Object> presenceCacheStats() { return presenceCache.stats(); }
 }
@@ -0,0 +1,218 @@
+package it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import it.nextworks.nfvmano.libs.descriptors.sol006.Nsd;
+import it.nextworks.nfvmano.libs.descriptors.sol006.Pnfd;
+import it.nextworks.nfvmano.libs.descriptors.sol006.Vnfd;
+import it.nextworks.sol006_tmf_translator.information_models.commons.enums.Kind;
+import it.nextworks.sol006_tmf_translator.information_models.persistence.IdVsbNameMapping;
+import it.nextworks.tmf_offering_catalog.information_models.common.Any;
+import it.nextworks.tmf_offering_catalog.information_models.resource.ResourceSpecCharacteristic;
+import it.nextworks.tmf_offering_catalog.information_models.resource.ResourceSpecCharacteristicValue;
+import it.nextworks.tmf_offering_catalog.information_models.service.ServiceSpecCharacteristic;
+import it.nextworks.tmf_offering_catalog.information_models.service.ServiceSpecCharacteristicValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Characteristics copied as they are from the translated element and its IdVsbNameMapping, declared per Kind in
+// translation.mapping_rules. The getter paths are resolved once at startup into method handles, so a bad rule
+// stops the application instead of a translation, and translating only walks the handles.
+@Service
+public class MappingRules {
+
+    private static final Logger log = LoggerFactory.getLogger(MappingRules.class);
+
+    private static final Map<Kind, Class<?>> DESCRIPTOR_TYPES = new EnumMap<>(Kind.class);
+    static {
+        DESCRIPTOR_TYPES.put(Kind.VNF, Vnfd.class);
+        DESCRIPTOR_TYPES.put(Kind.PNF, Pnfd.class);
+        DESCRIPTOR_TYPES.put(Kind.NS, Nsd.class);
+        DESCRIPTOR_TYPES.put(Kind.SPC, TranslatorRAPPInteractionService.RAPPWrapper.class);
+        DESCRIPTOR_TYPES.put(Kind.RAD, TranslatorRAPPInteractionService.RAPPWrapper.class);
+        DESCRIPTOR_TYPES.put(Kind.EDGE, TranslatorSliceManagerInteractionService.SliceType.class);
+        DESCRIPTOR_TYPES.put(Kind.CLOUD, TranslatorSliceManagerInteractionService.SliceType.class);
+        DESCRIPTOR_TYPES.put(Kind.NETWORK_SLICE, TranslatorSliceManagerInteractionService.SliceType.class);
+    }
+
+    // Kinds translated without an IdVsbNameMapping, which cannot have rules sourced from it.
+    private static final Set<Kind> UNMAPPED_KINDS = EnumSet.of(Kind.PNF);
+
+    private static final String DESCRIPTOR = "descriptor";
+
+    private static final String MAPPING = "mapping";
+
+    public static class Rule {
+
+        @JsonProperty("name")
+        private String name;
+
+        @JsonProperty("description")
+        private String description;
+
+        @JsonProperty("alias")
+        private String alias;
+
+        @JsonProperty("source")
+        private String source;
+
+        @JsonProperty("skipEmpty")
+        private boolean skipEmpty;
+
+        public Rule() {}
+    }
+
+    private static class CompiledRule {
+
+        private final Rule rule;
+
+        private final boolean fromMapping;
+
+        private final MethodHandle[] getters;
+
+        private CompiledRule(Rule rule, boolean fromMapping, MethodHandle[] getters) {
+            this.rule = rule;
+            this.fromMapping = fromMapping;
+            this.getters = getters;
+        }
+
+        // Null as soon as a step of the path is null.
+        private String value(Object descriptor, IdVsbNameMapping mapping) {
+            Object value = fromMapping ? mapping : descriptor;
+            try {
+                for(int i = 0; i < getters.length && value != null; i++)
+                    value = getters[i].invoke(value);
+            } catch(Throwable t) {
+                throw new IllegalStateException("Mapping rule " + rule.name + " failed: " + t.getMessage(), t);
+            }
+            return value == null ? null : value.toString();
+        }
+    }
+
+    @Value("${translation.mapping_rules}")
+    private Resource rulesResource;
+
+    private final Map<Kind, List<CompiledRule>> rules = new EnumMap<>(Kind.class);
+
+    @PostConstruct
+    public void init() throws IOException {
+        Map<Kind, List<Rule>> declared;
+        try(InputStream inputStream = rulesResource.getInputStream()) {
+            declared = new ObjectMapper(new YAMLFactory())
+                    .readValue(inputStream, new TypeReference<Map<Kind, List<Rule>>>() {});
+        }
+
+        for(Map.Entry<Kind, List<Rule>> entry : declared.entrySet()) {
+            Kind kind = entry.getKey();
+            Class<?> descriptorType = DESCRIPTOR_TYPES.get(kind);
+            if(descriptorType == null)
+                throw new IllegalStateException("Mapping rules declared for unsupported kind " + kind.name() + ".");
+
+            List<CompiledRule> compiled = new ArrayList<>(entry.getValue().size());
+            for(Rule rule : entry.getValue())
+                compiled.add(compile(kind, descriptorType, rule));
+            rules.put(kind, compiled);
+        }
+
+        log.info("Mapping rules loaded from " + rulesResource.getDescription() + " for " + rules.keySet() + ".");
+    }
+
+    private static CompiledRule compile(Kind kind, Class<?> descriptorType, Rule rule) {
+        if(rule.name == null || rule.alias == null || rule.source == null)
+            throw new IllegalStateException(kind.name() + " mapping rule without name, alias or source.");
+
+        String[] path = rule.source.split("\\.");
+        boolean fromMapping;
+        Class<?> type;
+        if(path[0].equals(DESCRIPTOR)) {
+            fromMapping = false;
+            type = descriptorType;
+        } else if(path[0].equals(MAPPING)) {
+            if(UNMAPPED_KINDS.contains(kind))
+                throw new IllegalStateException(kind.name() + " mapping rule " + rule.name + " has source " +
+                        rule.source + ", but " + kind.name() + " translations have no IdVsbNameMapping.");
+            fromMapping = true;
+            type = IdVsbNameMapping.class;
+        } else
+            throw new IllegalStateException(kind.name() + " mapping rule " + rule.name + " has source " +
+                    rule.source + ", which starts neither from " + DESCRIPTOR + " nor from " + MAPPING + ".");
+
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        MethodHandle[] getters = new MethodHandle[path.length - 1];
+        for(int i = 1; i < path.length; i++) {
+            String getter = "get" + Character.toUpperCase(path[i].charAt(0)) + path[i].substring(1);
+            try {
+                MethodHandle handle = lookup.unreflect(type.getMethod(getter));
+                type = handle.type().returnType();
+                getters[i - 1] = handle.asType(MethodType.methodType(Object.class, Object.class));
+            } catch(NoSuchMethodException | IllegalAccessException e) {
+                throw new IllegalStateException(kind.name() + " mapping rule " + rule.name + ": no public " +
+                        getter + "() on " + type.getSimpleName() + ".", e);
+            }
+        }
+
+        return new CompiledRule(rule, fromMapping, getters);
+    }
+
+    private List<CompiledRule> rules(Kind kind) {
+        List<CompiledRule> compiled = rules.get(kind);
+        return compiled == null ? Collections.emptyList() : compiled;
+    }
+
+    private static boolean skip(CompiledRule compiledRule, String value) {
+        return compiledRule.rule.skipEmpty && (value == null || value.isEmpty());
+    }
+
+    public List<ResourceSpecCharacteristic> resourceCharacteristics(Kind kind, Object descriptor,
+                                                                    IdVsbNameMapping mapping) {
+        List<CompiledRule> compiledRules = rules(kind);
+        List<ResourceSpecCharacteristic> characteristics = new ArrayList<>(compiledRules.size());
+        for(CompiledRule compiledRule : compiledRules) {
+            String value = compiledRule.value(descriptor, mapping);
+            if(skip(compiledRule, value))
+                continue;
+            characteristics.add(new ResourceSpecCharacteristic()
+                    .description(compiledRule.rule.description)
+                    .name(compiledRule.rule.name)
+                    .resourceSpecCharacteristicValue(Collections.singletonList(new ResourceSpecCharacteristicValue()
+                            .value(new Any().alias(compiledRule.rule.alias).value(value)))));
+        }
+        return characteristics;
+    }
+
+    public List<ServiceSpecCharacteristic> serviceCharacteristics(Kind kind, Object descriptor,
+                                                                  IdVsbNameMapping mapping) {
+        List<CompiledRule> compiledRules = rules(kind);
+        List<ServiceSpecCharacteristic> characteristics = new ArrayList<>(compiledRules.size());
+        for(CompiledRule compiledRule : compiledRules) {
+            String value = compiledRule.value(descriptor, mapping);
+            if(skip(compiledRule, value))
+                continue;
+            characteristics.add(new ServiceSpecCharacteristic()
+                    .description(compiledRule.rule.description)
+                    .name(compiledRule.rule.name)
+                    .serviceSpecCharacteristicValue(Collections.singletonList(new ServiceSpecCharacteristicValue()
+                            .value(new Any().alias(compiledRule.rule.alias).value(value)))));
+        }
+        return characteristics;
+    }
+}
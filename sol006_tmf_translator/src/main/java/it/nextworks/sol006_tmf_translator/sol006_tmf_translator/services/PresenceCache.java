@@ -0,0 +1,165 @@
+package it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import it.nextworks.sol006_tmf_translator.information_models.commons.Pair;
+import it.nextworks.sol006_tmf_translator.information_models.commons.enums.PresenceStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@Service
+public class PresenceCache {
+
+    private static final Logger log = LoggerFactory.getLogger(PresenceCache.class);
+
+    @Value("${presence_cache.max_size}")
+    private long maxSize;
+
+    @Value("${presence_cache.ttl}")
+    private long ttl;
+
+    @Value("${presence_cache.negative_ttl}")
+    private long negativeTtl;
+
+    // Candidate and specification as they were read, so that every hit gets copies of its own to change.
+    private static class Present {
+
+        private final Class<?> candidateType;
+
+        private final byte[] candidate;
+
+        private final Class<?> specificationType;
+
+        private final byte[] specification;
+
+        private Present(Class<?> candidateType, byte[] candidate, Class<?> specificationType, byte[] specification) {
+            this.candidateType = candidateType;
+            this.candidate = candidate;
+            this.specificationType = specificationType;
+            this.specification = specification;
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+
+    // Candidate/specification pairs confirmed present and coupled in the Offer Catalog.
+    private Cache<String, Present> present;
+
+    // MISSING or MISMATCH outcomes, kept only briefly.
+    private Cache<String, PresenceStatus> absent;
+
+    @Autowired
+    public PresenceCache(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void init() {
+        present = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl, TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build();
+        absent = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(negativeTtl, TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build();
+    }
+
+    private static String key(String candidateCatalogId, String specificationCatalogId) {
+        return candidateCatalogId + "/" + specificationCatalogId;
+    }
+
+    private <T> T read(String key, byte[] value, Class<T> type) {
+        try {
+            return objectMapper.readValue(value, type);
+        } catch(IOException e) {
+            log.warn("Unreadable presence cache entry " + key + ": " + e.getMessage());
+            present.invalidate(key);
+            return null;
+        }
+    }
+
+    // Null unless the pair is cached with these types.
+    public <C, S> Pair<C, S> getPresent(String candidateCatalogId, String specificationCatalogId,
+                                        Class<C> candidateType, Class<S> specificationType) {
+        String key = key(candidateCatalogId, specificationCatalogId);
+        Present entry = present.getIfPresent(key);
+        if(entry == null || !candidateType.isAssignableFrom(entry.candidateType) ||
+                !specificationType.isAssignableFrom(entry.specificationType))
+            return null;
+
+        C candidate = read(key, entry.candidate, candidateType);
+        S specification = read(key, entry.specification, specificationType);
+        return candidate == null || specification == null ? null : new Pair<>(candidate, specification);
+    }
+
+    public <S> S getPresentSpecification(String candidateCatalogId, String specificationCatalogId,
+                                         Class<S> specificationType) {
+        String key = key(candidateCatalogId, specificationCatalogId);
+        Present entry = present.getIfPresent(key);
+        if(entry == null || !specificationType.isAssignableFrom(entry.specificationType))
+            return null;
+
+        return read(key, entry.specification, specificationType);
+    }
+
+    public PresenceStatus getAbsent(String candidateCatalogId, String specificationCatalogId) {
+        return absent.getIfPresent(key(candidateCatalogId, specificationCatalogId));
+    }
+
+    public void putPresent(String candidateCatalogId, String specificationCatalogId, Pair<?, ?> pair) {
+        String key = key(candidateCatalogId, specificationCatalogId);
+        absent.invalidate(key);
+        try {
+            present.put(key, new Present(pair.getFirst().getClass(), objectMapper.writeValueAsBytes(pair.getFirst()),
+                    pair.getSecond().getClass(), objectMapper.writeValueAsBytes(pair.getSecond())));
+        } catch(JsonProcessingException e) {
+            log.warn("Cannot cache presence of " + key + ": " + e.getMessage());
+            present.invalidate(key);
+        }
+    }
+
+    public void putAbsent(String candidateCatalogId, String specificationCatalogId, PresenceStatus status) {
+        String key = key(candidateCatalogId, specificationCatalogId);
+        present.invalidate(key);
+        absent.put(key, status);
+    }
+
+    public void invalidate(String candidateCatalogId, String specificationCatalogId) {
+        String key = key(candidateCatalogId, specificationCatalogId);
+        present.invalidate(key);
+        absent.invalidate(key);
+    }
+
+    private static Map<String, Object> toMap(Cache<?, ?> cache) {
+        CacheStats stats = cache.stats();
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("size", cache.estimatedSize());
+        map.put("hitCount", stats.hitCount());
+        map.put("missCount", stats.missCount());
+        map.put("hitRate", stats.hitRate());
+        map.put("evictionCount", stats.evictionCount());
+        return map;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("positive", toMap(present));
+        stats.put("negative", toMap(absent));
+        return stats;
+    }
+}
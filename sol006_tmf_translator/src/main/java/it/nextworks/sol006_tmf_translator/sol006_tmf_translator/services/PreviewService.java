@@ -0,0 +1,334 @@
+package it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import it.nextworks.nfvmano.libs.descriptors.sol006.Nsd;
+import it.nextworks.nfvmano.libs.descriptors.sol006.Pnfd;
+import it.nextworks.nfvmano.libs.descriptors.sol006.Vnfd;
+import it.nextworks.sol006_tmf_translator.information_models.commons.CSARInfo;
+import it.nextworks.sol006_tmf_translator.information_models.commons.Pair;
+import it.nextworks.sol006_tmf_translator.information_models.commons.enums.Kind;
+import it.nextworks.sol006_tmf_translator.information_models.commons.enums.PresenceStatus;
+import it.nextworks.sol006_tmf_translator.information_models.persistence.MappingInfo;
+import it.nextworks.sol006_tmf_translator.information_models.persistence.RequirementSummary;
+import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.commons.exception.*;
+import it.nextworks.tmf_offering_catalog.information_models.resource.ResourceSpecificationCreate;
+import it.nextworks.tmf_offering_catalog.information_models.service.ServiceSpecificationCreate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Translations of uploaded packages that are only shown, not posted. They are kept by package digest, so that
+// committing a preview posts exactly what was shown without parsing or translating the package again. Each also
+// keeps the ContentDigest it was translated at, as the IdVsbNameMapping it embeds may change after the preview.
+@Service
+public class PreviewService {
+
+    private static final Logger log = LoggerFactory.getLogger(PreviewService.class);
+
+    @Value("${preview.cache.max_size}")
+    private long maxSize;
+
+    @Value("${preview.cache.ttl}")
+    private long ttl;
+
+    public static class Preview {
+
+        @JsonProperty("digest")
+        private final String digest;
+
+        @JsonProperty("kind")
+        private final Kind kind;
+
+        @JsonProperty("descriptorId")
+        private final String descriptorId;
+
+        @JsonProperty("parameter")
+        private final String parameter;
+
+        @JsonProperty("specification")
+        private final Object specification;
+
+        // The summary the engine computed with the specification, null for PNF.
+        @JsonProperty("requirements")
+        private final RequirementSummary requirements;
+
+        // Constituents not yet in the Offer Catalog, left out of the specification until the preview is committed.
+        @JsonProperty("unresolvedConstituents")
+        private final List<String> unresolvedConstituents;
+
+        @JsonProperty("createdAt")
+        private final Long createdAt;
+
+        @JsonIgnore
+        private final CSARInfo csarInfo;
+
+        @JsonIgnore
+        private final String contentDigest;
+
+        private Preview(String digest, Kind kind, String descriptorId, String parameter, Object specification,
+                        RequirementSummary requirements, List<String> unresolvedConstituents, CSARInfo csarInfo,
+                        String contentDigest) {
+            this.digest                 = digest;
+            this.kind                   = kind;
+            this.descriptorId           = descriptorId;
+            this.parameter              = parameter;
+            this.specification          = specification;
+            this.requirements           = requirements;
+            this.unresolvedConstituents = unresolvedConstituents;
+            this.createdAt              = System.currentTimeMillis();
+            this.csarInfo               = csarInfo;
+            this.contentDigest          = contentDigest;
+        }
+
+        public String getDigest() { return digest; }
+
+        public Kind getKind() { return kind; }
+
+        public String getDescriptorId() { return descriptorId; }
+
+        public String getParameter() { return parameter; }
+
+        public Object getSpecification() { return specification; }
+
+        public RequirementSummary getRequirements() { return requirements; }
+
+        public List<String> getUnresolvedConstituents() { return unresolvedConstituents; }
+
+        public Long getCreatedAt() { return createdAt; }
+
+        public CSARInfo getCsarInfo() { return csarInfo; }
+
+        public String getContentDigest() { return contentDigest; }
+    }
+
+    private final ArchiveParser archiveParser;
+
+    private final TranslationResultCache translationResultCache;
+
+    private final TranslatorCatalogInteractionService translatorCatalogInteractionService;
+
+    private final TranslatorDescSourceInteractionService translatorDescSourceInteractionService;
+
+    private final MappingInfoService mappingInfoService;
+
+    private final TranslationService translationService;
+
+    private final TranslationPlanner translationPlanner;
+
+    private final ContentDigest contentDigest;
+
+    private Cache<String, Preview> previews;
+
+    @Autowired
+    public PreviewService(ArchiveParser archiveParser,
+                          TranslationResultCache translationResultCache,
+                          TranslatorCatalogInteractionService translatorCatalogInteractionService,
+                          TranslatorDescSourceInteractionService translatorDescSourceInteractionService,
+                          MappingInfoService mappingInfoService,
+                          TranslationService translationService,
+                          TranslationPlanner translationPlanner,
+                          ContentDigest contentDigest) {
+        this.archiveParser                          = archiveParser;
+        this.translationResultCache                 = translationResultCache;
+        this.translatorCatalogInteractionService    = translatorCatalogInteractionService;
+        this.translatorDescSourceInteractionService = translatorDescSourceInteractionService;
+        this.mappingInfoService                     = mappingInfoService;
+        this.translationService                     = translationService;
+        this.translationPlanner                     = translationPlanner;
+        this.contentDigest                          = contentDigest;
+    }
+
+    @PostConstruct
+    public void init() {
+        previews = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    public Preview get(String digest) { return previews.getIfPresent(digest); }
+
+    // The digest TranslationService computes for the descriptor of the package, IdVsbNameMapping included.
+    private String contentDigestOf(Kind kind, CSARInfo csarInfo, String parameter) throws IOException {
+        switch(kind) {
+            case VNF:
+                Vnfd vnfd = csarInfo.getVnfd();
+                return contentDigest.of(Kind.VNF, vnfd.getId(), vnfd, parameter);
+
+            case PNF:
+                Pnfd pnfd = csarInfo.getPnfd();
+                return contentDigest.of(Kind.PNF, pnfd.getId(), pnfd);
+
+            default:
+                Nsd nsd = csarInfo.getNsd();
+                return contentDigest.of(Kind.NS, nsd.getId(), nsd, parameter);
+        }
+    }
+
+    public Preview preview(MultipartFile file, Kind kind, String parameter)
+            throws IOException, MalformattedElementException, FailedOperationException,
+            CatalogException, NotExistingEntityException {
+
+        String digest = ContentDigest.sha256(file.getBytes(),
+                (kind.name() + "|" + (parameter == null ? "" : parameter)).getBytes(StandardCharsets.UTF_8));
+        Preview preview = previews.getIfPresent(digest);
+        if(preview != null) {
+            if(preview.getContentDigest().equals(contentDigestOf(kind, preview.getCsarInfo(), parameter))) {
+                log.info("Package with digest " + digest + " already previewed.");
+                return preview;
+            }
+            log.info("IdVsbNameMapping of " + preview.getDescriptorId() + " changed since preview " + digest +
+                    ", translating it again.");
+        }
+
+        CSARInfo csarInfo = archiveParser.archiveToCSARInfo(file, kind);
+        if(kind != Kind.VNF && kind != Kind.PNF && kind != Kind.NS)
+            throw new MalformattedElementException("Preview not supported for " + kind.name() + " packages.");
+        String previewedDigest = contentDigestOf(kind, csarInfo, parameter);
+        switch(kind) {
+            case VNF:
+                Vnfd vnfd = csarInfo.getVnfd();
+                Pair<ResourceSpecificationCreate, RequirementSummary> rsc =
+                        translationResultCache.buildVnfdResourceSpecification(vnfd, parameter, previewedDigest);
+                preview = new Preview(digest, kind, vnfd.getId(), parameter, rsc.getFirst(), rsc.getSecond(),
+                        Collections.emptyList(), csarInfo, previewedDigest);
+                break;
+
+            case PNF:
+                Pnfd pnfd = csarInfo.getPnfd();
+                preview = new Preview(digest, kind, pnfd.getId(), parameter,
+                        translationResultCache.buildPnfdResourceSpecification(pnfd, previewedDigest), null,
+                        Collections.emptyList(), csarInfo, previewedDigest);
+                break;
+
+            case NS:
+                Nsd nsd = csarInfo.getNsd();
+                List<String> unresolved = new ArrayList<>();
+                Map<String, RequirementSummary> requirements = new HashMap<>();
+                Pair<ServiceSpecificationCreate, RequirementSummary> ssc =
+                        translationResultCache.buildNsdServiceSpecification(nsd,
+                                present(Kind.VNF, nsd.getVnfdId(), translatorCatalogInteractionService::verifyResources,
+                                        unresolved, requirements),
+                                present(Kind.PNF, nsd.getPnfdId(), translatorCatalogInteractionService::verifyResources,
+                                        unresolved, requirements),
+                                present(Kind.NS, nsd.getNestedNsdId(), translatorCatalogInteractionService::verifyServices,
+                                        unresolved, requirements),
+                                requirements, parameter, previewedDigest);
+                preview = new Preview(digest, kind, nsd.getId(), parameter, ssc.getFirst(), ssc.getSecond(), unresolved,
+                        csarInfo, previewedDigest);
+                break;
+        }
+
+        previews.put(digest, preview);
+        log.info("Preview " + digest + " of " + kind.name() + " " + preview.getDescriptorId() + " built.");
+
+        return preview;
+    }
+
+    @FunctionalInterface
+    private interface PresenceVerifier<T> {
+        Map<String, TranslatorCatalogInteractionService.PresenceCheck<T>>
+        verify(List<MappingInfo> mappingInfos);
+    }
+
+    // Specifications of the constituents already in the Offer Catalog; a preview never translates the others.
+    private <T> List<T> present(Kind kind, List<String> descriptorIds, PresenceVerifier<T> verifier,
+                                List<String> unresolved, Map<String, RequirementSummary> requirements)
+            throws CatalogException {
+
+        List<T> specifications = new ArrayList<>();
+        if(descriptorIds == null || descriptorIds.isEmpty())
+            return specifications;
+
+        List<MappingInfo> mappingInfos = mappingInfoService.getAll(descriptorIds);
+        for(MappingInfo mappingInfo : mappingInfos)
+            if(mappingInfo.getRequirements() != null && mappingInfo.getRequirements().isComplete() &&
+                    mappingInfo.getSpecificationCatalogId() != null)
+                requirements.put(mappingInfo.getSpecificationCatalogId(), mappingInfo.getRequirements());
+
+        Map<String, TranslatorCatalogInteractionService.PresenceCheck<T>> presenceChecks =
+                verifier.verify(mappingInfos);
+        for(String descriptorId : descriptorIds) {
+            TranslatorCatalogInteractionService.PresenceCheck<T> presenceCheck = presenceChecks.get(descriptorId);
+            if(presenceCheck != null && presenceCheck.getStatus() == PresenceStatus.UNREACHABLE)
+                throw new CatalogException(presenceCheck.getMessage());
+            if(presenceCheck != null && presenceCheck.getStatus() == PresenceStatus.PRESENT)
+                specifications.add(presenceCheck.getSpecification());
+            else
+                unresolved.add(kind.name() + ":" + descriptorId);
+        }
+
+        return specifications;
+    }
+
+    // Posts the previewed translation and, when missing, the package to the descriptors source. Null when the
+    // preview is unknown or expired. A preview whose IdVsbNameMapping changed since is dropped instead of posted,
+    // as TranslationService would record the shown specification under the digest of the new mapping.
+    public Pair<?, ?> commit(String digest)
+            throws IOException, CatalogException, MissingEntityOnCatalogException, SourceException,
+            MissingEntityOnSourceException, MalformattedElementException, NotExistingEntityException,
+            StalePreviewException {
+
+        Preview preview = previews.getIfPresent(digest);
+        if(preview == null)
+            return null;
+
+        CSARInfo csarInfo = preview.getCsarInfo();
+        if(!preview.getContentDigest().equals(contentDigestOf(preview.getKind(), csarInfo, preview.getParameter()))) {
+            previews.invalidate(digest);
+            throw new StalePreviewException("IdVsbNameMapping of " + preview.getKind().name() + " " +
+                    preview.getDescriptorId() + " changed since preview " + digest + ", preview the package again.");
+        }
+
+        Pair<?, ?> translation;
+        switch(preview.getKind()) {
+            case VNF:
+                translation = translationService.translateVnfd(csarInfo.getVnfd(), preview.getParameter(),
+                        new Pair<>((ResourceSpecificationCreate) preview.getSpecification(), preview.getRequirements()));
+                break;
+
+            case PNF:
+                translation = translationService.translatePnfd(csarInfo.getPnfd(),
+                        (ResourceSpecificationCreate) preview.getSpecification());
+                break;
+
+            default:
+                // Constituents missing at preview time have to be translated first, and the specification with them.
+                if(preview.getUnresolvedConstituents().isEmpty())
+                    translation = translationService.translateNsd(csarInfo.getNsd(), preview.getParameter(),
+                            new Pair<>((ServiceSpecificationCreate) preview.getSpecification(), preview.getRequirements()));
+                else
+                    translation = translationPlanner.translate(csarInfo.getNsd(), preview.getParameter());
+        }
+
+        String descriptorId = preview.getDescriptorId();
+        try {
+            translatorDescSourceInteractionService.getInfoIdFromDescriptorId(preview.getKind(), descriptorId);
+        } catch (MissingEntityOnSourceException e) {
+            log.info("Posting " + preview.getKind().name() + " " + descriptorId + " to descriptors source.");
+            translatorDescSourceInteractionService.postOnSource(preview.getKind(), csarInfo.getPackagePath());
+            log.info(preview.getKind().name() + " " + descriptorId + " posted on descriptors source.");
+        }
+
+        previews.invalidate(digest);
+        log.info("Preview " + digest + " committed.");
+
+        return translation;
+    }
+}
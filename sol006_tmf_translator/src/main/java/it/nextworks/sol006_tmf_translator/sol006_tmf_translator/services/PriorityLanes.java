@@ -0,0 +1,192 @@
+package it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services;
+
+import it.nextworks.sol006_tmf_translator.information_models.commons.enums.Lane;
+import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.commons.exception.DownstreamUnavailableException;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Admission to the concurrent calls towards a single downstream service, shared between the interactive and the
+// bulk lane. Waiting callers are let in by weighted fair queueing on the lane weights, and bulk callers can never
+// take the slots reserved to interactive ones, so a bulk backlog only delays interactive translations by its share.
+public class PriorityLanes {
+
+    // The lane of the work running on the current thread: requests are interactive unless marked otherwise.
+    private static final ThreadLocal<Lane> current = ThreadLocal.withInitial(() -> Lane.INTERACTIVE);
+
+    public static Lane current() { return current.get(); }
+
+    // Returns the previous lane, to hand back to restore once the work is done.
+    public static Lane enter(Lane lane) {
+        Lane previous = current.get();
+        current.set(lane);
+        return previous;
+    }
+
+    public static void restore(Lane previous) {
+        if(previous == Lane.INTERACTIVE)
+            current.remove();
+        else
+            current.set(previous);
+    }
+
+    private static class Waiter {
+        private boolean granted;
+    }
+
+    private static class LaneState {
+
+        private final int weight;
+
+        private final int limit;
+
+        private final ArrayDeque<Waiter> queue = new ArrayDeque<>();
+
+        private int inFlight;
+
+        // Virtual finish time of the last admitted call, advanced by 1/weight at every admission.
+        private double pass;
+
+        private long admitted;
+
+        private long rejected;
+
+        private long totalWaitNanos;
+
+        private long maxWaitNanos;
+
+        private LaneState(int weight, int limit) {
+            this.weight = weight;
+            this.limit = limit;
+        }
+    }
+
+    private final String name;
+
+    private final int slots;
+
+    private final long maxWait;
+
+    private final Map<Lane, LaneState> lanes = new EnumMap<>(Lane.class);
+
+    private int inFlight;
+
+    private double virtualTime;
+
+    public PriorityLanes(String name, int slots, int interactiveWeight, int bulkWeight, int interactiveReserve,
+                         long maxWait) {
+        this.name = name;
+        this.slots = slots;
+        this.maxWait = maxWait;
+        lanes.put(Lane.INTERACTIVE, new LaneState(interactiveWeight, slots));
+        lanes.put(Lane.BULK, new LaneState(bulkWeight, Math.max(1, slots - interactiveReserve)));
+    }
+
+    public int limit(Lane lane) { return lanes.get(lane).limit; }
+
+    public synchronized void acquire(Lane lane) throws DownstreamUnavailableException {
+        LaneState state = lanes.get(lane);
+        Waiter waiter = new Waiter();
+        // A lane coming back from idle starts from the current virtual time instead of cashing in its idle period.
+        if(state.queue.isEmpty())
+            state.pass = Math.max(state.pass, virtualTime);
+        state.queue.add(waiter);
+        dispatch();
+
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(maxWait);
+        try {
+            while(!waiter.granted) {
+                long remaining = deadline - System.nanoTime();
+                if(remaining <= 0) {
+                    state.queue.remove(waiter);
+                    state.rejected++;
+                    throw new DownstreamUnavailableException(name + " " + lane.name().toLowerCase() +
+                            " lane waited " + maxWait + " ms for one of " + slots + " call slots, failing fast.");
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            }
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if(waiter.granted) {
+                release(lane);
+            } else {
+                state.queue.remove(waiter);
+                state.rejected++;
+            }
+            throw new DownstreamUnavailableException(name + " " + lane.name().toLowerCase() +
+                    " lane wait interrupted.");
+        }
+
+        long waited = System.nanoTime() - start;
+        state.totalWaitNanos += waited;
+        state.maxWaitNanos = Math.max(state.maxWaitNanos, waited);
+    }
+
+    // Admits the caller only if a slot is free and nobody in its lane is waiting for one.
+    public synchronized boolean tryAcquire(Lane lane) {
+        LaneState state = lanes.get(lane);
+        if(!state.queue.isEmpty() || inFlight >= slots || state.inFlight >= state.limit)
+            return false;
+
+        state.pass = Math.max(state.pass, virtualTime) + 1.0 / state.weight;
+        virtualTime = state.pass;
+        state.inFlight++;
+        state.admitted++;
+        inFlight++;
+        return true;
+    }
+
+    public synchronized void release(Lane lane) {
+        inFlight--;
+        lanes.get(lane).inFlight--;
+        dispatch();
+    }
+
+    // Admits the head of the eligible lane with the smallest virtual finish time while slots are free.
+    private void dispatch() {
+        boolean admitted = false;
+        while(inFlight < slots) {
+            LaneState next = null;
+            for(LaneState state : lanes.values())
+                if(!state.queue.isEmpty() && state.inFlight < state.limit &&
+                        (next == null || state.pass + 1.0 / state.weight < next.pass + 1.0 / next.weight))
+                    next = state;
+            if(next == null)
+                break;
+
+            next.queue.poll().granted = true;
+            next.pass += 1.0 / next.weight;
+            virtualTime = next.pass;
+            next.inFlight++;
+            next.admitted++;
+            inFlight++;
+            admitted = true;
+        }
+
+        if(admitted)
+            notifyAll();
+    }
+
+    public synchronized Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        for(Map.Entry<Lane, LaneState> entry : lanes.entrySet()) {
+            LaneState state = entry.getValue();
+            Map<String, Object> lane = new LinkedHashMap<>();
+            lane.put("weight", state.weight);
+            lane.put("maxConcurrentCalls", state.limit);
+            lane.put("inFlight", state.inFlight);
+            lane.put("queueDepth", state.queue.size());
+            lane.put("admitted", state.admitted);
+            lane.put("rejected", state.rejected);
+            lane.put("averageWaitMs", state.admitted == 0 ? 0.0 :
+                    (double) TimeUnit.NANOSECONDS.toMicros(state.totalWaitNanos) / state.admitted / 1000);
+            lane.put("maxWaitMs", TimeUnit.NANOSECONDS.toMillis(state.maxWaitNanos));
+            status.put(entry.getKey().name(), lane);
+        }
+        return status;
+    }
+}
@@ -0,0 +1,35 @@
+package it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.apache.http.HttpEntity;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class ResponseDecoder {
+
+    private final ObjectMapper objectMapper;
+
+    private final Map<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ResponseDecoder(ObjectMapper objectMapper) { this.objectMapper = objectMapper; }
+
+    private ObjectReader readerFor(Class<?> type) { return readers.computeIfAbsent(type, objectMapper::readerFor); }
+
+    // Deserializes straight from the entity stream, without buffering the payload as a String first.
+    public <T> T decode(HttpEntity httpEntity, Class<T> type) throws IOException {
+        if(httpEntity == null)
+            throw new IOException("Empty response body, cannot decode " + type.getSimpleName() + ".");
+
+        try(InputStream inputStream = httpEntity.getContent()) {
+            return readerFor(type).readValue(inputStream);
+        }
+    }
+}
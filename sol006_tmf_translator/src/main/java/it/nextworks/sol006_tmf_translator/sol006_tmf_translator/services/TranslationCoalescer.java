@@ -0,0 +1,146 @@
+package it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services;
+
+import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.commons.exception.CatalogException;
+import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.repo.DescriptorLockRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Coalesces concurrent translations of the same descriptor: the first caller does the work and the others
+// share its outcome. Across replicas the leader also holds a lease in the descriptor_lock table, so the
+// replica that comes second finds the mapping info saved by the first instead of posting duplicates.
+@Service
+public class TranslationCoalescer {
+
+    private static final Logger log = LoggerFactory.getLogger(TranslationCoalescer.class);
+
+    @FunctionalInterface
+    public interface Call<T> {
+        T call() throws Exception;
+    }
+
+    @Value("${translation.lock.distributed}")
+    private boolean distributed;
+
+    @Value("${translation.lock.lease}")
+    private long lease;
+
+    @Value("${translation.lock.poll_interval}")
+    private long pollInterval;
+
+    @Value("${translation.lock.timeout}")
+    private long timeout;
+
+    private final DescriptorLockRepository descriptorLockRepository;
+
+    private final String owner = UUID.randomUUID().toString();
+
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    // Descriptors the current thread leads, to tell re-entry from a concurrent translation.
+    private final ThreadLocal<Set<String>> leading = ThreadLocal.withInitial(HashSet::new);
+
+    private ScheduledExecutorService renewer;
+
+    @Autowired
+    public TranslationCoalescer(DescriptorLockRepository descriptorLockRepository) {
+        this.descriptorLockRepository = descriptorLockRepository;
+    }
+
+    @PostConstruct
+    public void init() {
+        renewer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "descriptor-lock-renewer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() { renewer.shutdownNow(); }
+
+    // Failures of the call, for the leader and the callers sharing its outcome alike, come as the cause
+    // of the ExecutionException. Callers give up waiting for the leader after translation.lock.timeout.
+    @SuppressWarnings("unchecked")
+    public <T> T run(String descriptorId, Call<T> call) throws ExecutionException, InterruptedException {
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> leader = inFlight.putIfAbsent(descriptorId, flight);
+        if(leader != null) {
+            if(leading.get().contains(descriptorId))
+                throw new ExecutionException(new CatalogException("Translation of " + descriptorId +
+                        " depends on itself, it cannot wait for its own outcome."));
+
+            log.info("Translation of " + descriptorId + " already in progress, waiting for its outcome.");
+            try {
+                return (T) leader.get(timeout, TimeUnit.MILLISECONDS);
+            } catch(TimeoutException e) {
+                throw new ExecutionException(new CatalogException("Timed out waiting for the translation of " +
+                        descriptorId + " already in progress."));
+            }
+        }
+
+        leading.get().add(descriptorId);
+        try {
+            T result = distributed ? locked(descriptorId, call) : call.call();
+            flight.complete(result);
+            return result;
+        } catch(Exception e) {
+            flight.completeExceptionally(e);
+            throw new ExecutionException(e);
+        } finally {
+            leading.get().remove(descriptorId);
+            inFlight.remove(descriptorId, flight);
+        }
+    }
+
+    private <T> T locked(String descriptorId, Call<T> call) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        boolean waited = false;
+        while(descriptorLockRepository.tryAcquire(descriptorId, owner, lease) == 0) {
+            if(System.nanoTime() - deadline >= 0)
+                throw new CatalogException("Timed out waiting for another replica translating " + descriptorId + ".");
+            if(!waited) {
+                log.info("Translation of " + descriptorId + " in progress on another replica, waiting for its lock.");
+                waited = true;
+            }
+            Thread.sleep(pollInterval);
+        }
+
+        ScheduledFuture<?> renewal = renewer.scheduleAtFixedRate(() -> {
+            try {
+                if(descriptorLockRepository.renew(descriptorId, owner, lease) == 0)
+                    log.warn("Lock on " + descriptorId + " lost before the translation completed.");
+            } catch(RuntimeException e) {
+                log.warn("Cannot renew lock on " + descriptorId + ": " + e.getMessage());
+            }
+        }, lease / 3, lease / 3, TimeUnit.MILLISECONDS);
+
+        try {
+            return call.call();
+        } finally {
+            renewal.cancel(false);
+            try {
+                descriptorLockRepository.release(descriptorId, owner);
+            } catch(RuntimeException e) {
+                log.warn("Cannot release lock on " + descriptorId + ", it will expire on its own: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services;
+
+import it.nextworks.sol006_tmf_translator.information_models.commons.enums.Lane;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+public class TranslationExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(TranslationExecutor.class);
+
+    @FunctionalInterface
+    public interface Resolver<T> {
+        T resolve(String id) throws Exception;
+    }
+
+    @Value("${translation.executor.threads}")
+    private int threads;
+
+    @Value("${translation.executor.queue_capacity}")
+    private int queueCapacity;
+
+    @Value("${translation.executor.bulk_threads}")
+    private int bulkThreads;
+
+    private ThreadPoolExecutor executor;
+
+    // Fan-outs of bulk work queue here, so they never sit in front of interactive ones.
+    private ThreadPoolExecutor bulkExecutor;
+
+    // Set while a task runs on a worker, so nested fan-outs run inline instead of waiting on the same pool.
+    private final ThreadLocal<Boolean> onWorker = ThreadLocal.withInitial(() -> false);
+
+    private static ThreadPoolExecutor newExecutor(String prefix, int threads, int queueCapacity) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    @PostConstruct
+    public void init() {
+        executor = newExecutor("translation", threads, queueCapacity);
+        bulkExecutor = newExecutor("translation-bulk", bulkThreads, queueCapacity);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        bulkExecutor.shutdownNow();
+    }
+
+    // Workers take on the lane of the submitting thread, which their downstream calls are admitted in.
+    private <T> T runOnWorker(Resolver<T> resolver, String id, Lane lane) throws Exception {
+        boolean nested = onWorker.get();
+        onWorker.set(true);
+        Lane previous = PriorityLanes.enter(lane);
+        try {
+            return resolver.resolve(id);
+        } finally {
+            PriorityLanes.restore(previous);
+            if(!nested)
+                onWorker.remove();
+        }
+    }
+
+    public <T> List<T> resolveAll(List<String> ids, Resolver<T> resolver)
+            throws ExecutionException, InterruptedException {
+
+        List<T> results = new ArrayList<>(ids.size());
+        if(ids.size() <= 1 || onWorker.get()) {
+            for(String id : ids) {
+                try {
+                    results.add(resolver.resolve(id));
+                } catch(Exception e) {
+                    throw new ExecutionException(e);
+                }
+            }
+            return results;
+        }
+
+        Lane lane = PriorityLanes.current();
+        ExecutorCompletionService<T> completionService =
+                new ExecutorCompletionService<>(lane == Lane.BULK ? bulkExecutor : executor);
+        List<Future<T>> futures = new ArrayList<>(ids.size());
+        try {
+            for(String id : ids)
+                futures.add(completionService.submit(() -> runOnWorker(resolver, id, lane)));
+
+            // Surface the first failure as soon as it happens, whatever its position in the list.
+            for(int i = 0; i < futures.size(); i++)
+                completionService.take().get();
+
+            for(Future<T> future : futures)
+                results.add(future.get());
+            return results;
+        } catch(ExecutionException | InterruptedException e) {
+            log.info("Constituent resolution failed, cancelling " + ids.size() + " sibling tasks.");
+            throw e;
+        } finally {
+            for(Future<T> future : futures)
+                future.cancel(true);
+        }
+    }
+}
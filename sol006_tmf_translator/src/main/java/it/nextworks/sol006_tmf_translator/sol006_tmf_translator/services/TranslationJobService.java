@@ -0,0 +1,254 @@
+package it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.nextworks.sol006_tmf_translator.information_models.commons.enums.JobState;
+import it.nextworks.sol006_tmf_translator.information_models.commons.enums.Kind;
+import it.nextworks.sol006_tmf_translator.information_models.persistence.TranslationJob;
+import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.repo.TranslationJobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Jobs are owned by the replica that queued or reclaimed them, which keeps their heartbeat fresh while they are
+// unfinished. Any replica reclaims the unfinished jobs whose owner stopped beating for longer than the lease.
+@Service
+public class TranslationJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(TranslationJobService.class);
+
+    // Kinds posting fresh catalog objects on every run: if their run was cut short it may have posted some of
+    // them already, so running it again would duplicate them.
+    private static final Set<Kind> NOT_RERUNNABLE =
+            EnumSet.of(Kind.NETWORK_SLICE, Kind.EDGE, Kind.CLOUD, Kind.SPC, Kind.RAD);
+
+    // Runs the same chain as the synchronous endpoint; the returned status and body become the job outcome.
+    @FunctionalInterface
+    public interface JobHandler {
+        ResponseEntity<?> run(String targetId, Map<String, String> parameters) throws Exception;
+    }
+
+    private static class JobContext {
+        private final Map<String, Long> stageTimings = new LinkedHashMap<>();
+        private String stage;
+        private long stageStart;
+
+        private void enter(String next) {
+            long now = System.nanoTime();
+            if(stage != null)
+                stageTimings.merge(stage, TimeUnit.NANOSECONDS.toMillis(now - stageStart), Long::sum);
+            stage = next;
+            stageStart = now;
+        }
+    }
+
+    @Value("${translation.jobs.threads}")
+    private int threads;
+
+    @Value("${translation.jobs.queue_capacity}")
+    private int queueCapacity;
+
+    @Value("${translation.jobs.heartbeat_interval}")
+    private long heartbeatInterval;
+
+    @Value("${translation.jobs.lease}")
+    private long lease;
+
+    private final String owner = UUID.randomUUID().toString();
+
+    private final ObjectMapper objectMapper;
+
+    private final TranslationJobRepository translationJobRepository;
+
+    private final Map<Kind, JobHandler> handlers = Collections.synchronizedMap(new EnumMap<>(Kind.class));
+
+    private final ThreadLocal<JobContext> context = new ThreadLocal<>();
+
+    private ThreadPoolExecutor executor;
+
+    private ScheduledExecutorService heartbeat;
+
+    @Autowired
+    public TranslationJobService(ObjectMapper objectMapper, TranslationJobRepository translationJobRepository) {
+        this.objectMapper = objectMapper;
+        this.translationJobRepository = translationJobRepository;
+    }
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "translation-job-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+
+        heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "translation-job-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeat.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    public void register(Kind kind, JobHandler handler) { handlers.put(kind, handler); }
+
+    // Marks the start of a named stage of the running job; a no-op outside job workers.
+    public void stage(String name) {
+        JobContext jobContext = context.get();
+        if(jobContext != null)
+            jobContext.enter(name);
+    }
+
+    public boolean supports(Kind kind) { return handlers.containsKey(kind); }
+
+    // True on job workers only, where handlers run off the request path.
+    public boolean inJob() { return context.get() != null; }
+
+    // Runs the registered handler on the calling thread, as job workers and the bulk pipeline do.
+    public ResponseEntity<?> runInline(Kind kind, String targetId, Map<String, String> parameters) throws Exception {
+        JobHandler handler = handlers.get(kind);
+        if(handler == null)
+            throw new IllegalArgumentException("No translation handler for kind " + kind.name() + ".");
+
+        return handler.run(targetId, parameters);
+    }
+
+    public Optional<TranslationJob> get(String id) { return translationJobRepository.findById(id); }
+
+    public TranslationJob submit(Kind kind, String targetId, Map<String, String> parameters)
+            throws JsonProcessingException {
+
+        TranslationJob job = new TranslationJob(UUID.randomUUID().toString(), kind, targetId,
+                objectMapper.writeValueAsString(parameters));
+        job.setOwner(owner);
+        translationJobRepository.save(job);
+        // Seeded with the database clock like every later heartbeat, never with the clock of this replica.
+        translationJobRepository.heartbeat(owner);
+        log.info("Translation job " + job.getId() + " queued for " + kind.name() + " " + targetId + ".");
+
+        enqueue(job);
+        return job;
+    }
+
+    private void enqueue(TranslationJob job) {
+        try {
+            executor.execute(() -> run(job));
+        } catch(RejectedExecutionException e) {
+            String msg = "Translation job queue full, job " + job.getId() + " rejected.";
+            log.warn(msg);
+            finish(job, 503, Collections.singletonMap("msg", msg), null);
+        }
+    }
+
+    // Started once the handlers are registered, so that reclaimed jobs find them.
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        heartbeat.scheduleWithFixedDelay(() -> {
+            try {
+                translationJobRepository.heartbeat(owner);
+                reclaim();
+            } catch(RuntimeException e) {
+                log.warn("Translation job heartbeat failed: " + e.getMessage());
+            }
+        }, 0, heartbeatInterval, TimeUnit.MILLISECONDS);
+    }
+
+    private void reclaim() {
+        for(TranslationJob orphan : translationJobRepository.findOrphaned(lease)) {
+            if(translationJobRepository.claim(orphan.getId(), owner, lease) == 0)
+                continue;
+
+            Optional<TranslationJob> claimed = translationJobRepository.findById(orphan.getId());
+            if(!claimed.isPresent())
+                continue;
+
+            TranslationJob job = claimed.get();
+            if(job.getState() == JobState.RUNNING && NOT_RERUNNABLE.contains(job.getKind())) {
+                String msg = "Translation job " + job.getId() + " interrupted while running, " + job.getKind().name() +
+                        " translations are not run again.";
+                log.warn(msg);
+                finish(job, 500, Collections.singletonMap("msg", msg), null);
+                continue;
+            }
+
+            log.info("Resuming translation job " + job.getId() + " whose owner is gone.");
+            job.setState(JobState.QUEUED);
+            job.setStartedAt(null);
+            translationJobRepository.save(job);
+            enqueue(job);
+        }
+    }
+
+    private void run(TranslationJob job) {
+        JobContext jobContext = new JobContext();
+        context.set(jobContext);
+        try {
+            job.setState(JobState.RUNNING);
+            job.setStartedAt(System.currentTimeMillis());
+            translationJobRepository.save(job);
+            jobContext.stageTimings.put("queued", job.getStartedAt() - job.getCreatedAt());
+
+            Map<String, String> parameters = job.getParameters() == null ? Collections.emptyMap() :
+                    objectMapper.readValue(job.getParameters(), new TypeReference<Map<String, String>>() {});
+            ResponseEntity<?> response = runInline(job.getKind(), job.getTargetId(), parameters);
+            finish(job, response.getStatusCodeValue(), response.getBody(), jobContext);
+        } catch(Exception e) {
+            log.error("Translation job " + job.getId() + " failed: " + e.getMessage());
+            finish(job, 500, Collections.singletonMap("msg", e.getMessage()), jobContext);
+        } finally {
+            context.remove();
+        }
+    }
+
+    private void finish(TranslationJob job, int statusCode, Object body, JobContext jobContext) {
+        if(jobContext != null)
+            jobContext.enter(null);
+
+        job.setStatusCode(statusCode);
+        job.setState(statusCode >= 200 && statusCode < 300 ? JobState.SUCCEEDED : JobState.FAILED);
+        job.setFinishedAt(System.currentTimeMillis());
+        try {
+            job.setResult(body == null ? null : objectMapper.writeValueAsString(body));
+            job.setStageTimings(jobContext == null ? null : objectMapper.writeValueAsString(jobContext.stageTimings));
+        } catch(JsonProcessingException e) {
+            log.error("Cannot serialize outcome of translation job " + job.getId() + ": " + e.getMessage());
+        }
+
+        translationJobRepository.save(job);
+        log.info("Translation job " + job.getId() + " " + job.getState().name() + " with status " + statusCode + ".");
+    }
+}
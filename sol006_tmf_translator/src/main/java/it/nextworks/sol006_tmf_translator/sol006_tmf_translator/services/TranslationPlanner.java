@@ -0,0 +1,360 @@
+package it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import it.nextworks.nfvmano.libs.descriptors.sol006.Nsd;
+import it.nextworks.sol006_tmf_translator.information_models.commons.Pair;
+import it.nextworks.sol006_tmf_translator.information_models.commons.enums.Kind;
+import it.nextworks.sol006_tmf_translator.information_models.commons.enums.PresenceStatus;
+import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.commons.exception.*;
+import it.nextworks.tmf_offering_catalog.information_models.service.ServiceCandidate;
+import it.nextworks.tmf_offering_catalog.information_models.service.ServiceSpecification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+// Builds the dependency DAG of an NSD from the descriptors source before translating it, so that constituents
+// shared by several nested NSDs are translated once and every level of the DAG is translated in parallel,
+// leaves first.
+@Service
+public class TranslationPlanner {
+
+    private static final Logger log = LoggerFactory.getLogger(TranslationPlanner.class);
+
+    public static class Node {
+
+        @JsonProperty("key")
+        private final String key;
+
+        @JsonProperty("kind")
+        private final Kind kind;
+
+        @JsonProperty("descriptorId")
+        private final String descriptorId;
+
+        @JsonProperty("status")
+        private PresenceStatus status;
+
+        @JsonProperty("level")
+        private int level;
+
+        @JsonProperty("dependencies")
+        private final List<String> dependencies = new ArrayList<>();
+
+        @JsonProperty("durationMs")
+        private Long durationMs;
+
+        @JsonIgnore
+        private boolean levelComputed;
+
+        @JsonIgnore
+        private Nsd nsd;
+
+        private Node(Kind kind, String descriptorId) {
+            this.key          = MappingInfoService.key(kind, descriptorId);
+            this.kind         = kind;
+            this.descriptorId = descriptorId;
+        }
+
+        @JsonProperty("translate")
+        public boolean isTranslate() { return status != PresenceStatus.PRESENT; }
+
+        public String getKey() { return key; }
+
+        public Kind getKind() { return kind; }
+
+        public String getDescriptorId() { return descriptorId; }
+
+        public PresenceStatus getStatus() { return status; }
+
+        public int getLevel() { return level; }
+
+        public List<String> getDependencies() { return dependencies; }
+
+        public Long getDurationMs() { return durationMs; }
+    }
+
+    public static class Plan {
+
+        @JsonProperty("root")
+        private final String root;
+
+        @JsonProperty("nodes")
+        private final Map<String, Node> nodes;
+
+        @JsonProperty("levels")
+        private final List<List<String>> levels = new ArrayList<>();
+
+        @JsonProperty("criticalPath")
+        private List<String> criticalPath;
+
+        @JsonProperty("criticalPathMs")
+        private Long criticalPathMs;
+
+        private Plan(String root, Map<String, Node> nodes) {
+            this.root  = root;
+            this.nodes = nodes;
+        }
+
+        public String getRoot() { return root; }
+
+        public Collection<Node> getNodes() { return nodes.values(); }
+
+        public List<List<String>> getLevels() { return levels; }
+
+        public List<String> getCriticalPath() { return criticalPath; }
+
+        public Long getCriticalPathMs() { return criticalPathMs; }
+    }
+
+    private final TranslationService translationService;
+
+    private final MappingInfoService mappingInfoService;
+
+    private final TranslationExecutor translationExecutor;
+
+    @Autowired
+    public TranslationPlanner(TranslationService translationService,
+                              MappingInfoService mappingInfoService,
+                              TranslationExecutor translationExecutor) {
+        this.translationService  = translationService;
+        this.mappingInfoService  = mappingInfoService;
+        this.translationExecutor = translationExecutor;
+    }
+
+    private static void addDependencies(Node parent, Kind kind, List<String> descriptorIds,
+                                        Map<String, Node> nodes, List<Node> discovered) {
+        if(descriptorIds == null)
+            return;
+
+        for(String descriptorId : descriptorIds) {
+            String key = MappingInfoService.key(kind, descriptorId);
+            if(parent.dependencies.contains(key))
+                continue;
+            parent.dependencies.add(key);
+            if(!nodes.containsKey(key)) {
+                Node node = new Node(kind, descriptorId);
+                nodes.put(key, node);
+                discovered.add(node);
+            }
+        }
+    }
+
+    // Trusts what the translations themselves trust, recently verified entries and the presence cache, so that
+    // planning an unchanged nsd costs no Offer Catalog call and the checks made here are reused when translating.
+    private void verify(List<Node> discovered) throws CatalogException {
+        List<Pair<Kind, String>> descriptors = new ArrayList<>(discovered.size());
+        for(Node node : discovered)
+            descriptors.add(new Pair<>(node.kind, node.descriptorId));
+
+        Map<String, PresenceStatus> statuses = mappingInfoService.verifyByKind(descriptors, true);
+        for(Node node : discovered) {
+            node.status = statuses.get(node.key);
+            if(node.status == PresenceStatus.UNREACHABLE)
+                throw new CatalogException("Cannot verify " + node.key + " in Offer Catalog, abort.");
+        }
+    }
+
+    private void fetchNestedNsds(List<Node> toExpand)
+            throws IOException, CatalogException, SourceException, MissingEntityOnSourceException {
+
+        List<String> nsdIds = new ArrayList<>(toExpand.size());
+        for(Node node : toExpand)
+            nsdIds.add(node.descriptorId);
+
+        List<Nsd> nsds;
+        try {
+            nsds = translationExecutor.resolveAll(nsdIds, nsdId -> {
+                try {
+                    return translationService.getNsdFromSource(nsdId);
+                } catch (MissingEntityOnSourceException e) {
+                    String msg = "Service " + nsdId + " missing on descriptors source, abort.";
+                    log.info(msg);
+                    throw new MissingEntityOnSourceException(msg);
+                }
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CatalogException("Interrupted while retrieving nested nsds.");
+        } catch (ExecutionException e) {
+            try {
+                TranslationService.rethrowResolutionFailure(e.getCause());
+            } catch (MissingEntityOnCatalogException | MalformattedElementException | NotExistingEntityException unexpected) {
+                throw new CatalogException(unexpected.getMessage());
+            }
+            return;
+        }
+
+        for(int i = 0; i < toExpand.size(); i++)
+            toExpand.get(i).nsd = nsds.get(i);
+    }
+
+    private static int level(Node node, Map<String, Node> nodes, Set<String> visiting)
+            throws MalformattedElementException {
+
+        if(!node.isTranslate())
+            return -1;
+        if(node.levelComputed)
+            return node.level;
+        if(!visiting.add(node.key))
+            throw new MalformattedElementException("Cyclic nested nsd reference through " + node.key + ", abort.");
+
+        int level = 0;
+        for(String dependency : node.dependencies)
+            level = Math.max(level, level(nodes.get(dependency), nodes, visiting) + 1);
+
+        visiting.remove(node.key);
+        node.level = level;
+        node.levelComputed = true;
+        return level;
+    }
+
+    // Longest chain of translations ending at the root, weighted by measured durations once they are known.
+    private static void criticalPath(Plan plan) {
+        Map<String, Long> finish = new HashMap<>();
+        Map<String, String> previous = new HashMap<>();
+        for(List<String> level : plan.levels) {
+            for(String key : level) {
+                Node node = plan.nodes.get(key);
+                long start = 0;
+                for(String dependency : node.dependencies) {
+                    Long dependencyFinish = finish.get(dependency);
+                    if(dependencyFinish != null && dependencyFinish > start) {
+                        start = dependencyFinish;
+                        previous.put(key, dependency);
+                    }
+                }
+                finish.put(key, start + (node.durationMs != null ? node.durationMs : 1));
+            }
+        }
+
+        List<String> path = new ArrayList<>();
+        for(String key = plan.root; key != null && finish.containsKey(key); key = previous.get(key))
+            path.add(0, key);
+
+        plan.criticalPath = path;
+        plan.criticalPathMs = plan.nodes.get(plan.root).durationMs != null ? finish.get(plan.root) : null;
+    }
+
+    public Plan plan(Nsd nsd)
+            throws IOException, CatalogException, SourceException, MissingEntityOnSourceException,
+            MalformattedElementException {
+
+        Map<String, Node> nodes = new LinkedHashMap<>();
+        Node root = new Node(Kind.NS, nsd.getId());
+        root.nsd = nsd;
+        nodes.put(root.key, root);
+        verify(Collections.singletonList(root));
+
+        List<Node> frontier = new ArrayList<>();
+        if(root.isTranslate())
+            frontier.add(root);
+
+        while(!frontier.isEmpty()) {
+            List<Node> discovered = new ArrayList<>();
+            for(Node node : frontier) {
+                addDependencies(node, Kind.VNF, node.nsd.getVnfdId(), nodes, discovered);
+                addDependencies(node, Kind.PNF, node.nsd.getPnfdId(), nodes, discovered);
+                addDependencies(node, Kind.NS, node.nsd.getNestedNsdId(), nodes, discovered);
+            }
+            if(discovered.isEmpty())
+                break;
+            verify(discovered);
+
+            frontier = new ArrayList<>();
+            for(Node node : discovered) {
+                if(node.kind == Kind.NS && node.isTranslate())
+                    frontier.add(node);
+            }
+            fetchNestedNsds(frontier);
+        }
+
+        Plan plan = new Plan(root.key, nodes);
+        Set<String> visiting = new HashSet<>();
+        for(Node node : nodes.values()) {
+            int level = level(node, nodes, visiting);
+            if(level < 0)
+                continue;
+            while(plan.levels.size() <= level)
+                plan.levels.add(new ArrayList<>());
+            plan.levels.get(level).add(node.key);
+        }
+        criticalPath(plan);
+
+        return plan;
+    }
+
+    private Object translateNode(Node node)
+            throws IOException, CatalogException, MissingEntityOnCatalogException, SourceException,
+            MissingEntityOnSourceException, MalformattedElementException, NotExistingEntityException {
+
+        long start = System.nanoTime();
+        try {
+            if(node.kind == Kind.NS)
+                return translationService.translateNsd(node.nsd, null).getSecond();
+
+            try {
+                return translationService.getFromSourceAndTranslateResource(node.kind, node.descriptorId);
+            } catch (MissingEntityOnSourceException e) {
+                String msg = "Resource " + node.descriptorId + " missing in descriptors source, abort.";
+                log.info(msg);
+                throw new MissingEntityOnSourceException(msg);
+            }
+        } finally {
+            node.durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        }
+    }
+
+    public Pair<ServiceCandidate, ServiceSpecification> translate(Nsd nsd, String serviceType)
+            throws IOException, CatalogException, MissingEntityOnCatalogException, SourceException,
+            MissingEntityOnSourceException, MalformattedElementException, NotExistingEntityException {
+
+        Plan plan = plan(nsd);
+        Node root = plan.nodes.get(plan.root);
+        if(!root.isTranslate())
+            return translationService.translateNsd(nsd, serviceType);
+
+        log.info("Translation plan for nsd " + nsd.getId() + ": " + (plan.nodes.size() - 1) + " constituents, " +
+                plan.levels.size() + " levels.");
+
+        // The root is alone in the last level, every other node is one of its descendants.
+        for(List<String> level : plan.levels.subList(0, plan.levels.size() - 1)) {
+            try {
+                translationExecutor.resolveAll(level, key -> translateNode(plan.nodes.get(key)));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CatalogException("Interrupted while translating constituents of nsd " + nsd.getId() + ".");
+            } catch (ExecutionException e) {
+                TranslationService.rethrowResolutionFailure(e.getCause());
+            }
+        }
+
+        Pair<ServiceCandidate, ServiceSpecification> translation;
+        long start = System.nanoTime();
+        try {
+            translation = translationService.translateNsd(nsd, serviceType);
+        } finally {
+            root.durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        }
+
+        criticalPath(plan);
+        log.info("Nsd " + nsd.getId() + " translated, critical path " + plan.criticalPath + " took " +
+                plan.criticalPathMs + " ms.");
+
+        return translation;
+    }
+}
@@ -0,0 +1,169 @@
+package it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import it.nextworks.nfvmano.libs.descriptors.sol006.Nsd;
+import it.nextworks.nfvmano.libs.descriptors.sol006.Pnfd;
+import it.nextworks.nfvmano.libs.descriptors.sol006.Vnfd;
+import it.nextworks.sol006_tmf_translator.information_models.commons.Pair;
+import it.nextworks.sol006_tmf_translator.information_models.persistence.RequirementSummary;
+import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.commons.exception.MalformattedElementException;
+import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.commons.exception.NotExistingEntityException;
+import it.nextworks.tmf_offering_catalog.information_models.resource.ResourceSpecification;
+import it.nextworks.tmf_offering_catalog.information_models.resource.ResourceSpecificationCreate;
+import it.nextworks.tmf_offering_catalog.information_models.service.ServiceSpecification;
+import it.nextworks.tmf_offering_catalog.information_models.service.ServiceSpecificationCreate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.threeten.bp.Instant;
+import org.threeten.bp.OffsetDateTime;
+import org.threeten.bp.ZoneId;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Specifications built by TranslatorEngine, keyed by descriptor id and the ContentDigest of the descriptor, its
+// translation parameter and its IdVsbNameMapping, so a mapping changed through any replica is a miss on all of
+// them. Callers pass the digest they computed for the translation, so the cache adds no mapping lookup of its own.
+// Entries are kept serialized and every hit gets its own copy, along with the requirement summary the engine
+// computed for them.
+@Service
+public class TranslationResultCache {
+
+    private static final Logger log = LoggerFactory.getLogger(TranslationResultCache.class);
+
+    @Value("${translation.result_cache.max_size}")
+    private long maxSize;
+
+    @Value("${translation.result_cache.ttl}")
+    private long ttl;
+
+    private final ObjectMapper objectMapper;
+
+    private final ContentDigest contentDigest;
+
+    private final TranslatorEngine translatorEngine;
+
+    private Cache<String, Entry> results;
+
+    private static class Entry {
+
+        private final byte[] specification;
+
+        private final RequirementSummary requirements;
+
+        private Entry(byte[] specification, RequirementSummary requirements) {
+            this.specification = specification;
+            this.requirements = requirements;
+        }
+    }
+
+    @Autowired
+    public TranslationResultCache(ObjectMapper objectMapper, ContentDigest contentDigest,
+                                  TranslatorEngine translatorEngine) {
+        this.objectMapper = objectMapper;
+        this.contentDigest = contentDigest;
+        this.translatorEngine = translatorEngine;
+    }
+
+    @PostConstruct
+    public void init() {
+        results = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    private static String key(String descriptorId, String digest) { return descriptorId + "|" + digest; }
+
+    private <T> Pair<T, RequirementSummary> cached(String key, Class<T> type) {
+        Entry result = results.getIfPresent(key);
+        if(result == null)
+            return null;
+
+        try {
+            return new Pair<>(objectMapper.readValue(result.specification, type), result.requirements);
+        } catch(IOException e) {
+            log.warn("Unreadable cached translation " + key + ", translating again: " + e.getMessage());
+            results.invalidate(key);
+            return null;
+        }
+    }
+
+    // Caching only the serialized form means the caller is free to change what it gets back. RequirementSummary
+    // has no setters, so it is shared as it is.
+    private <T> Pair<T, RequirementSummary> cache(String key, T built, RequirementSummary requirements) {
+        try {
+            results.put(key, new Entry(objectMapper.writeValueAsBytes(built), requirements));
+        } catch(JsonProcessingException e) {
+            log.warn("Cannot cache translation " + key + ": " + e.getMessage());
+        }
+        return new Pair<>(built, requirements);
+    }
+
+    private static OffsetDateTime now() { return OffsetDateTime.ofInstant(Instant.now(), ZoneId.of("UTC")); }
+
+    // digest is the ContentDigest of the vnfd with functionType.
+    public Pair<ResourceSpecificationCreate, RequirementSummary>
+    buildVnfdResourceSpecification(Vnfd vnfd, String functionType, String digest)
+            throws MalformattedElementException, NotExistingEntityException {
+        String key = key(vnfd.getId(), digest);
+        Pair<ResourceSpecificationCreate, RequirementSummary> rsc = cached(key, ResourceSpecificationCreate.class);
+        if(rsc == null) {
+            RequirementSummary requirements = translatorEngine.requirementsOf(vnfd);
+            rsc = cache(key, translatorEngine.buildVnfdResourceSpecification(vnfd, functionType, requirements),
+                    requirements);
+        }
+        rsc.getFirst().lastUpdate(now());
+        return rsc;
+    }
+
+    // digest is the ContentDigest of the pnfd.
+    public ResourceSpecificationCreate buildPnfdResourceSpecification(Pnfd pnfd, String digest) {
+        String key = key(pnfd.getId(), digest);
+        Pair<ResourceSpecificationCreate, RequirementSummary> rsc = cached(key, ResourceSpecificationCreate.class);
+        if(rsc == null)
+            rsc = cache(key, translatorEngine.buildPnfdResourceSpecification(pnfd), null);
+        return rsc.getFirst().lastUpdate(now());
+    }
+
+    // digest is the ContentDigest of the nsd with serviceType, the constituents and the requirement summary
+    // derived from them are added to it in the key.
+    public Pair<ServiceSpecificationCreate, RequirementSummary>
+    buildNsdServiceSpecification(Nsd nsd,
+                                 List<ResourceSpecification> vnfResourceSpecifications,
+                                 List<ResourceSpecification> pnfResourceSpecifications,
+                                 List<ServiceSpecification> nsServiceSpecifications,
+                                 Map<String, RequirementSummary> constituentRequirements,
+                                 String serviceType, String digest)
+            throws MalformattedElementException, NotExistingEntityException, JsonProcessingException {
+
+        RequirementSummary requirements = translatorEngine.summarizeNsRequirements(vnfResourceSpecifications,
+                nsServiceSpecifications, constituentRequirements);
+
+        Map<String, Object> constituents = new LinkedHashMap<>();
+        for(ResourceSpecification rs : vnfResourceSpecifications)
+            constituents.put("vnf:" + rs.getId(), new Object[]{ rs.getHref(), rs.getName() });
+        for(ResourceSpecification rs : pnfResourceSpecifications)
+            constituents.put("pnf:" + rs.getId(), new Object[]{ rs.getHref(), rs.getName() });
+        for(ServiceSpecification ss : nsServiceSpecifications)
+            constituents.put("ns:" + ss.getId(), new Object[]{ ss.getHref(), ss.getName() });
+
+        String key = key(nsd.getId(), digest + "|" + contentDigest.withoutMapping(constituents, requirements));
+        Pair<ServiceSpecificationCreate, RequirementSummary> ssc = cached(key, ServiceSpecificationCreate.class);
+        if(ssc == null)
+            ssc = cache(key, translatorEngine.buildNsdServiceSpecification(nsd, vnfResourceSpecifications,
+                    pnfResourceSpecifications, nsServiceSpecifications, requirements, serviceType), requirements);
+        ssc.getFirst().lastUpdate(now());
+        return ssc;
+    }
+}
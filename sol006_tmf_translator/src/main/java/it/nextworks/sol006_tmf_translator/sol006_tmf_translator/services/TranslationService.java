@@ -10,10 +10,11 @@ import it.nextworks.nfvmano.libs.descriptors.sol006.Vnfd;
 import it.nextworks.sol006_tmf_translator.information_models.commons.Pair;
 import it.nextworks.sol006_tmf_translator.information_models.persistence.IdVsbNameMapping;
 import it.nextworks.sol006_tmf_translator.information_models.persistence.MappingInfo;
+import it.nextworks.sol006_tmf_translator.information_models.persistence.RequirementSummary;
 import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.commons.config.CustomOffsetDateTimeSerializer;
 import it.nextworks.sol006_tmf_translator.information_models.commons.enums.Kind;
+import it.nextworks.sol006_tmf_translator.information_models.commons.enums.PresenceStatus;
 import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.commons.exception.*;
-import it.nextworks.tmf_offering_catalog.information_models.common.Any;
 import it.nextworks.tmf_offering_catalog.information_models.product.*;
 import it.nextworks.tmf_offering_catalog.information_models.resource.*;
 import it.nextworks.tmf_offering_catalog.information_models.service.*;
@@ -22,12 +23,11 @@ import org.apache.http.util.EntityUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Service;
-import org.threeten.bp.Instant;
 import org.threeten.bp.OffsetDateTime;
-import org.threeten.bp.ZoneId;
 
 import javax.annotation.PostConstruct;
 import java.io.IOException;
@@ -35,6 +35,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 @Service
 public class TranslationService {
@@ -55,6 +58,27 @@ public class TranslationService {
 
     private final ApplicationContext applicationContext;
 
+    private final CategoryRegistry categoryRegistry;
+
+    private final TranslationExecutor translationExecutor;
+
+    private final TranslationCoalescer translationCoalescer;
+
+    private final ContentDigest contentDigest;
+
+    private final CatalogDiff catalogDiff;
+
+    private final CatalogOutbox catalogOutbox;
+
+    private final CatalogPublisher catalogPublisher;
+
+    private final TranslationResultCache translationResultCache;
+
+    private final MappingRules mappingRules;
+
+    @Value("${offer_catalog.bootstrap.background}")
+    private boolean backgroundBootstrap;
+
     @Autowired
     public TranslationService(ObjectMapper objectMapper,
                               TranslatorEngine translatorEngine,
@@ -62,7 +86,16 @@ public class TranslationService {
                               TranslatorDescSourceInteractionService translatorDescSourceInteractionService,
                               IdVsbNameMappingService idVsbNameMappingService,
                               MappingInfoService mappingInfoService,
-                              ApplicationContext applicationContext) {
+                              ApplicationContext applicationContext,
+                              CategoryRegistry categoryRegistry,
+                              TranslationExecutor translationExecutor,
+                              TranslationCoalescer translationCoalescer,
+                              ContentDigest contentDigest,
+                              CatalogDiff catalogDiff,
+                              CatalogOutbox catalogOutbox,
+                              CatalogPublisher catalogPublisher,
+                              TranslationResultCache translationResultCache,
+                              MappingRules mappingRules) {
         this.objectMapper = objectMapper;
         SimpleModule module = new SimpleModule();
         module.addSerializer(OffsetDateTime.class, new CustomOffsetDateTimeSerializer());
@@ -74,119 +107,251 @@ public class TranslationService {
         this.translatorDescSourceInteractionService = translatorDescSourceInteractionService;
         this.idVsbNameMappingService = idVsbNameMappingService;
         this.mappingInfoService = mappingInfoService;
+        this.categoryRegistry = categoryRegistry;
+        this.translationExecutor = translationExecutor;
+        this.translationCoalescer = translationCoalescer;
+        this.contentDigest = contentDigest;
+        this.catalogDiff = catalogDiff;
+        this.catalogOutbox = catalogOutbox;
+        this.catalogPublisher = catalogPublisher;
+        this.translationResultCache = translationResultCache;
+        this.mappingRules = mappingRules;
     }
 
     @PostConstruct
     public void initializeOfferCatalog() {
+        CompletableFuture<Void> bootstrap = categoryRegistry.bootstrap();
+        if(backgroundBootstrap) {
+            log.info("Offer Catalog bootstrap running in background.");
+            bootstrap.whenComplete((v, e) -> {
+                if(e != null)
+                    log.error("Offer Catalog bootstrap failed, categories will be resolved on demand: " +
+                            (e.getCause() != null ? e.getCause() : e).getMessage());
+                else
+                    log.info("Offer Catalog bootstrap completed.");
+            });
+            return;
+        }
+
         try {
-            getCategoryOrCreateIfNotExists(Kind.VNF, "/resourceCatalogManagement/v2/resourceCategory/filter");
-            getCategoryOrCreateIfNotExists(Kind.PNF, "/resourceCatalogManagement/v2/resourceCategory/filter");
-            getCategoryOrCreateIfNotExists(Kind.NS, "/serviceCatalogManagement/v4/serviceCategory/filter");
-            getCategoryOrCreateIfNotExists(Kind.VS, "/serviceCatalogManagement/v4/serviceCategory/filter");
-            getCategoryOrCreateIfNotExists(Kind.SPC, "/resourceCatalogManagement/v2/resourceCategory/filter");
-            getCategoryOrCreateIfNotExists(Kind.RAD, "/resourceCatalogManagement/v2/resourceCategory/filter");
-            getCategoryOrCreateIfNotExists(Kind.EDGE, "/resourceCatalogManagement/v2/resourceCategory/filter");
-            getCategoryOrCreateIfNotExists(Kind.CLOUD, "/resourceCatalogManagement/v2/resourceCategory/filter");
-            getCategoryOrCreateIfNotExists(Kind.NETWORK_SLICE, "/serviceCatalogManagement/v4/serviceCategory/filter");
-        } catch (CatalogException | IOException e) {
-            log.error(e.getMessage());
+            bootstrap.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Interrupted while bootstrapping the Offer Catalog.");
+            SpringApplication.exit(applicationContext, () -> -1);
+        } catch (ExecutionException e) {
+            log.error(e.getCause().getMessage());
             SpringApplication.exit(applicationContext, () -> -1);
         }
     }
 
-    public Pair<String, String> getCategoryOrCreateIfNotExists(Kind kind, String requestPath)
-            throws CatalogException, IOException {
+    private <T> T postCandidate(Kind kind, String candidateJson, String requestPath, Class<T> type)
+            throws IOException, CatalogException {
+        try {
+            return translatorCatalogInteractionService.post(candidateJson, requestPath, type);
+        } catch (CatalogException e) {
+            // The cached category may have been removed from the Offer Catalog meanwhile.
+            categoryRegistry.invalidate(kind);
+            throw e;
+        }
+    }
 
-        String name = kind.name();
+    private <T> T coalesced(Kind kind, String descriptorId, TranslationCoalescer.Call<T> call)
+            throws IOException, CatalogException, MissingEntityOnCatalogException, SourceException,
+            MissingEntityOnSourceException, MalformattedElementException, NotExistingEntityException {
         try {
-            HttpEntity en = this.translatorCatalogInteractionService.isCategoryPresent(kind, requestPath);
-            switch(kind) {
-                case VNF:
-                case PNF:
-                case SPC:
-                case RAD:
-                case EDGE:
-                case CLOUD:
-                    ResourceCategory rc = objectMapper.readValue(EntityUtils.toString(en), ResourceCategory.class);
-                    return new Pair<>(rc.getHref(), rc.getId());
-
-                case NS:
-                case VS:
-                case NETWORK_SLICE:
-                    ServiceCategory sc = objectMapper.readValue(EntityUtils.toString(en), ServiceCategory.class);
-                    return new Pair<>(sc.getHref(), sc.getId());
+            return translationCoalescer.run(kind.name() + ":" + descriptorId, call);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CatalogException("Interrupted while waiting for translation of " + descriptorId + ".");
+        } catch (ExecutionException e) {
+            rethrowResolutionFailure(e.getCause());
+            return null;
+        }
+    }
 
-                default:
-                    throw new IllegalArgumentException("Specified kind not VNFD, PNFD or NSD.");
-            }
+    // The catalog objects as they were posted, provided the content has not changed since and they are still
+    // in the Offer Catalog. Entries verified recently are trusted as they are, stale ones are checked again.
+    private <C, S> Pair<C, S> fromSnapshot(MappingInfo mappingInfo, String digest,
+                                           Class<C> candidateType, Class<S> specificationType) {
+        if(mappingInfo == null || !digest.equals(mappingInfo.getContentDigest()) ||
+                mappingInfo.getCandidateSnapshot() == null || mappingInfo.getSpecificationSnapshot() == null)
+            return null;
+
+        PresenceStatus verificationStatus = mappingInfo.getVerificationStatus();
+        if(verificationStatus == PresenceStatus.MISSING || verificationStatus == PresenceStatus.MISMATCH) {
+            log.info("Catalog objects of " + mappingInfo.getDescriptorId() + " found " + verificationStatus.name() +
+                    " by their last verification.");
+            return null;
+        }
+
+        if(!translatorCatalogInteractionService.isRecentlyVerified(mappingInfo) && !verify(mappingInfo))
+            return null;
+
+        try {
+            return new Pair<>(objectMapper.readValue(mappingInfo.getCandidateSnapshot(), candidateType),
+                    objectMapper.readValue(mappingInfo.getSpecificationSnapshot(), specificationType));
+        } catch (JsonProcessingException e) {
+            log.warn("Unreadable snapshot for " + mappingInfo.getDescriptorId() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    // An unreachable Offer Catalog does not prove the catalog objects gone, so the entry is trusted meanwhile.
+    private boolean verify(MappingInfo mappingInfo) {
+        Kind kind = mappingInfo.getKind();
+        if(kind == null)
+            return true;
+
+        try {
+            if(TranslatorCatalogInteractionService.isResourceKind(kind))
+                translatorCatalogInteractionService.isResourcePresent(mappingInfo.getCandidateCatalogId(),
+                        mappingInfo.getSpecificationCatalogId());
+            else
+                translatorCatalogInteractionService.isServicePresent(mappingInfo.getCandidateCatalogId(),
+                        mappingInfo.getSpecificationCatalogId());
         } catch (MissingEntityOnCatalogException e) {
-            log.info("Posting Category " + name + " to Offer Catalog.");
-
-            switch(kind) {
-                case VNF:
-                case PNF:
-                case SPC:
-                case RAD:
-                case EDGE:
-                case CLOUD:
-                    ResourceCategoryCreate rcc = new ResourceCategoryCreate()
-                            .name(name)
-                            .lastUpdate(OffsetDateTime.ofInstant(Instant.now(), ZoneId.of("UTC")));
-                    HttpEntity rcEntity = this.translatorCatalogInteractionService
-                            .post(objectMapper.writeValueAsString(rcc),
-                                    "/resourceCatalogManagement/v2/resourceCategory");
-                    ResourceCategory rc = objectMapper.readValue(EntityUtils.toString(rcEntity), ResourceCategory.class);
-
-                    log.info("Category " + name + " posted to Offer Catalog.");
-                    return new Pair<>(rc.getHref(), rc.getId());
-
-                case NS:
-                case VS:
-                case NETWORK_SLICE:
-                    ServiceCategoryCreate scc = new ServiceCategoryCreate()
-                            .name(name)
-                            .lastUpdate(OffsetDateTime.ofInstant(Instant.now(), ZoneId.of("UTC")));
-                    HttpEntity scEntity = this.translatorCatalogInteractionService
-                            .post(objectMapper.writeValueAsString(scc),
-                                    "/serviceCatalogManagement/v4/serviceCategory");
-                    ServiceCategory sc = objectMapper.readValue(EntityUtils.toString(scEntity), ServiceCategory.class);
-
-                    log.info("Category " + name + " posted to Offer Catalog.");
-                    return new Pair<>(sc.getHref(), sc.getId());
+            mappingInfoService.markVerified(mappingInfo, PresenceStatus.MISSING);
+            return false;
+        } catch (ResourceMismatchException e) {
+            mappingInfoService.markVerified(mappingInfo, PresenceStatus.MISMATCH);
+            return false;
+        } catch (IOException | CatalogException e) {
+            log.warn("Cannot verify " + mappingInfo.getDescriptorId() + " in Offer Catalog, trusting its last " +
+                    "translation: " + e.getMessage());
+            return true;
+        }
 
-                default:
-                    throw new IllegalArgumentException("Specified kind not VNFD, PNFD or NSD.");
+        mappingInfoService.markVerified(mappingInfo, PresenceStatus.PRESENT);
+        return true;
+    }
+
+    private MappingInfo findMappingInfo(String descriptorId) {
+        try {
+            return mappingInfoService.get(descriptorId);
+        } catch (NotExistingEntityException e) {
+            return null;
+        }
+    }
+
+    // Entries saved before content digests were recorded say nothing of what was posted, so they count as changed.
+    private static boolean isChanged(MappingInfo mappingInfo, String digest) {
+        return !digest.equals(mappingInfo.getContentDigest());
+    }
+
+    // requirements is the summary the engine computed for a VNF or NS translation, null for the other kinds.
+    private void saveMappingInfo(MappingInfo mappingInfo, String digest, Object candidate, Object specification,
+                                 RequirementSummary requirements)
+            throws JsonProcessingException {
+        mappingInfoService.save(mappingInfo
+                .contentDigest(digest)
+                .lastVerifiedAt(System.currentTimeMillis())
+                .verificationStatus(PresenceStatus.PRESENT)
+                .driftCount(0)
+                .requirements(requirements)
+                .candidateSnapshot(objectMapper.writeValueAsString(candidate))
+                .specificationSnapshot(objectMapper.writeValueAsString(specification)));
+    }
+
+    @FunctionalInterface
+    private interface CandidateBuilder<S> {
+        Object build(S specification) throws IOException, CatalogException;
+    }
+
+    private <T> T patchIfChanged(String snapshot, Object update, String requestPath, String id, Class<T> type)
+            throws IOException, CatalogException, MissingEntityOnCatalogException {
+
+        CatalogDiff.Patch patch = catalogDiff.diff(snapshot, update);
+        if(patch.isEmpty())
+            return objectMapper.readValue(snapshot, type);
+
+        log.info("Patching " + requestPath + "/" + id + " in Offer Catalog: " + patch + ".");
+        return translatorCatalogInteractionService
+                .patch(objectMapper.writeValueAsString(patch.getBody()), requestPath, id, type);
+    }
+
+    // Patches the catalog objects of the previous translation in place, so their ids stay stable for the
+    // product offerings built on them. Null when they cannot be patched and the translation has to be posted anew.
+    // Without a snapshot of the previous translation, as for entries saved before snapshots were recorded, the
+    // catalog objects are compared as the Offer Catalog holds them, so the digest is only recorded once they
+    // match the new translation.
+    private <C, S> Pair<C, S> patchTranslation(Kind kind, MappingInfo mappingInfo, String digest,
+                                               Object specificationUpdate, RequirementSummary requirements,
+                                               String specificationPath,
+                                               Class<S> specificationType, CandidateBuilder<S> candidateBuilder,
+                                               String candidatePath, Class<C> candidateType)
+            throws IOException, CatalogException {
+
+        String descriptorId = mappingInfo.getDescriptorId();
+        String candidateSnapshot = mappingInfo.getCandidateSnapshot();
+        String specificationSnapshot = mappingInfo.getSpecificationSnapshot();
+
+        Pair<C, S> pair;
+        try {
+            if(candidateSnapshot == null || specificationSnapshot == null) {
+                log.info("No snapshot of the previous translation of " + descriptorId + ", comparing it with the " +
+                        "Offer Catalog.");
+                Pair<?, ?> present = TranslatorCatalogInteractionService.isResourceKind(kind) ?
+                        translatorCatalogInteractionService.isResourcePresent(mappingInfo.getCandidateCatalogId(),
+                                mappingInfo.getSpecificationCatalogId()) :
+                        translatorCatalogInteractionService.isServicePresent(mappingInfo.getCandidateCatalogId(),
+                                mappingInfo.getSpecificationCatalogId());
+                candidateSnapshot = objectMapper.writeValueAsString(present.getFirst());
+                specificationSnapshot = objectMapper.writeValueAsString(present.getSecond());
             }
+
+            S specification = patchIfChanged(specificationSnapshot, specificationUpdate,
+                    specificationPath, mappingInfo.getSpecificationCatalogId(), specificationType);
+            C candidate = patchIfChanged(candidateSnapshot, candidateBuilder.build(specification),
+                    candidatePath, mappingInfo.getCandidateCatalogId(), candidateType);
+            pair = new Pair<>(candidate, specification);
+        } catch (MissingEntityOnCatalogException | ResourceMismatchException e) {
+            log.info("Previous translation of " + descriptorId + " missing in Offer Catalog, posting it anew.");
+            return null;
         }
+
+        saveMappingInfo(mappingInfo, digest, pair.getFirst(), pair.getSecond(), requirements);
+        log.info(descriptorId + " patched in Offer Catalog.");
+
+        return pair;
     }
 
-    public Pair<ResourceCandidate, ResourceSpecification> translateAndPostVnfd(Vnfd vnfd, String functionType)
+    // With the catalog outbox the controllers hand translations to jobs, so publications run off the request path.
+    public boolean publishesThroughOutbox() { return catalogOutbox.isEnabled(); }
+
+    public Pair<ResourceCandidate, ResourceSpecification>
+    translateAndPostVnfd(Vnfd vnfd, String functionType, String digest,
+                         Pair<ResourceSpecificationCreate, RequirementSummary> prebuilt)
             throws IOException, CatalogException, MalformattedElementException, NotExistingEntityException {
 
         String vnfdId = vnfd.getId();
-        ResourceSpecificationCreate rsc = translatorEngine.buildVnfdResourceSpecification(vnfd, functionType);
+        Pair<ResourceSpecificationCreate, RequirementSummary> built =
+                prebuilt != null ? prebuilt : translationResultCache.buildVnfdResourceSpecification(vnfd, functionType, digest);
+        ResourceSpecificationCreate rsc = built.getFirst();
+
+        if(catalogOutbox.isEnabled())
+            return catalogPublisher.publish(catalogOutbox.enqueue(Kind.VNF, vnfdId, digest, vnfd.getProductName(), rsc,
+                    built.getSecond(),
+                    "/resourceCatalogManagement/v2/resourceSpecification", "/resourceCatalogManagement/v2/resourceCandidate"),
+                    ResourceCandidate.class, ResourceSpecification.class);
 
         log.info("Posting Resource Specification to Offer Catalog for vnfd " + vnfdId + ".");
 
         String rscJson = objectMapper.writeValueAsString(rsc);
-        HttpEntity httpEntity = translatorCatalogInteractionService
-                .post(rscJson, "/resourceCatalogManagement/v2/resourceSpecification");
-        ResourceSpecification rs =
-                objectMapper.readValue(EntityUtils.toString(httpEntity), ResourceSpecification.class);
+        ResourceSpecification rs = translatorCatalogInteractionService
+                .post(rscJson, "/resourceCatalogManagement/v2/resourceSpecification", ResourceSpecification.class);
 
-        Pair<String, String> pair = getCategoryOrCreateIfNotExists(Kind.VNF,
-                "/resourceCatalogManagement/v2/resourceCategory/filter");
+        Pair<String, String> pair = categoryRegistry.get(Kind.VNF);
 
         ResourceCandidateCreate rcc = translatorEngine.buildVnfdResourceCandidate(vnfd.getProductName(), pair, rs);
 
         log.info("Posting Resource Candidate to Offer Catalog for vnfd " + vnfdId + ".");
 
         String rccJson = objectMapper.writeValueAsString(rcc);
-        httpEntity =
-                translatorCatalogInteractionService.post(rccJson, "/resourceCatalogManagement/v2/resourceCandidate");
-        ResourceCandidate rc = objectMapper.readValue(EntityUtils.toString(httpEntity), ResourceCandidate.class);
+        ResourceCandidate rc =
+                postCandidate(Kind.VNF, rccJson, "/resourceCatalogManagement/v2/resourceCandidate", ResourceCandidate.class);
 
-        mappingInfoService.save(new MappingInfo(vnfdId, rc.getId(), rs.getId()));
+        saveMappingInfo(new MappingInfo(vnfdId, rc.getId(), rs.getId(), Kind.VNF), digest, rc, rs, built.getSecond());
 
         log.info("vnfd " + vnfdId + " translated & posted.");
 
@@ -195,8 +360,27 @@ public class TranslationService {
 
     public Pair<ResourceCandidate, ResourceSpecification> translateVnfd(Vnfd vnfd, String functionType)
             throws IOException, CatalogException, MalformattedElementException, NotExistingEntityException {
+        return translateVnfd(vnfd, functionType, null);
+    }
+
+    // prebuilt, when not null, is the specification of a preview of the same vnfd, with its requirement summary,
+    // and is posted as it is.
+    public Pair<ResourceCandidate, ResourceSpecification>
+    translateVnfd(Vnfd vnfd, String functionType, Pair<ResourceSpecificationCreate, RequirementSummary> prebuilt)
+            throws IOException, CatalogException, MalformattedElementException, NotExistingEntityException {
+        try {
+            return coalesced(Kind.VNF, vnfd.getId(), () -> doTranslateVnfd(vnfd, functionType, prebuilt));
+        } catch (MissingEntityOnCatalogException | SourceException | MissingEntityOnSourceException unexpected) {
+            throw new CatalogException(unexpected.getMessage());
+        }
+    }
+
+    private Pair<ResourceCandidate, ResourceSpecification>
+    doTranslateVnfd(Vnfd vnfd, String functionType, Pair<ResourceSpecificationCreate, RequirementSummary> prebuilt)
+            throws IOException, CatalogException, MalformattedElementException, NotExistingEntityException {
 
         String vnfdId = vnfd.getId();
+        String digest = contentDigest.of(Kind.VNF, vnfdId, vnfd, functionType);
 
         boolean found = true;
         MappingInfo mappingInfo = null;
@@ -207,16 +391,37 @@ public class TranslationService {
         }
 
         if(found) {
-            Pair<ResourceCandidate, ResourceSpecification> pair = null;
-            try {
-                pair = translatorCatalogInteractionService
-                        .isResourcePresent(mappingInfo.getCandidateCatalogId(),
-                                mappingInfo.getSpecificationCatalogId());
-            } catch (MissingEntityOnCatalogException | ResourceMismatchException e) {
+            Pair<ResourceCandidate, ResourceSpecification> pair =
+                    fromSnapshot(mappingInfo, digest, ResourceCandidate.class, ResourceSpecification.class);
+            if(pair != null) {
+                log.info("Vnfd " + vnfdId + " unchanged since its last translation.");
+                return pair;
+            }
+
+            if(isChanged(mappingInfo, digest)) {
+                log.info("Vnfd " + vnfdId + " changed since its last translation, updating it.");
+                Pair<ResourceSpecificationCreate, RequirementSummary> built = prebuilt != null ? prebuilt :
+                        translationResultCache.buildVnfdResourceSpecification(vnfd, functionType, digest);
+                pair = patchTranslation(Kind.VNF, mappingInfo, digest, built.getFirst(), built.getSecond(),
+                        "/resourceCatalogManagement/v2/resourceSpecification", ResourceSpecification.class,
+                        rs -> translatorEngine.buildVnfdResourceCandidate(vnfd.getProductName(), categoryRegistry.get(Kind.VNF), rs),
+                        "/resourceCatalogManagement/v2/resourceCandidate", ResourceCandidate.class);
+                if(pair != null)
+                    return pair;
                 found = false;
             }
+            else {
+                try {
+                    pair = translatorCatalogInteractionService
+                            .isResourcePresent(mappingInfo.getCandidateCatalogId(),
+                                    mappingInfo.getSpecificationCatalogId());
+                } catch (MissingEntityOnCatalogException | ResourceMismatchException e) {
+                    found = false;
+                }
+            }
 
             if(found) {
+                saveMappingInfo(mappingInfo, digest, pair.getFirst(), pair.getSecond(), mappingInfo.getRequirements());
                 log.info("Vnfd " + vnfdId + " already translated and correctly posted on Offer Catalog.");
                 return pair;
             }
@@ -227,38 +432,42 @@ public class TranslationService {
                     log.info("Entry for " + vnfdId + " that should exists in DB, not found.");
                 }
 
-                return translateAndPostVnfd(vnfd, functionType);
+                return translateAndPostVnfd(vnfd, functionType, digest, prebuilt);
             }
         }
         else
-            return translateAndPostVnfd(vnfd, functionType);
+            return translateAndPostVnfd(vnfd, functionType, digest, prebuilt);
     }
 
-    public Pair<ResourceCandidate, ResourceSpecification> translateAndPostPnfd(Pnfd pnfd) throws IOException, CatalogException {
+    public Pair<ResourceCandidate, ResourceSpecification>
+    translateAndPostPnfd(Pnfd pnfd, String digest, ResourceSpecificationCreate prebuilt)
+            throws IOException, CatalogException {
 
         String pnfdId = pnfd.getId();
-        ResourceSpecificationCreate rsc = translatorEngine.buildPnfdResourceSpecification(pnfd);
+        ResourceSpecificationCreate rsc = prebuilt != null ? prebuilt : translationResultCache.buildPnfdResourceSpecification(pnfd, digest);
+
+        if(catalogOutbox.isEnabled())
+            return catalogPublisher.publish(catalogOutbox.enqueue(Kind.PNF, pnfdId, digest, pnfd.getName(), rsc, null,
+                    "/resourceCatalogManagement/v2/resourceSpecification", "/resourceCatalogManagement/v2/resourceCandidate"),
+                    ResourceCandidate.class, ResourceSpecification.class);
 
         log.info("Posting Resource Specification to Offer Catalog for pnfd " + pnfdId + ".");
 
         String rscJson = objectMapper.writeValueAsString(rsc);
-        HttpEntity httpEntity = translatorCatalogInteractionService
-                .post(rscJson, "/resourceCatalogManagement/v2/resourceSpecification");
-        ResourceSpecification rs = objectMapper.readValue(EntityUtils.toString(httpEntity), ResourceSpecification.class);
+        ResourceSpecification rs = translatorCatalogInteractionService
+                .post(rscJson, "/resourceCatalogManagement/v2/resourceSpecification", ResourceSpecification.class);
 
-        Pair<String, String> pair = getCategoryOrCreateIfNotExists(Kind.PNF,
-                "/resourceCatalogManagement/v2/resourceCategory/filter");
+        Pair<String, String> pair = categoryRegistry.get(Kind.PNF);
 
         ResourceCandidateCreate rcc = translatorEngine.buildPnfdResourceCandidate(pnfd.getName(), pair, rs);
 
         log.info("Posting Resource Candidate to Offer Catalog for pnfd " + pnfdId + ".");
 
         String rccJson = objectMapper.writeValueAsString(rcc);
-        httpEntity =
-                translatorCatalogInteractionService.post(rccJson, "/resourceCatalogManagement/v2/resourceCandidate");
-        ResourceCandidate rc = objectMapper.readValue(EntityUtils.toString(httpEntity), ResourceCandidate.class);
+        ResourceCandidate rc =
+                postCandidate(Kind.PNF, rccJson, "/resourceCatalogManagement/v2/resourceCandidate", ResourceCandidate.class);
 
-        mappingInfoService.save(new MappingInfo(pnfdId, rc.getId(), rs.getId()));
+        saveMappingInfo(new MappingInfo(pnfdId, rc.getId(), rs.getId(), Kind.PNF), digest, rc, rs, null);
 
         log.info("pnfd " + pnfdId + " translated & posted.");
 
@@ -266,8 +475,25 @@ public class TranslationService {
     }
 
     public Pair<ResourceCandidate, ResourceSpecification> translatePnfd(Pnfd pnfd) throws IOException, CatalogException {
+        return translatePnfd(pnfd, null);
+    }
+
+    // prebuilt, when not null, is the specification of a preview of the same pnfd and is posted as it is.
+    public Pair<ResourceCandidate, ResourceSpecification> translatePnfd(Pnfd pnfd, ResourceSpecificationCreate prebuilt)
+            throws IOException, CatalogException {
+        try {
+            return coalesced(Kind.PNF, pnfd.getId(), () -> doTranslatePnfd(pnfd, prebuilt));
+        } catch (MissingEntityOnCatalogException | SourceException | MissingEntityOnSourceException |
+                 MalformattedElementException | NotExistingEntityException unexpected) {
+            throw new CatalogException(unexpected.getMessage());
+        }
+    }
+
+    private Pair<ResourceCandidate, ResourceSpecification> doTranslatePnfd(Pnfd pnfd, ResourceSpecificationCreate prebuilt)
+            throws IOException, CatalogException {
 
         String pnfdId = pnfd.getId();
+        String digest = contentDigest.of(Kind.PNF, pnfdId, pnfd);
 
         boolean found = true;
         MappingInfo mappingInfo = null;
@@ -278,16 +504,36 @@ public class TranslationService {
         }
 
         if(found) {
-            Pair<ResourceCandidate, ResourceSpecification> pair = null;
-            try {
-                pair = translatorCatalogInteractionService
-                        .isResourcePresent(mappingInfo.getCandidateCatalogId(),
-                                mappingInfo.getSpecificationCatalogId());
-            } catch (MissingEntityOnCatalogException | ResourceMismatchException e) {
+            Pair<ResourceCandidate, ResourceSpecification> pair =
+                    fromSnapshot(mappingInfo, digest, ResourceCandidate.class, ResourceSpecification.class);
+            if(pair != null) {
+                log.info("Pnfd " + pnfdId + " unchanged since its last translation.");
+                return pair;
+            }
+
+            if(isChanged(mappingInfo, digest)) {
+                log.info("Pnfd " + pnfdId + " changed since its last translation, updating it.");
+                pair = patchTranslation(Kind.PNF, mappingInfo, digest,
+                        prebuilt != null ? prebuilt : translationResultCache.buildPnfdResourceSpecification(pnfd, digest), null,
+                        "/resourceCatalogManagement/v2/resourceSpecification", ResourceSpecification.class,
+                        rs -> translatorEngine.buildPnfdResourceCandidate(pnfd.getName(), categoryRegistry.get(Kind.PNF), rs),
+                        "/resourceCatalogManagement/v2/resourceCandidate", ResourceCandidate.class);
+                if(pair != null)
+                    return pair;
                 found = false;
             }
+            else {
+                try {
+                    pair = translatorCatalogInteractionService
+                            .isResourcePresent(mappingInfo.getCandidateCatalogId(),
+                                    mappingInfo.getSpecificationCatalogId());
+                } catch (MissingEntityOnCatalogException | ResourceMismatchException e) {
+                    found = false;
+                }
+            }
 
             if(found) {
+                saveMappingInfo(mappingInfo, digest, pair.getFirst(), pair.getSecond(), mappingInfo.getRequirements());
                 log.info("Pnfd " + pnfdId + " already translated and correctly posted on Offer Catalog.");
                 return pair;
             }
@@ -298,11 +544,11 @@ public class TranslationService {
                     log.info("Entry for " + pnfdId + " that should exists in DB, not found.");
                 }
 
-                return translateAndPostPnfd(pnfd);
+                return translateAndPostPnfd(pnfd, digest, prebuilt);
             }
         }
         else
-            return translateAndPostPnfd(pnfd);
+            return translateAndPostPnfd(pnfd, digest, prebuilt);
     }
 
     public ResourceSpecification getFromSourceAndTranslateResource(Kind kind, String resource)
@@ -341,55 +587,67 @@ public class TranslationService {
         }
     }
 
-    public ServiceSpecification getFromSourceAndTranslateService(String service)
-            throws MissingEntityOnSourceException, SourceException, IOException,
-            CatalogException, MissingEntityOnCatalogException, MalformattedElementException, NotExistingEntityException {
-
-        String infoId = translatorDescSourceInteractionService.getInfoIdFromDescriptorId(Kind.NS, service);
-        HttpEntity httpEntity = translatorDescSourceInteractionService.getFromSource(Kind.NS, infoId);
-
+    public Nsd parseNsd(String nsdString) throws JsonProcessingException {
         ObjectMapper objectMapper = new ObjectMapper();
-        String nsdStringFromEntity = EntityUtils.toString(httpEntity);
-        Nsd nsd;
         try {
-            nsd = objectMapper.readValue(nsdStringFromEntity, Nsd.class);
+            return objectMapper.readValue(nsdString, Nsd.class);
         } catch (JsonProcessingException e) {
             objectMapper = new ObjectMapper(new YAMLFactory());
-            nsd = objectMapper.readValue(nsdStringFromEntity, Nsd.class);
+            return objectMapper.readValue(nsdString, Nsd.class);
         }
-        return translateNsd(nsd, null).getSecond();
     }
 
-    public List<ResourceSpecification> areResourcesPresent(Kind kind, List<String> resources)
-            throws IOException, CatalogException, MissingEntityOnSourceException,
-            SourceException, MalformattedElementException, NotExistingEntityException {
+    public Nsd getNsdFromSource(String nsdId) throws MissingEntityOnSourceException, SourceException, IOException {
+        String infoId = translatorDescSourceInteractionService.getInfoIdFromDescriptorId(Kind.NS, nsdId);
+        HttpEntity httpEntity = translatorDescSourceInteractionService.getFromSource(Kind.NS, infoId);
+        return parseNsd(EntityUtils.toString(httpEntity));
+    }
 
-        List<ResourceSpecification> resourceSpecifications = new ArrayList<>();
-        for(String resource : resources) {
+    public ServiceSpecification getFromSourceAndTranslateService(String service)
+            throws MissingEntityOnSourceException, SourceException, IOException,
+            CatalogException, MissingEntityOnCatalogException, MalformattedElementException, NotExistingEntityException {
 
-            boolean found = true;
-            MappingInfo mappingInfo = null;
-            try {
-                mappingInfo = mappingInfoService.get(resource);
-            } catch (NotExistingEntityException e) {
-                found = false;
-            }
+        return translateNsd(getNsdFromSource(service), null).getSecond();
+    }
 
-            if(found) {
-                ResourceSpecification resourceSpecification = null;
-                try {
-                    resourceSpecification = translatorCatalogInteractionService
-                            .isResourcePresent(mappingInfo.getCandidateCatalogId(),
-                                    mappingInfo.getSpecificationCatalogId()).getSecond();
-                } catch (MissingEntityOnCatalogException | ResourceMismatchException e) {
-                    found = false;
-                }
+    static void rethrowResolutionFailure(Throwable cause)
+            throws IOException, CatalogException, MissingEntityOnCatalogException, SourceException,
+            MissingEntityOnSourceException, MalformattedElementException, NotExistingEntityException {
+        if(cause instanceof IOException)
+            throw (IOException) cause;
+        if(cause instanceof CatalogException)
+            throw (CatalogException) cause;
+        if(cause instanceof MissingEntityOnCatalogException)
+            throw (MissingEntityOnCatalogException) cause;
+        if(cause instanceof SourceException)
+            throw (SourceException) cause;
+        if(cause instanceof MissingEntityOnSourceException)
+            throw (MissingEntityOnSourceException) cause;
+        if(cause instanceof MalformattedElementException)
+            throw (MalformattedElementException) cause;
+        if(cause instanceof NotExistingEntityException)
+            throw (NotExistingEntityException) cause;
+        if(cause instanceof RuntimeException)
+            throw (RuntimeException) cause;
+        throw new IllegalStateException(cause);
+    }
+
+    private ResourceSpecification
+    resolveResource(Kind kind, String resource,
+                    TranslatorCatalogInteractionService.PresenceCheck<ResourceSpecification> presenceCheck)
+            throws IOException, CatalogException, MissingEntityOnSourceException,
+            SourceException, MalformattedElementException, NotExistingEntityException {
 
-                if(found) {
+        if(presenceCheck != null) {
+            switch(presenceCheck.getStatus()) {
+                case PRESENT:
                     log.info("Resource " + resource + " exist and correctly posted on Offer Catalog.");
-                    resourceSpecifications.add(resourceSpecification);
-                }
-                else {
+                    return presenceCheck.getSpecification();
+
+                case UNREACHABLE:
+                    throw new CatalogException(presenceCheck.getMessage());
+
+                default:
                     log.info("Resource " +  resource + " not exist in Offer Catalog, trying to retrieve from " +
                             "descriptors source in order to translate.");
 
@@ -398,108 +656,97 @@ public class TranslationService {
                     } catch (NotExistingEntityException e) {
                         log.info("Entry for " + resource + " that should exists in DB, not found.");
                     }
-
-                    ResourceSpecification newResourceSpecification;
-                    try {
-                        newResourceSpecification = getFromSourceAndTranslateResource(kind, resource);
-                    } catch (MissingEntityOnSourceException e) {
-                        String msg = "Resource " + resource + " missing in descriptors source, abort.";
-                        log.info(msg);
-                        throw new MissingEntityOnSourceException(msg);
-                    }
-
-                    resourceSpecifications.add(newResourceSpecification);
-                }
             }
-            else {
-                log.info("Resource " +  resource + " not translated, trying to retrieve from " +
-                        "descriptors source in order to translate.");
+        }
+        else
+            log.info("Resource " +  resource + " not translated, trying to retrieve from " +
+                    "descriptors source in order to translate.");
 
-                ResourceSpecification newResourceSpecification;
-                try {
-                    newResourceSpecification = getFromSourceAndTranslateResource(kind, resource);
-                } catch (MissingEntityOnSourceException e) {
-                    String msg = "Resource " + resource + " missing in descriptors source, abort.";
-                    log.info(msg);
-                    throw new MissingEntityOnSourceException(msg);
-                }
+        try {
+            return getFromSourceAndTranslateResource(kind, resource);
+        } catch (MissingEntityOnSourceException e) {
+            String msg = "Resource " + resource + " missing in descriptors source, abort.";
+            log.info(msg);
+            throw new MissingEntityOnSourceException(msg);
+        }
+    }
 
-                resourceSpecifications.add(newResourceSpecification);
+    public List<ResourceSpecification> areResourcesPresent(Kind kind, List<String> resources)
+            throws IOException, CatalogException, MissingEntityOnSourceException,
+            SourceException, MalformattedElementException, NotExistingEntityException {
+
+        try {
+            Map<String, TranslatorCatalogInteractionService.PresenceCheck<ResourceSpecification>> presenceChecks =
+                    translatorCatalogInteractionService.verifyResources(mappingInfoService.getAll(resources));
+            return translationExecutor.resolveAll(resources,
+                    resource -> resolveResource(kind, resource, presenceChecks.get(resource)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CatalogException("Interrupted while resolving " + kind.name() + " constituents.");
+        } catch (ExecutionException e) {
+            try {
+                rethrowResolutionFailure(e.getCause());
+            } catch (MissingEntityOnCatalogException unexpected) {
+                throw new CatalogException(unexpected.getMessage());
             }
+            return null;
         }
-
-        return resourceSpecifications;
     }
 
-    public List<ServiceSpecification> areServicesPresent(List<String> nsdIds)
+    private ServiceSpecification
+    resolveService(String nsdId, TranslatorCatalogInteractionService.PresenceCheck<ServiceSpecification> presenceCheck)
             throws CatalogException, IOException, MissingEntityOnCatalogException,
             SourceException, MissingEntityOnSourceException, MalformattedElementException, NotExistingEntityException {
 
-        List<ServiceSpecification> serviceSpecifications = new ArrayList<>();
-        for(String nsdId : nsdIds) {
-
-            boolean found = true;
-            MappingInfo mappingInfo = null;
-            try {
-                mappingInfo = mappingInfoService.get(nsdId);
-            } catch (NotExistingEntityException e) {
-                found = false;
-            }
+        if(presenceCheck != null) {
+            switch(presenceCheck.getStatus()) {
+                case PRESENT:
+                    log.info("Service " + nsdId + " exist and correctly posted on Offer Catalog.");
+                    return presenceCheck.getSpecification();
 
-            if(found) {
-                ServiceSpecification serviceSpecification = null;
-                try {
-                    serviceSpecification = translatorCatalogInteractionService
-                            .isServicePresent(mappingInfo.getCandidateCatalogId(),
-                                    mappingInfo.getSpecificationCatalogId()).getSecond();
-                } catch (MissingEntityOnCatalogException | ResourceMismatchException e) {
-                    found = false;
-                }
+                case UNREACHABLE:
+                    throw new CatalogException(presenceCheck.getMessage());
 
-                if(found) {
-                    log.info("Service " + nsdId + " exist and correctly posted on Offer Catalog.");
-                    serviceSpecifications.add(serviceSpecification);
-                }
-                else {
+                default:
                     try {
                         mappingInfoService.delete(nsdId);
                     } catch (NotExistingEntityException e) {
                         log.info("Entry for " + nsdId + " that should exists in DB, not found.");
                     }
-
-                    ServiceSpecification newServiceSpecification;
-                    try {
-                        newServiceSpecification = getFromSourceAndTranslateService(nsdId);
-                    } catch (MissingEntityOnSourceException e) {
-                        String msg = "Service " + nsdId + " missing on descriptors source, abort.";
-                        log.info(msg);
-                        throw new MissingEntityOnSourceException(msg);
-                    }
-
-                    serviceSpecifications.add(newServiceSpecification);
-                }
             }
-            else {
-                log.info("Service " + nsdId + " not translated, trying to retrieve from " +
-                        "descriptors source in order to translate.");
-
-                ServiceSpecification newServiceSpecification;
-                try {
-                    newServiceSpecification = getFromSourceAndTranslateService(nsdId);
-                } catch (MissingEntityOnSourceException e) {
-                    String msg = "Service " + nsdId + " missing on descriptors source, abort.";
-                    log.info(msg);
-                    throw new MissingEntityOnSourceException(msg);
-                }
+        }
+        else
+            log.info("Service " + nsdId + " not translated, trying to retrieve from " +
+                    "descriptors source in order to translate.");
 
-                serviceSpecifications.add(newServiceSpecification);
-            }
+        try {
+            return getFromSourceAndTranslateService(nsdId);
+        } catch (MissingEntityOnSourceException e) {
+            String msg = "Service " + nsdId + " missing on descriptors source, abort.";
+            log.info(msg);
+            throw new MissingEntityOnSourceException(msg);
         }
+    }
 
-        return serviceSpecifications;
+    public List<ServiceSpecification> areServicesPresent(List<String> nsdIds)
+            throws CatalogException, IOException, MissingEntityOnCatalogException,
+            SourceException, MissingEntityOnSourceException, MalformattedElementException, NotExistingEntityException {
+
+        try {
+            Map<String, TranslatorCatalogInteractionService.PresenceCheck<ServiceSpecification>> presenceChecks =
+                    translatorCatalogInteractionService.verifyServices(mappingInfoService.getAll(nsdIds));
+            return translationExecutor.resolveAll(nsdIds, nsdId -> resolveService(nsdId, presenceChecks.get(nsdId)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CatalogException("Interrupted while resolving NS constituents.");
+        } catch (ExecutionException e) {
+            rethrowResolutionFailure(e.getCause());
+            return null;
+        }
     }
 
-    public Pair<ServiceCandidate, ServiceSpecification> translateAndPostNsd(Nsd nsd, String serviceType)
+    private Pair<ServiceSpecificationCreate, RequirementSummary>
+    buildNsdServiceSpecification(Nsd nsd, String serviceType, String digest)
             throws CatalogException, IOException, MissingEntityOnCatalogException,
             MissingEntityOnSourceException, SourceException, MalformattedElementException, NotExistingEntityException {
 
@@ -518,31 +765,51 @@ public class TranslationService {
         if(nsdIds != null)
             nsServiceSpecifications = areServicesPresent(nsdIds);
 
+        List<String> constituentIds = new ArrayList<>();
+        if(vnfds != null)
+            constituentIds.addAll(vnfds);
+        if(nsdIds != null)
+            constituentIds.addAll(nsdIds);
+
+        return translationResultCache.buildNsdServiceSpecification(nsd, vnfResourceSpecifications,
+                pnfResourceSpecifications, nsServiceSpecifications,
+                mappingInfoService.getRequirements(constituentIds), serviceType, digest);
+    }
+
+    public Pair<ServiceCandidate, ServiceSpecification>
+    translateAndPostNsd(Nsd nsd, String serviceType, String digest,
+                        Pair<ServiceSpecificationCreate, RequirementSummary> prebuilt)
+            throws CatalogException, IOException, MissingEntityOnCatalogException,
+            MissingEntityOnSourceException, SourceException, MalformattedElementException, NotExistingEntityException {
+
         String nsdId = nsd.getId();
-        ServiceSpecificationCreate ssc =
-                translatorEngine.buildNsdServiceSpecification(nsd, vnfResourceSpecifications,
-                        pnfResourceSpecifications, nsServiceSpecifications, serviceType);
+        Pair<ServiceSpecificationCreate, RequirementSummary> built =
+                prebuilt != null ? prebuilt : buildNsdServiceSpecification(nsd, serviceType, digest);
+        ServiceSpecificationCreate ssc = built.getFirst();
+
+        if(catalogOutbox.isEnabled())
+            return catalogPublisher.publish(catalogOutbox.enqueue(Kind.NS, nsdId, digest, nsd.getName(), ssc,
+                    built.getSecond(),
+                    "/serviceCatalogManagement/v4/serviceSpecification", "/serviceCatalogManagement/v4/serviceCandidate"),
+                    ServiceCandidate.class, ServiceSpecification.class);
 
         log.info("Posting Service Specification to Offer Catalog for nsd " + nsdId + ".");
 
         String sscJson = objectMapper.writeValueAsString(ssc);
-        HttpEntity httpEntity = translatorCatalogInteractionService
-                .post(sscJson, "/serviceCatalogManagement/v4/serviceSpecification");
-        ServiceSpecification ss = objectMapper.readValue(EntityUtils.toString(httpEntity), ServiceSpecification.class);
+        ServiceSpecification ss = translatorCatalogInteractionService
+                .post(sscJson, "/serviceCatalogManagement/v4/serviceSpecification", ServiceSpecification.class);
 
-        Pair<String, String> pair = getCategoryOrCreateIfNotExists(Kind.NS,
-                "/serviceCatalogManagement/v4/serviceCategory/filter");
+        Pair<String, String> pair = categoryRegistry.get(Kind.NS);
 
         ServiceCandidateCreate scc = translatorEngine.buildNsdServiceCandidate(nsd.getName(), pair, ss);
 
         log.info("Posting Service Candidate to Offer Catalog for nsd " + nsdId + ".");
 
         String sccJson = objectMapper.writeValueAsString(scc);
-        httpEntity =
-                translatorCatalogInteractionService.post(sccJson, "/serviceCatalogManagement/v4/serviceCandidate");
-        ServiceCandidate sc = objectMapper.readValue(EntityUtils.toString(httpEntity), ServiceCandidate.class);
+        ServiceCandidate sc =
+                postCandidate(Kind.NS, sccJson, "/serviceCatalogManagement/v4/serviceCandidate", ServiceCandidate.class);
 
-        mappingInfoService.save(new MappingInfo(nsdId, sc.getId(), ss.getId()));
+        saveMappingInfo(new MappingInfo(nsdId, sc.getId(), ss.getId(), Kind.NS), digest, sc, ss, built.getSecond());
 
         log.info("nsd " + nsdId + " translated & posted.");
 
@@ -552,8 +819,25 @@ public class TranslationService {
     public Pair<ServiceCandidate, ServiceSpecification> translateNsd(Nsd nsd, String serviceType)
             throws IOException, CatalogException, MissingEntityOnCatalogException,
             MissingEntityOnSourceException, SourceException, MalformattedElementException, NotExistingEntityException {
+        return translateNsd(nsd, serviceType, null);
+    }
+
+    // prebuilt, when not null, is the specification of a preview of the same nsd whose constituents were all
+    // already in the Offer Catalog, with its requirement summary, and is posted as it is.
+    public Pair<ServiceCandidate, ServiceSpecification>
+    translateNsd(Nsd nsd, String serviceType, Pair<ServiceSpecificationCreate, RequirementSummary> prebuilt)
+            throws IOException, CatalogException, MissingEntityOnCatalogException,
+            MissingEntityOnSourceException, SourceException, MalformattedElementException, NotExistingEntityException {
+        return coalesced(Kind.NS, nsd.getId(), () -> doTranslateNsd(nsd, serviceType, prebuilt));
+    }
+
+    private Pair<ServiceCandidate, ServiceSpecification>
+    doTranslateNsd(Nsd nsd, String serviceType, Pair<ServiceSpecificationCreate, RequirementSummary> prebuilt)
+            throws IOException, CatalogException, MissingEntityOnCatalogException,
+            MissingEntityOnSourceException, SourceException, MalformattedElementException, NotExistingEntityException {
 
         String nsdId = nsd.getId();
+        String digest = contentDigest.of(Kind.NS, nsdId, nsd, serviceType);
 
         boolean found = true;
         MappingInfo mappingInfo = null;
@@ -564,15 +848,36 @@ public class TranslationService {
         }
 
         if(found) {
-            Pair<ServiceCandidate, ServiceSpecification> pair = null;
-            try {
-                pair = translatorCatalogInteractionService
-                        .isServicePresent(mappingInfo.getCandidateCatalogId(), mappingInfo.getSpecificationCatalogId());
-            } catch (MissingEntityOnCatalogException | ResourceMismatchException e) {
+            Pair<ServiceCandidate, ServiceSpecification> pair =
+                    fromSnapshot(mappingInfo, digest, ServiceCandidate.class, ServiceSpecification.class);
+            if(pair != null) {
+                log.info("Nsd " + nsdId + " unchanged since its last translation.");
+                return pair;
+            }
+
+            if(isChanged(mappingInfo, digest)) {
+                log.info("Nsd " + nsdId + " changed since its last translation, updating it.");
+                Pair<ServiceSpecificationCreate, RequirementSummary> built =
+                        prebuilt != null ? prebuilt : buildNsdServiceSpecification(nsd, serviceType, digest);
+                pair = patchTranslation(Kind.NS, mappingInfo, digest, built.getFirst(), built.getSecond(),
+                        "/serviceCatalogManagement/v4/serviceSpecification", ServiceSpecification.class,
+                        ss -> translatorEngine.buildNsdServiceCandidate(nsd.getName(), categoryRegistry.get(Kind.NS), ss),
+                        "/serviceCatalogManagement/v4/serviceCandidate", ServiceCandidate.class);
+                if(pair != null)
+                    return pair;
                 found = false;
             }
+            else {
+                try {
+                    pair = translatorCatalogInteractionService
+                            .isServicePresent(mappingInfo.getCandidateCatalogId(), mappingInfo.getSpecificationCatalogId());
+                } catch (MissingEntityOnCatalogException | ResourceMismatchException e) {
+                    found = false;
+                }
+            }
 
             if(found) {
+                saveMappingInfo(mappingInfo, digest, pair.getFirst(), pair.getSecond(), mappingInfo.getRequirements());
                 log.info("Nsd " + nsdId + " already translated and correctly posted in Offer Catalog.");
                 return pair;
             }
@@ -583,11 +888,11 @@ public class TranslationService {
                     log.info("Entry for " + nsdId + " that should exists in DB, not found.");
                 }
 
-                return translateAndPostNsd(nsd, serviceType);
+                return translateAndPostNsd(nsd, serviceType, digest, prebuilt);
             }
         }
         else
-            return translateAndPostNsd(nsd, serviceType);
+            return translateAndPostNsd(nsd, serviceType, digest, prebuilt);
     }
 
     private Pair<String, String> getGeographicAddressOrCreate(GeographicAddressCreate geographicAddressCreate)
@@ -612,9 +917,9 @@ public class TranslationService {
 
         List<GeographicAddress> geographicAddresses = null;
         try {
-            geographicAddresses = Arrays.asList(objectMapper.readValue(EntityUtils
-                    .toString(translatorCatalogInteractionService.getFromCatalog("/geographicAddressManagement/v4/geographicAddress/coordinates",
-                            "?x=" + x + "&y=" + y)), GeographicAddress[].class));
+            geographicAddresses = Arrays.asList(translatorCatalogInteractionService
+                    .getFromCatalog("/geographicAddressManagement/v4/geographicAddress/coordinates",
+                            "?x=" + x + "&y=" + y, GeographicAddress[].class));
         } catch (MissingEntityOnCatalogException ignored) {}
 
         if((geographicAddresses != null ? geographicAddresses.size() : 0) != 1) {
@@ -622,9 +927,8 @@ public class TranslationService {
 
             GeographicAddressValidationCreate geographicAddressValidationCreate =
                     new GeographicAddressValidationCreate().submittedGeographicAddress(geographicAddressCreate);
-            HttpEntity httpEntity = translatorCatalogInteractionService.post(objectMapper.writeValueAsString(geographicAddressValidationCreate),
-                    "/geographicAddressManagement/v4/geographicAddressValidation");
-            GeographicAddress geographicAddress = objectMapper.readValue(EntityUtils.toString(httpEntity), GeographicAddress.class);
+            GeographicAddress geographicAddress = translatorCatalogInteractionService.post(objectMapper.writeValueAsString(geographicAddressValidationCreate),
+                    "/geographicAddressManagement/v4/geographicAddressValidation", GeographicAddress.class);
 
             return new Pair<>(geographicAddress.getId(), geographicAddress.getHref());
         }
@@ -643,44 +947,25 @@ public class TranslationService {
                 .id(geographicAddressRef.getFirst())
                 .href(geographicAddressRef.getSecond())));
 
-        IdVsbNameMapping idVsbNameMapping = idVsbNameMappingService.getById(spcId);
-        ResourceSpecCharacteristic rscVsbName = new ResourceSpecCharacteristic()
-                .description("Name of the Vertical Service Blueprint.")
-                .name("vsbName")
-                .resourceSpecCharacteristicValue(Collections.singletonList(new ResourceSpecCharacteristicValue()
-                        .value(new Any().alias("vsbName").value(idVsbNameMapping.getVsbName()))));
-        resourceSpecificationCreate.getResourceSpecCharacteristic().add(rscVsbName);
-
-        String snfvoUrl = idVsbNameMapping.getSnfvoUrl();
-        if(snfvoUrl != null && !snfvoUrl.isEmpty()) {
-            ResourceSpecCharacteristic rscSnfvoUrl = new ResourceSpecCharacteristic()
-                    .description("snfvoUrl")
-                    .name("snfvoUrl")
-                    .resourceSpecCharacteristicValue(Collections.singletonList(new ResourceSpecCharacteristicValue()
-                            .value(new Any().alias("snfvoUrl").value(snfvoUrl))));
-            resourceSpecificationCreate.getResourceSpecCharacteristic().add(rscSnfvoUrl);
-        }
+        resourceSpecificationCreate.getResourceSpecCharacteristic().addAll(mappingRules.resourceCharacteristics(Kind.SPC,
+                rappWrapper, idVsbNameMappingService.getById(spcId)));
 
         log.info("Posting Resource Specification to Offer Catalog for spectrum resource " + spcId + ".");
 
-        HttpEntity httpEntity = translatorCatalogInteractionService
-                .post(objectMapper.writeValueAsString(resourceSpecificationCreate), "/resourceCatalogManagement/v2/resourceSpecification");
-        ResourceSpecification rs =
-                objectMapper.readValue(EntityUtils.toString(httpEntity), ResourceSpecification.class);
+        ResourceSpecification rs = translatorCatalogInteractionService
+                .post(objectMapper.writeValueAsString(resourceSpecificationCreate), "/resourceCatalogManagement/v2/resourceSpecification", ResourceSpecification.class);
 
-        Pair<String, String> pair = getCategoryOrCreateIfNotExists(Kind.SPC,
-                "/resourceCatalogManagement/v2/resourceCategory/filter");
+        Pair<String, String> pair = categoryRegistry.get(Kind.SPC);
 
         ResourceCandidateCreate rcc = translatorEngine.buildSpcResourceCandidate(pair, rs);
 
         log.info("Posting Resource Candidate to Offer Catalog for spectrum resource " + spcId + ".");
 
         String rccJson = objectMapper.writeValueAsString(rcc);
-        httpEntity =
-                translatorCatalogInteractionService.post(rccJson, "/resourceCatalogManagement/v2/resourceCandidate");
-        ResourceCandidate rc = objectMapper.readValue(EntityUtils.toString(httpEntity), ResourceCandidate.class);
+        ResourceCandidate rc =
+                postCandidate(Kind.SPC, rccJson, "/resourceCatalogManagement/v2/resourceCandidate", ResourceCandidate.class);
 
-        mappingInfoService.save(new MappingInfo(spcId, rc.getId(), rs.getId()));
+        mappingInfoService.save(new MappingInfo(spcId, rc.getId(), rs.getId(), Kind.SPC));
 
         log.info("Spectrum Resource " + spcId + " translated & posted.");
 
@@ -698,44 +983,25 @@ public class TranslationService {
                 .id(geographicAddressRef.getFirst())
                 .href(geographicAddressRef.getSecond())));
 
-        IdVsbNameMapping idVsbNameMapping = idVsbNameMappingService.getById(sliceTypeId);
-        ResourceSpecCharacteristic rscVsbName = new ResourceSpecCharacteristic()
-                .description("Name of the Vertical Service Blueprint.")
-                .name("vsbName")
-                .resourceSpecCharacteristicValue(Collections.singletonList(new ResourceSpecCharacteristicValue()
-                        .value(new Any().alias("vsbName").value(idVsbNameMapping.getVsbName()))));
-        resourceSpecificationCreate.getResourceSpecCharacteristic().add(rscVsbName);
-
-        String snfvoUrl = idVsbNameMapping.getSnfvoUrl();
-        if(snfvoUrl != null && !snfvoUrl.isEmpty()) {
-            ResourceSpecCharacteristic rscSnfvoUrl = new ResourceSpecCharacteristic()
-                    .description("snfvoUrl")
-                    .name("snfvoUrl")
-                    .resourceSpecCharacteristicValue(Collections.singletonList(new ResourceSpecCharacteristicValue()
-                            .value(new Any().alias("snfvoUrl").value(snfvoUrl))));
-            resourceSpecificationCreate.getResourceSpecCharacteristic().add(rscSnfvoUrl);
-        }
+        resourceSpecificationCreate.getResourceSpecCharacteristic().addAll(mappingRules.resourceCharacteristics(Kind.RAD,
+                rappWrapper, idVsbNameMappingService.getById(sliceTypeId)));
 
         log.info("Posting Resource Specification to Offer Catalog for radio resource " + radId + ".");
 
-        HttpEntity httpEntity = translatorCatalogInteractionService
-                .post(objectMapper.writeValueAsString(resourceSpecificationCreate), "/resourceCatalogManagement/v2/resourceSpecification");
-        ResourceSpecification rs =
-                objectMapper.readValue(EntityUtils.toString(httpEntity), ResourceSpecification.class);
+        ResourceSpecification rs = translatorCatalogInteractionService
+                .post(objectMapper.writeValueAsString(resourceSpecificationCreate), "/resourceCatalogManagement/v2/resourceSpecification", ResourceSpecification.class);
 
-        Pair<String, String> pair = getCategoryOrCreateIfNotExists(Kind.RAD,
-                "/resourceCatalogManagement/v2/resourceCategory/filter");
+        Pair<String, String> pair = categoryRegistry.get(Kind.RAD);
 
         ResourceCandidateCreate rcc = translatorEngine.buildRadResourceCandidate(pair, rs);
 
         log.info("Posting Resource Candidate to Offer Catalog for radio resource " + radId + ".");
 
         String rccJson = objectMapper.writeValueAsString(rcc);
-        httpEntity =
-                translatorCatalogInteractionService.post(rccJson, "/resourceCatalogManagement/v2/resourceCandidate");
-        ResourceCandidate rc = objectMapper.readValue(EntityUtils.toString(httpEntity), ResourceCandidate.class);
+        ResourceCandidate rc =
+                postCandidate(Kind.RAD, rccJson, "/resourceCatalogManagement/v2/resourceCandidate", ResourceCandidate.class);
 
-        mappingInfoService.save(new MappingInfo(radId, rc.getId(), rs.getId()));
+        mappingInfoService.save(new MappingInfo(radId, rc.getId(), rs.getId(), Kind.RAD));
 
         log.info("Spectrum Resource " + radId + " translated & posted.");
 
@@ -746,31 +1012,60 @@ public class TranslationService {
     translateAndPostEdge(TranslatorSliceManagerInteractionService.SliceType sliceType,
                          TranslatorSliceManagerInteractionService.SliceTypeChunks sliceTypeBlueprint)
             throws NotExistingEntityException, IOException, CatalogException {
+        try {
+            return coalesced(Kind.EDGE, sliceType.getId(), () -> doTranslateAndPostEdge(sliceType, sliceTypeBlueprint));
+        } catch (MissingEntityOnCatalogException | SourceException | MissingEntityOnSourceException |
+                 MalformattedElementException unexpected) {
+            throw new CatalogException(unexpected.getMessage());
+        }
+    }
+
+    private Pair<ResourceCandidate, ResourceSpecification>
+    doTranslateAndPostEdge(TranslatorSliceManagerInteractionService.SliceType sliceType,
+                           TranslatorSliceManagerInteractionService.SliceTypeChunks sliceTypeBlueprint)
+            throws NotExistingEntityException, IOException, CatalogException {
 
         String edgeId = sliceType.getId();
+        String digest = contentDigest.of(Kind.EDGE, edgeId, sliceType, sliceTypeBlueprint);
+
+        MappingInfo mappingInfo = findMappingInfo(edgeId);
+        Pair<ResourceCandidate, ResourceSpecification> previous =
+                fromSnapshot(mappingInfo, digest, ResourceCandidate.class, ResourceSpecification.class);
+        if(previous != null) {
+            log.info("Edge {} unchanged since its last translation.", edgeId);
+            return previous;
+        }
+
+        if(mappingInfo != null && isChanged(mappingInfo, digest)) {
+            log.info("Edge {} changed since its last translation, updating it.", edgeId);
+            previous = patchTranslation(Kind.EDGE, mappingInfo, digest,
+                    translatorEngine.buildEdgeResourceSpecification(sliceType, sliceTypeBlueprint), null,
+                    "/resourceCatalogManagement/v2/resourceSpecification", ResourceSpecification.class,
+                    rs -> translatorEngine.buildEdgeResourceCandidate(sliceType.getName(), categoryRegistry.get(Kind.EDGE), rs),
+                    "/resourceCatalogManagement/v2/resourceCandidate", ResourceCandidate.class);
+            if(previous != null)
+                return previous;
+        }
+
         ResourceSpecificationCreate rsc = translatorEngine.buildEdgeResourceSpecification(sliceType, sliceTypeBlueprint);
 
         log.info("Posting Resource Specification to Offer Catalog for edge {}.", edgeId);
 
         String rscJson = objectMapper.writeValueAsString(rsc);
-        HttpEntity httpEntity = translatorCatalogInteractionService
-                .post(rscJson, "/resourceCatalogManagement/v2/resourceSpecification");
-        ResourceSpecification rs =
-                objectMapper.readValue(EntityUtils.toString(httpEntity), ResourceSpecification.class);
+        ResourceSpecification rs = translatorCatalogInteractionService
+                .post(rscJson, "/resourceCatalogManagement/v2/resourceSpecification", ResourceSpecification.class);
 
-        Pair<String, String> pair = getCategoryOrCreateIfNotExists(Kind.EDGE,
-                "/resourceCatalogManagement/v2/resourceCategory/filter");
+        Pair<String, String> pair = categoryRegistry.get(Kind.EDGE);
 
         ResourceCandidateCreate rcc = translatorEngine.buildEdgeResourceCandidate(sliceType.getName(), pair, rs);
 
         log.info("Posting Resource Candidate to Offer Catalog for edge {}.", edgeId);
 
         String rccJson = objectMapper.writeValueAsString(rcc);
-        httpEntity =
-                translatorCatalogInteractionService.post(rccJson, "/resourceCatalogManagement/v2/resourceCandidate");
-        ResourceCandidate rc = objectMapper.readValue(EntityUtils.toString(httpEntity), ResourceCandidate.class);
+        ResourceCandidate rc =
+                postCandidate(Kind.EDGE, rccJson, "/resourceCatalogManagement/v2/resourceCandidate", ResourceCandidate.class);
 
-        mappingInfoService.save(new MappingInfo(edgeId, rc.getId(), rs.getId()));
+        saveMappingInfo(new MappingInfo(edgeId, rc.getId(), rs.getId(), Kind.EDGE), digest, rc, rs, null);
 
         log.info("Edge {} translated & posted.", edgeId);
 
@@ -781,31 +1076,60 @@ public class TranslationService {
     translateAndPostCloud(TranslatorSliceManagerInteractionService.SliceType sliceType,
                          TranslatorSliceManagerInteractionService.SliceTypeChunks sliceTypeBlueprint)
             throws NotExistingEntityException, IOException, CatalogException {
+        try {
+            return coalesced(Kind.CLOUD, sliceType.getId(), () -> doTranslateAndPostCloud(sliceType, sliceTypeBlueprint));
+        } catch (MissingEntityOnCatalogException | SourceException | MissingEntityOnSourceException |
+                 MalformattedElementException unexpected) {
+            throw new CatalogException(unexpected.getMessage());
+        }
+    }
+
+    private Pair<ResourceCandidate, ResourceSpecification>
+    doTranslateAndPostCloud(TranslatorSliceManagerInteractionService.SliceType sliceType,
+                           TranslatorSliceManagerInteractionService.SliceTypeChunks sliceTypeBlueprint)
+            throws NotExistingEntityException, IOException, CatalogException {
 
         String cloudId = sliceType.getId();
+        String digest = contentDigest.of(Kind.CLOUD, cloudId, sliceType, sliceTypeBlueprint);
+
+        MappingInfo mappingInfo = findMappingInfo(cloudId);
+        Pair<ResourceCandidate, ResourceSpecification> previous =
+                fromSnapshot(mappingInfo, digest, ResourceCandidate.class, ResourceSpecification.class);
+        if(previous != null) {
+            log.info("Cloud {} unchanged since its last translation.", cloudId);
+            return previous;
+        }
+
+        if(mappingInfo != null && isChanged(mappingInfo, digest)) {
+            log.info("Cloud {} changed since its last translation, updating it.", cloudId);
+            previous = patchTranslation(Kind.CLOUD, mappingInfo, digest,
+                    translatorEngine.buildCloudResourceSpecification(sliceType, sliceTypeBlueprint), null,
+                    "/resourceCatalogManagement/v2/resourceSpecification", ResourceSpecification.class,
+                    rs -> translatorEngine.buildCloudResourceCandidate(sliceType.getName(), categoryRegistry.get(Kind.CLOUD), rs),
+                    "/resourceCatalogManagement/v2/resourceCandidate", ResourceCandidate.class);
+            if(previous != null)
+                return previous;
+        }
+
         ResourceSpecificationCreate rsc = translatorEngine.buildCloudResourceSpecification(sliceType, sliceTypeBlueprint);
 
         log.info("Posting Resource Specification to Offer Catalog for cloud {}.", cloudId);
 
         String rscJson = objectMapper.writeValueAsString(rsc);
-        HttpEntity httpEntity = translatorCatalogInteractionService
-                .post(rscJson, "/resourceCatalogManagement/v2/resourceSpecification");
-        ResourceSpecification rs =
-                objectMapper.readValue(EntityUtils.toString(httpEntity), ResourceSpecification.class);
+        ResourceSpecification rs = translatorCatalogInteractionService
+                .post(rscJson, "/resourceCatalogManagement/v2/resourceSpecification", ResourceSpecification.class);
 
-        Pair<String, String> pair = getCategoryOrCreateIfNotExists(Kind.CLOUD,
-                "/resourceCatalogManagement/v2/resourceCategory/filter");
+        Pair<String, String> pair = categoryRegistry.get(Kind.CLOUD);
 
         ResourceCandidateCreate rcc = translatorEngine.buildCloudResourceCandidate(sliceType.getName(), pair, rs);
 
         log.info("Posting Resource Candidate to Offer Catalog for cloud {}.", cloudId);
 
         String rccJson = objectMapper.writeValueAsString(rcc);
-        httpEntity =
-                translatorCatalogInteractionService.post(rccJson, "/resourceCatalogManagement/v2/resourceCandidate");
-        ResourceCandidate rc = objectMapper.readValue(EntityUtils.toString(httpEntity), ResourceCandidate.class);
+        ResourceCandidate rc =
+                postCandidate(Kind.CLOUD, rccJson, "/resourceCatalogManagement/v2/resourceCandidate", ResourceCandidate.class);
 
-        mappingInfoService.save(new MappingInfo(cloudId, rc.getId(), rs.getId()));
+        saveMappingInfo(new MappingInfo(cloudId, rc.getId(), rs.getId(), Kind.CLOUD), digest, rc, rs, null);
 
         log.info("Cloud {} translated & posted.", cloudId);
 
@@ -815,31 +1139,59 @@ public class TranslationService {
     public Pair<ServiceCandidate, ServiceSpecification>
     translateAndPostNetworkSlice(TranslatorSliceManagerInteractionService.SliceType sliceType)
             throws NotExistingEntityException, IOException, CatalogException {
+        try {
+            return coalesced(Kind.NETWORK_SLICE, sliceType.getId(), () -> doTranslateAndPostNetworkSlice(sliceType));
+        } catch (MissingEntityOnCatalogException | SourceException | MissingEntityOnSourceException |
+                 MalformattedElementException unexpected) {
+            throw new CatalogException(unexpected.getMessage());
+        }
+    }
+
+    private Pair<ServiceCandidate, ServiceSpecification>
+    doTranslateAndPostNetworkSlice(TranslatorSliceManagerInteractionService.SliceType sliceType)
+            throws NotExistingEntityException, IOException, CatalogException {
 
         String nsId = sliceType.getId();
+        String digest = contentDigest.of(Kind.NETWORK_SLICE, nsId, sliceType);
+
+        MappingInfo mappingInfo = findMappingInfo(nsId);
+        Pair<ServiceCandidate, ServiceSpecification> previous =
+                fromSnapshot(mappingInfo, digest, ServiceCandidate.class, ServiceSpecification.class);
+        if(previous != null) {
+            log.info("Network Slice {} unchanged since its last translation.", nsId);
+            return previous;
+        }
+
+        if(mappingInfo != null && isChanged(mappingInfo, digest)) {
+            log.info("Network Slice {} changed since its last translation, updating it.", nsId);
+            previous = patchTranslation(Kind.NETWORK_SLICE, mappingInfo, digest,
+                    translatorEngine.buildNSServiceSpecification(sliceType), null,
+                    "/serviceCatalogManagement/v4/serviceSpecification", ServiceSpecification.class,
+                    ss -> translatorEngine.buildNSServiceCandidate(categoryRegistry.get(Kind.NETWORK_SLICE), ss),
+                    "/serviceCatalogManagement/v4/serviceCandidate", ServiceCandidate.class);
+            if(previous != null)
+                return previous;
+        }
+
         ServiceSpecificationCreate ssc = translatorEngine.buildNSServiceSpecification(sliceType);
 
         log.info("Posting Service Specification to Offer Catalog for Network Slice {}.", nsId);
 
         String sscJson = objectMapper.writeValueAsString(ssc);
-        HttpEntity httpEntity = translatorCatalogInteractionService
-                .post(sscJson, "/serviceCatalogManagement/v4/serviceSpecification");
-        ServiceSpecification ss =
-                objectMapper.readValue(EntityUtils.toString(httpEntity), ServiceSpecification.class);
+        ServiceSpecification ss = translatorCatalogInteractionService
+                .post(sscJson, "/serviceCatalogManagement/v4/serviceSpecification", ServiceSpecification.class);
 
-        Pair<String, String> pair = getCategoryOrCreateIfNotExists(Kind.NETWORK_SLICE,
-                "/serviceCatalogManagement/v4/serviceCategory/filter");
+        Pair<String, String> pair = categoryRegistry.get(Kind.NETWORK_SLICE);
 
         ServiceCandidateCreate scc = translatorEngine.buildNSServiceCandidate(pair, ss);
 
         log.info("Posting Service Candidate to Offer Catalog for Network Slice {}.", nsId);
 
         String sccJson = objectMapper.writeValueAsString(scc);
-        httpEntity =
-                translatorCatalogInteractionService.post(sccJson, "/serviceCatalogManagement/v4/serviceCandidate");
-        ServiceCandidate sc = objectMapper.readValue(EntityUtils.toString(httpEntity), ServiceCandidate.class);
+        ServiceCandidate sc =
+                postCandidate(Kind.NETWORK_SLICE, sccJson, "/serviceCatalogManagement/v4/serviceCandidate", ServiceCandidate.class);
 
-        mappingInfoService.save(new MappingInfo(nsId, sc.getId(), ss.getId()));
+        saveMappingInfo(new MappingInfo(nsId, sc.getId(), ss.getId(), Kind.NETWORK_SLICE), digest, sc, ss, null);
 
         log.info("Network Slice {} translated & posted.", nsId);
 
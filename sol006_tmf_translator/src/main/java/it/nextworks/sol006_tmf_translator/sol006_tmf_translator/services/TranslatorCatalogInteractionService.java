@@ -5,7 +5,11 @@ import com.fasterxml.jackson.databind.module.SimpleModule;
 import it.nextworks.sol006_tmf_translator.information_models.commons.Pair;
 import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.commons.config.CustomOffsetDateTimeSerializer;
 import it.nextworks.sol006_tmf_translator.information_models.commons.enums.Kind;
+import it.nextworks.sol006_tmf_translator.information_models.commons.enums.Lane;
+import it.nextworks.sol006_tmf_translator.information_models.commons.enums.PresenceStatus;
+import it.nextworks.sol006_tmf_translator.information_models.persistence.MappingInfo;
 import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.commons.exception.CatalogException;
+import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.commons.exception.DownstreamUnavailableException;
 import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.commons.exception.MissingEntityOnCatalogException;
 import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.commons.exception.ResourceMismatchException;
 import it.nextworks.tmf_offering_catalog.information_models.common.ResourceSpecificationRef;
@@ -14,24 +18,36 @@ import it.nextworks.tmf_offering_catalog.information_models.resource.ResourceCan
 import it.nextworks.tmf_offering_catalog.information_models.resource.ResourceSpecification;
 import it.nextworks.tmf_offering_catalog.information_models.service.ServiceCandidate;
 import it.nextworks.tmf_offering_catalog.information_models.service.ServiceSpecification;
-import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPatch;
 import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.methods.RequestBuilder;
 import org.apache.http.entity.StringEntity;
+import org.apache.http.concurrent.FutureCallback;
 import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
 import org.apache.http.util.EntityUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.threeten.bp.OffsetDateTime;
 
 import java.io.IOException;
-import java.io.UnsupportedEncodingException;
-import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
 
 @Service
 public class TranslatorCatalogInteractionService {
@@ -40,6 +56,24 @@ public class TranslatorCatalogInteractionService {
 
     private static final String protocol = "http://";
 
+    public static class PresenceCheck<T> {
+        private final PresenceStatus status;
+        private final T specification;
+        private final String message;
+
+        private PresenceCheck(PresenceStatus status, T specification, String message) {
+            this.status = status;
+            this.specification = specification;
+            this.message = message;
+        }
+
+        public PresenceStatus getStatus() { return status; }
+
+        public T getSpecification() { return specification; }
+
+        public String getMessage() { return message; }
+    }
+
     @Value("${offer_catalog.hostname}")
     private String catalogHostname;
 
@@ -49,22 +83,81 @@ public class TranslatorCatalogInteractionService {
     @Value("${offer_catalog.contextPath}")
     private String contextPath;
 
+    @Value("${mapping_info.reconcile.max_age}")
+    private long verifiedMaxAge;
+
     private final ObjectMapper objectMapper;
 
+    private final CloseableHttpClient httpClient;
+
+    private final CloseableHttpAsyncClient httpAsyncClient;
+
+    private final ResponseDecoder responseDecoder;
+
+    private final PresenceCache presenceCache;
+
+    private final DownstreamGuard guard;
+
+    @FunctionalInterface
+    private interface CatalogCall<T> {
+        T call() throws IOException, CatalogException, MissingEntityOnCatalogException;
+    }
+
     @Autowired
-    public TranslatorCatalogInteractionService(ObjectMapper objectMapper) {
+    public TranslatorCatalogInteractionService(ObjectMapper objectMapper,
+                                               @Qualifier("catalogHttpClient") CloseableHttpClient httpClient,
+                                               @Qualifier("catalogHttpAsyncClient") CloseableHttpAsyncClient httpAsyncClient,
+                                               ResponseDecoder responseDecoder,
+                                               PresenceCache presenceCache,
+                                               DownstreamGuards downstreamGuards) {
         this.objectMapper = objectMapper;
+        this.httpClient = httpClient;
+        this.httpAsyncClient = httpAsyncClient;
+        this.responseDecoder = responseDecoder;
+        this.presenceCache = presenceCache;
+        this.guard = downstreamGuards.get(DownstreamGuards.OFFER_CATALOG);
         SimpleModule module = new SimpleModule();
         module.addSerializer(OffsetDateTime.class, new CustomOffsetDateTimeSerializer());
         this.objectMapper.registerModule(module);
     }
 
-    public HttpEntity getFromCatalog(String requestPath, String id)
-            throws CatalogException, MissingEntityOnCatalogException {
+    private DownstreamGuard.Permit acquirePermission() throws CatalogException {
+        try {
+            return guard.acquirePermission();
+        } catch(DownstreamUnavailableException e) {
+            log.warn(e.getMessage());
+            throw new CatalogException(e.getMessage());
+        }
+    }
+
+    // A 404 or an undecodable body means the Offer Catalog did answer, so they do not count against the breaker.
+    private static boolean isDownstreamFailure(Throwable throwable) {
+        return !(throwable instanceof MissingEntityOnCatalogException || throwable instanceof IOException);
+    }
+
+    private <T> T guarded(CatalogCall<T> call)
+            throws IOException, CatalogException, MissingEntityOnCatalogException {
+
+        DownstreamGuard.Permit permit = acquirePermission();
+        try {
+            T result = call.call();
+            guard.onSuccess(permit);
+            return result;
+        } catch(IOException | CatalogException | MissingEntityOnCatalogException | RuntimeException e) {
+            if(isDownstreamFailure(e))
+                guard.onError(permit, e);
+            else
+                guard.onSuccess(permit);
+            throw e;
+        }
+    }
+
+    // Admitted by the guard attempt by attempt, so that retries back off without holding a call slot.
+    public <T> T getFromCatalog(String requestPath, String id, Class<T> type)
+            throws IOException, CatalogException, MissingEntityOnCatalogException {
 
         String request = protocol + catalogHostname + ":" + catalogPort + contextPath +
                 requestPath + id;
-        CloseableHttpClient httpClient = HttpClients.createDefault();
 
         HttpGet httpGet = new HttpGet(request);
         httpGet.setHeader("Accept", "application/json");
@@ -72,58 +165,176 @@ public class TranslatorCatalogInteractionService {
 
         CloseableHttpResponse response;
         try {
-            response = httpClient.execute(httpGet);
+            response = guard.execute(httpClient, httpGet);
+        } catch(DownstreamUnavailableException e) {
+            log.warn(e.getMessage());
+            throw new CatalogException(e.getMessage());
         } catch(IOException e) {
             String msg = "Offer Catalog Unreachable.";
             log.error(msg);
             throw new CatalogException(msg);
         }
 
-        int statusCode = response.getStatusLine().getStatusCode();
-        if(statusCode == 404)
-            throw new MissingEntityOnCatalogException();
-        else if(statusCode != 200) {
-            String msg = "Offer Catalog GET request failed, status code: " + statusCode + ".";
-            log.error(msg);
-            throw new CatalogException(msg);
+        try(CloseableHttpResponse r = response) {
+            int statusCode = r.getStatusLine().getStatusCode();
+            if(statusCode == 404) {
+                EntityUtils.consumeQuietly(r.getEntity());
+                throw new MissingEntityOnCatalogException();
+            }
+            else if(statusCode != 200) {
+                EntityUtils.consumeQuietly(r.getEntity());
+                String msg = "Offer Catalog GET request failed, status code: " + statusCode + ".";
+                log.error(msg);
+                throw new CatalogException(msg);
+            }
+
+            return responseDecoder.decode(r.getEntity(), type);
         }
+    }
 
-        return response.getEntity();
+    // A single attempt on the non-blocking client, aborted when the returned future is cancelled.
+    private CompletableFuture<HttpResponse> sendAsync(HttpUriRequest request) {
+        CompletableFuture<HttpResponse> future = new CompletableFuture<>();
+        Future<HttpResponse> httpFuture = httpAsyncClient.execute(RequestBuilder.copy(request).build(),
+                new FutureCallback<HttpResponse>() {
+                    @Override
+                    public void completed(HttpResponse response) {
+                        if(!future.complete(response))
+                            EntityUtils.consumeQuietly(response.getEntity());
+                    }
+
+                    @Override
+                    public void failed(Exception e) { future.completeExceptionally(e); }
+
+                    @Override
+                    public void cancelled() { future.cancel(false); }
+                });
+
+        future.whenComplete((response, e) -> {
+            if(future.isCancelled())
+                httpFuture.cancel(true);
+        });
+
+        return future;
     }
 
-    public Pair<ResourceCandidate, ResourceSpecification>
-    isResourcePresent(String resourceCandidateCatalogId, String resourceSpecificationCatalogId)
+    public <T> CompletableFuture<T> getFromCatalogAsync(String requestPath, String id, Class<T> type) {
+
+        String request = protocol + catalogHostname + ":" + catalogPort + contextPath +
+                requestPath + id;
+
+        HttpGet httpGet = new HttpGet(request);
+        httpGet.setHeader("Accept", "application/json");
+        httpGet.setHeader("Content-type", "application/json");
+
+        CompletableFuture<T> future = new CompletableFuture<>();
+        CompletableFuture<HttpResponse> httpFuture = guard.executeAsync(() -> sendAsync(httpGet));
+        httpFuture.whenComplete((response, e) -> {
+            if(response == null) {
+                Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+                if(cause instanceof DownstreamUnavailableException) {
+                    log.warn(cause.getMessage());
+                    future.completeExceptionally(new CatalogException(cause.getMessage()));
+                }
+                else if(!httpFuture.isCancelled()) {
+                    String msg = "Offer Catalog Unreachable.";
+                    log.error(msg);
+                    future.completeExceptionally(new CatalogException(msg));
+                }
+                return;
+            }
+
+            int statusCode = response.getStatusLine().getStatusCode();
+            if(statusCode == 404) {
+                EntityUtils.consumeQuietly(response.getEntity());
+                future.completeExceptionally(new MissingEntityOnCatalogException());
+                return;
+            }
+            else if(statusCode != 200) {
+                EntityUtils.consumeQuietly(response.getEntity());
+                String msg = "Offer Catalog GET request failed, status code: " + statusCode + ".";
+                log.error(msg);
+                future.completeExceptionally(new CatalogException(msg));
+                return;
+            }
+
+            try {
+                future.complete(responseDecoder.decode(response.getEntity(), type));
+            } catch(IOException ex) {
+                future.completeExceptionally(ex);
+            }
+        });
+
+        future.whenComplete((result, throwable) -> {
+            if(future.isCancelled())
+                httpFuture.cancel(true);
+        });
+
+        return future;
+    }
+
+    private static <T> T await(CompletableFuture<T> future)
+            throws IOException, CatalogException, MissingEntityOnCatalogException {
+        try {
+            return future.get();
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CatalogException("Interrupted while waiting for the Offer Catalog.");
+        } catch(ExecutionException e) {
+            Throwable cause = e.getCause();
+            if(cause instanceof MissingEntityOnCatalogException)
+                throw (MissingEntityOnCatalogException) cause;
+            if(cause instanceof CatalogException)
+                throw (CatalogException) cause;
+            if(cause instanceof IOException)
+                throw (IOException) cause;
+            throw new CatalogException(cause.getMessage());
+        }
+    }
+
+    private Pair<ResourceCandidate, ResourceSpecification>
+    fetchResourcePresence(String resourceCandidateCatalogId, String resourceSpecificationCatalogId)
             throws IOException, CatalogException, MissingEntityOnCatalogException, ResourceMismatchException {
 
-        log.info("Checking if Resource Candidate " + resourceCandidateCatalogId + " exist in the Offer Catalog.");
+        log.info("Checking if Resource Candidate " + resourceCandidateCatalogId + " and Resource Specification " +
+                resourceSpecificationCatalogId + " exist in the Offer Catalog.");
+
+        CompletableFuture<ResourceCandidate[]> rcFuture =
+                getFromCatalogAsync("/resourceCatalogManagement/v2/resourceCandidate/",
+                        resourceCandidateCatalogId, ResourceCandidate[].class);
+        CompletableFuture<ResourceSpecification[]> rsFuture =
+                getFromCatalogAsync("/resourceCatalogManagement/v2/resourceSpecification/",
+                        resourceSpecificationCatalogId, ResourceSpecification[].class);
 
-        HttpEntity rcEntity;
+        ResourceCandidate rc;
         try {
-            rcEntity = getFromCatalog("/resourceCatalogManagement/v2/resourceCandidate/", resourceCandidateCatalogId);
+            ResourceCandidate[] rcs = await(rcFuture);
+            if(rcs.length == 0)
+                throw new MissingEntityOnCatalogException("No Resource Candidate " + resourceCandidateCatalogId + ".");
+            rc = rcs[0];
         } catch(MissingEntityOnCatalogException e) {
+            rsFuture.cancel(true);
             String msg = "Resource Candidate " + resourceCandidateCatalogId + " not found in Offer Catalog.";
             log.info(msg);
             throw new MissingEntityOnCatalogException(msg);
+        } catch(CatalogException | IOException e) {
+            rsFuture.cancel(true);
+            throw e;
         }
 
-        ResourceCandidate rc = Arrays.asList(objectMapper.readValue(EntityUtils.toString(rcEntity),
-                ResourceCandidate[].class)).get(0);
-
-        log.info("Checking if Resource Specification " + resourceSpecificationCatalogId + " exist in the Offer Catalog.");
-
-        HttpEntity rsEntity;
+        ResourceSpecification rs;
         try {
-            rsEntity = getFromCatalog("/resourceCatalogManagement/v2/resourceSpecification/",
-                    resourceSpecificationCatalogId);
+            ResourceSpecification[] rss = await(rsFuture);
+            if(rss.length == 0)
+                throw new MissingEntityOnCatalogException("No Resource Specification " +
+                        resourceSpecificationCatalogId + ".");
+            rs = rss[0];
         } catch(MissingEntityOnCatalogException e) {
             String msg = "Resource Specification " + resourceSpecificationCatalogId + " not found in Offer Catalog.";
             log.info(msg);
             throw new MissingEntityOnCatalogException(msg);
         }
 
-        ResourceSpecification rs = Arrays.asList(objectMapper.readValue(EntityUtils.toString(rsEntity),
-                ResourceSpecification[].class)).get(0);
-
         ResourceSpecificationRef rsr = rc.getResourceSpecification();
         if(rsr == null) {
             String msg = "Null Resource Specification Ref in Resource Candidate: abort.";
@@ -141,15 +352,15 @@ public class TranslatorCatalogInteractionService {
         return new Pair<>(rc, rs);
     }
 
-    public HttpEntity isCategoryPresent(Kind kind, String requestPath)
-            throws CatalogException, MissingEntityOnCatalogException {
+    public <T> T isCategoryPresent(Kind kind, String requestPath, Class<T> type)
+            throws IOException, CatalogException, MissingEntityOnCatalogException {
 
         String name = kind.name();
         log.info("Checking if Category " + name + " exist in the Offer Catalog");
 
-        HttpEntity httpEntity;
+        T category;
         try {
-            httpEntity = getFromCatalog(requestPath, "?name=" + name);
+            category = getFromCatalog(requestPath, "?name=" + name, type);
         } catch (MissingEntityOnCatalogException e) {
             String msg = "Category " + name + " not found in Offer Catalog.";
             log.info(msg);
@@ -158,40 +369,45 @@ public class TranslatorCatalogInteractionService {
 
         log.info("Category " + name + " found in Offer Catalog.");
 
-        return httpEntity;
+        return category;
     }
 
-    public Pair<ServiceCandidate, ServiceSpecification>
-    isServicePresent(String serviceCandidateCatalogId, String serviceSpecificationCatalogId)
+    private Pair<ServiceCandidate, ServiceSpecification>
+    fetchServicePresence(String serviceCandidateCatalogId, String serviceSpecificationCatalogId)
             throws CatalogException, IOException, MissingEntityOnCatalogException, ResourceMismatchException {
 
-        log.info("Checking if Service Candidate " + serviceCandidateCatalogId + " exist in the Offer Catalog.");
+        log.info("Checking if Service Candidate " + serviceCandidateCatalogId + " and Service Specification " +
+                serviceSpecificationCatalogId + " exist in the Offer Catalog.");
 
-        HttpEntity scEntity;
+        CompletableFuture<ServiceCandidate> scFuture =
+                getFromCatalogAsync("/serviceCatalogManagement/v4/serviceCandidate/",
+                        serviceCandidateCatalogId, ServiceCandidate.class);
+        CompletableFuture<ServiceSpecification> ssFuture =
+                getFromCatalogAsync("/serviceCatalogManagement/v4/serviceSpecification/",
+                        serviceSpecificationCatalogId, ServiceSpecification.class);
+
+        ServiceCandidate sc;
         try {
-            scEntity = getFromCatalog("/serviceCatalogManagement/v4/serviceCandidate/", serviceCandidateCatalogId);
+            sc = await(scFuture);
         } catch (MissingEntityOnCatalogException e) {
+            ssFuture.cancel(true);
             String msg = "Service Candidate " + serviceCandidateCatalogId + " not found in Offer Catalog.";
             log.info(msg);
             throw new MissingEntityOnCatalogException(msg);
+        } catch (CatalogException | IOException e) {
+            ssFuture.cancel(true);
+            throw e;
         }
 
-        ServiceCandidate sc = objectMapper.readValue(EntityUtils.toString(scEntity), ServiceCandidate.class);
-
-        log.info("Checking if Service Specification " + serviceSpecificationCatalogId + " exist in the Offer Catalog.");
-
-        HttpEntity ssEntity;
+        ServiceSpecification ss;
         try {
-            ssEntity = getFromCatalog("/serviceCatalogManagement/v4/serviceSpecification/",
-                    serviceSpecificationCatalogId);
+            ss = await(ssFuture);
         } catch (MissingEntityOnCatalogException e) {
             String msg = "Service Specification " + serviceSpecificationCatalogId + " not found in Offer Catalog.";
             log.info(msg);
             throw new MissingEntityOnCatalogException(msg);
         }
 
-        ServiceSpecification ss = objectMapper.readValue(EntityUtils.toString(ssEntity), ServiceSpecification.class);
-
         ServiceSpecificationRef ssr = sc.getServiceSpecification();
         if(ssr == null) {
             String msg = "Null Service Specification Ref in Service Candidate: abort.";
@@ -208,10 +424,293 @@ public class TranslatorCatalogInteractionService {
         return new Pair<>(sc, ss);
     }
 
-    public HttpEntity post(String body, String requestPath) throws UnsupportedEncodingException, CatalogException {
+    private void throwIfRecentlyAbsent(String candidateCatalogId, String specificationCatalogId)
+            throws MissingEntityOnCatalogException, ResourceMismatchException {
+
+        PresenceStatus status = presenceCache.getAbsent(candidateCatalogId, specificationCatalogId);
+        if(status == PresenceStatus.MISSING) {
+            String msg = "Candidate " + candidateCatalogId + " or Specification " + specificationCatalogId +
+                    " recently found missing in Offer Catalog.";
+            log.info(msg);
+            throw new MissingEntityOnCatalogException(msg);
+        }
+        else if(status == PresenceStatus.MISMATCH) {
+            String msg = "Candidate " + candidateCatalogId + " and Specification " + specificationCatalogId +
+                    " recently found not coupled in Offer Catalog.";
+            log.info(msg);
+            throw new ResourceMismatchException(msg);
+        }
+    }
+
+    public Pair<ResourceCandidate, ResourceSpecification>
+    isResourcePresent(String resourceCandidateCatalogId, String resourceSpecificationCatalogId)
+            throws IOException, CatalogException, MissingEntityOnCatalogException, ResourceMismatchException {
+
+        Pair<ResourceCandidate, ResourceSpecification> cached = presenceCache.getPresent(resourceCandidateCatalogId,
+                resourceSpecificationCatalogId, ResourceCandidate.class, ResourceSpecification.class);
+        if(cached != null) {
+            log.info("Resource Candidate " + resourceCandidateCatalogId + " and Resource Specification " +
+                    resourceSpecificationCatalogId + " recently verified in the Offer Catalog.");
+            return cached;
+        }
+
+        throwIfRecentlyAbsent(resourceCandidateCatalogId, resourceSpecificationCatalogId);
+
+        try {
+            Pair<ResourceCandidate, ResourceSpecification> pair =
+                    fetchResourcePresence(resourceCandidateCatalogId, resourceSpecificationCatalogId);
+            presenceCache.putPresent(resourceCandidateCatalogId, resourceSpecificationCatalogId, pair);
+            return pair;
+        } catch(MissingEntityOnCatalogException e) {
+            presenceCache.putAbsent(resourceCandidateCatalogId, resourceSpecificationCatalogId, PresenceStatus.MISSING);
+            throw e;
+        } catch(ResourceMismatchException e) {
+            presenceCache.putAbsent(resourceCandidateCatalogId, resourceSpecificationCatalogId, PresenceStatus.MISMATCH);
+            throw e;
+        }
+    }
+
+    public Pair<ServiceCandidate, ServiceSpecification>
+    isServicePresent(String serviceCandidateCatalogId, String serviceSpecificationCatalogId)
+            throws CatalogException, IOException, MissingEntityOnCatalogException, ResourceMismatchException {
+
+        Pair<ServiceCandidate, ServiceSpecification> cached = presenceCache.getPresent(serviceCandidateCatalogId,
+                serviceSpecificationCatalogId, ServiceCandidate.class, ServiceSpecification.class);
+        if(cached != null) {
+            log.info("Service Candidate " + serviceCandidateCatalogId + " and Service Specification " +
+                    serviceSpecificationCatalogId + " recently verified in the Offer Catalog.");
+            return cached;
+        }
+
+        throwIfRecentlyAbsent(serviceCandidateCatalogId, serviceSpecificationCatalogId);
+
+        try {
+            Pair<ServiceCandidate, ServiceSpecification> pair =
+                    fetchServicePresence(serviceCandidateCatalogId, serviceSpecificationCatalogId);
+            presenceCache.putPresent(serviceCandidateCatalogId, serviceSpecificationCatalogId, pair);
+            return pair;
+        } catch(MissingEntityOnCatalogException e) {
+            presenceCache.putAbsent(serviceCandidateCatalogId, serviceSpecificationCatalogId, PresenceStatus.MISSING);
+            throw e;
+        } catch(ResourceMismatchException e) {
+            presenceCache.putAbsent(serviceCandidateCatalogId, serviceSpecificationCatalogId, PresenceStatus.MISMATCH);
+            throw e;
+        }
+    }
+
+    public static boolean isResourceKind(Kind kind) {
+        switch(kind) {
+            case VNF:
+            case PNF:
+            case SPC:
+            case RAD:
+            case EDGE:
+            case CLOUD:
+                return true;
+
+            case NS:
+            case VS:
+            case NETWORK_SLICE:
+                return false;
+
+            default:
+                throw new IllegalArgumentException("Unsupported kind " + kind.name() + ".");
+        }
+    }
+
+    private static <T> PresenceCheck<T> toPresenceCheck(Throwable throwable) {
+        Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ?
+                throwable.getCause() : throwable;
+        if(cause instanceof MissingEntityOnCatalogException)
+            return new PresenceCheck<>(PresenceStatus.MISSING, null, "Not found in Offer Catalog.");
+
+        return new PresenceCheck<>(PresenceStatus.UNREACHABLE, null, cause.getMessage());
+    }
+
+    // Found present and coupled recently enough to be trusted without asking the Offer Catalog again.
+    public boolean isRecentlyVerified(MappingInfo mappingInfo) {
+        Long lastVerifiedAt = mappingInfo.getLastVerifiedAt();
+        return mappingInfo.getVerificationStatus() == PresenceStatus.PRESENT && lastVerifiedAt != null &&
+                System.currentTimeMillis() - lastVerifiedAt <= verifiedMaxAge;
+    }
+
+    private <T> CompletableFuture<PresenceCheck<T>> cachedPresenceCheck(MappingInfo mappingInfo, Class<T> type) {
+        String candidateCatalogId = mappingInfo.getCandidateCatalogId();
+        String specificationCatalogId = mappingInfo.getSpecificationCatalogId();
+
+        if(mappingInfo.getSpecificationSnapshot() != null && isRecentlyVerified(mappingInfo)) {
+            try {
+                return CompletableFuture.completedFuture(new PresenceCheck<>(PresenceStatus.PRESENT,
+                        objectMapper.readValue(mappingInfo.getSpecificationSnapshot(), type), null));
+            } catch(IOException e) {
+                log.warn("Unreadable snapshot for " + mappingInfo.getDescriptorId() + ": " + e.getMessage());
+            }
+        }
+
+        T cached = presenceCache.getPresentSpecification(candidateCatalogId, specificationCatalogId, type);
+        if(cached != null)
+            return CompletableFuture.completedFuture(new PresenceCheck<>(PresenceStatus.PRESENT, cached, null));
+
+        PresenceStatus absent = presenceCache.getAbsent(candidateCatalogId, specificationCatalogId);
+        if(absent != null)
+            return CompletableFuture.completedFuture(new PresenceCheck<>(absent, null, "Recently found " +
+                    (absent == PresenceStatus.MISSING ? "missing" : "not coupled") + " in Offer Catalog."));
+
+        return null;
+    }
+
+    private <T> PresenceCheck<T> recordAbsence(MappingInfo mappingInfo, PresenceCheck<T> presenceCheck) {
+        PresenceStatus status = presenceCheck.getStatus();
+        if(status == PresenceStatus.MISSING || status == PresenceStatus.MISMATCH)
+            presenceCache.putAbsent(mappingInfo.getCandidateCatalogId(), mappingInfo.getSpecificationCatalogId(), status);
+
+        return presenceCheck;
+    }
+
+    private CompletableFuture<PresenceCheck<ResourceSpecification>>
+    checkResourcePresence(MappingInfo mappingInfo, boolean useCache) {
+        if(useCache) {
+            CompletableFuture<PresenceCheck<ResourceSpecification>> cached =
+                    cachedPresenceCheck(mappingInfo, ResourceSpecification.class);
+            if(cached != null)
+                return cached;
+        }
+
+        CompletableFuture<ResourceCandidate[]> rcFuture =
+                getFromCatalogAsync("/resourceCatalogManagement/v2/resourceCandidate/",
+                        mappingInfo.getCandidateCatalogId(), ResourceCandidate[].class);
+        CompletableFuture<ResourceSpecification[]> rsFuture =
+                getFromCatalogAsync("/resourceCatalogManagement/v2/resourceSpecification/",
+                        mappingInfo.getSpecificationCatalogId(), ResourceSpecification[].class);
+
+        return rcFuture.thenCombine(rsFuture, (rcs, rss) -> {
+            if(rcs.length == 0 || rss.length == 0)
+                return new PresenceCheck<ResourceSpecification>(PresenceStatus.MISSING, null,
+                        "Not found in Offer Catalog.");
+
+            ResourceSpecificationRef rsr = rcs[0].getResourceSpecification();
+            ResourceSpecification rs = rss[0];
+            if(rsr == null || !rsr.getHref().equals(rs.getHref()) || !rsr.getId().equals(rs.getId()))
+                return new PresenceCheck<ResourceSpecification>(PresenceStatus.MISMATCH, null,
+                        "Mismatch between Resource Candidate and Resource Specification: not coupled.");
+
+            presenceCache.putPresent(mappingInfo.getCandidateCatalogId(), mappingInfo.getSpecificationCatalogId(),
+                    new Pair<>(rcs[0], rs));
+            return new PresenceCheck<>(PresenceStatus.PRESENT, rs, null);
+        }).exceptionally(TranslatorCatalogInteractionService::toPresenceCheck)
+                .thenApply(presenceCheck -> recordAbsence(mappingInfo, presenceCheck));
+    }
+
+    private CompletableFuture<PresenceCheck<ServiceSpecification>>
+    checkServicePresence(MappingInfo mappingInfo, boolean useCache) {
+        if(useCache) {
+            CompletableFuture<PresenceCheck<ServiceSpecification>> cached =
+                    cachedPresenceCheck(mappingInfo, ServiceSpecification.class);
+            if(cached != null)
+                return cached;
+        }
+
+        CompletableFuture<ServiceCandidate> scFuture =
+                getFromCatalogAsync("/serviceCatalogManagement/v4/serviceCandidate/",
+                        mappingInfo.getCandidateCatalogId(), ServiceCandidate.class);
+        CompletableFuture<ServiceSpecification> ssFuture =
+                getFromCatalogAsync("/serviceCatalogManagement/v4/serviceSpecification/",
+                        mappingInfo.getSpecificationCatalogId(), ServiceSpecification.class);
+
+        return scFuture.thenCombine(ssFuture, (sc, ss) -> {
+            ServiceSpecificationRef ssr = sc.getServiceSpecification();
+            if(ssr == null || !ssr.getHref().equals(ss.getHref()) || !ssr.getId().equals(ss.getId()))
+                return new PresenceCheck<ServiceSpecification>(PresenceStatus.MISMATCH, null,
+                        "Mismatch between Service Candidate and Service Specification: not coupled.");
+
+            presenceCache.putPresent(mappingInfo.getCandidateCatalogId(), mappingInfo.getSpecificationCatalogId(),
+                    new Pair<>(sc, ss));
+            return new PresenceCheck<>(PresenceStatus.PRESENT, ss, null);
+        }).exceptionally(TranslatorCatalogInteractionService::toPresenceCheck)
+                .thenApply(presenceCheck -> recordAbsence(mappingInfo, presenceCheck));
+    }
+
+    private static <T> Map<String, T> awaitAll(Map<String, CompletableFuture<T>> futures) {
+        Map<String, T> results = new LinkedHashMap<>();
+        for(Map.Entry<String, CompletableFuture<T>> entry : futures.entrySet())
+            results.put(entry.getKey(), entry.getValue().join());
+
+        return results;
+    }
+
+    // A check takes two calls, so a lane fits half as many checks as it has call slots.
+    public int maxConcurrentChecks(Lane lane) { return Math.max(1, guard.laneCapacity(lane) / 2); }
+
+    // Starts the checks a window at a time, as wide as the lane of the current thread allows, so that a large batch
+    // queues on itself instead of outlasting downstream.lanes.max_wait in the lane and failing as unreachable.
+    private <T> Map<String, CompletableFuture<T>> throttled(List<MappingInfo> mappingInfos,
+                                                             Function<MappingInfo, CompletableFuture<T>> check,
+                                                             T interrupted) {
+        Semaphore window = new Semaphore(maxConcurrentChecks(PriorityLanes.current()));
+        Map<String, CompletableFuture<T>> futures = new LinkedHashMap<>();
+        for(MappingInfo mappingInfo : mappingInfos) {
+            try {
+                window.acquire();
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.put(mappingInfo.getDescriptorId(), CompletableFuture.completedFuture(interrupted));
+                continue;
+            }
+
+            CompletableFuture<T> future = check.apply(mappingInfo);
+            future.whenComplete((result, throwable) -> window.release());
+            futures.put(mappingInfo.getDescriptorId(), future);
+        }
+
+        return futures;
+    }
+
+    private static <T> PresenceCheck<T> interrupted() {
+        return new PresenceCheck<>(PresenceStatus.UNREACHABLE, null, "Interrupted while verifying in Offer Catalog.");
+    }
+
+    public Map<String, PresenceCheck<ResourceSpecification>> verifyResources(List<MappingInfo> mappingInfos) {
+        log.info("Verifying " + mappingInfos.size() + " Resources in the Offer Catalog.");
+
+        return awaitAll(throttled(mappingInfos, mappingInfo -> checkResourcePresence(mappingInfo, true),
+                interrupted()));
+    }
+
+    public Map<String, PresenceCheck<ServiceSpecification>> verifyServices(List<MappingInfo> mappingInfos) {
+        log.info("Verifying " + mappingInfos.size() + " Services in the Offer Catalog.");
+
+        return awaitAll(throttled(mappingInfos, mappingInfo -> checkServicePresence(mappingInfo, true),
+                interrupted()));
+    }
+
+    public Map<String, PresenceStatus> verify(List<MappingInfo> mappingInfos) { return verify(mappingInfos, false); }
+
+    // With useCache, entries verified recently and catalog objects in the presence cache are not asked again.
+    public Map<String, PresenceStatus> verify(List<MappingInfo> mappingInfos, boolean useCache) {
+        log.info("Verifying " + mappingInfos.size() + " mapping info entries in the Offer Catalog.");
+
+        return awaitAll(throttled(mappingInfos, mappingInfo -> {
+            Kind kind = mappingInfo.getKind();
+            if(kind == null)
+                return CompletableFuture.completedFuture(PresenceStatus.UNKNOWN_KIND);
+            else if(isResourceKind(kind))
+                return checkResourcePresence(mappingInfo, useCache).thenApply(PresenceCheck::getStatus);
+            else
+                return checkServicePresence(mappingInfo, useCache).thenApply(PresenceCheck::getStatus);
+        }, PresenceStatus.UNREACHABLE));
+    }
+
+    public <T> T post(String body, String requestPath, Class<T> type) throws IOException, CatalogException {
+        try {
+            return guarded(() -> doPost(body, requestPath, type));
+        } catch(MissingEntityOnCatalogException e) {
+            throw new CatalogException(e.getMessage());
+        }
+    }
+
+    private <T> T doPost(String body, String requestPath, Class<T> type) throws IOException, CatalogException {
 
         String request = protocol + catalogHostname + ":" + catalogPort + contextPath + requestPath;
-        CloseableHttpClient httpClient = HttpClients.createDefault();
         HttpPost httpPost = new HttpPost(request);
 
         StringEntity stringEntity = new StringEntity(body);
@@ -229,13 +728,59 @@ public class TranslatorCatalogInteractionService {
             throw new CatalogException(msg);
         }
 
-        int statusCode = response.getStatusLine().getStatusCode();
-        if(statusCode != 201) {
-            String msg = "Offer Catalog POST request failed, status code: " + statusCode + ".";
+        try(CloseableHttpResponse r = response) {
+            int statusCode = r.getStatusLine().getStatusCode();
+            if(statusCode != 201) {
+                EntityUtils.consumeQuietly(r.getEntity());
+                String msg = "Offer Catalog POST request failed, status code: " + statusCode + ".";
+                log.error(msg);
+                throw new CatalogException(msg);
+            }
+
+            return responseDecoder.decode(r.getEntity(), type);
+        }
+    }
+
+    public <T> T patch(String body, String requestPath, String id, Class<T> type)
+            throws IOException, CatalogException, MissingEntityOnCatalogException {
+        return guarded(() -> doPatch(body, requestPath, id, type));
+    }
+
+    private <T> T doPatch(String body, String requestPath, String id, Class<T> type)
+            throws IOException, CatalogException, MissingEntityOnCatalogException {
+
+        String request = protocol + catalogHostname + ":" + catalogPort + contextPath + requestPath + "/" + id;
+        HttpPatch httpPatch = new HttpPatch(request);
+
+        StringEntity stringEntity = new StringEntity(body);
+
+        httpPatch.setEntity(stringEntity);
+        httpPatch.setHeader("Accept", "application/json");
+        httpPatch.setHeader("Content-type", "application/json");
+
+        CloseableHttpResponse response;
+        try {
+            response = httpClient.execute(httpPatch);
+        } catch(IOException e) {
+            String msg = "Offer Catalog Unreachable.";
             log.error(msg);
             throw new CatalogException(msg);
         }
 
-        return response.getEntity();
+        try(CloseableHttpResponse r = response) {
+            int statusCode = r.getStatusLine().getStatusCode();
+            if(statusCode == 404) {
+                EntityUtils.consumeQuietly(r.getEntity());
+                throw new MissingEntityOnCatalogException();
+            }
+            else if(statusCode != 200) {
+                EntityUtils.consumeQuietly(r.getEntity());
+                String msg = "Offer Catalog PATCH request failed, status code: " + statusCode + ".";
+                log.error(msg);
+                throw new CatalogException(msg);
+            }
+
+            return responseDecoder.decode(r.getEntity(), type);
+        }
     }
 }
@@ -3,22 +3,25 @@ package it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import it.nextworks.sol006_tmf_translator.information_models.commons.enums.Kind;
+import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.commons.exception.DownstreamUnavailableException;
 import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.commons.exception.MissingEntityOnSourceException;
 import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.commons.exception.SourceException;
 import org.apache.http.HttpEntity;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.client.methods.HttpPut;
+import org.apache.http.entity.BufferedHttpEntity;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.entity.mime.MultipartEntityBuilder;
 import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
 import org.apache.http.util.EntityUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
@@ -40,9 +43,17 @@ public class TranslatorDescSourceInteractionService {
 
     private final ObjectMapper objectMapper;
 
+    private final CloseableHttpClient httpClient;
+
+    private final DownstreamGuard guard;
+
     @Autowired
-    public TranslatorDescSourceInteractionService(ObjectMapper objectMapper) {
+    public TranslatorDescSourceInteractionService(ObjectMapper objectMapper,
+                                                  @Qualifier("descSourceHttpClient") CloseableHttpClient httpClient,
+                                                  DownstreamGuards downstreamGuards) {
         this.objectMapper = objectMapper;
+        this.httpClient = httpClient;
+        this.guard = downstreamGuards.get(DownstreamGuards.DESCRIPTORS_SOURCE);
     }
 
     private String getRequestPath(Kind kind, String id) {
@@ -71,35 +82,43 @@ public class TranslatorDescSourceInteractionService {
         }
     }
 
+    private CloseableHttpResponse execute(HttpUriRequest request) throws SourceException, IOException {
+        try {
+            return guard.execute(httpClient, request);
+        } catch(DownstreamUnavailableException e) {
+            log.warn(e.getMessage());
+            throw new SourceException(e.getMessage());
+        }
+    }
+
     public HttpEntity getFromSource(Kind kind, String id)
             throws SourceException, MissingEntityOnSourceException {
 
         String request = protocol + sourceHostname + ":" + sourcePort + getRequestPath(kind, id);
-        CloseableHttpClient httpClient = HttpClients.createDefault();
 
         HttpGet httpGet = new HttpGet(request);
         httpGet.setHeader("Accept", "application/json");
         httpGet.setHeader("Content-type", "application/json");
 
-        CloseableHttpResponse response;
-        try {
-            response = httpClient.execute(httpGet);
+        try(CloseableHttpResponse response = execute(httpGet)) {
+            int statusCode = response.getStatusLine().getStatusCode();
+            if(statusCode == 404) {
+                EntityUtils.consumeQuietly(response.getEntity());
+                throw new MissingEntityOnSourceException();
+            }
+            else if(statusCode != 200) {
+                EntityUtils.consumeQuietly(response.getEntity());
+                String msg = "Descriptors Source GET request failed, status code: " + statusCode + ".";
+                log.error(msg);
+                throw new SourceException(msg);
+            }
+
+            return new BufferedHttpEntity(response.getEntity());
         } catch(IOException e) {
             String msg = "Descriptors Source Unreachable.";
             log.error(msg);
             throw new SourceException(msg);
         }
-
-        int statusCode = response.getStatusLine().getStatusCode();
-        if(statusCode == 404)
-            throw new MissingEntityOnSourceException();
-        else if(statusCode != 200) {
-            String msg = "Descriptors Source GET request failed, status code: " + statusCode + ".";
-            log.error(msg);
-            throw new SourceException(msg);
-        }
-
-        return response.getEntity();
     }
 
     public String getInfoIdFromDescriptorId(Kind kind, String descriptorId)
@@ -118,29 +137,28 @@ public class TranslatorDescSourceInteractionService {
                 break;
         }
 
-        CloseableHttpClient httpClient = HttpClients.createDefault();
-
         HttpGet httpGet = new HttpGet(request);
         httpGet.setHeader("Accept", "application/json");
         httpGet.setHeader("Content-type", "application/json");
 
-        CloseableHttpResponse response;
-        try {
-            response = httpClient.execute(httpGet);
+        String body;
+        try(CloseableHttpResponse response = execute(httpGet)) {
+            int statusCode = response.getStatusLine().getStatusCode();
+            if(statusCode != 200) {
+                EntityUtils.consumeQuietly(response.getEntity());
+                String msg = "Descriptors Source GET request failed, status code: " + statusCode + ".";
+                log.error(msg);
+                throw new SourceException(msg);
+            }
+
+            body = EntityUtils.toString(response.getEntity());
         } catch(IOException e) {
             String msg = "Descriptors Source Unreachable.";
             log.error(msg);
             throw new SourceException(msg);
         }
 
-        int statusCode = response.getStatusLine().getStatusCode();
-        if(statusCode != 200) {
-            String msg = "Descriptors Source GET request failed, status code: " + statusCode + ".";
-            log.error(msg);
-            throw new SourceException(msg);
-        }
-
-        JsonNode info = objectMapper.readTree(EntityUtils.toString(response.getEntity()));
+        JsonNode info = objectMapper.readTree(body);
         if(info.size() == 0)
             throw new MissingEntityOnSourceException();
         return info.get(0).get("id").asText();
@@ -149,31 +167,31 @@ public class TranslatorDescSourceInteractionService {
     public void postOnSource(Kind kind, String packagePath) throws IOException, SourceException {
 
         String request = protocol + sourceHostname + ":" + sourcePort + getRequestPath(kind, null);
-        CloseableHttpClient httpClient = HttpClients.createDefault();
         HttpPost httpPost = new HttpPost(request);
 
         httpPost.setEntity(new StringEntity("{}"));
         httpPost.setHeader("Accept", "application/json");
         httpPost.setHeader("Content-type", "application/json");
 
-        CloseableHttpResponse response;
-        try {
-            response = httpClient.execute(httpPost);
+        String body;
+        try(CloseableHttpResponse response = execute(httpPost)) {
+            int statusCode = response.getStatusLine().getStatusCode();
+            if(statusCode != 201) {
+                EntityUtils.consumeQuietly(response.getEntity());
+                String msg = "Descriptors Source POST request failed, status code: " + statusCode + ".";
+                log.error(msg);
+                throw new SourceException(msg);
+            }
+
+            body = EntityUtils.toString(response.getEntity());
         } catch(IOException e) {
             String msg = "Descriptors Source Unreachable.";
             log.error(msg);
             throw new SourceException(msg);
         }
 
-        int statusCode = response.getStatusLine().getStatusCode();
-        if(statusCode != 201) {
-            String msg = "Descriptors Source POST request failed, status code: " + statusCode + ".";
-            log.error(msg);
-            throw new SourceException(msg);
-        }
-
         ObjectMapper objectMapper = new ObjectMapper();
-        JsonNode packageInfo = objectMapper.readTree(EntityUtils.toString(response.getEntity()));
+        JsonNode packageInfo = objectMapper.readTree(body);
 
         String packageInfoId = packageInfo.get("id").asText();
 
@@ -200,19 +218,19 @@ public class TranslatorDescSourceInteractionService {
         httpPut.setEntity(entity);
         httpPut.setHeader("Accept", "application/json");
 
-        try {
-            response = httpClient.execute(httpPut);
+        try(CloseableHttpResponse response = execute(httpPut)) {
+            int statusCode = response.getStatusLine().getStatusCode();
+            if(statusCode != 204) {
+                String msg = "Descriptors Source PUT request failed, status code: " + statusCode + ".";
+                log.error(msg + EntityUtils.toString(response.getEntity()));
+                throw new SourceException(msg);
+            }
+
+            EntityUtils.consumeQuietly(response.getEntity());
         } catch(IOException e) {
             String msg = "Descriptors Source Unreachable.";
             log.error(msg);
             throw new SourceException(msg);
         }
-
-        statusCode = response.getStatusLine().getStatusCode();
-        if(statusCode != 204) {
-            String msg = "Descriptors Source PUT request failed, status code: " + statusCode + ".";
-            log.error(msg + EntityUtils.toString(response.getEntity()));
-            throw new SourceException(msg);
-        }
     }
 }
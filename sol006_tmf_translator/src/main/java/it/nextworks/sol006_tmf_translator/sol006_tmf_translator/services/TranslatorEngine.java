@@ -4,7 +4,7 @@ import it.nextworks.nfvmano.libs.common.enums.*;
 import it.nextworks.nfvmano.libs.descriptors.sol006.*;
 import it.nextworks.sol006_tmf_translator.information_models.commons.Pair;
 import it.nextworks.sol006_tmf_translator.information_models.commons.enums.Kind;
-import it.nextworks.sol006_tmf_translator.information_models.persistence.IdVsbNameMapping;
+import it.nextworks.sol006_tmf_translator.information_models.persistence.RequirementSummary;
 import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.commons.exception.MalformattedElementException;
 import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.commons.exception.NotExistingEntityException;
 import it.nextworks.tmf_offering_catalog.information_models.common.*;
@@ -19,9 +19,13 @@ import org.threeten.bp.OffsetDateTime;
 import org.threeten.bp.ZoneId;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -31,133 +35,15 @@ public class TranslatorEngine {
 
     private final IdVsbNameMappingService idVsbNameMappingService;
 
+    private final MappingRules mappingRules;
+
     @Autowired
-    public TranslatorEngine(IdVsbNameMappingService idVsbNameMappingService) {
+    public TranslatorEngine(IdVsbNameMappingService idVsbNameMappingService, MappingRules mappingRules) {
         this.idVsbNameMappingService = idVsbNameMappingService;
+        this.mappingRules = mappingRules;
     }
 
-    private Pair<Integer, Integer> getMinMaxInt(ArrayList<Integer> arr) {
-        Integer min = arr.get(0);
-        Integer max = arr.get(0);
-        for(int i = 1; i < arr.size(); i++) {
-            Integer curr = arr.get(i);
-            if(curr < min)
-                min = curr;
-            if(curr > max)
-                max = curr;
-        }
-
-        return new Pair<>(min, max);
-    }
-
-    private Pair<Double, Double> getMinMaxDou(ArrayList<Double> arr) {
-        Double min = arr.get(0);
-        Double max = arr.get(0);
-        for(int i = 1; i < arr.size(); i++) {
-            Double curr = arr.get(i);
-            if(curr < min)
-                min = curr;
-            if(curr > max)
-                max = curr;
-        }
-
-        return new Pair<>(min, max);
-    }
-
-    private List<ResourceSpecCharacteristic> computeVnfRequirements(Vnfd vnfd) throws MalformattedElementException {
-
-        List<VnfdDf> vnfdDfs = vnfd.getDf();
-        if(vnfdDfs == null)
-            throw new MalformattedElementException("Cannot infer vnf requirements due to missing deployment flavor list.");
-
-        List<VnfdVdu> vnfdVdus = vnfd.getVdu();
-        if(vnfdVdus == null)
-            throw new MalformattedElementException("Cannot infer vnf requirements due to missing vdu list.");
-
-        List<VnfdVirtualcomputedesc> vnfdVirtualcomputedescs = vnfd.getVirtualComputeDesc();
-        if(vnfdVirtualcomputedescs == null)
-            throw new MalformattedElementException("Cannot infer vnf requirements due to missing virtual compute desc list.");
-
-        List<VnfdVirtualstoragedesc> vnfdVirtualstoragedescs = vnfd.getVirtualStorageDesc();
-        if(vnfdVirtualstoragedescs == null)
-            throw new MalformattedElementException("Cannot infer vnf requirements due to missing virtual storage desc list.");
-
-        ArrayList<Integer> cpus = new ArrayList<>();
-        ArrayList<Double> memories = new ArrayList<>();
-        ArrayList<Integer> storages = new ArrayList<>();
-
-        for(VnfdDf vnfdDf : vnfdDfs) {
-            List<VnfdInstantiationlevel> vnfdInstantiationlevels = vnfdDf.getInstantiationLevel();
-            if(vnfdInstantiationlevels == null)
-                throw new MalformattedElementException("Cannot infer vnf requirements due to empty instantiation level list");
-
-            for(VnfdInstantiationlevel vnfdInstantiationlevel : vnfdInstantiationlevels) {
-                List<VnfdVdulevel> vdulevels = vnfdInstantiationlevel.getVduLevel();
-                if(vdulevels == null)
-                   throw new MalformattedElementException("Cannot infer vnf requirements due to empty vdu level list");
-
-                int cpu = 0;
-                double memory = 0.0;
-                int storage = 0;
-
-                for(VnfdVdulevel vdulevel : vdulevels) {
-                   String vduId = vdulevel.getVduId();
-                   if(vduId == null)
-                       throw new MalformattedElementException("Cannot infer vnf requirements due to missing id for vdu level");
-
-                   List<VnfdVdu> vdus = vnfdVdus.stream()
-                           .filter(vdu -> vdu.getId().equals(vduId))
-                           .collect(Collectors.toList());
-                   if(vdus.size() != 1)
-                       throw new MalformattedElementException("Cannot infer vnf requirements due to missing/multiple vdu for id " + vduId);
-                   VnfdVdu vdu = vdus.get(0);
-
-                   String virtualComputeDescId = vdu.getVirtualComputeDesc();
-                   if(virtualComputeDescId != null) {
-                       List<VnfdVirtualcomputedesc> virtualcomputedescs = vnfdVirtualcomputedescs.stream()
-                               .filter(vnfdVirtualcomputedesc -> vnfdVirtualcomputedesc.getId().equals(virtualComputeDescId))
-                               .collect(Collectors.toList());
-                       if(virtualcomputedescs.size() != 1)
-                           throw new MalformattedElementException("Cannot infer vnf requirements due to missing/multiple virtual compute desc");
-                       VnfdVirtualcomputedesc virtualcomputedesc = virtualcomputedescs.get(0);
-
-                       VnfdVirtualcpu vnfdVirtualcpu = virtualcomputedesc.getVirtualCpu();
-                       if(vnfdVirtualcpu != null) {
-                           String numVirtualCpu = vnfdVirtualcpu.getNumVirtualCpu();
-                           if(numVirtualCpu != null)
-                               cpu += Integer.parseInt(numVirtualCpu);
-                       }
-
-                       VnfdVirtualmemory vnfdVirtualmemory = virtualcomputedesc.getVirtualMemory();
-                       if(vnfdVirtualmemory != null) {
-                           Double size = vnfdVirtualmemory.getSize();
-                           if(size != null)
-                               memory += size;
-                       }
-                   }
-
-                   List<String> virtualStorageDescIds = vdu.getVirtualStorageDesc();
-                   if(virtualStorageDescIds != null) {
-                       for(String virtualStorageDescId : virtualStorageDescIds) {
-                           List<VnfdVirtualstoragedesc> virtualstoragedescs = vnfdVirtualstoragedescs.stream()
-                                   .filter(virtualStorageDesc -> virtualStorageDesc.getId().equals(virtualStorageDescId))
-                                   .collect(Collectors.toList());
-                           if(virtualstoragedescs.size() != 1)
-                               throw new MalformattedElementException("Cannot infer vnf requirements due to missing/multiple virtual storage");
-                           VnfdVirtualstoragedesc virtualstoragedesc = virtualstoragedescs.get(0);
-
-                           String size = virtualstoragedesc.getSizeOfStorage();
-                           if(size != null)
-                               storage += Integer.parseInt(size);
-                       }
-                   }
-                }
-
-                cpus.add(cpu);
-                memories.add(memory);
-                storages.add(storage);
-            }
-        }
+    private List<ResourceSpecCharacteristic> computeVnfRequirements(RequirementSummary requirements) {
 
         List<ResourceSpecCharacteristic> resourceSpecCharacteristics = new ArrayList<>();
 
@@ -166,11 +52,10 @@ public class TranslatorEngine {
                         .name("vCPU Requirements")
                         .description("vCPU lower bound and upper bound.");
         List<ResourceSpecCharacteristicValue> cpuRscvs = new ArrayList<>();
-        Pair<Integer, Integer> minMaxCpu = getMinMaxInt(cpus);
         cpuRscvs.add(new ResourceSpecCharacteristicValue()
-                .value(new Any().alias("min-vCPU").value(minMaxCpu.getFirst().toString())));
+                .value(new Any().alias("min-vCPU").value(String.valueOf(requirements.getMinCpu()))));
         cpuRscvs.add(new ResourceSpecCharacteristicValue()
-                .value(new Any().alias("max-vCPU").value(minMaxCpu.getSecond().toString())));
+                .value(new Any().alias("max-vCPU").value(String.valueOf(requirements.getMaxCpu()))));
         cpuRequirements.setResourceSpecCharacteristicValue(cpuRscvs);
         resourceSpecCharacteristics.add(cpuRequirements);
 
@@ -179,11 +64,10 @@ public class TranslatorEngine {
                         .name("Virtual Memory Requirements")
                         .description("Virtual Memory lower bound and upper bound.");
         List<ResourceSpecCharacteristicValue> memoryRscvs = new ArrayList<>();
-        Pair<Double, Double> minMaxMemory = getMinMaxDou(memories);
         memoryRscvs.add(new ResourceSpecCharacteristicValue()
-                .value(new Any().alias("min-virtual-memory").value(minMaxMemory.getFirst().toString())).unitOfMeasure("GB"));
+                .value(new Any().alias("min-virtual-memory").value(String.valueOf(requirements.getMinMemory()))).unitOfMeasure("GB"));
         memoryRscvs.add(new ResourceSpecCharacteristicValue()
-                .value(new Any().alias("max-virtual-memory").value(minMaxMemory.getSecond().toString())).unitOfMeasure("GB"));
+                .value(new Any().alias("max-virtual-memory").value(String.valueOf(requirements.getMaxMemory()))).unitOfMeasure("GB"));
         memoryRequirements.setResourceSpecCharacteristicValue(memoryRscvs);
         resourceSpecCharacteristics.add(memoryRequirements);
 
@@ -192,19 +76,25 @@ public class TranslatorEngine {
                         .name("Storage Requirements")
                         .description("Storage lower bound and upper bound.");
         List<ResourceSpecCharacteristicValue> storageRscvs = new ArrayList<>();
-        Pair<Integer, Integer> minMaxStorage = getMinMaxInt(storages);
         storageRscvs.add(new ResourceSpecCharacteristicValue()
-                .value(new Any().alias("min-storage").value(minMaxStorage.getFirst().toString())).unitOfMeasure("GB"));
+                .value(new Any().alias("min-storage").value(String.valueOf(requirements.getMinStorage()))).unitOfMeasure("GB"));
         storageRscvs.add(new ResourceSpecCharacteristicValue()
-                .value(new Any().alias("max-storage").value(minMaxStorage.getSecond().toString())).unitOfMeasure("GB"));
+                .value(new Any().alias("max-storage").value(String.valueOf(requirements.getMaxStorage()))).unitOfMeasure("GB"));
         storageRequirements.setResourceSpecCharacteristicValue(storageRscvs);
         resourceSpecCharacteristics.add(storageRequirements);
 
         return resourceSpecCharacteristics;
     }
 
-    public ResourceSpecificationCreate buildVnfdResourceSpecification(Vnfd vnfd, String functionType)
-            throws MalformattedElementException, NotExistingEntityException {
+    // The requirement summary of a vnfd, as buildVnfdResourceSpecification publishes it.
+    public RequirementSummary requirementsOf(Vnfd vnfd) throws MalformattedElementException {
+        return VnfResourceEnvelope.of(VnfdIndex.of(vnfd));
+    }
+
+    // requirements is the summary requirementsOf computed for the vnfd.
+    public ResourceSpecificationCreate
+    buildVnfdResourceSpecification(Vnfd vnfd, String functionType, RequirementSummary requirements)
+            throws NotExistingEntityException {
 
         String vnfdId = vnfd.getId();
         log.info("Translating vnfd " + vnfdId + ".");
@@ -219,32 +109,10 @@ public class TranslatorEngine {
 
         List<ResourceSpecCharacteristic> resourceSpecCharacteristics = new ArrayList<>();
 
-        ResourceSpecCharacteristic rscVnfdId = new ResourceSpecCharacteristic()
-                .description("ID of the VNF descriptor.")
-                .name("vnfdId")
-                .resourceSpecCharacteristicValue(Collections.singletonList(new ResourceSpecCharacteristicValue()
-                        .value(new Any().alias("vnfdId").value(vnfdId))));
-        resourceSpecCharacteristics.add(rscVnfdId);
-
-        IdVsbNameMapping idVsbNameMapping = idVsbNameMappingService.getById(vnfdId);
-        ResourceSpecCharacteristic rscVsbName = new ResourceSpecCharacteristic()
-                .description("Name of the Vertical Service Blueprint.")
-                .name("vsbName")
-                .resourceSpecCharacteristicValue(Collections.singletonList(new ResourceSpecCharacteristicValue()
-                        .value(new Any().alias("vsbName").value(idVsbNameMapping.getVsbName()))));
-        resourceSpecCharacteristics.add(rscVsbName);
-
-        String snfvoUrl = idVsbNameMapping.getSnfvoUrl();
-        if(snfvoUrl != null && !snfvoUrl.isEmpty()) {
-            ResourceSpecCharacteristic rscSnfvoUrl = new ResourceSpecCharacteristic()
-                    .description("snfvoUrl")
-                    .name("snfvoUrl")
-                    .resourceSpecCharacteristicValue(Collections.singletonList(new ResourceSpecCharacteristicValue()
-                            .value(new Any().alias("snfvoUrl").value(snfvoUrl))));
-            resourceSpecCharacteristics.add(rscSnfvoUrl);
-        }
+        resourceSpecCharacteristics.addAll(mappingRules.resourceCharacteristics(Kind.VNF, vnfd,
+                idVsbNameMappingService.getById(vnfdId)));
 
-        resourceSpecCharacteristics.addAll(computeVnfRequirements(vnfd));
+        resourceSpecCharacteristics.addAll(computeVnfRequirements(requirements));
 
         if(functionType != null) {
             resourceSpecCharacteristics.add(new ResourceSpecCharacteristic()
@@ -310,12 +178,7 @@ public class TranslatorEngine {
 
         List<ResourceSpecCharacteristic> resourceSpecCharacteristics = new ArrayList<>();
 
-        ResourceSpecCharacteristic rscPnfdId = new ResourceSpecCharacteristic()
-                .name("pnfdId")
-                .resourceSpecCharacteristicValue(Collections.singletonList(new ResourceSpecCharacteristicValue()
-                        .value(new Any().alias("pnfdId").value(pnfdId))));
-
-        resourceSpecCharacteristics.add(rscPnfdId);
+        resourceSpecCharacteristics.addAll(mappingRules.resourceCharacteristics(Kind.PNF, pnfd, null));
 
         List<Cpd> extCpds = pnfd.getExtCpd();
         if(extCpds == null)
@@ -641,183 +504,112 @@ public class TranslatorEngine {
                         .name(rs.getName()));
     }
 
-    private List<ServiceSpecCharacteristic> computeNsRequirements(List<ResourceSpecification> vnfResourceSpecifications,
-                                                                  List<ServiceSpecification> nsServiceSpecifications)
+    private static final Set<String> REQUIREMENT_CHARACTERISTICS = new HashSet<>(Arrays.asList(
+            "vCPU Requirements", "Virtual Memory Requirements", "Storage Requirements"));
+
+    // A duplicated alias is kept as null, so that it is reported like a missing one.
+    private static void putRequirement(Map<String, String> values, Any any) {
+        if(any == null || any.getAlias() == null)
+            return;
+        if(values.containsKey(any.getAlias()))
+            values.put(any.getAlias(), null);
+        else
+            values.put(any.getAlias(), any.getValue());
+    }
+
+    private static String requirement(Map<String, String> values, String alias, String owner)
             throws MalformattedElementException {
+        String value = values.get(alias);
+        if(value == null)
+            throw new MalformattedElementException("Cannot infer ns requirements, missing/multiple " + alias +
+                    " requirement for " + owner);
+        return value;
+    }
 
-        int minCpu = 0;
-        int maxCpu = 0;
-        double minMemory = 0.0;
-        double maxMemory = 0.0;
-        int minStorage = 0;
-        int maxStorage = 0;
+    private static RequirementSummary toRequirementSummary(Map<String, String> values, String owner)
+            throws MalformattedElementException {
+        try {
+            return new RequirementSummary(
+                    Integer.parseInt(requirement(values, "min-vCPU", owner)),
+                    Integer.parseInt(requirement(values, "max-vCPU", owner)),
+                    Double.parseDouble(requirement(values, "min-virtual-memory", owner)),
+                    Double.parseDouble(requirement(values, "max-virtual-memory", owner)),
+                    Integer.parseInt(requirement(values, "min-storage", owner)),
+                    Integer.parseInt(requirement(values, "max-storage", owner)));
+        } catch(NumberFormatException e) {
+            throw new MalformattedElementException("Cannot infer ns requirements, malformed requirement for " +
+                    owner + ": " + e.getMessage());
+        }
+    }
 
-        for(ResourceSpecification rs : vnfResourceSpecifications) {
-            String rsId = rs.getId();
-            List<ResourceSpecCharacteristic> resourceSpecCharacteristics = rs.getResourceSpecCharacteristic();
-            if(resourceSpecCharacteristics == null)
-                throw new MalformattedElementException("Cannot infer ns requirements, empty characteristic list " +
-                        "for resource specification " + rsId);
-
-            List<ResourceSpecCharacteristic> requirements = resourceSpecCharacteristics.stream()
-                    .filter(rsc -> rsc.getName().equals("vCPU Requirements"))
-                    .collect(Collectors.toList());
-            if(requirements.size() != 1)
-                throw new MalformattedElementException("Cannot infer ns requirements, missing/multiple vCPU requirements " +
-                        "for resource specification " + rsId);
-            List<ResourceSpecCharacteristicValue> rscvs = requirements.get(0).getResourceSpecCharacteristicValue();
-            if(rscvs == null)
-                throw new MalformattedElementException("Cannot infer ns requirements, empty vCPU characteristic value list " +
-                        "for resource specification " + rsId);
-            List<ResourceSpecCharacteristicValue> minCpuRscv = rscvs.stream()
-                    .filter(rscv -> rscv.getValue().getAlias().equals("min-vCPU"))
-                    .collect(Collectors.toList());
-            if(minCpuRscv.size() != 1)
-                throw new MalformattedElementException("Cannot infer ns requirements, missing/multiple min-vCPU requirements " +
-                        "for resource specification " + rsId);
-            minCpu += Integer.parseInt(minCpuRscv.get(0).getValue().getValue());
-            List<ResourceSpecCharacteristicValue> maxCpuRscv = rscvs.stream()
-                    .filter(rscv -> rscv.getValue().getAlias().equals("max-vCPU"))
-                    .collect(Collectors.toList());
-            if(maxCpuRscv.size() != 1)
-                throw new MalformattedElementException("Cannot infer ns requirements, missing/multiple max-vCPU requirement " +
-                        "for resource specification " + rsId);
-            maxCpu += Integer.parseInt(maxCpuRscv.get(0).getValue().getValue());
-
-            requirements = resourceSpecCharacteristics.stream()
-                    .filter(rsc -> rsc.getName().equals("Virtual Memory Requirements"))
-                    .collect(Collectors.toList());
-            if(requirements.size() != 1)
-                throw new MalformattedElementException("Cannot infer ns requirements, missing/multiple Virtual Memory Requirements " +
-                        "for resource specification " + rsId);
-            rscvs = requirements.get(0).getResourceSpecCharacteristicValue();
-            if(rscvs == null)
-                throw new MalformattedElementException("Cannot infer ns requirements, empty Virtual Memory characteristic value list " +
-                        "for resource specification " + rsId);
-            List<ResourceSpecCharacteristicValue> minMemoryRscv = rscvs.stream()
-                    .filter(rscv -> rscv.getValue().getAlias().equals("min-virtual-memory"))
-                    .collect(Collectors.toList());
-            if(minMemoryRscv.size() != 1)
-                throw new MalformattedElementException("Cannot infer ns requirements, missing/multiple min-virtual-memory requirement " +
-                        "for resource specification " + rsId);
-            minMemory += Double.parseDouble(minMemoryRscv.get(0).getValue().getValue());
-            List<ResourceSpecCharacteristicValue> maxMemoryRscv = rscvs.stream()
-                    .filter(rscv -> rscv.getValue().getAlias().equals("max-virtual-memory"))
-                    .collect(Collectors.toList());
-            if(maxMemoryRscv.size() != 1)
-                throw new MalformattedElementException("Cannot infer ns requirements, missing/multiple max-virtual-memory requirement " +
-                        "for resource specification " + rsId);
-            maxMemory += Double.parseDouble(maxMemoryRscv.get(0).getValue().getValue());
-
-            requirements = resourceSpecCharacteristics.stream()
-                    .filter(rsc -> rsc.getName().equals("Storage Requirements"))
-                    .collect(Collectors.toList());
-            if(requirements.size() != 1)
-                throw new MalformattedElementException("Cannot infer ns requirements, missing/multiple Storage Requirements " +
-                        "for resource specification " + rsId);
-            rscvs = requirements.get(0).getResourceSpecCharacteristicValue();
+    // Reads the requirement characteristics back from a specification, for constituents translated before
+    // requirement summaries were recorded.
+    private static RequirementSummary requirementsOf(ResourceSpecification rs) throws MalformattedElementException {
+        String owner = "resource specification " + rs.getId();
+        List<ResourceSpecCharacteristic> resourceSpecCharacteristics = rs.getResourceSpecCharacteristic();
+        if(resourceSpecCharacteristics == null)
+            throw new MalformattedElementException("Cannot infer ns requirements, empty characteristic list for " + owner);
+
+        Map<String, String> values = new HashMap<>();
+        for(ResourceSpecCharacteristic rsc : resourceSpecCharacteristics) {
+            if(!REQUIREMENT_CHARACTERISTICS.contains(rsc.getName()))
+                continue;
+            List<ResourceSpecCharacteristicValue> rscvs = rsc.getResourceSpecCharacteristicValue();
             if(rscvs == null)
-                throw new MalformattedElementException("Cannot infer ns requirements, empty Storage characteristic value list " +
-                        "for resource specification " + rsId);
-            List<ResourceSpecCharacteristicValue> minStorageRscv = rscvs.stream()
-                    .filter(rscv -> rscv.getValue().getAlias().equals("min-storage"))
-                    .collect(Collectors.toList());
-            if(minStorageRscv.size() != 1)
-                throw new MalformattedElementException("Cannot infer ns requirements, missing/multiple min-storage requirement " +
-                        "for resource specification " + rsId);
-            minStorage += Integer.parseInt(minStorageRscv.get(0).getValue().getValue());
-            List<ResourceSpecCharacteristicValue> maxStorageRscv = rscvs.stream()
-                    .filter(rscv -> rscv.getValue().getAlias().equals("max-storage"))
-                    .collect(Collectors.toList());
-            if(maxStorageRscv.size() != 1)
-                throw new MalformattedElementException("Cannot infer ns requirements, missing/multiple max-storage requirement " +
-                        "for resource specification " + rsId);
-            maxStorage += Integer.parseInt(maxStorageRscv.get(0).getValue().getValue());
+                throw new MalformattedElementException("Cannot infer ns requirements, empty " + rsc.getName() +
+                        " characteristic value list for " + owner);
+            for(ResourceSpecCharacteristicValue rscv : rscvs)
+                putRequirement(values, rscv.getValue());
         }
 
-        for(ServiceSpecification ss : nsServiceSpecifications) {
-            String ssId = ss.getId();
-            List<ServiceSpecCharacteristic> serviceSpecCharacteristics = ss.getServiceSpecCharacteristic();
-            if(serviceSpecCharacteristics == null)
-                throw new MalformattedElementException("Cannot infer ns requirements, empty characteristic list " +
-                        "for service specification " + ssId);
-
-            List<ServiceSpecCharacteristic> requirements = serviceSpecCharacteristics.stream()
-                    .filter(ssc -> ssc.getName().equals("vCPU Requirements"))
-                    .collect(Collectors.toList());
-            if(requirements.size() != 1)
-                throw new MalformattedElementException("Cannot infer ns requirements, missing/multiple vCPU Requirements " +
-                        "for service specification " + ssId);
-            List<ServiceSpecCharacteristicValue> sscvs = requirements.get(0).getServiceSpecCharacteristicValue();
-            if(sscvs == null)
-                throw new MalformattedElementException("Cannot infer ns requirements, empty vCPU characteristic value list " +
-                        "for service specification " + ssId);
-            List<ServiceSpecCharacteristicValue> minCpuSscv = sscvs.stream()
-                    .filter(sscv -> sscv.getValue().getAlias().equals("min-vCPU"))
-                    .collect(Collectors.toList());
-            if(minCpuSscv.size() != 1)
-                throw new MalformattedElementException("Cannot infer ns requirements, missing/multiple min-vCPU requirements " +
-                        "for service specification " + ssId);
-            minCpu += Integer.parseInt(minCpuSscv.get(0).getValue().getValue());
-            List<ServiceSpecCharacteristicValue> maxCpuSscv = sscvs.stream()
-                    .filter(sscv -> sscv.getValue().getAlias().equals("max-vCPU"))
-                    .collect(Collectors.toList());
-            if(maxCpuSscv.size() != 1)
-                throw new MalformattedElementException("Cannot infer ns requirements, missing/multiple max-vCPU requirement " +
-                        "for resource specification " + ssId);
-            maxCpu += Integer.parseInt(maxCpuSscv.get(0).getValue().getValue());
-
-            requirements = serviceSpecCharacteristics.stream()
-                    .filter(ssc -> ssc.getName().equals("Virtual Memory Requirements"))
-                    .collect(Collectors.toList());
-            if(requirements.size() != 1)
-                throw new MalformattedElementException("Cannot infer ns requirements, missing/multiple Virtual Memory Requirements " +
-                        "for service specification " + ssId);
-            sscvs = requirements.get(0).getServiceSpecCharacteristicValue();
-            if(sscvs == null)
-                throw new MalformattedElementException("Cannot infer ns requirements, empty Virtual Memory characteristic value list " +
-                        "for service specification " + ssId);
-            List<ServiceSpecCharacteristicValue> minMemorySscv = sscvs.stream()
-                    .filter(sscv -> sscv.getValue().getAlias().equals("min-virtual-memory"))
-                    .collect(Collectors.toList());
-            if(minMemorySscv.size() != 1)
-                throw new MalformattedElementException("Cannot infer ns requirements, missing/multiple min-virtual-memory requirements " +
-                        "for service specification " + ssId);
-            minMemory += Double.parseDouble(minMemorySscv.get(0).getValue().getValue());
-            List<ServiceSpecCharacteristicValue> maxMemorySscv = sscvs.stream()
-                    .filter(sscv -> sscv.getValue().getAlias().equals("max-virtual-memory"))
-                    .collect(Collectors.toList());
-            if(maxMemorySscv.size() != 1)
-                throw new MalformattedElementException("Cannot infer ns requirements, missing/multiple max-virtual-memory requirements " +
-                        "for service specification " + ssId);
-            maxMemory += Double.parseDouble(maxMemorySscv.get(0).getValue().getValue());
-
-            requirements = serviceSpecCharacteristics.stream()
-                    .filter(ssc -> ssc.getName().equals("Storage Requirements"))
-                    .collect(Collectors.toList());
-            if(requirements.size() != 1)
-                throw new MalformattedElementException("Cannot infer ns requirements, missing/multiple Storage Requirements " +
-                        "for service specification " + ssId);
-            sscvs = requirements.get(0).getServiceSpecCharacteristicValue();
+        return toRequirementSummary(values, owner);
+    }
+
+    private static RequirementSummary requirementsOf(ServiceSpecification ss) throws MalformattedElementException {
+        String owner = "service specification " + ss.getId();
+        List<ServiceSpecCharacteristic> serviceSpecCharacteristics = ss.getServiceSpecCharacteristic();
+        if(serviceSpecCharacteristics == null)
+            throw new MalformattedElementException("Cannot infer ns requirements, empty characteristic list for " + owner);
+
+        Map<String, String> values = new HashMap<>();
+        for(ServiceSpecCharacteristic ssc : serviceSpecCharacteristics) {
+            if(!REQUIREMENT_CHARACTERISTICS.contains(ssc.getName()))
+                continue;
+            List<ServiceSpecCharacteristicValue> sscvs = ssc.getServiceSpecCharacteristicValue();
             if(sscvs == null)
-                throw new MalformattedElementException("Cannot infer ns requirements, empty Storage characteristic value list " +
-                        "for service specification " + ssId);
-            List<ServiceSpecCharacteristicValue> minStorageSscv = sscvs.stream()
-                    .filter(sscv -> sscv.getValue().getAlias().equals("min-storage"))
-                    .collect(Collectors.toList());
-            if(minMemorySscv.size() != 1)
-                throw new MalformattedElementException("Cannot infer ns requirements, missing/multiple min-storage requirements " +
-                        "for service specification " + ssId);
-            minStorage += Integer.parseInt(minStorageSscv.get(0).getValue().getValue());
-            List<ServiceSpecCharacteristicValue> maxStorageSscv = sscvs.stream()
-                    .filter(sscv -> sscv.getValue().getAlias().equals("max-storage"))
-                    .collect(Collectors.toList());
-            if(maxMemorySscv.size() != 1)
-                throw new MalformattedElementException("Cannot infer ns requirements, missing/multiple max-storage requirements " +
-                        "for service specification " + ssId);
-            maxStorage += Integer.parseInt(maxStorageSscv.get(0).getValue().getValue());
+                throw new MalformattedElementException("Cannot infer ns requirements, empty " + ssc.getName() +
+                        " characteristic value list for " + owner);
+            for(ServiceSpecCharacteristicValue sscv : sscvs)
+                putRequirement(values, sscv.getValue());
+        }
+
+        return toRequirementSummary(values, owner);
+    }
+
+    // Sums the summaries recorded for the constituents, keyed by specification catalog id, and reads the
+    // specification itself only for the constituents without a complete one.
+    public RequirementSummary summarizeNsRequirements(List<ResourceSpecification> vnfResourceSpecifications,
+                                                       List<ServiceSpecification> nsServiceSpecifications,
+                                                       Map<String, RequirementSummary> constituentRequirements)
+            throws MalformattedElementException {
+
+        RequirementSummary requirements = new RequirementSummary(0, 0, 0.0, 0.0, 0, 0);
+
+        for(ResourceSpecification rs : vnfResourceSpecifications) {
+            RequirementSummary known = constituentRequirements.get(rs.getId());
+            requirements = requirements.plus(known != null && known.isComplete() ? known : requirementsOf(rs));
         }
 
+        for(ServiceSpecification ss : nsServiceSpecifications) {
+            RequirementSummary known = constituentRequirements.get(ss.getId());
+            requirements = requirements.plus(known != null && known.isComplete() ? known : requirementsOf(ss));
+        }
+
+        return requirements;
+    }
+
+    private List<ServiceSpecCharacteristic> computeNsRequirements(RequirementSummary requirements) {
+
         List<ServiceSpecCharacteristic> serviceSpecCharacteristics = new ArrayList<>();
 
         ServiceSpecCharacteristic cpuRequirements =
@@ -826,9 +618,9 @@ public class TranslatorEngine {
                         .description("vCPU lower bound and upper bound.");
         List<ServiceSpecCharacteristicValue> cpuSscv = new ArrayList<>();
         cpuSscv.add(new ServiceSpecCharacteristicValue()
-                .value(new Any().alias("min-vCPU").value(String.valueOf(minCpu))));
+                .value(new Any().alias("min-vCPU").value(String.valueOf(requirements.getMinCpu()))));
         cpuSscv.add(new ServiceSpecCharacteristicValue()
-                .value(new Any().alias("max-vCPU").value(String.valueOf(maxCpu))));
+                .value(new Any().alias("max-vCPU").value(String.valueOf(requirements.getMaxCpu()))));
         cpuRequirements.setServiceSpecCharacteristicValue(cpuSscv);
         serviceSpecCharacteristics.add(cpuRequirements);
 
@@ -838,9 +630,9 @@ public class TranslatorEngine {
                         .description("Virtual Memory lower bound and upper bound.");
         List<ServiceSpecCharacteristicValue> memorySscv = new ArrayList<>();
         memorySscv.add(new ServiceSpecCharacteristicValue()
-                .value(new Any().alias("min-virtual-memory").value(String.valueOf(minMemory))).unitOfMeasure("GB"));
+                .value(new Any().alias("min-virtual-memory").value(String.valueOf(requirements.getMinMemory()))).unitOfMeasure("GB"));
         memorySscv.add(new ServiceSpecCharacteristicValue()
-                .value(new Any().alias("max-virtual-memory").value(String.valueOf(maxMemory))).unitOfMeasure("GB"));
+                .value(new Any().alias("max-virtual-memory").value(String.valueOf(requirements.getMaxMemory()))).unitOfMeasure("GB"));
         memoryRequirements.setServiceSpecCharacteristicValue(memorySscv);
         serviceSpecCharacteristics.add(memoryRequirements);
 
@@ -850,9 +642,9 @@ public class TranslatorEngine {
                         .description("Storage lower bound and upper bound.");
         List<ServiceSpecCharacteristicValue> storageSscv = new ArrayList<>();
         storageSscv.add(new ServiceSpecCharacteristicValue()
-                .value(new Any().alias("min-storage").value(String.valueOf(minStorage))).unitOfMeasure("GB"));
+                .value(new Any().alias("min-storage").value(String.valueOf(requirements.getMinStorage()))).unitOfMeasure("GB"));
         storageSscv.add(new ServiceSpecCharacteristicValue()
-                .value(new Any().alias("max-storage").value(String.valueOf(maxStorage))).unitOfMeasure("GB"));
+                .value(new Any().alias("max-storage").value(String.valueOf(requirements.getMaxStorage()))).unitOfMeasure("GB"));
         storageRequirements.setServiceSpecCharacteristicValue(storageSscv);
         serviceSpecCharacteristics.add(storageRequirements);
 
@@ -865,6 +657,19 @@ public class TranslatorEngine {
                                                                    List<ServiceSpecification> nsServiceSpecifications,
                                                                    String serviceType)
             throws MalformattedElementException, NotExistingEntityException {
+        return buildNsdServiceSpecification(nsd, vnfResourceSpecifications, pnfResourceSpecifications,
+                nsServiceSpecifications, summarizeNsRequirements(vnfResourceSpecifications, nsServiceSpecifications,
+                        Collections.emptyMap()), serviceType);
+    }
+
+    // requirements is the summary summarizeNsRequirements computed for the constituents.
+    public ServiceSpecificationCreate buildNsdServiceSpecification(Nsd nsd,
+                                                                   List<ResourceSpecification> vnfResourceSpecifications,
+                                                                   List<ResourceSpecification> pnfResourceSpecifications,
+                                                                   List<ServiceSpecification> nsServiceSpecifications,
+                                                                   RequirementSummary requirements,
+                                                                   String serviceType)
+            throws NotExistingEntityException {
 
         String nsdId = nsd.getId();
         log.info("Translating nsd " + nsdId + ".");
@@ -908,32 +713,10 @@ public class TranslatorEngine {
 
         ssc.setServiceSpecRelationship(ssrRefs);
 
-        ServiceSpecCharacteristic sscNsdId = new ServiceSpecCharacteristic()
-                .description("ID of the NS Descriptor")
-                .name("nsdId")
-                .serviceSpecCharacteristicValue(Collections.singletonList(new ServiceSpecCharacteristicValue()
-                        .value(new Any().alias("nsdId").value(nsdId))));
-        serviceSpecCharacteristics.add(sscNsdId);
-
-        IdVsbNameMapping idVsbNameMapping = idVsbNameMappingService.getById(nsdId);
-        ServiceSpecCharacteristic rscVsbName = new ServiceSpecCharacteristic()
-                .description("Name of the Vertical Service Blueprint.")
-                .name("vsbName")
-                .serviceSpecCharacteristicValue(Collections.singletonList(new ServiceSpecCharacteristicValue()
-                        .value(new Any().alias("vsbName").value(idVsbNameMapping.getVsbName()))));
-        serviceSpecCharacteristics.add(rscVsbName);
-
-        String snfvoUrl = idVsbNameMapping.getSnfvoUrl();
-        if(snfvoUrl != null && !snfvoUrl.isEmpty()) {
-            ServiceSpecCharacteristic sscSnfvoUrl = new ServiceSpecCharacteristic()
-                    .description("snfvoUrl")
-                    .name("snfvoUrl")
-                    .serviceSpecCharacteristicValue(Collections.singletonList(new ServiceSpecCharacteristicValue()
-                            .value(new Any().alias("snfvoUrl").value(snfvoUrl))));
-            serviceSpecCharacteristics.add(sscSnfvoUrl);
-        }
+        serviceSpecCharacteristics.addAll(mappingRules.serviceCharacteristics(Kind.NS, nsd,
+                idVsbNameMappingService.getById(nsdId)));
 
-        serviceSpecCharacteristics.addAll(computeNsRequirements(vnfResourceSpecifications, nsServiceSpecifications));
+        serviceSpecCharacteristics.addAll(computeNsRequirements(requirements));
 
         if(serviceType != null) {
             serviceSpecCharacteristics.add(new ServiceSpecCharacteristic()
@@ -1014,30 +797,8 @@ public class TranslatorEngine {
 
         List<ResourceSpecCharacteristic> resourceSpecCharacteristics = new ArrayList<>();
 
-        ResourceSpecCharacteristic rscEdgeId = new ResourceSpecCharacteristic()
-                .description("ID of the Edge Resource")
-                .name("Edge ID")
-                .resourceSpecCharacteristicValue(Collections.singletonList(new ResourceSpecCharacteristicValue()
-                        .value(new Any().alias("Edge ID").value(edgeId))));
-        resourceSpecCharacteristics.add(rscEdgeId);
-
-        IdVsbNameMapping idVsbNameMapping = idVsbNameMappingService.getById(edgeId);
-        ResourceSpecCharacteristic rscVsbName = new ResourceSpecCharacteristic()
-                .description("Name of the Vertical Service Blueprint.")
-                .name("vsbName")
-                .resourceSpecCharacteristicValue(Collections.singletonList(new ResourceSpecCharacteristicValue()
-                        .value(new Any().alias("vsbName").value(idVsbNameMapping.getVsbName()))));
-        resourceSpecCharacteristics.add(rscVsbName);
-
-        String snfvoUrl = idVsbNameMapping.getSnfvoUrl();
-        if(snfvoUrl != null && !snfvoUrl.isEmpty()) {
-            ResourceSpecCharacteristic rscSnfvoUrl = new ResourceSpecCharacteristic()
-                    .description("snfvoUrl")
-                    .name("snfvoUrl")
-                    .resourceSpecCharacteristicValue(Collections.singletonList(new ResourceSpecCharacteristicValue()
-                            .value(new Any().alias("snfvoUrl").value(snfvoUrl))));
-            resourceSpecCharacteristics.add(rscSnfvoUrl);
-        }
+        resourceSpecCharacteristics.addAll(mappingRules.resourceCharacteristics(Kind.EDGE, sliceType,
+                idVsbNameMappingService.getById(edgeId)));
 
         TranslatorSliceManagerInteractionService.ComputeChunk computeChunk = sliceBlueprint.getComputeChunks().get(0);
         TranslatorSliceManagerInteractionService.ComputeChunkRequirements computeChunkRequirements =
@@ -1117,30 +878,8 @@ public class TranslatorEngine {
 
         List<ResourceSpecCharacteristic> resourceSpecCharacteristics = new ArrayList<>();
 
-        ResourceSpecCharacteristic rscCloudId = new ResourceSpecCharacteristic()
-                .description("ID of the Cloud Resource")
-                .name("Cloud ID")
-                .resourceSpecCharacteristicValue(Collections.singletonList(new ResourceSpecCharacteristicValue()
-                        .value(new Any().alias("Cloud ID").value(cloudId))));
-        resourceSpecCharacteristics.add(rscCloudId);
-
-        IdVsbNameMapping idVsbNameMapping = idVsbNameMappingService.getById(cloudId);
-        ResourceSpecCharacteristic rscVsbName = new ResourceSpecCharacteristic()
-                .description("Name of the Vertical Service Blueprint.")
-                .name("vsbName")
-                .resourceSpecCharacteristicValue(Collections.singletonList(new ResourceSpecCharacteristicValue()
-                        .value(new Any().alias("vsbName").value(idVsbNameMapping.getVsbName()))));
-        resourceSpecCharacteristics.add(rscVsbName);
-
-        String snfvoUrl = idVsbNameMapping.getSnfvoUrl();
-        if(snfvoUrl != null && !snfvoUrl.isEmpty()) {
-            ResourceSpecCharacteristic rscSnfvoUrl = new ResourceSpecCharacteristic()
-                    .description("snfvoUrl")
-                    .name("snfvoUrl")
-                    .resourceSpecCharacteristicValue(Collections.singletonList(new ResourceSpecCharacteristicValue()
-                            .value(new Any().alias("snfvoUrl").value(snfvoUrl))));
-            resourceSpecCharacteristics.add(rscSnfvoUrl);
-        }
+        resourceSpecCharacteristics.addAll(mappingRules.resourceCharacteristics(Kind.CLOUD, sliceType,
+                idVsbNameMappingService.getById(cloudId)));
 
         TranslatorSliceManagerInteractionService.ComputeChunk computeChunk = sliceBlueprint.getComputeChunks().get(0);
         TranslatorSliceManagerInteractionService.ComputeChunkRequirements computeChunkRequirements =
@@ -1217,30 +956,8 @@ public class TranslatorEngine {
 
         List<ServiceSpecCharacteristic> serviceSpecCharacteristics = new ArrayList<>();
 
-        ServiceSpecCharacteristic sscNsId = new ServiceSpecCharacteristic()
-                .description("ID of the Network Slice")
-                .name("nsId")
-                .serviceSpecCharacteristicValue(Collections.singletonList(new ServiceSpecCharacteristicValue()
-                        .value(new Any().alias("nsId").value(nsId))));
-        serviceSpecCharacteristics.add(sscNsId);
-
-        IdVsbNameMapping idVsbNameMapping = idVsbNameMappingService.getById(nsId);
-        ServiceSpecCharacteristic sscVsbName = new ServiceSpecCharacteristic()
-                .description("Name of the Vertical Service Blueprint.")
-                .name("vsbName")
-                .serviceSpecCharacteristicValue(Collections.singletonList(new ServiceSpecCharacteristicValue()
-                        .value(new Any().alias("vsbName").value(idVsbNameMapping.getVsbName()))));
-        serviceSpecCharacteristics.add(sscVsbName);
-
-        String snfvoUrl = idVsbNameMapping.getSnfvoUrl();
-        if(snfvoUrl != null && !snfvoUrl.isEmpty()) {
-            ServiceSpecCharacteristic sscSnfvoUrl = new ServiceSpecCharacteristic()
-                    .description("snfvoUrl")
-                    .name("snfvoUrl")
-                    .serviceSpecCharacteristicValue(Collections.singletonList(new ServiceSpecCharacteristicValue()
-                            .value(new Any().alias("snfvoUrl").value(snfvoUrl))));
-            serviceSpecCharacteristics.add(sscSnfvoUrl);
-        }
+        serviceSpecCharacteristics.addAll(mappingRules.serviceCharacteristics(Kind.NETWORK_SLICE, sliceType,
+                idVsbNameMappingService.getById(nsId)));
 
         List<TranslatorSliceManagerInteractionService.Attribute> attributes = sliceType.getAttributes();
 
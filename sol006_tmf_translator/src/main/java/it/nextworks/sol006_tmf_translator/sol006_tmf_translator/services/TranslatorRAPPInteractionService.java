@@ -5,6 +5,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import it.nextworks.sol006_tmf_translator.information_models.commons.SpectrumParameters;
 import it.nextworks.sol006_tmf_translator.information_models.commons.enums.Kind;
+import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.commons.exception.DownstreamUnavailableException;
 import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.commons.exception.MissingEntityOnSourceException;
 import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.commons.exception.SourceException;
 import it.nextworks.tmf_offering_catalog.information_models.product.GeographicAddressCreate;
@@ -12,13 +13,14 @@ import it.nextworks.tmf_offering_catalog.information_models.resource.ResourceSpe
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
 import org.apache.http.util.EntityUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
@@ -56,8 +58,22 @@ public class TranslatorRAPPInteractionService {
 
     private final ObjectMapper objectMapper;
 
+    private final CloseableHttpClient httpClient;
+
+    private final ResponseDecoder responseDecoder;
+
+    private final DownstreamGuard guard;
+
     @Autowired
-    public TranslatorRAPPInteractionService(ObjectMapper objectMapper) { this.objectMapper = objectMapper; }
+    public TranslatorRAPPInteractionService(ObjectMapper objectMapper,
+                                            @Qualifier("rappHttpClient") CloseableHttpClient httpClient,
+                                            ResponseDecoder responseDecoder,
+                                            DownstreamGuards downstreamGuards) {
+        this.objectMapper = objectMapper;
+        this.httpClient = httpClient;
+        this.responseDecoder = responseDecoder;
+        this.guard = downstreamGuards.get(DownstreamGuards.RAPP);
+    }
 
     private String getRequestPath(Kind kind, String id) {
         switch(kind) {
@@ -72,11 +88,19 @@ public class TranslatorRAPPInteractionService {
         }
     }
 
+    private CloseableHttpResponse execute(HttpUriRequest request) throws SourceException, IOException {
+        try {
+            return guard.execute(httpClient, request);
+        } catch(DownstreamUnavailableException e) {
+            log.warn(e.getMessage());
+            throw new SourceException(e.getMessage());
+        }
+    }
+
     public RAPPWrapper getFromRAPP(Kind kind, String id)
             throws SourceException, MissingEntityOnSourceException, IOException {
 
         String request = protocol + rappUrl + getRequestPath(kind, id);
-        CloseableHttpClient httpClient = HttpClients.createDefault();
 
         HttpGet httpGet = new HttpGet(request);
         httpGet.setHeader("Accept", "application/json");
@@ -84,30 +108,34 @@ public class TranslatorRAPPInteractionService {
 
         CloseableHttpResponse response;
         try {
-            response = httpClient.execute(httpGet);
+            response = execute(httpGet);
         } catch(IOException e) {
             String msg = "RAPP Unreachable.";
             log.error(msg);
             throw new SourceException(msg);
         }
 
-        int statusCode = response.getStatusLine().getStatusCode();
-        if(statusCode == 404)
-            throw new MissingEntityOnSourceException();
-        else if(statusCode != 200) {
-            String msg = "RAPP GET request failed, status code: " + statusCode + ".";
-            log.error(msg);
-            throw new SourceException(msg);
+        try(CloseableHttpResponse r = response) {
+            int statusCode = r.getStatusLine().getStatusCode();
+            if(statusCode == 404) {
+                EntityUtils.consumeQuietly(r.getEntity());
+                throw new MissingEntityOnSourceException();
+            }
+            else if(statusCode != 200) {
+                EntityUtils.consumeQuietly(r.getEntity());
+                String msg = "RAPP GET request failed, status code: " + statusCode + ".";
+                log.error(msg);
+                throw new SourceException(msg);
+            }
+
+            return responseDecoder.decode(r.getEntity(), RAPPWrapper.class);
         }
-
-        return objectMapper.readValue(EntityUtils.toString(response.getEntity()), RAPPWrapper.class);
     }
 
     public RAPPWrapper postRadioRAPP(String radioId, SpectrumParameters spectrumParameters)
             throws IOException, SourceException {
 
         String request = protocol + rappUrl + "/RadioResources/translateRadioResource/" + radioId;
-        CloseableHttpClient httpClient = HttpClients.createDefault();
         HttpPost httpPost = new HttpPost(request);
 
         StringEntity stringEntity = new StringEntity(objectMapper.writeValueAsString(spectrumParameters));
@@ -118,20 +146,23 @@ public class TranslatorRAPPInteractionService {
 
         CloseableHttpResponse response;
         try {
-            response = httpClient.execute(httpPost);
+            response = execute(httpPost);
         } catch(IOException e) {
             String msg = "RAPP Unreachable.";
             log.error(msg);
             throw new SourceException(msg);
         }
 
-        int statusCode = response.getStatusLine().getStatusCode();
-        if(statusCode != 200) {
-            String msg = "RAPP POST request failed, status code: " + statusCode + ".";
-            log.error(msg);
-            throw new SourceException(msg);
-        }
+        try(CloseableHttpResponse r = response) {
+            int statusCode = r.getStatusLine().getStatusCode();
+            if(statusCode != 200) {
+                EntityUtils.consumeQuietly(r.getEntity());
+                String msg = "RAPP POST request failed, status code: " + statusCode + ".";
+                log.error(msg);
+                throw new SourceException(msg);
+            }
 
-        return objectMapper.readValue(EntityUtils.toString(response.getEntity()), RAPPWrapper.class);
+            return responseDecoder.decode(r.getEntity(), RAPPWrapper.class);
+        }
     }
 }
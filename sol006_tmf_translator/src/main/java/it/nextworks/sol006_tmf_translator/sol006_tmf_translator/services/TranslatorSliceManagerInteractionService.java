@@ -4,17 +4,18 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonSubTypes;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.commons.exception.DownstreamUnavailableException;
 import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.commons.exception.MissingEntityOnSourceException;
 import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.commons.exception.SourceException;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
 import org.apache.http.util.EntityUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
@@ -413,7 +414,11 @@ public class TranslatorSliceManagerInteractionService {
 
     private static final Logger log = LoggerFactory.getLogger(TranslatorSliceManagerInteractionService.class);
 
-    private final ObjectMapper objectMapper;
+    private final CloseableHttpClient httpClient;
+
+    private final ResponseDecoder responseDecoder;
+
+    private final DownstreamGuard guard;
 
     private static final String protocol = "http://";
 
@@ -421,11 +426,25 @@ public class TranslatorSliceManagerInteractionService {
     private String sliceManagerURL;
 
     @Autowired
-    public TranslatorSliceManagerInteractionService(ObjectMapper objectMapper) { this.objectMapper = objectMapper; }
+    public TranslatorSliceManagerInteractionService(@Qualifier("sliceManagerHttpClient") CloseableHttpClient httpClient,
+                                                    ResponseDecoder responseDecoder,
+                                                    DownstreamGuards downstreamGuards) {
+        this.httpClient = httpClient;
+        this.responseDecoder = responseDecoder;
+        this.guard = downstreamGuards.get(DownstreamGuards.SLICE_MANAGER);
+    }
+
+    private CloseableHttpResponse execute(HttpUriRequest request) throws SourceException, IOException {
+        try {
+            return guard.execute(httpClient, request);
+        } catch(DownstreamUnavailableException e) {
+            log.warn(e.getMessage());
+            throw new SourceException(e.getMessage());
+        }
+    }
 
-    private static String getFromSliceManager(String request)
+    private <T> T getFromSliceManager(String request, Class<T> type)
             throws SourceException, MissingEntityOnSourceException, IOException {
-        CloseableHttpClient httpClient = HttpClients.createDefault();
 
         HttpGet httpGet = new HttpGet(request);
         httpGet.setHeader("Accept", "application/json");
@@ -433,34 +452,39 @@ public class TranslatorSliceManagerInteractionService {
 
         CloseableHttpResponse response;
         try {
-            response = httpClient.execute(httpGet);
+            response = execute(httpGet);
         } catch(IOException e) {
             String msg = "Slice Manager Unreachable.";
             log.error(msg);
             throw new SourceException(msg);
         }
 
-        int statusCode = response.getStatusLine().getStatusCode();
-        if(statusCode == 404)
-            throw new MissingEntityOnSourceException();
-        else if(statusCode != 200) {
-            String msg = "Slice Manager GET request failed, status code: " + statusCode + ".";
-            log.error(msg);
-            throw new SourceException(msg);
+        try(CloseableHttpResponse r = response) {
+            int statusCode = r.getStatusLine().getStatusCode();
+            if(statusCode == 404) {
+                EntityUtils.consumeQuietly(r.getEntity());
+                throw new MissingEntityOnSourceException();
+            }
+            else if(statusCode != 200) {
+                EntityUtils.consumeQuietly(r.getEntity());
+                String msg = "Slice Manager GET request failed, status code: " + statusCode + ".";
+                log.error(msg);
+                throw new SourceException(msg);
+            }
+
+            return responseDecoder.decode(r.getEntity(), type);
         }
-
-        return EntityUtils.toString(response.getEntity());
     }
 
     public SliceType getSliceType(String sliceTypeId)
             throws SourceException, MissingEntityOnSourceException, IOException {
         String request = protocol + sliceManagerURL + "/api/v1.0/slic3_type/" + sliceTypeId;
-        return objectMapper.readValue(getFromSliceManager(request), SliceType.class);
+        return getFromSliceManager(request, SliceType.class);
     }
 
     public SliceTypeChunks getSliceBlueprint(String sliceTypeId)
             throws SourceException, IOException, MissingEntityOnSourceException {
         String request = protocol + sliceManagerURL + "/api/v1.0/slic3_type/" + sliceTypeId + "/slice_blueprint";
-        return objectMapper.readValue(getFromSliceManager(request), SliceTypeChunks.class);
+        return getFromSliceManager(request, SliceTypeChunks.class);
     }
 }
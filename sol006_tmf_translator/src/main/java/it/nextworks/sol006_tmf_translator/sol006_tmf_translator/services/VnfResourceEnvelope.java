@@ -0,0 +1,290 @@
+package it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services;
+
+import it.nextworks.nfvmano.libs.descriptors.sol006.*;
+import it.nextworks.sol006_tmf_translator.information_models.persistence.RequirementSummary;
+import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.commons.exception.MalformattedElementException;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Smallest and largest amount of vCPU, memory and storage a VNF can take. The lower bound is the cheapest
+// instantiation level, with its vdu instance counts. The upper bound is the largest instantiation level once
+// every scaling aspect of its deployment flavour is taken to max-scale-level, capped by the flavour's vdu profiles.
+// Per-instance resources of a vdu and the per-step cost of an aspect are computed once, so the cost stays linear
+// in the size of the descriptor.
+public class VnfResourceEnvelope {
+
+    private static class Resources {
+
+        private int cpu;
+
+        private double memory;
+
+        private int storage;
+
+        private void add(Resources other, int times) {
+            cpu += other.cpu * times;
+            memory += other.memory * times;
+            storage += other.storage * times;
+        }
+
+        private void clear() {
+            cpu = 0;
+            memory = 0.0;
+            storage = 0;
+        }
+
+        private void set(Resources other) {
+            cpu = other.cpu;
+            memory = other.memory;
+            storage = other.storage;
+        }
+    }
+
+    private final VnfdIndex vnfdIndex;
+
+    private final Map<String, Resources> perInstance = new HashMap<>();
+
+    private int minCpu = Integer.MAX_VALUE;
+
+    private int maxCpu = Integer.MIN_VALUE;
+
+    private double minMemory = Double.POSITIVE_INFINITY;
+
+    private double maxMemory = Double.NEGATIVE_INFINITY;
+
+    private int minStorage = Integer.MAX_VALUE;
+
+    private int maxStorage = Integer.MIN_VALUE;
+
+    private VnfResourceEnvelope(VnfdIndex vnfdIndex) {
+        this.vnfdIndex = vnfdIndex;
+    }
+
+    public static RequirementSummary of(VnfdIndex vnfdIndex) throws MalformattedElementException {
+        return new VnfResourceEnvelope(vnfdIndex).compute();
+    }
+
+    // Integer leaves are generated as strings, as num-virtual-cpu and size-of-storage are; absent ones take the default.
+    private static int count(String value, int defaultValue, String what) throws MalformattedElementException {
+        if(value == null)
+            return defaultValue;
+        try {
+            return Integer.parseInt(value.trim());
+        } catch(NumberFormatException e) {
+            throw new MalformattedElementException("Cannot infer vnf requirements due to malformed " + what + " " + value);
+        }
+    }
+
+    private Resources perInstance(String vduId) throws MalformattedElementException {
+        if(vduId == null)
+            throw new MalformattedElementException("Cannot infer vnf requirements due to missing id for vdu level");
+
+        Resources resources = perInstance.get(vduId);
+        if(resources != null)
+            return resources;
+
+        resources = new Resources();
+        VnfdVdu vdu = vnfdIndex.vdu(vduId);
+
+        String virtualComputeDescId = vdu.getVirtualComputeDesc();
+        if(virtualComputeDescId != null) {
+            VnfdVirtualcomputedesc virtualcomputedesc = vnfdIndex.virtualComputeDesc(virtualComputeDescId);
+
+            VnfdVirtualcpu vnfdVirtualcpu = virtualcomputedesc.getVirtualCpu();
+            if(vnfdVirtualcpu != null) {
+                String numVirtualCpu = vnfdVirtualcpu.getNumVirtualCpu();
+                if(numVirtualCpu != null)
+                    resources.cpu = Integer.parseInt(numVirtualCpu);
+            }
+
+            VnfdVirtualmemory vnfdVirtualmemory = virtualcomputedesc.getVirtualMemory();
+            if(vnfdVirtualmemory != null) {
+                Double size = vnfdVirtualmemory.getSize();
+                if(size != null)
+                    resources.memory = size;
+            }
+        }
+
+        List<String> virtualStorageDescIds = vdu.getVirtualStorageDesc();
+        if(virtualStorageDescIds != null) {
+            for(String virtualStorageDescId : virtualStorageDescIds) {
+                String size = vnfdIndex.virtualStorageDesc(virtualStorageDescId).getSizeOfStorage();
+                if(size != null)
+                    resources.storage += Integer.parseInt(size);
+            }
+        }
+
+        perInstance.put(vduId, resources);
+        return resources;
+    }
+
+    // Vdus the flavour instantiates, through its instantiation levels and the deltas of its scaling aspects.
+    private static Set<String> referencedVdus(VnfdDf vnfdDf) {
+        Set<String> vduIds = new HashSet<>();
+        if(vnfdDf.getInstantiationLevel() != null)
+            for(VnfdInstantiationlevel vnfdInstantiationlevel : vnfdDf.getInstantiationLevel())
+                if(vnfdInstantiationlevel.getVduLevel() != null)
+                    for(VnfdVdulevel vdulevel : vnfdInstantiationlevel.getVduLevel())
+                        vduIds.add(vdulevel.getVduId());
+
+        if(vnfdDf.getScalingAspect() != null)
+            for(VnfdScalingaspect scalingAspect : vnfdDf.getScalingAspect()) {
+                VnfdAspectdeltadetails aspectDeltaDetails = scalingAspect.getAspectDeltaDetails();
+                if(aspectDeltaDetails == null || aspectDeltaDetails.getDeltas() == null)
+                    continue;
+                for(VnfdDeltas delta : aspectDeltaDetails.getDeltas())
+                    if(delta.getVduDelta() != null)
+                        for(VnfdVdudelta vduDelta : delta.getVduDelta())
+                            vduIds.add(vduDelta.getId());
+            }
+
+        return vduIds;
+    }
+
+    // What the flavour can take at most, null when its vdu profiles do not bound every vdu it instantiates.
+    private Resources ceiling(VnfdDf vnfdDf) throws MalformattedElementException {
+        List<VnfdVduprofile> vduProfiles = vnfdDf.getVduProfile();
+        if(vduProfiles == null || vduProfiles.isEmpty())
+            return null;
+
+        Resources ceiling = new Resources();
+        Set<String> bounded = new HashSet<>();
+        for(VnfdVduprofile vduProfile : vduProfiles) {
+            int maxInstances = count(vduProfile.getMaxNumberOfInstances(), -1, "max-number-of-instances");
+            if(maxInstances < 0)
+                return null;
+            ceiling.add(perInstance(vduProfile.getId()), maxInstances);
+            bounded.add(vduProfile.getId());
+        }
+
+        return bounded.containsAll(referencedVdus(vnfdDf)) ? ceiling : null;
+    }
+
+    // remaining[level] is what taking the aspect from level to max-scale-level adds. Steps without their own
+    // step-deltas entry repeat the last one, or the first delta when the aspect is uniform.
+    private Resources[] remaining(VnfdScalingaspect scalingAspect) throws MalformattedElementException {
+        int maxScaleLevel = count(scalingAspect.getMaxScaleLevel(), 0, "max-scale-level");
+        VnfdAspectdeltadetails aspectDeltaDetails = scalingAspect.getAspectDeltaDetails();
+        List<VnfdDeltas> deltas = aspectDeltaDetails == null ? null : aspectDeltaDetails.getDeltas();
+        if(maxScaleLevel <= 0 || deltas == null || deltas.isEmpty())
+            return null;
+
+        Map<String, Resources> deltaResources = new HashMap<>();
+        for(VnfdDeltas delta : deltas) {
+            Resources resources = new Resources();
+            List<VnfdVdudelta> vduDeltas = delta.getVduDelta();
+            if(vduDeltas != null)
+                for(VnfdVdudelta vduDelta : vduDeltas)
+                    resources.add(perInstance(vduDelta.getId()),
+                            count(vduDelta.getNumberOfInstances(), 1, "number-of-instances"));
+            deltaResources.put(delta.getId(), resources);
+        }
+
+        List<String> stepDeltas = aspectDeltaDetails.getStepDeltas();
+        Resources uniform = deltaResources.get(deltas.get(0).getId());
+
+        Resources[] remaining = new Resources[maxScaleLevel + 1];
+        remaining[maxScaleLevel] = new Resources();
+        for(int step = maxScaleLevel - 1; step >= 0; step--) {
+            Resources stepResources = uniform;
+            if(stepDeltas != null && !stepDeltas.isEmpty()) {
+                String deltaId = stepDeltas.get(Math.min(step, stepDeltas.size() - 1));
+                stepResources = deltaResources.get(deltaId);
+                if(stepResources == null)
+                    throw new MalformattedElementException("Cannot infer vnf requirements due to missing delta " +
+                            deltaId + " for scaling aspect " + scalingAspect.getId());
+            }
+
+            remaining[step] = new Resources();
+            remaining[step].set(remaining[step + 1]);
+            remaining[step].add(stepResources, 1);
+        }
+
+        return remaining;
+    }
+
+    private void accountLevel(Resources base, Resources scaled) {
+        minCpu = Math.min(minCpu, base.cpu);
+        minMemory = Math.min(minMemory, base.memory);
+        minStorage = Math.min(minStorage, base.storage);
+        maxCpu = Math.max(maxCpu, scaled.cpu);
+        maxMemory = Math.max(maxMemory, scaled.memory);
+        maxStorage = Math.max(maxStorage, scaled.storage);
+    }
+
+    private RequirementSummary compute() throws MalformattedElementException {
+        List<VnfdDf> vnfdDfs = vnfdIndex.getVnfd().getDf();
+        if(vnfdDfs == null)
+            throw new MalformattedElementException("Cannot infer vnf requirements due to missing deployment flavor list.");
+
+        boolean anyLevel = false;
+        Resources base = new Resources();
+        Resources scaled = new Resources();
+
+        for(VnfdDf vnfdDf : vnfdDfs) {
+            List<VnfdInstantiationlevel> vnfdInstantiationlevels = vnfdDf.getInstantiationLevel();
+            if(vnfdInstantiationlevels == null)
+                throw new MalformattedElementException("Cannot infer vnf requirements due to empty instantiation level list");
+
+            // Every aspect starts from level 0 unless the instantiation level says otherwise.
+            Map<String, Resources[]> aspects = new HashMap<>();
+            Resources fullScaleOut = new Resources();
+            List<VnfdScalingaspect> scalingAspects = vnfdDf.getScalingAspect();
+            if(scalingAspects != null) {
+                for(VnfdScalingaspect scalingAspect : scalingAspects) {
+                    Resources[] remaining = remaining(scalingAspect);
+                    if(remaining == null)
+                        continue;
+                    aspects.put(scalingAspect.getId(), remaining);
+                    fullScaleOut.add(remaining[0], 1);
+                }
+            }
+
+            Resources ceiling = ceiling(vnfdDf);
+
+            for(VnfdInstantiationlevel vnfdInstantiationlevel : vnfdInstantiationlevels) {
+                List<VnfdVdulevel> vdulevels = vnfdInstantiationlevel.getVduLevel();
+                if(vdulevels == null)
+                    throw new MalformattedElementException("Cannot infer vnf requirements due to empty vdu level list");
+
+                base.clear();
+                for(VnfdVdulevel vdulevel : vdulevels)
+                    base.add(perInstance(vdulevel.getVduId()),
+                            count(vdulevel.getNumberOfInstances(), 1, "number-of-instances"));
+
+                scaled.set(base);
+                scaled.add(fullScaleOut, 1);
+                List<VnfdScalinginfo> scalingInfos = vnfdInstantiationlevel.getScalingInfo();
+                if(scalingInfos != null) {
+                    for(VnfdScalinginfo scalingInfo : scalingInfos) {
+                        Resources[] remaining = aspects.get(scalingInfo.getScalingAspectId());
+                        if(remaining == null)
+                            continue;
+                        int level = Math.min(Math.max(count(scalingInfo.getScaleLevel(), 0, "scale-level"), 0),
+                                remaining.length - 1);
+                        scaled.add(remaining[0], -1);
+                        scaled.add(remaining[level], 1);
+                    }
+                }
+
+                if(ceiling != null) {
+                    scaled.cpu = Math.max(base.cpu, Math.min(scaled.cpu, ceiling.cpu));
+                    scaled.memory = Math.max(base.memory, Math.min(scaled.memory, ceiling.memory));
+                    scaled.storage = Math.max(base.storage, Math.min(scaled.storage, ceiling.storage));
+                }
+
+                accountLevel(base, scaled);
+                anyLevel = true;
+            }
+        }
+
+        if(!anyLevel)
+            throw new MalformattedElementException("Cannot infer vnf requirements due to empty instantiation level list");
+
+        return new RequirementSummary(minCpu, maxCpu, minMemory, maxMemory, minStorage, maxStorage);
+    }
+}
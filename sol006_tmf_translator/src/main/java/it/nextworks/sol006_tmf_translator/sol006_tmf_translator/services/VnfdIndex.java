@@ -0,0 +1,86 @@
+package it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services;
+
+import it.nextworks.nfvmano.libs.descriptors.sol006.Vnfd;
+import it.nextworks.nfvmano.libs.descriptors.sol006.VnfdVdu;
+import it.nextworks.nfvmano.libs.descriptors.sol006.VnfdVirtualcomputedesc;
+import it.nextworks.nfvmano.libs.descriptors.sol006.VnfdVirtualstoragedesc;
+import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.commons.exception.MalformattedElementException;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+// Lookups by id over the vdu, virtual compute desc and virtual storage desc lists of a Vnfd, built in one pass
+// over each list. Duplicated ids are recorded while building and only rejected when looked up, like a scan would.
+public class VnfdIndex {
+
+    private static class Section<T> {
+
+        private final Map<String, T> byId;
+
+        private final Set<String> duplicated = new HashSet<>();
+
+        private Section(List<T> elements, Function<T, String> id) {
+            this.byId = new HashMap<>(elements.size() * 4 / 3 + 1);
+            for(T element : elements) {
+                String elementId = id.apply(element);
+                if(elementId != null && byId.put(elementId, element) != null)
+                    duplicated.add(elementId);
+            }
+        }
+
+        private T get(String id, String message) throws MalformattedElementException {
+            T element = byId.get(id);
+            if(element == null || duplicated.contains(id))
+                throw new MalformattedElementException(message);
+            return element;
+        }
+    }
+
+    private final Vnfd vnfd;
+
+    private final Section<VnfdVdu> vdus;
+
+    private final Section<VnfdVirtualcomputedesc> virtualComputeDescs;
+
+    private final Section<VnfdVirtualstoragedesc> virtualStorageDescs;
+
+    private VnfdIndex(Vnfd vnfd) throws MalformattedElementException {
+        this.vnfd = vnfd;
+
+        List<VnfdVdu> vnfdVdus = vnfd.getVdu();
+        if(vnfdVdus == null)
+            throw new MalformattedElementException("Cannot infer vnf requirements due to missing vdu list.");
+
+        List<VnfdVirtualcomputedesc> vnfdVirtualcomputedescs = vnfd.getVirtualComputeDesc();
+        if(vnfdVirtualcomputedescs == null)
+            throw new MalformattedElementException("Cannot infer vnf requirements due to missing virtual compute desc list.");
+
+        List<VnfdVirtualstoragedesc> vnfdVirtualstoragedescs = vnfd.getVirtualStorageDesc();
+        if(vnfdVirtualstoragedescs == null)
+            throw new MalformattedElementException("Cannot infer vnf requirements due to missing virtual storage desc list.");
+
+        vdus = new Section<>(vnfdVdus, VnfdVdu::getId);
+        virtualComputeDescs = new Section<>(vnfdVirtualcomputedescs, VnfdVirtualcomputedesc::getId);
+        virtualStorageDescs = new Section<>(vnfdVirtualstoragedescs, VnfdVirtualstoragedesc::getId);
+    }
+
+    public static VnfdIndex of(Vnfd vnfd) throws MalformattedElementException { return new VnfdIndex(vnfd); }
+
+    public Vnfd getVnfd() { return vnfd; }
+
+    public VnfdVdu vdu(String id) throws MalformattedElementException {
+        return vdus.get(id, "Cannot infer vnf requirements due to missing/multiple vdu for id " + id);
+    }
+
+    public VnfdVirtualcomputedesc virtualComputeDesc(String id) throws MalformattedElementException {
+        return virtualComputeDescs.get(id, "Cannot infer vnf requirements due to missing/multiple virtual compute desc");
+    }
+
+    public VnfdVirtualstoragedesc virtualStorageDesc(String id) throws MalformattedElementException {
+        return virtualStorageDescs.get(id, "Cannot infer vnf requirements due to missing/multiple virtual storage");
+    }
+}
@@ -0,0 +1,116 @@
+package it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CatalogDiffTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final CatalogDiff catalogDiff = new CatalogDiff(objectMapper);
+
+    // Single quotes keep the fixtures readable.
+    private String json(String json) { return json.replace('\'', '"'); }
+
+    private CatalogDiff.Patch diff(String previous, String next) throws Exception {
+        return catalogDiff.diff(json(previous), objectMapper.readTree(json(next)));
+    }
+
+    private static String characteristic(String name, String value) {
+        return "{'name':'" + name + "','resourceSpecCharacteristicValue':[{'value':{'value':'" + value + "'}}]}";
+    }
+
+    @Test
+    void whatTheCatalogAddsIsNotAChange() throws Exception {
+        CatalogDiff.Patch patch = diff(
+                "{'id':'rs-1','href':'/rs-1','@type':'ResourceSpecification','lifecycleStatus':'Active'," +
+                        "'validFor':{'startDateTime':'2021-01-01T00:00:00Z'},'lastUpdate':'2021-01-01T00:00:00Z'," +
+                        "'name':'vnf','version':'1.0','attachment':[],'resourceSpecCharacteristic':[" +
+                        characteristic("vcpu", "2") + "]}",
+                "{'name':'vnf','version':'1.0','lastUpdate':'2021-02-01T00:00:00Z','resourceSpecCharacteristic':[" +
+                        characteristic("vcpu", "2") + "]}");
+
+        assertTrue(patch.isEmpty(), patch.toString());
+    }
+
+    @Test
+    void changedFieldsArePatchedWithTheLastUpdate() throws Exception {
+        CatalogDiff.Patch patch = diff(
+                "{'id':'rs-1','name':'vnf','version':'1.0'}",
+                "{'name':'vnf','version':'1.1','lastUpdate':'2021-02-01T00:00:00Z'}");
+
+        JsonNode body = patch.getBody();
+        assertEquals(2, body.size());
+        assertEquals("1.1", body.get("version").asText());
+        assertEquals("2021-02-01T00:00:00Z", body.get("lastUpdate").asText());
+        assertFalse(body.has("name"));
+        assertFalse(body.has("id"));
+    }
+
+    @Test
+    void droppedFieldsArePatchedToNull() throws Exception {
+        CatalogDiff.Patch patch = diff(
+                "{'id':'rs-1','lifecycleStatus':'Active','name':'vnf','description':'old vnf','version':'1.0'}",
+                "{'name':'vnf','version':'1.0'}");
+
+        JsonNode body = patch.getBody();
+        assertFalse(patch.isEmpty());
+        assertEquals(1, body.size());
+        assertTrue(body.get("description").isNull());
+        assertTrue(patch.toString().contains("dropped [description]"), patch.toString());
+    }
+
+    @Test
+    void characteristicsAddedRemovedAndChangedReplaceTheList() throws Exception {
+        String next = "{'name':'vnf','resourceSpecCharacteristic':[" + characteristic("vcpu", "4") + "," +
+                characteristic("storage", "10") + "]}";
+        CatalogDiff.Patch patch = diff(
+                "{'name':'vnf','resourceSpecCharacteristic':[" + characteristic("vcpu", "2") + "," +
+                        characteristic("memory", "1024") + "]}", next);
+
+        assertEquals(objectMapper.readTree(json(next)).get("resourceSpecCharacteristic"),
+                patch.getBody().get("resourceSpecCharacteristic"));
+        assertEquals("fields [resourceSpecCharacteristic], dropped [], characteristics added [storage], " +
+                "removed [memory], changed [vcpu]", patch.toString());
+    }
+
+    // A characteristic holding the same values in another order, or with catalog ids, is left alone.
+    @Test
+    void characteristicsAreMatchedByName() throws Exception {
+        CatalogDiff.Patch patch = diff(
+                "{'name':'vnf','resourceSpecCharacteristic':[" +
+                        "{'id':'c-2','name':'memory','resourceSpecCharacteristicValue':[{'value':{'value':'1024'}}]}," +
+                        "{'id':'c-1','name':'vcpu','resourceSpecCharacteristicValue':[{'value':{'value':'2'}}]}]}",
+                "{'name':'vnf','resourceSpecCharacteristic':[" + characteristic("vcpu", "2") + "," +
+                        characteristic("memory", "1024") + "]}");
+
+        assertTrue(patch.isEmpty(), patch.toString());
+    }
+
+    @Test
+    void characteristicDroppingAnAttributeIsChanged() throws Exception {
+        CatalogDiff.Patch patch = diff(
+                "{'name':'vnf','resourceSpecCharacteristic':[{'name':'vcpu','description':'virtual cpus'," +
+                        "'resourceSpecCharacteristicValue':[{'value':{'value':'2'}}]}]}",
+                "{'name':'vnf','resourceSpecCharacteristic':[" + characteristic("vcpu", "2") + "]}");
+
+        assertEquals("fields [resourceSpecCharacteristic], dropped [], characteristics added [], removed [], " +
+                "changed [vcpu]", patch.toString());
+    }
+
+    @Test
+    void droppedCharacteristicListRemovesEveryCharacteristic() throws Exception {
+        CatalogDiff.Patch patch = diff(
+                "{'name':'vnf','resourceSpecCharacteristic':[" + characteristic("vcpu", "2") + "]}",
+                "{'name':'vnf'}");
+
+        assertTrue(patch.getBody().get("resourceSpecCharacteristic").isNull());
+        assertEquals(1, patch.getBody().size());
+        assertTrue(patch.toString().endsWith("removed [vcpu], changed []"), patch.toString());
+    }
+}
@@ -0,0 +1,143 @@
+package it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.nextworks.sol006_tmf_translator.information_models.commons.enums.Kind;
+import it.nextworks.sol006_tmf_translator.information_models.commons.enums.OutboxState;
+import it.nextworks.sol006_tmf_translator.information_models.persistence.CatalogOutboxEntry;
+import it.nextworks.sol006_tmf_translator.information_models.persistence.MappingInfo;
+import it.nextworks.sol006_tmf_translator.information_models.persistence.RequirementSummary;
+import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.repo.CatalogOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CatalogOutboxTest {
+
+    private final CatalogOutboxRepository catalogOutboxRepository = mock(CatalogOutboxRepository.class);
+
+    private final MappingInfoService mappingInfoService = mock(MappingInfoService.class);
+
+    private final CatalogOutbox catalogOutbox =
+            new CatalogOutbox(new ObjectMapper(), catalogOutboxRepository, mappingInfoService);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(catalogOutbox, "enabled", true);
+        ReflectionTestUtils.setField(catalogOutbox, "maxAttempts", 3);
+        ReflectionTestUtils.setField(catalogOutbox, "retryBackoff", 1000L);
+        when(catalogOutboxRepository.save(any(CatalogOutboxEntry.class))).thenAnswer(i -> i.getArgument(0));
+    }
+
+    static CatalogOutboxEntry entry(long id, String descriptorId, String digest) {
+        CatalogOutboxEntry entry = new CatalogOutboxEntry(descriptorId, Kind.VNF, digest, "product",
+                "/resourceCatalogManagement/v2/resourceSpecification", "{\"name\":\"" + descriptorId + "\"}",
+                new RequirementSummary(1, 2, 1.0, 2.0, 10, 20), "/resourceCatalogManagement/v2/resourceCandidate");
+        entry.setId(id);
+        return entry;
+    }
+
+    @Test
+    void pendingTranslationWithTheSameDigestIsNotQueuedTwice() throws Exception {
+        CatalogOutboxEntry pending = entry(1, "vnfd", "digest");
+        when(catalogOutboxRepository.findByDescriptorIdAndStateOrderById("vnfd", OutboxState.PENDING))
+                .thenReturn(Collections.singletonList(pending));
+
+        CatalogOutboxEntry queued = catalogOutbox.enqueue(Kind.VNF, "vnfd", "digest", "product",
+                Collections.singletonMap("name", "vnfd"), null, "/spec", "/candidate");
+
+        assertSame(pending, queued);
+        verify(catalogOutboxRepository, never()).supersede(anyString(), any(), any());
+        verify(catalogOutboxRepository, never()).save(any(CatalogOutboxEntry.class));
+    }
+
+    @Test
+    void newerTranslationSupersedesPendingEntriesBeforeBeingQueued() throws Exception {
+        when(catalogOutboxRepository.findByDescriptorIdAndStateOrderById("vnfd", OutboxState.PENDING))
+                .thenReturn(Collections.singletonList(entry(1, "vnfd", "old")));
+        RequirementSummary requirements = new RequirementSummary(2, 4, 2.0, 4.0, 10, 20);
+
+        CatalogOutboxEntry queued = catalogOutbox.enqueue(Kind.VNF, "vnfd", "new", "product",
+                Collections.singletonMap("name", "vnfd"), requirements, "/spec", "/candidate");
+
+        verify(catalogOutboxRepository).supersede("vnfd", OutboxState.PENDING, OutboxState.SUPERSEDED);
+        assertEquals(OutboxState.PENDING, queued.getState());
+        assertEquals("new", queued.getContentDigest());
+        assertEquals("{\"name\":\"vnfd\"}", queued.getSpecificationPayload());
+        assertSame(requirements, queued.getRequirements());
+        assertNull(queued.getSpecificationCatalogId());
+    }
+
+    // An entry whose specification is already posted has to be published to the end, or that specification
+    // would be left in the Offer Catalog without a candidate nor a mapping info.
+    @Test
+    void onlyEntriesNothingWasPostedForAreSuperseded() throws Exception {
+        String supersede = CatalogOutboxRepository.class.getMethod("supersede", String.class, OutboxState.class,
+                OutboxState.class).getAnnotation(Query.class).value();
+
+        assertTrue(supersede.contains("e.state = :pending"));
+        assertTrue(supersede.contains("e.specificationCatalogId IS NULL"));
+    }
+
+    private static void assertBackoff(CatalogOutboxEntry entry, long before, long backoff) {
+        assertTrue(entry.getNextAttemptAt() >= before + backoff);
+        assertTrue(entry.getNextAttemptAt() <= System.currentTimeMillis() + backoff);
+    }
+
+    @Test
+    void failedPublicationsBackOffExponentiallyUntilMaxAttempts() {
+        CatalogOutboxEntry entry = entry(1, "vnfd", "digest");
+
+        long before = System.currentTimeMillis();
+        catalogOutbox.failed(entry, "catalog down");
+        assertEquals(1, entry.getAttempts());
+        assertEquals(OutboxState.PENDING, entry.getState());
+        assertEquals("catalog down", entry.getLastError());
+        assertBackoff(entry, before, 1000);
+
+        before = System.currentTimeMillis();
+        catalogOutbox.failed(entry, "catalog down");
+        assertEquals(2, entry.getAttempts());
+        assertEquals(OutboxState.PENDING, entry.getState());
+        assertBackoff(entry, before, 2000);
+
+        catalogOutbox.failed(entry, "catalog still down");
+        assertEquals(3, entry.getAttempts());
+        assertEquals(OutboxState.FAILED, entry.getState());
+        assertEquals("catalog still down", entry.getLastError());
+    }
+
+    @Test
+    void publishedEntrySavesItsMappingInfoFirst() {
+        CatalogOutboxEntry entry = entry(1, "vnfd", "digest");
+        entry.setLastError("catalog down");
+        MappingInfo mappingInfo = new MappingInfo("vnfd", "rc", "rs", Kind.VNF);
+
+        catalogOutbox.published(entry, mappingInfo);
+
+        ArgumentCaptor<CatalogOutboxEntry> saved = ArgumentCaptor.forClass(CatalogOutboxEntry.class);
+        InOrder order = inOrder(mappingInfoService, catalogOutboxRepository);
+        order.verify(mappingInfoService).save(mappingInfo);
+        order.verify(catalogOutboxRepository).save(saved.capture());
+        assertEquals(OutboxState.PUBLISHED, saved.getValue().getState());
+        assertNotNull(saved.getValue().getPublishedAt());
+        assertNull(saved.getValue().getLastError());
+    }
+}
@@ -0,0 +1,194 @@
+package it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.nextworks.sol006_tmf_translator.information_models.commons.Pair;
+import it.nextworks.sol006_tmf_translator.information_models.commons.enums.Kind;
+import it.nextworks.sol006_tmf_translator.information_models.commons.enums.OutboxState;
+import it.nextworks.sol006_tmf_translator.information_models.persistence.CatalogOutboxEntry;
+import it.nextworks.sol006_tmf_translator.information_models.persistence.MappingInfo;
+import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.commons.exception.CatalogException;
+import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.repo.CatalogOutboxRepository;
+import it.nextworks.tmf_offering_catalog.information_models.resource.ResourceCandidate;
+import it.nextworks.tmf_offering_catalog.information_models.resource.ResourceCandidateCreate;
+import it.nextworks.tmf_offering_catalog.information_models.resource.ResourceSpecification;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CatalogPublisherTest {
+
+    private static final String SPECIFICATION_PATH = "/resourceCatalogManagement/v2/resourceSpecification";
+
+    private static final String CANDIDATE_PATH = "/resourceCatalogManagement/v2/resourceCandidate";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final CatalogOutboxRepository catalogOutboxRepository = mock(CatalogOutboxRepository.class);
+
+    private final MappingInfoService mappingInfoService = mock(MappingInfoService.class);
+
+    private final TranslatorCatalogInteractionService translatorCatalogInteractionService =
+            mock(TranslatorCatalogInteractionService.class);
+
+    private final CategoryRegistry categoryRegistry = mock(CategoryRegistry.class);
+
+    private final CatalogOutbox catalogOutbox =
+            new CatalogOutbox(objectMapper, catalogOutboxRepository, mappingInfoService);
+
+    private CatalogPublisher catalogPublisher;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ReflectionTestUtils.setField(catalogOutbox, "enabled", true);
+        ReflectionTestUtils.setField(catalogOutbox, "maxAttempts", 2);
+        ReflectionTestUtils.setField(catalogOutbox, "retryBackoff", 1000L);
+        when(catalogOutboxRepository.save(any(CatalogOutboxEntry.class))).thenAnswer(i -> i.getArgument(0));
+
+        TranslatorEngine translatorEngine = mock(TranslatorEngine.class);
+        when(translatorEngine.buildVnfdResourceCandidate(anyString(), any(), any(ResourceSpecification.class)))
+                .thenReturn(new ResourceCandidateCreate());
+        when(categoryRegistry.get(Kind.VNF)).thenReturn(new Pair<>("category", "href"));
+
+        catalogPublisher = new CatalogPublisher(objectMapper, catalogOutbox, translatorCatalogInteractionService,
+                translatorEngine, categoryRegistry, mock(TranslationCoalescer.class));
+    }
+
+    private ResourceSpecification specification(String id) throws Exception {
+        return objectMapper.readValue("{\"id\":\"" + id + "\"}", ResourceSpecification.class);
+    }
+
+    private ResourceCandidate candidate(String id) throws Exception {
+        return objectMapper.readValue("{\"id\":\"" + id + "\"}", ResourceCandidate.class);
+    }
+
+    private MappingInfo published(CatalogOutboxEntry entry) {
+        ArgumentCaptor<MappingInfo> mappingInfo = ArgumentCaptor.forClass(MappingInfo.class);
+        verify(mappingInfoService).save(mappingInfo.capture());
+        assertEquals(OutboxState.PUBLISHED, entry.getState());
+        return mappingInfo.getValue();
+    }
+
+    @Test
+    void publishesTheSpecificationThenTheCandidateThenTheMappingInfo() throws Exception {
+        CatalogOutboxEntry entry = CatalogOutboxTest.entry(1, "vnfd", "digest");
+        when(translatorCatalogInteractionService.post(entry.getSpecificationPayload(), SPECIFICATION_PATH,
+                ResourceSpecification.class)).thenReturn(specification("rs-1"));
+        when(translatorCatalogInteractionService.post(anyString(), eq(CANDIDATE_PATH), eq(ResourceCandidate.class)))
+                .thenReturn(candidate("rc-1"));
+
+        Pair<ResourceCandidate, ResourceSpecification> pair =
+                catalogPublisher.publish(entry, ResourceCandidate.class, ResourceSpecification.class);
+
+        assertEquals("rc-1", pair.getFirst().getId());
+        assertEquals("rs-1", pair.getSecond().getId());
+        assertEquals("rs-1", entry.getSpecificationCatalogId());
+        MappingInfo mappingInfo = published(entry);
+        assertEquals("rc-1", mappingInfo.getCandidateCatalogId());
+        assertEquals("rs-1", mappingInfo.getSpecificationCatalogId());
+        assertEquals("digest", mappingInfo.getContentDigest());
+        assertSame(entry.getRequirements(), mappingInfo.getRequirements());
+    }
+
+    @Test
+    void olderPendingEntriesOfTheDescriptorArePublishedFirst() throws Exception {
+        CatalogOutboxEntry older = CatalogOutboxTest.entry(1, "vnfd", "old");
+        older.setSpecificationPayload("{\"name\":\"old\"}");
+        CatalogOutboxEntry entry = CatalogOutboxTest.entry(2, "vnfd", "new");
+        entry.setSpecificationPayload("{\"name\":\"new\"}");
+        CatalogOutboxEntry newer = CatalogOutboxTest.entry(3, "vnfd", "newer");
+        when(catalogOutboxRepository.findByDescriptorIdAndStateOrderById("vnfd", OutboxState.PENDING))
+                .thenReturn(Arrays.asList(older, entry, newer));
+        when(translatorCatalogInteractionService.post(anyString(), eq(SPECIFICATION_PATH),
+                eq(ResourceSpecification.class))).thenReturn(specification("rs-1"), specification("rs-2"));
+        when(translatorCatalogInteractionService.post(anyString(), eq(CANDIDATE_PATH), eq(ResourceCandidate.class)))
+                .thenReturn(candidate("rc-1"), candidate("rc-2"));
+
+        Pair<ResourceCandidate, ResourceSpecification> pair =
+                catalogPublisher.publish(entry, ResourceCandidate.class, ResourceSpecification.class);
+
+        InOrder order = inOrder(translatorCatalogInteractionService);
+        order.verify(translatorCatalogInteractionService).post("{\"name\":\"old\"}", SPECIFICATION_PATH,
+                ResourceSpecification.class);
+        order.verify(translatorCatalogInteractionService).post("{\"name\":\"new\"}", SPECIFICATION_PATH,
+                ResourceSpecification.class);
+        verify(translatorCatalogInteractionService, never()).post(newer.getSpecificationPayload(), SPECIFICATION_PATH,
+                ResourceSpecification.class);
+        assertEquals(OutboxState.PUBLISHED, older.getState());
+        assertEquals(OutboxState.PUBLISHED, entry.getState());
+        assertEquals(OutboxState.PENDING, newer.getState());
+        assertEquals("rs-2", pair.getSecond().getId());
+    }
+
+    @Test
+    void failedPublicationIsRetriedLaterThenGivenUp() throws Exception {
+        CatalogOutboxEntry entry = CatalogOutboxTest.entry(1, "vnfd", "digest");
+        when(translatorCatalogInteractionService.post(anyString(), eq(SPECIFICATION_PATH),
+                eq(ResourceSpecification.class))).thenThrow(new CatalogException("catalog down"));
+
+        assertThrows(CatalogException.class,
+                () -> catalogPublisher.publish(entry, ResourceCandidate.class, ResourceSpecification.class));
+        assertEquals(OutboxState.PENDING, entry.getState());
+        assertEquals(1, entry.getAttempts());
+        assertEquals("catalog down", entry.getLastError());
+
+        assertThrows(CatalogException.class,
+                () -> catalogPublisher.publish(entry, ResourceCandidate.class, ResourceSpecification.class));
+        assertEquals(OutboxState.FAILED, entry.getState());
+        assertEquals(2, entry.getAttempts());
+        verify(mappingInfoService, never()).save(any(MappingInfo.class));
+    }
+
+    @Test
+    void failedCandidateKeepsThePostedSpecificationAndDropsTheCachedCategory() throws Exception {
+        CatalogOutboxEntry entry = CatalogOutboxTest.entry(1, "vnfd", "digest");
+        when(translatorCatalogInteractionService.post(anyString(), eq(SPECIFICATION_PATH),
+                eq(ResourceSpecification.class))).thenReturn(specification("rs-1"));
+        when(translatorCatalogInteractionService.post(anyString(), eq(CANDIDATE_PATH), eq(ResourceCandidate.class)))
+                .thenThrow(new CatalogException("category not found"));
+
+        assertThrows(CatalogException.class,
+                () -> catalogPublisher.publish(entry, ResourceCandidate.class, ResourceSpecification.class));
+
+        verify(categoryRegistry).invalidate(Kind.VNF);
+        assertEquals("rs-1", entry.getSpecificationCatalogId());
+        assertEquals(objectMapper.writeValueAsString(specification("rs-1")), entry.getSpecificationResponse());
+        assertEquals(OutboxState.PENDING, entry.getState());
+    }
+
+    @Test
+    void retryResumesFromThePostedSpecification() throws Exception {
+        CatalogOutboxEntry entry = CatalogOutboxTest.entry(1, "vnfd", "digest");
+        entry.setSpecificationCatalogId("rs-1");
+        entry.setSpecificationResponse(objectMapper.writeValueAsString(specification("rs-1")));
+        when(catalogOutboxRepository.findByDescriptorIdAndStateOrderById("vnfd", OutboxState.PENDING))
+                .thenReturn(Collections.singletonList(entry));
+        when(translatorCatalogInteractionService.post(anyString(), eq(CANDIDATE_PATH), eq(ResourceCandidate.class)))
+                .thenReturn(candidate("rc-1"));
+
+        Pair<ResourceCandidate, ResourceSpecification> pair =
+                catalogPublisher.publish(entry, ResourceCandidate.class, ResourceSpecification.class);
+
+        verify(translatorCatalogInteractionService, never()).post(anyString(), eq(SPECIFICATION_PATH), any());
+        assertEquals("rs-1", pair.getSecond().getId());
+        MappingInfo mappingInfo = published(entry);
+        assertEquals("rs-1", mappingInfo.getSpecificationCatalogId());
+        assertEquals(entry.getSpecificationResponse(), mappingInfo.getSpecificationSnapshot());
+    }
+}
@@ -0,0 +1,140 @@
+package it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.core.IntervalFunction;
+import it.nextworks.sol006_tmf_translator.information_models.commons.enums.Lane;
+import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.commons.exception.DownstreamUnavailableException;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.message.BasicStatusLine;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DownstreamGuardTest {
+
+    private final CloseableHttpClient httpClient = mock(CloseableHttpClient.class);
+
+    private final CircuitBreaker circuitBreaker = CircuitBreaker.of("catalog", CircuitBreakerConfig.custom()
+            .failureRateThreshold(50)
+            .slidingWindowSize(2)
+            .minimumNumberOfCalls(2)
+            .permittedNumberOfCallsInHalfOpenState(1)
+            .waitDurationInOpenState(Duration.ofMinutes(1))
+            .build());
+
+    private final Bulkhead bulkhead = Bulkhead.of("catalog", BulkheadConfig.custom()
+            .maxConcurrentCalls(1)
+            .maxWaitDuration(Duration.ZERO)
+            .build());
+
+    // More lane slots than bulkhead slots, so that the bulkhead is the one turning calls away.
+    private final PriorityLanes priorityLanes = new PriorityLanes("catalog", 2, 3, 1, 0, 50);
+
+    private final DownstreamGuard guard = new DownstreamGuard("catalog", circuitBreaker, bulkhead,
+            new IdempotentRequestPolicy("catalog", 1, IntervalFunction.of(1L), false, 95, 0, 1, 1, null, null),
+            priorityLanes);
+
+    static CloseableHttpResponse response(int statusCode) {
+        CloseableHttpResponse response = mock(CloseableHttpResponse.class);
+        when(response.getStatusLine()).thenReturn(new BasicStatusLine(HttpVersion.HTTP_1_1, statusCode, null));
+        return response;
+    }
+
+    @SuppressWarnings("unchecked")
+    private int laneInFlight(Lane lane) {
+        return (Integer) ((Map<String, Object>) priorityLanes.status().get(lane.name())).get("inFlight");
+    }
+
+    @Test
+    void successAndServerErrorsAreRecordedByTheBreaker() throws Exception {
+        CloseableHttpResponse ok = response(200);
+        CloseableHttpResponse unavailable = response(503);
+        when(httpClient.execute(any(HttpUriRequest.class))).thenReturn(ok, unavailable);
+
+        assertSame(ok, guard.execute(httpClient, new HttpGet("http://catalog/spec")));
+        assertSame(unavailable, guard.execute(httpClient, new HttpGet("http://catalog/spec")));
+
+        assertEquals(2, circuitBreaker.getMetrics().getNumberOfBufferedCalls());
+        assertEquals(1, circuitBreaker.getMetrics().getNumberOfFailedCalls());
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(1, bulkhead.getMetrics().getAvailableConcurrentCalls());
+        assertEquals(0, laneInFlight(Lane.INTERACTIVE));
+    }
+
+    @Test
+    void openBreakerFailsFastAndGivesBackTheBulkheadSlot() throws Exception {
+        circuitBreaker.transitionToOpenState();
+
+        assertThrows(DownstreamUnavailableException.class,
+                () -> guard.execute(httpClient, new HttpGet("http://catalog/spec")));
+
+        verify(httpClient, never()).execute(any(HttpUriRequest.class));
+        assertEquals(1, bulkhead.getMetrics().getAvailableConcurrentCalls());
+        assertEquals(0, laneInFlight(Lane.INTERACTIVE));
+    }
+
+    // The bulkhead is asked first, so a call it turns away does not use up the single half-open probe.
+    @Test
+    void fullBulkheadFailsFastWithoutTakingABreakerPermission() throws Exception {
+        circuitBreaker.transitionToOpenState();
+        circuitBreaker.transitionToHalfOpenState();
+        assertTrue(bulkhead.tryAcquirePermission());
+
+        assertThrows(DownstreamUnavailableException.class,
+                () -> guard.execute(httpClient, new HttpGet("http://catalog/spec")));
+        verify(httpClient, never()).execute(any(HttpUriRequest.class));
+        assertEquals(0, laneInFlight(Lane.INTERACTIVE));
+
+        bulkhead.onComplete();
+        CloseableHttpResponse ok = response(200);
+        when(httpClient.execute(any(HttpUriRequest.class))).thenReturn(ok);
+        assertSame(ok, guard.execute(httpClient, new HttpGet("http://catalog/spec")));
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void transportErrorsAreFailuresAndFreeTheSlots() throws Exception {
+        when(httpClient.execute(any(HttpUriRequest.class))).thenThrow(new IOException("connection reset"));
+
+        assertThrows(IOException.class, () -> guard.execute(httpClient, new HttpGet("http://catalog/spec")));
+
+        assertEquals(1, circuitBreaker.getMetrics().getNumberOfFailedCalls());
+        assertEquals(1, bulkhead.getMetrics().getAvailableConcurrentCalls());
+        assertEquals(0, laneInFlight(Lane.INTERACTIVE));
+    }
+
+    @Test
+    void callsAreAdmittedInTheLaneOfTheCallingThread() throws Exception {
+        Lane previous = PriorityLanes.enter(Lane.BULK);
+        try {
+            DownstreamGuard.Permit permit = guard.acquirePermission();
+            assertEquals(Lane.BULK, permit.getLane());
+            assertEquals(1, laneInFlight(Lane.BULK));
+            guard.release(permit);
+        } finally {
+            PriorityLanes.restore(previous);
+        }
+
+        assertEquals(0, laneInFlight(Lane.BULK));
+        assertEquals(0, circuitBreaker.getMetrics().getNumberOfBufferedCalls());
+    }
+}
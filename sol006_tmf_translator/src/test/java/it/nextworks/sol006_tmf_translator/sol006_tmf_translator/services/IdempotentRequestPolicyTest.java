@@ -0,0 +1,221 @@
+package it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.core.IntervalFunction;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services.DownstreamGuardTest.response;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IdempotentRequestPolicyTest {
+
+    private final CloseableHttpClient httpClient = mock(CloseableHttpClient.class);
+
+    private final ExecutorService hedgeExecutor = Executors.newCachedThreadPool();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    // Backoff waits asked for, by attempt number.
+    private final List<Integer> backoffs = new CopyOnWriteArrayList<>();
+
+    private Bulkhead bulkhead;
+
+    @AfterEach
+    void tearDown() {
+        hedgeExecutor.shutdownNow();
+        scheduler.shutdownNow();
+    }
+
+    // Up to maxAttempts attempts, hedged after 20 ms once a latency sample is recorded when hedge is set.
+    private DownstreamGuard guard(int maxAttempts, boolean hedge) {
+        IntervalFunction backoff = attempt -> {
+            backoffs.add(attempt);
+            return 1L;
+        };
+        bulkhead = Bulkhead.of("catalog", BulkheadConfig.custom()
+                .maxConcurrentCalls(4)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        return new DownstreamGuard("catalog", CircuitBreaker.ofDefaults("catalog"), bulkhead,
+                new IdempotentRequestPolicy("catalog", maxAttempts, backoff, hedge, 50, 20, 1, 1,
+                        hedgeExecutor, scheduler),
+                new PriorityLanes("catalog", 4, 3, 1, 1, 1000));
+    }
+
+    private long status(DownstreamGuard guard, String counter) {
+        return (Long) guard.getRequestPolicy().status().get(counter);
+    }
+
+    // For counters updated by the attempt after it hands its response to the caller.
+    private void awaitStatus(DownstreamGuard guard, String counter, long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while(status(guard, counter) != expected && System.nanoTime() < deadline)
+            Thread.sleep(1);
+        assertEquals(expected, status(guard, counter));
+    }
+
+    @Test
+    void getIsRetriedOnServerErrorsWithBackoff() throws Exception {
+        DownstreamGuard guard = guard(3, false);
+        CloseableHttpResponse first = response(503);
+        CloseableHttpResponse second = response(502);
+        CloseableHttpResponse ok = response(200);
+        when(httpClient.execute(any(HttpUriRequest.class))).thenReturn(first, second, ok);
+
+        assertSame(ok, guard.execute(httpClient, new HttpGet("http://catalog/spec")));
+
+        verify(httpClient, times(3)).execute(any(HttpUriRequest.class));
+        verify(first).close();
+        verify(second).close();
+        assertEquals(Arrays.asList(1, 2), backoffs);
+        assertEquals(2, status(guard, "retries"));
+        assertEquals(4, bulkhead.getMetrics().getAvailableConcurrentCalls());
+    }
+
+    @Test
+    void lastServerErrorIsHandedBackAfterMaxAttempts() throws Exception {
+        DownstreamGuard guard = guard(3, false);
+        CloseableHttpResponse first = response(503);
+        CloseableHttpResponse second = response(503);
+        CloseableHttpResponse last = response(503);
+        when(httpClient.execute(any(HttpUriRequest.class))).thenReturn(first, second, last);
+
+        assertSame(last, guard.execute(httpClient, new HttpGet("http://catalog/spec")));
+
+        verify(httpClient, times(3)).execute(any(HttpUriRequest.class));
+    }
+
+    @Test
+    void transportErrorsAreRetriedUntilMaxAttempts() throws Exception {
+        DownstreamGuard guard = guard(2, false);
+        when(httpClient.execute(any(HttpUriRequest.class)))
+                .thenThrow(new IOException("connection reset"), new IOException("read timed out"));
+
+        IOException e = assertThrows(IOException.class,
+                () -> guard.execute(httpClient, new HttpGet("http://catalog/spec")));
+
+        assertEquals("read timed out", e.getMessage());
+        verify(httpClient, times(2)).execute(any(HttpUriRequest.class));
+        assertEquals(4, bulkhead.getMetrics().getAvailableConcurrentCalls());
+    }
+
+    @Test
+    void postIsSentExactlyOnce() throws Exception {
+        DownstreamGuard guard = guard(3, false);
+        CloseableHttpResponse unavailable = response(503);
+        when(httpClient.execute(any(HttpUriRequest.class))).thenReturn(unavailable)
+                .thenThrow(new IOException("connection reset"));
+
+        assertSame(unavailable, guard.execute(httpClient, new HttpPost("http://catalog/spec")));
+        assertThrows(IOException.class, () -> guard.execute(httpClient, new HttpPost("http://catalog/spec")));
+
+        verify(httpClient, times(2)).execute(any(HttpUriRequest.class));
+        assertTrue(backoffs.isEmpty());
+    }
+
+    @Test
+    void postWithAnIdempotencyKeyIsRetried() throws Exception {
+        DownstreamGuard guard = guard(3, false);
+        CloseableHttpResponse unavailable = response(503);
+        CloseableHttpResponse ok = response(201);
+        when(httpClient.execute(any(HttpUriRequest.class))).thenReturn(unavailable, ok);
+        HttpPost post = new HttpPost("http://catalog/spec");
+        post.setHeader(IdempotentRequestPolicy.IDEMPOTENCY_KEY_HEADER, "digest");
+
+        assertTrue(IdempotentRequestPolicy.isIdempotent(post));
+        assertFalse(IdempotentRequestPolicy.isIdempotent(new HttpPost("http://catalog/spec")));
+        assertSame(ok, guard.execute(httpClient, post));
+        verify(httpClient, times(2)).execute(any(HttpUriRequest.class));
+    }
+
+    @Test
+    void slowGetIsHedgedAndTheFirstAnswerWins() throws Exception {
+        DownstreamGuard guard = guard(1, true);
+        CloseableHttpResponse slow = response(200);
+        CloseableHttpResponse fast = response(200);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        when(httpClient.execute(any(HttpUriRequest.class))).thenAnswer(invocation -> {
+            int call = calls.incrementAndGet();
+            if(call == 2) {
+                release.await(5, TimeUnit.SECONDS);
+                return slow;
+            }
+            return fast;
+        });
+
+        // The first call only records the latency the hedge delay is based on.
+        guard.execute(httpClient, new HttpGet("http://catalog/spec"));
+        assertSame(fast, guard.execute(httpClient, new HttpGet("http://catalog/spec")));
+        release.countDown();
+
+        assertEquals(3, calls.get());
+        assertEquals(1, status(guard, "hedges"));
+        awaitStatus(guard, "hedgeWins", 1);
+        verify(slow, timeout(1000)).close();
+    }
+
+    @Test
+    void postIsNeverHedged() throws Exception {
+        DownstreamGuard guard = guard(1, true);
+        AtomicInteger calls = new AtomicInteger();
+        when(httpClient.execute(any(HttpUriRequest.class))).thenAnswer(invocation -> {
+            if(calls.incrementAndGet() == 2)
+                Thread.sleep(100);
+            return response(201);
+        });
+
+        guard.execute(httpClient, new HttpGet("http://catalog/spec"));
+        guard.execute(httpClient, new HttpPost("http://catalog/spec"));
+
+        assertEquals(2, calls.get());
+        assertEquals(0, status(guard, "hedges"));
+    }
+
+    @Test
+    void asyncAttemptsAreRetriedFromTheScheduler() throws Exception {
+        DownstreamGuard guard = guard(3, false);
+        CloseableHttpResponse unavailable = response(503);
+        CloseableHttpResponse ok = response(200);
+        AtomicInteger attempts = new AtomicInteger();
+
+        CompletableFuture<CloseableHttpResponse> result = guard.executeAsync(() ->
+                CompletableFuture.completedFuture(attempts.incrementAndGet() == 1 ? unavailable : ok));
+
+        assertSame(ok, result.get(5, TimeUnit.SECONDS));
+        assertEquals(2, attempts.get());
+        verify(unavailable).close();
+        assertEquals(Arrays.asList(1), backoffs);
+    }
+}
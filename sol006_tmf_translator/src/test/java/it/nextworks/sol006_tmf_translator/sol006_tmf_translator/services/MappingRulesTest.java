@@ -0,0 +1,58 @@
+package it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services;
+
+import it.nextworks.sol006_tmf_translator.information_models.commons.enums.Kind;
+import it.nextworks.sol006_tmf_translator.information_models.persistence.IdVsbNameMapping;
+import it.nextworks.tmf_offering_catalog.information_models.resource.ResourceSpecCharacteristic;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MappingRulesTest {
+
+    private static MappingRules load(String path) throws IOException {
+        MappingRules mappingRules = new MappingRules();
+        ReflectionTestUtils.setField(mappingRules, "rulesResource", new ClassPathResource(path));
+        mappingRules.init();
+        return mappingRules;
+    }
+
+    private static String value(ResourceSpecCharacteristic characteristic) {
+        return characteristic.getResourceSpecCharacteristicValue().get(0).getValue().getValue();
+    }
+
+    @Test
+    void copiesMappingIntoSpectrumAndRadioCharacteristics() throws Exception {
+        MappingRules mappingRules = load("mapping-rules.yml");
+        TranslatorRAPPInteractionService.RAPPWrapper rappWrapper =
+                new TranslatorRAPPInteractionService.RAPPWrapper(null, null);
+
+        for(Kind kind : new Kind[]{ Kind.SPC, Kind.RAD }) {
+            List<ResourceSpecCharacteristic> characteristics = mappingRules.resourceCharacteristics(kind, rappWrapper,
+                    new IdVsbNameMapping().id("spc-1").vsbName("vsb").snfvoUrl("http://snfvo"));
+            assertEquals(2, characteristics.size());
+            assertEquals("vsbName", characteristics.get(0).getName());
+            assertEquals("vsb", value(characteristics.get(0)));
+            assertEquals("snfvoUrl", characteristics.get(1).getName());
+            assertEquals("http://snfvo", value(characteristics.get(1)));
+
+            characteristics = mappingRules.resourceCharacteristics(kind, rappWrapper,
+                    new IdVsbNameMapping().id("spc-1").vsbName("vsb").snfvoUrl(""));
+            assertEquals(1, characteristics.size());
+            assertEquals("vsbName", characteristics.get(0).getName());
+        }
+    }
+
+    @Test
+    void rejectsMappingRuleForKindWithoutMapping() {
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> load("mapping-rules/pnf_from_mapping.yml"));
+        assertEquals("PNF mapping rule vsbName has source mapping.vsbName, but PNF translations have no " +
+                "IdVsbNameMapping.", e.getMessage());
+    }
+}
@@ -0,0 +1,127 @@
+package it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services;
+
+import it.nextworks.sol006_tmf_translator.information_models.commons.enums.Lane;
+import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.commons.exception.DownstreamUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PriorityLanesTest {
+
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() { callers.shutdownNow(); }
+
+    @SuppressWarnings("unchecked")
+    private static long laneStatus(PriorityLanes priorityLanes, Lane lane, String key) {
+        return ((Number) ((Map<String, Object>) priorityLanes.status().get(lane.name())).get(key)).longValue();
+    }
+
+    private static void awaitQueued(PriorityLanes priorityLanes, Lane lane, int queued) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while(laneStatus(priorityLanes, lane, "queueDepth") < queued) {
+            assertTrue(System.nanoTime() < deadline, "callers never queued");
+            Thread.sleep(1);
+        }
+    }
+
+    // With a single slot held, the queued callers are let in one at a time, in the order they were admitted.
+    @Test
+    void waitingLanesAreAdmittedByWeight() throws Exception {
+        PriorityLanes priorityLanes = new PriorityLanes("catalog", 1, 3, 1, 0, 5000);
+        assertTrue(priorityLanes.tryAcquire(Lane.BULK));
+
+        List<Lane> admissions = Collections.synchronizedList(new ArrayList<>());
+        List<Future<?>> waiters = new ArrayList<>();
+        for(Lane lane : new Lane[] { Lane.INTERACTIVE, Lane.BULK })
+            for(int i = 0; i < 8; i++)
+                waiters.add(callers.submit(() -> {
+                    priorityLanes.acquire(lane);
+                    admissions.add(lane);
+                    priorityLanes.release(lane);
+                    return null;
+                }));
+        awaitQueued(priorityLanes, Lane.INTERACTIVE, 8);
+        awaitQueued(priorityLanes, Lane.BULK, 8);
+
+        priorityLanes.release(Lane.BULK);
+        for(Future<?> waiter : waiters)
+            waiter.get(5, TimeUnit.SECONDS);
+
+        List<Lane> first = admissions.subList(0, 8);
+        assertEquals(6, Collections.frequency(first, Lane.INTERACTIVE));
+        assertEquals(2, Collections.frequency(first, Lane.BULK));
+        assertEquals(16, admissions.size());
+    }
+
+    @Test
+    void bulkCallersCannotTakeTheInteractiveReserve() throws Exception {
+        PriorityLanes priorityLanes = new PriorityLanes("catalog", 3, 3, 1, 1, 50);
+        assertEquals(2, priorityLanes.limit(Lane.BULK));
+        assertEquals(3, priorityLanes.limit(Lane.INTERACTIVE));
+
+        assertTrue(priorityLanes.tryAcquire(Lane.BULK));
+        assertTrue(priorityLanes.tryAcquire(Lane.BULK));
+        assertFalse(priorityLanes.tryAcquire(Lane.BULK));
+        assertThrows(DownstreamUnavailableException.class, () -> priorityLanes.acquire(Lane.BULK));
+        assertEquals(1, laneStatus(priorityLanes, Lane.BULK, "rejected"));
+
+        priorityLanes.acquire(Lane.INTERACTIVE);
+        assertEquals(1, laneStatus(priorityLanes, Lane.INTERACTIVE, "inFlight"));
+        assertFalse(priorityLanes.tryAcquire(Lane.INTERACTIVE));
+    }
+
+    @Test
+    void interactiveCallersAreNotQueuedBehindABulkBacklog() throws Exception {
+        PriorityLanes priorityLanes = new PriorityLanes("catalog", 2, 3, 1, 1, 5000);
+        assertTrue(priorityLanes.tryAcquire(Lane.BULK));
+
+        List<Future<?>> backlog = new ArrayList<>();
+        for(int i = 0; i < 4; i++)
+            backlog.add(callers.submit(() -> {
+                priorityLanes.acquire(Lane.BULK);
+                return null;
+            }));
+        awaitQueued(priorityLanes, Lane.BULK, 4);
+
+        // The reserved slot is still free for interactive callers, even with bulk ones waiting.
+        assertTrue(priorityLanes.tryAcquire(Lane.INTERACTIVE));
+        priorityLanes.release(Lane.INTERACTIVE);
+
+        // A freed bulk slot goes to the next bulk caller, one at a time.
+        priorityLanes.release(Lane.BULK);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while(backlog.stream().noneMatch(Future::isDone))
+            assertTrue(System.nanoTime() < deadline, "no bulk caller admitted");
+        assertEquals(1, laneStatus(priorityLanes, Lane.BULK, "inFlight"));
+        assertEquals(3, laneStatus(priorityLanes, Lane.BULK, "queueDepth"));
+    }
+
+    @Test
+    void laneOfTheCurrentThreadIsRestored() {
+        assertEquals(Lane.INTERACTIVE, PriorityLanes.current());
+
+        Lane previous = PriorityLanes.enter(Lane.BULK);
+        assertEquals(Lane.BULK, PriorityLanes.current());
+        Lane nested = PriorityLanes.enter(Lane.INTERACTIVE);
+        PriorityLanes.restore(nested);
+        assertEquals(Lane.BULK, PriorityLanes.current());
+        PriorityLanes.restore(previous);
+
+        assertEquals(Lane.INTERACTIVE, PriorityLanes.current());
+    }
+}
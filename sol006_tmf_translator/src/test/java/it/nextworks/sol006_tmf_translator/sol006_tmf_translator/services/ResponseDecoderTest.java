@@ -0,0 +1,101 @@
+package it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import it.nextworks.sol006_tmf_translator.information_models.persistence.RequirementSummary;
+import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.commons.exception.MissingEntityOnCatalogException;
+import it.nextworks.tmf_offering_catalog.information_models.resource.ResourceCandidate;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.message.BasicStatusLine;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ResponseDecoderTest {
+
+    private final ResponseDecoder responseDecoder = spy(new ResponseDecoder(new ObjectMapper()));
+
+    private static StringEntity json(String body) {
+        return new StringEntity(body, ContentType.APPLICATION_JSON);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Class<?>, ObjectReader> readers() {
+        return (Map<Class<?>, ObjectReader>) ReflectionTestUtils.getField(responseDecoder, "readers");
+    }
+
+    // Offer Catalog client whose single GET answers with the given status and body.
+    private TranslatorCatalogInteractionService catalog(int statusCode, String body) throws Exception {
+        CloseableHttpResponse response = mock(CloseableHttpResponse.class);
+        when(response.getStatusLine()).thenReturn(new BasicStatusLine(HttpVersion.HTTP_1_1, statusCode, null));
+        when(response.getEntity()).thenReturn(json(body));
+
+        DownstreamGuard guard = mock(DownstreamGuard.class);
+        when(guard.execute(any(CloseableHttpClient.class), any(HttpUriRequest.class))).thenReturn(response);
+        DownstreamGuards downstreamGuards = mock(DownstreamGuards.class);
+        when(downstreamGuards.get(DownstreamGuards.OFFER_CATALOG)).thenReturn(guard);
+
+        TranslatorCatalogInteractionService translatorCatalogInteractionService =
+                new TranslatorCatalogInteractionService(new ObjectMapper(), mock(CloseableHttpClient.class), null,
+                        responseDecoder, null, downstreamGuards);
+        ReflectionTestUtils.setField(translatorCatalogInteractionService, "catalogHostname", "catalog");
+        ReflectionTestUtils.setField(translatorCatalogInteractionService, "catalogPort", "8080");
+        ReflectionTestUtils.setField(translatorCatalogInteractionService, "contextPath", "/tmf-api");
+        return translatorCatalogInteractionService;
+    }
+
+    @Test
+    void reusesOneReaderPerType() throws Exception {
+        RequirementSummary summary = responseDecoder.decode(json("{\"minCpu\": 2, \"maxCpu\": 4}"), RequirementSummary.class);
+        assertEquals(2, summary.getMinCpu());
+        assertEquals(4, summary.getMaxCpu());
+        ObjectReader reader = readers().get(RequirementSummary.class);
+
+        responseDecoder.decode(json("{\"minCpu\": 1}"), RequirementSummary.class);
+        responseDecoder.decode(json("[]"), RequirementSummary[].class);
+        assertEquals(2, readers().size());
+        assertSame(reader, readers().get(RequirementSummary.class));
+    }
+
+    @Test
+    void decodesCatalogArrays() throws Exception {
+        ResourceCandidate[] candidates = catalog(200, "[{\"id\": \"rc-1\"}, {\"id\": \"rc-2\"}]")
+                .getFromCatalog("/resourceCatalogManagement/v2/resourceCandidate/", "rc", ResourceCandidate[].class);
+
+        assertEquals(2, candidates.length);
+        assertEquals("rc-1", candidates[0].getId());
+        assertEquals("rc-2", candidates[1].getId());
+    }
+
+    @Test
+    void reportsCatalogNotFoundWithoutDecoding() throws Exception {
+        TranslatorCatalogInteractionService translatorCatalogInteractionService = catalog(404, "{\"code\": 404}");
+
+        assertThrows(MissingEntityOnCatalogException.class, () -> translatorCatalogInteractionService
+                .getFromCatalog("/resourceCatalogManagement/v2/resourceCandidate/", "rc-1", ResourceCandidate.class));
+        verify(responseDecoder, never()).decode(any(), any());
+    }
+
+    @Test
+    void rejectsMissingBody() {
+        IOException e = assertThrows(IOException.class, () -> responseDecoder.decode(null, ResourceCandidate.class));
+        assertEquals("Empty response body, cannot decode ResourceCandidate.", e.getMessage());
+    }
+}
@@ -0,0 +1,224 @@
+package it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services;
+
+import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.commons.exception.CatalogException;
+import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.repo.DescriptorLockRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TranslationCoalescerTest {
+
+    private final DescriptorLockRepository descriptorLockRepository = mock(DescriptorLockRepository.class);
+
+    private final TranslationCoalescer translationCoalescer = new TranslationCoalescer(descriptorLockRepository);
+
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(translationCoalescer, "distributed", false);
+        ReflectionTestUtils.setField(translationCoalescer, "lease", 30L);
+        ReflectionTestUtils.setField(translationCoalescer, "pollInterval", 5L);
+        ReflectionTestUtils.setField(translationCoalescer, "timeout", 5000L);
+        translationCoalescer.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        translationCoalescer.shutdown();
+    }
+
+    private String owner() { return (String) ReflectionTestUtils.getField(translationCoalescer, "owner"); }
+
+    // Waits until the given threads are all blocked in the timed wait for the leader's outcome.
+    private static void awaitBlocked(List<Thread> threads) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        for(Thread thread : threads)
+            while(thread.getState() != Thread.State.TIMED_WAITING) {
+                assertTrue(System.nanoTime() < deadline, "caller never started waiting");
+                Thread.sleep(1);
+            }
+    }
+
+    @Test
+    void concurrentCallersShareOneExecution() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Object outcome = new Object();
+
+        Future<Object> leader = callers.submit(() -> translationCoalescer.run("vnfd", () -> {
+            executions.incrementAndGet();
+            started.countDown();
+            release.await();
+            return outcome;
+        }));
+        started.await();
+
+        List<Thread> threads = new ArrayList<>();
+        List<Future<Object>> followers = new ArrayList<>();
+        for(int i = 0; i < 4; i++)
+            followers.add(callers.submit(() -> {
+                synchronized(threads) {
+                    threads.add(Thread.currentThread());
+                    threads.notifyAll();
+                }
+                return translationCoalescer.run("vnfd", () -> {
+                    executions.incrementAndGet();
+                    return new Object();
+                });
+            }));
+        synchronized(threads) {
+            while(threads.size() < 4)
+                threads.wait();
+        }
+        awaitBlocked(threads);
+        release.countDown();
+
+        assertSame(outcome, leader.get(5, TimeUnit.SECONDS));
+        for(Future<Object> follower : followers)
+            assertSame(outcome, follower.get(5, TimeUnit.SECONDS));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void followersShareTheFailureOfTheLeader() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("catalog down");
+
+        Future<Object> leader = callers.submit(() -> translationCoalescer.run("nsd", () -> {
+            started.countDown();
+            release.await();
+            throw failure;
+        }));
+        started.await();
+
+        Thread[] follower = new Thread[1];
+        CountDownLatch followerStarted = new CountDownLatch(1);
+        Future<Object> following = callers.submit(() -> {
+            follower[0] = Thread.currentThread();
+            followerStarted.countDown();
+            return translationCoalescer.run("nsd", Object::new);
+        });
+        followerStarted.await();
+        awaitBlocked(Collections.singletonList(follower[0]));
+        release.countDown();
+
+        ExecutionException leaderFailure =
+                assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+        assertSame(failure, leaderFailure.getCause().getCause());
+        ExecutionException followerFailure =
+                assertThrows(ExecutionException.class, () -> following.get(5, TimeUnit.SECONDS));
+        assertSame(failure, followerFailure.getCause().getCause());
+    }
+
+    @Test
+    void reentrantCallOnTheLeaderThreadFailsInsteadOfWaitingOnItself() throws Exception {
+        ExecutionException[] reentry = new ExecutionException[1];
+
+        String nested = translationCoalescer.run("nsd", () -> {
+            reentry[0] = assertThrows(ExecutionException.class,
+                    () -> translationCoalescer.run("nsd", () -> "never"));
+            return translationCoalescer.run("vnfd", () -> "constituent");
+        });
+
+        assertEquals("constituent", nested);
+        assertTrue(reentry[0].getCause() instanceof CatalogException);
+        assertEquals("again", translationCoalescer.run("nsd", () -> "again"));
+    }
+
+    @Test
+    void waiterGivesUpAfterTheTimeout() throws Exception {
+        ReflectionTestUtils.setField(translationCoalescer, "timeout", 50L);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<String> leader = callers.submit(() -> translationCoalescer.run("vnfd", () -> {
+            started.countDown();
+            release.await();
+            return "leader";
+        }));
+        started.await();
+
+        ExecutionException timedOut = assertThrows(ExecutionException.class,
+                () -> translationCoalescer.run("vnfd", () -> "follower"));
+        assertTrue(timedOut.getCause() instanceof CatalogException);
+
+        release.countDown();
+        assertEquals("leader", leader.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void leaseIsAcquiredRenewedAndReleased() throws Exception {
+        ReflectionTestUtils.setField(translationCoalescer, "distributed", true);
+        when(descriptorLockRepository.tryAcquire(eq("vnfd"), anyString(), anyLong())).thenReturn(0, 1);
+        when(descriptorLockRepository.renew(eq("vnfd"), anyString(), anyLong())).thenReturn(1);
+
+        String result = translationCoalescer.run("vnfd", () -> {
+            Thread.sleep(100);
+            return "translated";
+        });
+
+        assertEquals("translated", result);
+        verify(descriptorLockRepository, times(2)).tryAcquire("vnfd", owner(), 30L);
+        verify(descriptorLockRepository, atLeastOnce()).renew("vnfd", owner(), 30L);
+        verify(descriptorLockRepository).release("vnfd", owner());
+    }
+
+    @Test
+    void leaseIsReleasedWhenTheCallFails() {
+        ReflectionTestUtils.setField(translationCoalescer, "distributed", true);
+        when(descriptorLockRepository.tryAcquire(eq("vnfd"), anyString(), anyLong())).thenReturn(1);
+        IllegalStateException failure = new IllegalStateException("catalog down");
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> translationCoalescer.run("vnfd", () -> {
+            throw failure;
+        }));
+
+        assertSame(failure, e.getCause());
+        verify(descriptorLockRepository).release("vnfd", owner());
+    }
+
+    @Test
+    void leaseHeldByAnotherReplicaTimesOutWithoutReleasingIt() {
+        ReflectionTestUtils.setField(translationCoalescer, "distributed", true);
+        ReflectionTestUtils.setField(translationCoalescer, "timeout", 50L);
+        when(descriptorLockRepository.tryAcquire(eq("vnfd"), anyString(), anyLong())).thenReturn(0);
+        AtomicInteger executions = new AtomicInteger();
+
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> translationCoalescer.run("vnfd", executions::incrementAndGet));
+
+        assertTrue(e.getCause() instanceof CatalogException);
+        assertEquals(0, executions.get());
+        verify(descriptorLockRepository, never()).release(anyString(), anyString());
+    }
+}
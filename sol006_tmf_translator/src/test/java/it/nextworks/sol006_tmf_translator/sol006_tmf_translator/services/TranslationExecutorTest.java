@@ -0,0 +1,117 @@
+package it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services;
+
+import it.nextworks.sol006_tmf_translator.information_models.commons.enums.Lane;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TranslationExecutorTest {
+
+    private final TranslationExecutor translationExecutor = new TranslationExecutor();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(translationExecutor, "threads", 2);
+        ReflectionTestUtils.setField(translationExecutor, "queueCapacity", 16);
+        ReflectionTestUtils.setField(translationExecutor, "bulkThreads", 1);
+        translationExecutor.init();
+    }
+
+    @AfterEach
+    void tearDown() { translationExecutor.shutdown(); }
+
+    @Test
+    void resultsComeInTheOrderOfTheIds() throws Exception {
+        List<String> results = translationExecutor.resolveAll(Arrays.asList("slow", "fast"), id -> {
+            if(id.equals("slow"))
+                Thread.sleep(50);
+            return id.toUpperCase();
+        });
+
+        assertEquals(Arrays.asList("SLOW", "FAST"), results);
+    }
+
+    @Test
+    void firstFailureCancelsTheSiblings() {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("vnfd missing");
+
+        ExecutionException e = assertTimeoutPreemptively(Duration.ofSeconds(2), () ->
+                assertThrows(ExecutionException.class, () -> translationExecutor.resolveAll(
+                        Arrays.asList("slow", "failing"), id -> {
+                            if(id.equals("failing"))
+                                throw failure;
+                            try {
+                                Thread.sleep(10_000);
+                            } catch(InterruptedException cancelled) {
+                                interrupted.countDown();
+                                throw cancelled;
+                            }
+                            return id;
+                        })));
+
+        assertSame(failure, e.getCause());
+        assertTimeoutPreemptively(Duration.ofSeconds(2), () -> interrupted.await());
+    }
+
+    // Every worker is taken by the outer fan-out, so a nested one queued on the same pool would never run.
+    @Test
+    void nestedFanOutsRunInlineOnTheWorker() {
+        Set<String> nestedThreads = ConcurrentHashMap.newKeySet();
+
+        List<List<String>> results = assertTimeoutPreemptively(Duration.ofSeconds(2), () ->
+                translationExecutor.resolveAll(Arrays.asList("ns-1", "ns-2"), ns -> {
+                    String worker = Thread.currentThread().getName();
+                    return translationExecutor.resolveAll(Arrays.asList(ns + "/vnf-1", ns + "/vnf-2"), vnf -> {
+                        nestedThreads.add(worker + "=" + Thread.currentThread().getName());
+                        return vnf;
+                    });
+                }));
+
+        assertEquals(Arrays.asList("ns-1/vnf-1", "ns-1/vnf-2"), results.get(0));
+        assertEquals(Arrays.asList("ns-2/vnf-1", "ns-2/vnf-2"), results.get(1));
+        assertFalse(nestedThreads.isEmpty());
+        for(String pair : nestedThreads) {
+            String[] threads = pair.split("=");
+            assertEquals(threads[0], threads[1]);
+        }
+    }
+
+    @Test
+    void bulkFanOutsRunOnTheBulkPoolInTheBulkLane() throws Exception {
+        Set<String> workers = ConcurrentHashMap.newKeySet();
+        Set<Lane> lanes = ConcurrentHashMap.newKeySet();
+
+        Lane previous = PriorityLanes.enter(Lane.BULK);
+        try {
+            translationExecutor.resolveAll(Arrays.asList("vnf-1", "vnf-2"), id -> {
+                workers.add(Thread.currentThread().getName());
+                lanes.add(PriorityLanes.current());
+                return id;
+            });
+        } finally {
+            PriorityLanes.restore(previous);
+        }
+
+        assertEquals(Collections.singleton(Lane.BULK), lanes);
+        for(String worker : workers)
+            assertTrue(worker.startsWith("translation-bulk-"), worker);
+    }
+}
@@ -0,0 +1,166 @@
+package it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services;
+
+import it.nextworks.nfvmano.libs.descriptors.sol006.Nsd;
+import it.nextworks.sol006_tmf_translator.information_models.commons.Pair;
+import it.nextworks.sol006_tmf_translator.information_models.commons.enums.Kind;
+import it.nextworks.sol006_tmf_translator.information_models.commons.enums.PresenceStatus;
+import it.nextworks.sol006_tmf_translator.information_models.persistence.MappingInfo;
+import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.commons.exception.MalformattedElementException;
+import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.repo.MappingInfoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TranslationPlannerTest {
+
+    private final TranslationService translationService = mock(TranslationService.class);
+
+    private final MappingInfoService mappingInfoService = mock(MappingInfoService.class);
+
+    private final TranslationExecutor translationExecutor = new TranslationExecutor();
+
+    private final TranslationPlanner translationPlanner =
+            new TranslationPlanner(translationService, mappingInfoService, translationExecutor);
+
+    // Statuses by node key, anything else has not been translated.
+    private final Map<String, PresenceStatus> statuses = new HashMap<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ReflectionTestUtils.setField(translationExecutor, "threads", 2);
+        ReflectionTestUtils.setField(translationExecutor, "queueCapacity", 16);
+        ReflectionTestUtils.setField(translationExecutor, "bulkThreads", 1);
+        translationExecutor.init();
+
+        when(mappingInfoService.verifyByKind(anyList(), anyBoolean())).thenAnswer(invocation -> {
+            Map<String, PresenceStatus> verified = new LinkedHashMap<>();
+            for(Pair<Kind, String> descriptor : (List<Pair<Kind, String>>) invocation.getArgument(0)) {
+                String key = MappingInfoService.key(descriptor.getFirst(), descriptor.getSecond());
+                verified.put(key, statuses.getOrDefault(key, PresenceStatus.NOT_TRANSLATED));
+            }
+            return verified;
+        });
+    }
+
+    @AfterEach
+    void tearDown() { translationExecutor.shutdown(); }
+
+    private Nsd nsd(String id, List<String> vnfdIds, List<String> nestedNsdIds) {
+        Nsd nsd = new Nsd();
+        nsd.setId(id);
+        nsd.setVnfdId(vnfdIds);
+        nsd.setNestedNsdId(nestedNsdIds);
+        return nsd;
+    }
+
+    private static TranslationPlanner.Node node(TranslationPlanner.Plan plan, String key) {
+        for(TranslationPlanner.Node node : plan.getNodes())
+            if(node.getKey().equals(key))
+                return node;
+        throw new AssertionError(key + " not planned");
+    }
+
+    @Test
+    void sharedConstituentsArePlannedOnceLeavesFirst() throws Exception {
+        when(translationService.getNsdFromSource("ns-b"))
+                .thenReturn(nsd("ns-b", Arrays.asList("vnf-1", "vnf-2"), null));
+
+        TranslationPlanner.Plan plan = translationPlanner.plan(
+                nsd("ns-a", Collections.singletonList("vnf-1"), Collections.singletonList("ns-b")));
+
+        assertEquals("NS:ns-a", plan.getRoot());
+        assertEquals(4, plan.getNodes().size());
+        assertEquals(Arrays.asList(
+                Arrays.asList("VNF:vnf-1", "VNF:vnf-2"),
+                Collections.singletonList("NS:ns-b"),
+                Collections.singletonList("NS:ns-a")), plan.getLevels());
+        assertEquals(Arrays.asList("VNF:vnf-1", "NS:ns-b"), node(plan, "NS:ns-a").getDependencies());
+        assertEquals(Arrays.asList("VNF:vnf-1", "NS:ns-b", "NS:ns-a"), plan.getCriticalPath());
+        verify(translationService, times(1)).getNsdFromSource("ns-b");
+    }
+
+    // A nested nsd already in the Offer Catalog is neither fetched nor translated, nor are its constituents.
+    @Test
+    void presentDescriptorsAreLeftOutOfTheLevels() throws Exception {
+        statuses.put("VNF:vnf-1", PresenceStatus.PRESENT);
+        statuses.put("NS:ns-b", PresenceStatus.PRESENT);
+
+        TranslationPlanner.Plan plan = translationPlanner.plan(
+                nsd("ns-a", Arrays.asList("vnf-1", "vnf-2"), Collections.singletonList("ns-b")));
+
+        assertEquals(Arrays.asList(
+                Collections.singletonList("VNF:vnf-2"),
+                Collections.singletonList("NS:ns-a")), plan.getLevels());
+        assertEquals(1, node(plan, "NS:ns-a").getLevel());
+        verify(translationService, never()).getNsdFromSource(anyString());
+    }
+
+    // The same descriptor id used by two kinds makes two nodes with a status each.
+    @Test
+    void statusesAreKeptPerKind() throws Exception {
+        statuses.put("NS:shared", PresenceStatus.PRESENT);
+
+        TranslationPlanner.Plan plan = translationPlanner.plan(
+                nsd("ns-a", Collections.singletonList("shared"), Collections.singletonList("shared")));
+
+        assertEquals(PresenceStatus.NOT_TRANSLATED, node(plan, "VNF:shared").getStatus());
+        assertEquals(PresenceStatus.PRESENT, node(plan, "NS:shared").getStatus());
+        assertEquals(Collections.singletonList("VNF:shared"), plan.getLevels().get(0));
+    }
+
+    @Test
+    void cyclicNestedNsdsAreRejected() throws Exception {
+        when(translationService.getNsdFromSource("ns-b"))
+                .thenReturn(nsd("ns-b", null, Collections.singletonList("ns-c")));
+        when(translationService.getNsdFromSource("ns-c"))
+                .thenReturn(nsd("ns-c", null, Collections.singletonList("ns-b")));
+
+        MalformattedElementException e = assertThrows(MalformattedElementException.class, () ->
+                translationPlanner.plan(nsd("ns-a", null, Collections.singletonList("ns-b"))));
+
+        assertTrue(e.getMessage().startsWith("Cyclic nested nsd reference"), e.getMessage());
+    }
+
+    // Mapping info is keyed by descriptor id only, so an entry recorded as another kind does not make it present.
+    @Test
+    void descriptorRecordedAsAnotherKindIsNotTranslated() {
+        MappingInfoRepository mappingInfoRepository = mock(MappingInfoRepository.class);
+        TranslatorCatalogInteractionService translatorCatalogInteractionService =
+                mock(TranslatorCatalogInteractionService.class);
+        List<MappingInfo> mappingInfos =
+                Collections.singletonList(new MappingInfo("shared", "rc-1", "rs-1", Kind.VNF));
+        when(mappingInfoRepository.findAllById(Arrays.asList("shared", "pnf"))).thenReturn(mappingInfos);
+        when(translatorCatalogInteractionService.verify(mappingInfos, true))
+                .thenReturn(Collections.singletonMap("shared", PresenceStatus.PRESENT));
+
+        Map<String, PresenceStatus> verified = new MappingInfoService(mappingInfoRepository,
+                translatorCatalogInteractionService, mock(PresenceCache.class)).verifyByKind(Arrays.asList(
+                        new Pair<>(Kind.VNF, "shared"), new Pair<>(Kind.NS, "shared"), new Pair<>(Kind.PNF, "pnf")),
+                true);
+
+        assertEquals(PresenceStatus.PRESENT, verified.get("VNF:shared"));
+        assertEquals(PresenceStatus.NOT_TRANSLATED, verified.get("NS:shared"));
+        assertEquals(PresenceStatus.NOT_TRANSLATED, verified.get("PNF:pnf"));
+    }
+}
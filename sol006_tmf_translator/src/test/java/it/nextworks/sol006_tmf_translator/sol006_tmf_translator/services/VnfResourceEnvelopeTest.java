@@ -0,0 +1,77 @@
+package it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import it.nextworks.nfvmano.libs.descriptors.sol006.Vnfd;
+import it.nextworks.sol006_tmf_translator.information_models.persistence.RequirementSummary;
+import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.commons.exception.MalformattedElementException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Per instance, vdu web takes 2 vCPU, 4 GB of memory and 10 GB of storage, vdu db 4 vCPU, 8 GB and 30 GB.
+class VnfResourceEnvelopeTest {
+
+    static Vnfd vnfd(String name) throws IOException {
+        try(InputStream descriptor = VnfResourceEnvelopeTest.class.getResourceAsStream("/vnfd/" + name)) {
+            return new ObjectMapper(new YAMLFactory()).readValue(descriptor, Vnfd.class);
+        }
+    }
+
+    private static RequirementSummary envelope(String name) throws IOException, MalformattedElementException {
+        return VnfResourceEnvelope.of(VnfdIndex.of(vnfd(name)));
+    }
+
+    private static void assertEnvelope(RequirementSummary summary, int minCpu, int maxCpu, double minMemory,
+                                       double maxMemory, int minStorage, int maxStorage) {
+        assertEquals(minCpu, summary.getMinCpu());
+        assertEquals(maxCpu, summary.getMaxCpu());
+        assertEquals(minMemory, summary.getMinMemory(), 0.0);
+        assertEquals(maxMemory, summary.getMaxMemory(), 0.0);
+        assertEquals(minStorage, summary.getMinStorage());
+        assertEquals(maxStorage, summary.getMaxStorage());
+    }
+
+    // Level large (2 web, 1 db) starts web-aspect at scale level 1: steps 1 and 2 add two-web each.
+    @Test
+    void scalesAspectFromInstantiationLevelThroughStepDeltas() throws Exception {
+        assertEnvelope(envelope("step_deltas.yaml"), 8, 16, 16.0, 32.0, 50, 90);
+    }
+
+    // Level small (1 web, 1 db) scales out by one-web + 2 two-web, then vdu profiles cap at 4 web and 1 db.
+    @Test
+    void capsScaleOutAtVduProfileMaxInstances() throws Exception {
+        assertEnvelope(envelope("vdu_profile_ceiling.yaml"), 6, 12, 12.0, 24.0, 40, 70);
+    }
+
+    // Same flavour with a profile for web only: db is unbounded, so the profiles cap nothing.
+    @Test
+    void ignoresVduProfilesNotCoveringEveryVdu() throws Exception {
+        assertEnvelope(envelope("partial_vdu_profile.yaml"), 6, 16, 12.0, 32.0, 40, 90);
+    }
+
+    // Without step-deltas every step of the aspect applies its first delta.
+    @Test
+    void repeatsFirstDeltaForUniformAspect() throws Exception {
+        assertEnvelope(envelope("uniform_delta.yaml"), 6, 10, 12.0, 20.0, 40, 60);
+    }
+
+    @Test
+    void rejectsStepDeltaNotDeclared() {
+        MalformattedElementException e = assertThrows(MalformattedElementException.class,
+                () -> envelope("missing_step_delta.yaml"));
+        assertEquals("Cannot infer vnf requirements due to missing delta three-web for scaling aspect web-aspect",
+                e.getMessage());
+    }
+
+    @Test
+    void rejectsMalformedInstanceCount() {
+        MalformattedElementException e = assertThrows(MalformattedElementException.class,
+                () -> envelope("malformed_count.yaml"));
+        assertEquals("Cannot infer vnf requirements due to malformed number-of-instances two", e.getMessage());
+    }
+}
@@ -0,0 +1,138 @@
+package it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services;
+
+import it.nextworks.nfvmano.libs.descriptors.sol006.*;
+import it.nextworks.sol006_tmf_translator.information_models.persistence.RequirementSummary;
+import it.nextworks.sol006_tmf_translator.sol006_tmf_translator.commons.exception.MalformattedElementException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static it.nextworks.sol006_tmf_translator.sol006_tmf_translator.services.VnfResourceEnvelopeTest.vnfd;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Every vdu level of these fixtures has a single instance and no flavour scales, so the envelope is the plain
+// min/max over the instantiation levels that TranslatorEngine computed with nested scans before VnfdIndex.
+class VnfdIndexTest {
+
+    private static <T> T scan(List<T> elements, Function<T, String> id, String wanted, String message)
+            throws MalformattedElementException {
+        List<T> found = elements.stream().filter(element -> id.apply(element).equals(wanted)).collect(Collectors.toList());
+        if(found.size() != 1)
+            throw new MalformattedElementException(message);
+        return found.get(0);
+    }
+
+    // The requirement computation as it was before VnfdIndex.
+    static RequirementSummary nestedScans(Vnfd vnfd) throws MalformattedElementException {
+        int minCpu = Integer.MAX_VALUE;
+        int maxCpu = Integer.MIN_VALUE;
+        double minMemory = Double.POSITIVE_INFINITY;
+        double maxMemory = Double.NEGATIVE_INFINITY;
+        int minStorage = Integer.MAX_VALUE;
+        int maxStorage = Integer.MIN_VALUE;
+
+        for(VnfdDf vnfdDf : vnfd.getDf()) {
+            for(VnfdInstantiationlevel vnfdInstantiationlevel : vnfdDf.getInstantiationLevel()) {
+                int cpu = 0;
+                double memory = 0.0;
+                int storage = 0;
+
+                for(VnfdVdulevel vdulevel : vnfdInstantiationlevel.getVduLevel()) {
+                    String vduId = vdulevel.getVduId();
+                    VnfdVdu vdu = scan(vnfd.getVdu(), VnfdVdu::getId, vduId,
+                            "Cannot infer vnf requirements due to missing/multiple vdu for id " + vduId);
+
+                    if(vdu.getVirtualComputeDesc() != null) {
+                        VnfdVirtualcomputedesc virtualcomputedesc = scan(vnfd.getVirtualComputeDesc(),
+                                VnfdVirtualcomputedesc::getId, vdu.getVirtualComputeDesc(),
+                                "Cannot infer vnf requirements due to missing/multiple virtual compute desc");
+                        cpu += Integer.parseInt(virtualcomputedesc.getVirtualCpu().getNumVirtualCpu());
+                        memory += virtualcomputedesc.getVirtualMemory().getSize();
+                    }
+
+                    if(vdu.getVirtualStorageDesc() != null) {
+                        for(String virtualStorageDescId : vdu.getVirtualStorageDesc())
+                            storage += Integer.parseInt(scan(vnfd.getVirtualStorageDesc(), VnfdVirtualstoragedesc::getId,
+                                    virtualStorageDescId, "Cannot infer vnf requirements due to missing/multiple virtual storage")
+                                    .getSizeOfStorage());
+                    }
+                }
+
+                minCpu = Math.min(minCpu, cpu);
+                maxCpu = Math.max(maxCpu, cpu);
+                minMemory = Math.min(minMemory, memory);
+                maxMemory = Math.max(maxMemory, memory);
+                minStorage = Math.min(minStorage, storage);
+                maxStorage = Math.max(maxStorage, storage);
+            }
+        }
+
+        return new RequirementSummary(minCpu, maxCpu, minMemory, maxMemory, minStorage, maxStorage);
+    }
+
+    private static void assertSameFailure(String name, String message) throws Exception {
+        Vnfd vnfd = vnfd(name);
+        MalformattedElementException expected = assertThrows(MalformattedElementException.class, () -> nestedScans(vnfd));
+        MalformattedElementException actual = assertThrows(MalformattedElementException.class,
+                () -> VnfResourceEnvelope.of(VnfdIndex.of(vnfd)));
+        assertEquals(message, expected.getMessage());
+        assertEquals(message, actual.getMessage());
+    }
+
+    @Test
+    void matchesNestedScansOnMultiVduDescriptor() throws Exception {
+        Vnfd vnfd = vnfd("multi_vdu.yaml");
+        RequirementSummary expected = nestedScans(vnfd);
+        RequirementSummary actual = VnfResourceEnvelope.of(VnfdIndex.of(vnfd));
+
+        assertEquals(6, expected.getMinCpu());
+        assertEquals(10, expected.getMaxCpu());
+        assertEquals(expected.getMinCpu(), actual.getMinCpu());
+        assertEquals(expected.getMaxCpu(), actual.getMaxCpu());
+        assertEquals(expected.getMinMemory(), actual.getMinMemory(), 0.0);
+        assertEquals(expected.getMaxMemory(), actual.getMaxMemory(), 0.0);
+        assertEquals(expected.getMinStorage(), actual.getMinStorage());
+        assertEquals(expected.getMaxStorage(), actual.getMaxStorage());
+    }
+
+    @Test
+    void looksUpTheElementsScansFind() throws Exception {
+        Vnfd vnfd = vnfd("multi_vdu.yaml");
+        VnfdIndex vnfdIndex = VnfdIndex.of(vnfd);
+
+        for(VnfdVdu vdu : vnfd.getVdu())
+            assertSame(vdu, vnfdIndex.vdu(vdu.getId()));
+        for(VnfdVirtualcomputedesc virtualcomputedesc : vnfd.getVirtualComputeDesc())
+            assertSame(virtualcomputedesc, vnfdIndex.virtualComputeDesc(virtualcomputedesc.getId()));
+        for(VnfdVirtualstoragedesc virtualstoragedesc : vnfd.getVirtualStorageDesc())
+            assertSame(virtualstoragedesc, vnfdIndex.virtualStorageDesc(virtualstoragedesc.getId()));
+    }
+
+    @Test
+    void rejectsDuplicatedVduLikeNestedScans() throws Exception {
+        assertSameFailure("duplicate_vdu.yaml",
+                "Cannot infer vnf requirements due to missing/multiple vdu for id db");
+    }
+
+    @Test
+    void rejectsMissingVduLikeNestedScans() throws Exception {
+        assertSameFailure("missing_vdu.yaml",
+                "Cannot infer vnf requirements due to missing/multiple vdu for id db");
+    }
+
+    @Test
+    void rejectsMissingComputeDescLikeNestedScans() throws Exception {
+        assertSameFailure("missing_compute_desc.yaml",
+                "Cannot infer vnf requirements due to missing/multiple virtual compute desc");
+    }
+
+    @Test
+    void rejectsDuplicatedStorageDescLikeNestedScans() throws Exception {
+        assertSameFailure("duplicate_storage_desc.yaml",
+                "Cannot infer vnf requirements due to missing/multiple virtual storage");
+    }
+}